@@ -0,0 +1,202 @@
+package no.ntnu.learniverseconnect.benchmarks;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Fills the database with a synthetic course catalog for the benchmarks.
+ *
+ * <p>Rows are written with batched JDBC inserts rather than through JPA, since identity keys
+ * disable Hibernate's insert batching and a million enrollments would take minutes. The data
+ * is generated from a fixed seed, so every run sees the same catalog.</p>
+ */
+public final class CatalogGenerator {
+
+  /**
+   * Categories courses are spread over.
+   */
+  public static final String[] CATEGORIES = {"IT", "Math", "Science", "Business", "Language",
+      "Design"};
+
+  private static final String[] SUBJECTS = {"Java", "Python", "Kubernetes", "Azure", "Statistics",
+      "Calculus", "Physics", "Marketing", "Accounting", "Spanish", "Typography", "Networking",
+      "Databases", "Security", "Chemistry", "Leadership"};
+  private static final String[] LEVELS = {"Basics", "Fundamentals", "in Practice", "Advanced",
+      "Masterclass", "for Beginners"};
+  private static final String[] TABLES = {"course_provider", "user", "course", "keywords",
+      "offerable_courses", "review", "user_course"};
+  private static final String[] KEYWORDS = {"cloud", "programming", "analysis", "design",
+      "management", "theory", "lab", "certification", "exam", "project"};
+
+  /**
+   * The number of users, with ids from 1.
+   */
+  public static final int USERS = 10_000;
+
+  private static final int BATCH_SIZE = 10_000;
+  private static final int PROVIDERS = 20;
+  private static final long DAY = 24L * 60 * 60 * 1000;
+
+  /**
+   * The start date offers are spread out from, in epoch milliseconds.
+   */
+  public static final long START = 1_750_000_000_000L;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final Random random = new Random(42);
+
+  /**
+   * Constructor for CatalogGenerator.
+   *
+   * @param jdbcTemplate the template the rows are inserted with
+   */
+  public CatalogGenerator(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Generates the catalog.
+   *
+   * @param courses              the number of courses
+   * @param offersPerCourse      the number of offers of every course
+   * @param enrollmentsPerCourse the number of reviewed enrollments of every course
+   */
+  public void generate(int courses, int offersPerCourse, int enrollmentsPerCourse) {
+    insertProviders();
+    insertUsers();
+    insertCourses(courses);
+    insertOffers(courses, offersPerCourse);
+    insertEnrollments(courses, enrollmentsPerCourse);
+    restartIdentities();
+  }
+
+  /**
+   * Moves the identity of every table past the ids inserted above, which the database does
+   * not do by itself, so that rows saved by the application get fresh ids.
+   */
+  private void restartIdentities() {
+    for (String table : TABLES) {
+      Long next = jdbcTemplate.queryForObject(
+          "SELECT COALESCE(MAX(\"id\"), 0) + 1 FROM \"" + table + "\"", Long.class);
+      jdbcTemplate.execute("ALTER TABLE \"" + table + "\" ALTER COLUMN \"id\" RESTART WITH "
+          + next);
+    }
+  }
+
+  private void insertProviders() {
+    List<Object[]> rows = new ArrayList<>();
+    for (long id = 1; id <= PROVIDERS; id++) {
+      rows.add(new Object[] {id, "Provider " + id});
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO \"course_provider\" (\"id\", \"name\") VALUES (?, ?)",
+        rows);
+  }
+
+  private void insertUsers() {
+    Batch batch = new Batch("INSERT INTO \"user\" (\"id\", \"active\", \"email\", \"name\")"
+        + " VALUES (?, TRUE, ?, ?)");
+    for (long id = 1; id <= USERS; id++) {
+      batch.add(id, "user" + id + "@example.com", "User " + id);
+    }
+    batch.flush();
+  }
+
+  private void insertCourses(int courses) {
+    Batch courseBatch = new Batch("INSERT INTO \"course\" (\"id\", \"title\", \"description\","
+        + " \"category\", \"diff_level\", \"credits\", \"hours_week\") VALUES (?, ?, ?, ?, ?, ?, ?)");
+    Batch keywordBatch = new Batch("INSERT INTO \"keywords\" (\"id\", \"keyword\", \"course_id\")"
+        + " VALUES (?, ?, ?)", courseBatch);
+    long keywordId = 1;
+    for (long id = 1; id <= courses; id++) {
+      String subject = SUBJECTS[random.nextInt(SUBJECTS.length)];
+      String title = subject + " " + LEVELS[random.nextInt(LEVELS.length)] + " " + id;
+      String description = "Learn " + subject.toLowerCase() + " through "
+          + KEYWORDS[random.nextInt(KEYWORDS.length)] + " and "
+          + KEYWORDS[random.nextInt(KEYWORDS.length)] + " in a course of " + (id % 12 + 1)
+          + " weeks.";
+      courseBatch.add(id, title, description, CATEGORIES[random.nextInt(CATEGORIES.length)],
+          1 + random.nextInt(5), 2.5f * (1 + random.nextInt(8)), 2 + random.nextInt(20));
+      for (int k = 0; k < 3; k++) {
+        keywordBatch.add(keywordId++, KEYWORDS[random.nextInt(KEYWORDS.length)], id);
+      }
+    }
+    keywordBatch.flush();
+  }
+
+  private void insertOffers(int courses, int offersPerCourse) {
+    Batch batch = new Batch("INSERT INTO \"offerable_courses\" (\"id\", \"course_id\","
+        + " \"provider_id\", \"date\", \"price\", \"discount\", \"visibility\")"
+        + " VALUES (?, ?, ?, ?, ?, ?, ?)");
+    float[] discounts = {0f, 0f, 0.1f, 0.25f};
+    long id = 1;
+    for (long courseId = 1; courseId <= courses; courseId++) {
+      for (int i = 0; i < offersPerCourse; i++) {
+        batch.add(id++, courseId, 1 + random.nextInt(PROVIDERS),
+            new Date(START + random.nextInt(365) * DAY), 100f * (1 + random.nextInt(200)),
+            discounts[random.nextInt(discounts.length)], random.nextInt(10) != 0);
+      }
+    }
+    batch.flush();
+  }
+
+  private void insertEnrollments(int courses, int enrollmentsPerCourse) {
+    Batch reviewBatch = new Batch("INSERT INTO \"review\" (\"id\", \"rating\", \"title\")"
+        + " VALUES (?, ?, ?)");
+    Batch enrollmentBatch = new Batch("INSERT INTO \"user_course\" (\"id\", \"course_id\","
+        + " \"user_id\", \"review_id\", \"timestamp\") VALUES (?, ?, ?, ?, ?)", reviewBatch);
+    long id = 1;
+    for (long courseId = 1; courseId <= courses; courseId++) {
+      // Skew ratings per course so rating filters and sorts see a spread of averages
+      int bias = random.nextInt(3);
+      for (int i = 0; i < enrollmentsPerCourse; i++) {
+        int rating = Math.min(5, 1 + bias + random.nextInt(3));
+        reviewBatch.add(id, rating, "Review " + id);
+        enrollmentBatch.add(id, courseId, 1 + random.nextInt(USERS), id,
+            new Timestamp(START - random.nextInt(365) * DAY));
+        id++;
+      }
+    }
+    enrollmentBatch.flush();
+  }
+
+  /**
+   * Rows waiting to be inserted with one statement. A batch referencing the rows of another
+   * batch flushes that batch first, so foreign keys are satisfied.
+   */
+  private final class Batch {
+
+    private final String sql;
+    private final Batch referenced;
+    private final List<Object[]> rows = new ArrayList<>();
+
+    Batch(String sql) {
+      this(sql, null);
+    }
+
+    Batch(String sql, Batch referenced) {
+      this.sql = sql;
+      this.referenced = referenced;
+    }
+
+    void add(Object... row) {
+      rows.add(row);
+      if (rows.size() >= BATCH_SIZE) {
+        flush();
+      }
+    }
+
+    void flush() {
+      if (referenced != null) {
+        referenced.flush();
+      }
+      if (!rows.isEmpty()) {
+        jdbcTemplate.batchUpdate(sql, rows);
+        rows.clear();
+      }
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package no.ntnu.learniverseconnect.benchmarks;
+
+import no.ntnu.learniverseconnect.LearniverseConnectApplication;
+import no.ntnu.learniverseconnect.services.BestOfferIndex;
+import no.ntnu.learniverseconnect.services.CourseRatingService;
+import no.ntnu.learniverseconnect.services.CourseSearchIndex;
+import no.ntnu.learniverseconnect.services.OfferFilterEngine;
+import no.ntnu.learniverseconnect.services.SuggestionIndex;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The application running against an embedded H2 database filled with a synthetic catalog.
+ *
+ * <p>The defaults give 10k courses, 100k offers and 1M reviewed enrollments. Pass smaller
+ * values with {@code -p courses=1000} and friends for a quick run.</p>
+ */
+@State(Scope.Benchmark)
+public class CatalogState {
+
+  @Param("10000")
+  public int courses;
+
+  @Param("10")
+  public int offersPerCourse;
+
+  @Param("100")
+  public int enrollmentsPerCourse;
+
+  private ConfigurableApplicationContext context;
+
+  /**
+   * Starts the application, generates the catalog and loads the in-memory indexes from it.
+   */
+  @Setup(Level.Trial)
+  public void start() {
+    context = new SpringApplicationBuilder(LearniverseConnectApplication.class)
+        // The security configuration needs a servlet context; port 0 picks a free port
+        .web(WebApplicationType.SERVLET)
+        // Passed as arguments so that they override application.properties
+        .run("--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.jpa.hibernate.ddl-auto=create",
+            "--spring.jpa.show-sql=false",
+            "--spring.jpa.properties.hibernate.globally_quoted_identifiers=true",
+            "--spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + StatementCounter.class.getName(),
+            "--spring.docker.compose.enabled=false",
+            "--jwt.secret.key=benchmark-secret-key-benchmark-secret-key-benchmark-secret-key",
+            "--logging.level.root=WARN");
+
+    new CatalogGenerator(bean(JdbcTemplate.class))
+        .generate(courses, offersPerCourse, enrollmentsPerCourse);
+    bean(CourseRatingService.class).rebuild();
+    bean(CourseSearchIndex.class).rebuild();
+    bean(BestOfferIndex.class).rebuild();
+    bean(OfferFilterEngine.class).rebuild();
+    bean(SuggestionIndex.class).rebuild();
+  }
+
+  /**
+   * Stops the application and drops the database.
+   */
+  @TearDown(Level.Trial)
+  public void stop() {
+    context.close();
+  }
+
+  /**
+   * Gets a bean of the running application.
+   *
+   * @param type the bean type
+   * @param <T>  the bean type
+   * @return the bean
+   */
+  public <T> T bean(Class<T> type) {
+    return context.getBean(type);
+  }
+}
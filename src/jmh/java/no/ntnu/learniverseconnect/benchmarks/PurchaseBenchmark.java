@@ -0,0 +1,189 @@
+package no.ntnu.learniverseconnect.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.model.entities.Transaction;
+import no.ntnu.learniverseconnect.model.entities.User;
+import no.ntnu.learniverseconnect.model.entities.UserCourse;
+import no.ntnu.learniverseconnect.model.repos.CourseRepo;
+import no.ntnu.learniverseconnect.model.repos.OfferableCoursesRepo;
+import no.ntnu.learniverseconnect.model.repos.TransactionRepo;
+import no.ntnu.learniverseconnect.model.repos.UserCoursesRepo;
+import no.ntnu.learniverseconnect.model.repos.UserRepo;
+import no.ntnu.learniverseconnect.services.LiveRevenueWindow;
+import no.ntnu.learniverseconnect.services.PurchaseService;
+import no.ntnu.learniverseconnect.services.RevenueRollupService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Benchmarks buying a course, old and new, from several threads at once.
+ *
+ * <p>Every benchmark reports purchase throughput, together with the {@code statements} and
+ * {@code purchases} counted during each iteration. Divide the two for the statements per
+ * purchase. Run with {@code -t} to change the number of threads.</p>
+ *
+ * <ul>
+ *   <li>{@code legacyPurchase}: the repository calls the purchase endpoint used to make, in one
+ *   transaction. It loads the offer, the user twice and the course, checks for and loads the
+ *   enrollment, and checks that the enrollment was saved.</li>
+ *   <li>{@code purchase}: the purchase service, one read and reference proxies.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class PurchaseBenchmark {
+
+  /**
+   * The buyers and offers purchases are drawn from.
+   */
+  @State(Scope.Benchmark)
+  public static class Buyers {
+
+    /**
+     * Spread draws from every user and offer, so most purchases enroll a user for the first
+     * time. Few draws from ten users and ten offers, each pair bought once up front, so every
+     * purchase is a repeat.
+     */
+    @Param({"spread", "few"})
+    public String buyers;
+
+    int users;
+    int offers;
+
+    /**
+     * Sizes the draw, and makes the first purchases of the few.
+     *
+     * @param catalog the running application
+     */
+    @Setup(Level.Trial)
+    public void prepare(CatalogState catalog) {
+      boolean few = buyers.equals("few");
+      users = few ? 10 : CatalogGenerator.USERS;
+      offers = few ? 10 : catalog.courses * catalog.offersPerCourse;
+      if (few) {
+        for (long user = 1; user <= users; user++) {
+          for (long offer = 1; offer <= offers; offer++) {
+            catalog.bean(PurchaseService.class).purchase(offer, user);
+          }
+        }
+      }
+    }
+
+    long nextUser() {
+      return 1 + ThreadLocalRandom.current().nextInt(users);
+    }
+
+    long nextOffer() {
+      return 1 + ThreadLocalRandom.current().nextInt(offers);
+    }
+  }
+
+  /**
+   * The statements and purchases made by one thread during an iteration.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Counters {
+
+    public long statements;
+    public long purchases;
+
+    /**
+     * Resets the counters.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+      StatementCounter.take();
+      statements = 0;
+      purchases = 0;
+    }
+
+    void purchased() {
+      statements += StatementCounter.take();
+      purchases++;
+    }
+  }
+
+  /**
+   * The transaction the legacy purchase runs in.
+   */
+  @State(Scope.Benchmark)
+  public static class Legacy {
+
+    TransactionTemplate transaction;
+
+    /**
+     * Creates the transaction template.
+     *
+     * @param catalog the running application
+     */
+    @Setup(Level.Trial)
+    public void prepare(CatalogState catalog) {
+      transaction = new TransactionTemplate(catalog.bean(PlatformTransactionManager.class));
+    }
+  }
+
+  @Benchmark
+  public Object purchase(CatalogState catalog, Buyers buyers, Counters counters) {
+    Object transaction = catalog.bean(PurchaseService.class)
+        .purchase(buyers.nextOffer(), buyers.nextUser());
+    counters.purchased();
+    return transaction;
+  }
+
+  @Benchmark
+  public Object legacyPurchase(CatalogState catalog, Buyers buyers, Legacy legacy,
+                               Counters counters) {
+    long offerId = buyers.nextOffer();
+    long userId = buyers.nextUser();
+    Object saved = legacy.transaction.execute(status -> {
+      OfferableCoursesRepo offerableCoursesRepo = catalog.bean(OfferableCoursesRepo.class);
+      UserRepo userRepo = catalog.bean(UserRepo.class);
+      UserCoursesRepo userCoursesRepo = catalog.bean(UserCoursesRepo.class);
+      OfferableCourses offer = offerableCoursesRepo.getOfferableCoursesById(offerId);
+      User user = userRepo.getUsersById(userId);
+      Transaction transaction = new Transaction();
+      transaction.setOfferableCourses(offer);
+      transaction.setUser(user);
+      transaction.setPricePaid(offer.getPrice() * (1 - offer.getDiscount()));
+      catalog.bean(TransactionRepo.class).save(transaction);
+      catalog.bean(RevenueRollupService.class).purchased(transaction);
+      catalog.bean(LiveRevenueWindow.class).purchased(transaction);
+
+      long courseId = offer.getCourse().getId();
+      UserCourse userCourse;
+      if (userCoursesRepo.existsByUser_IdAndCourse_Id(userId, courseId)) {
+        userCourse = userCoursesRepo.getUserCoursesByUser_IdAndCourse_Id(userId, courseId);
+        userCourse.setTimestamp();
+      } else {
+        userCourse = new UserCourse();
+        userCourse.setCourse(catalog.bean(CourseRepo.class).getCoursesById(courseId));
+        userCourse.setUser(userRepo.getUsersById(userId));
+      }
+      userCoursesRepo.save(userCourse);
+      return userCoursesRepo.existsById(userCourse.getId()) ? transaction : null;
+    });
+    counters.purchased();
+    return saved;
+  }
+}
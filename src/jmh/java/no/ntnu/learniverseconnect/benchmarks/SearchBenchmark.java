@@ -0,0 +1,164 @@
+package no.ntnu.learniverseconnect.benchmarks;
+
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasCategory;
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasCreditsBetween;
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasDateBetween;
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasDescription;
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasDiffLevel;
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasPriceBetween;
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasRatingBetween;
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasTitle;
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasVisibility;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import no.ntnu.learniverseconnect.controllers.CourseController;
+import no.ntnu.learniverseconnect.model.dto.CourseWithMinPriceAndRatingDto;
+import no.ntnu.learniverseconnect.model.dto.SearchFilterDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.model.repos.OfferableCoursesRepo;
+import no.ntnu.learniverseconnect.services.BestOfferIndex;
+import no.ntnu.learniverseconnect.services.CourseCardAssembler;
+import no.ntnu.learniverseconnect.services.CourseSearchIndex;
+import no.ntnu.learniverseconnect.services.OfferFilterEngine;
+import no.ntnu.learniverseconnect.services.SearchCacheKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Benchmarks the stages of a course search, old and new, over the synthetic catalog.
+ *
+ * <p>Every benchmark reports throughput and a sampled latency distribution. Run with
+ * {@code -prof gc}, the default of the benchmark profile, to also get the allocation rate.</p>
+ *
+ * <ul>
+ *   <li>{@code specificationChain}: the full {@link Specification} chain the search endpoint
+ *   used to build per request, run against the embedded database.</li>
+ *   <li>{@code groupingByReducer}: the {@code groupingBy} best-offer reducer the search
+ *   endpoint used, over the offers matched by the chain. The per-course rating queries it
+ *   made are left out, so only the reduction is measured.</li>
+ *   <li>{@code assembleCourseCards}: the current reducer, including its one batched rating
+ *   query.</li>
+ *   <li>{@code filterEngine}: the current search path, text index lookup plus in-memory
+ *   filter evaluation.</li>
+ *   <li>{@code courseCards}: the course card endpoint.</li>
+ * </ul>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SearchBenchmark {
+
+  private static final long DAY = 24L * 60 * 60 * 1000;
+
+  /**
+   * The search being run, and the offers its filter chain matches.
+   */
+  @State(Scope.Benchmark)
+  public static class Query {
+
+    /**
+     * Broad matches every visible offer, narrow filters on text, category, difficulty,
+     * price, rating and date.
+     */
+    @Param({"broad", "narrow"})
+    public String shape;
+
+    SearchFilterDto filter;
+    SearchCacheKey key;
+    List<OfferableCourses> matchingOffers;
+
+    /**
+     * Builds the filter and loads the offers it matches.
+     *
+     * @param catalog the running application
+     */
+    @Setup(Level.Trial)
+    public void prepare(CatalogState catalog) {
+      boolean narrow = shape.equals("narrow");
+      filter = new SearchFilterDto(
+          narrow ? List.of(1, 2, 3) : null,
+          narrow ? List.of("IT", "Math") : null,
+          narrow ? "java" : null,
+          new SearchFilterDto.CourseSizeRange(null, null),
+          new SearchFilterDto.RatingRange(narrow ? 3.0 : null, narrow ? 5.0 : null),
+          new SearchFilterDto.PriceRange(narrow ? 500f : null, narrow ? 5000f : null),
+          new SearchFilterDto.DateRange(
+              narrow ? new Date(CatalogGenerator.START) : null,
+              narrow ? new Date(CatalogGenerator.START + 180 * DAY) : null));
+      key = SearchCacheKey.of(filter, false);
+      matchingOffers = catalog.bean(OfferableCoursesRepo.class).findAll(specification(filter));
+    }
+  }
+
+  @Benchmark
+  public List<OfferableCourses> specificationChain(CatalogState catalog, Query query) {
+    return catalog.bean(OfferableCoursesRepo.class).findAll(specification(query.filter));
+  }
+
+  @Benchmark
+  public Map<Course, OfferableCourses> groupingByReducer(Query query) {
+    return query.matchingOffers.stream()
+        .collect(Collectors.groupingBy(
+            OfferableCourses::getCourse,
+            Collectors.collectingAndThen(
+                Collectors.toList(),
+                list -> list.stream()
+                    .min(Comparator.comparingDouble(
+                            (OfferableCourses o) -> o.getPrice() * (1 - o.getDiscount()))
+                        .thenComparing(OfferableCourses::getDate))
+                    .orElseThrow())));
+  }
+
+  @Benchmark
+  public List<CourseWithMinPriceAndRatingDto> assembleCourseCards(CatalogState catalog,
+                                                                  Query query) {
+    return catalog.bean(CourseCardAssembler.class).toCourseCards(query.matchingOffers);
+  }
+
+  @Benchmark
+  public List<BestOfferIndex.BestOffer> filterEngine(CatalogState catalog, Query query) {
+    Map<Long, Float> textMatches =
+        catalog.bean(CourseSearchIndex.class).search(query.filter.getSearchValue());
+    return catalog.bean(OfferFilterEngine.class).findBestOffers(query.key,
+        textMatches != null ? textMatches.keySet() : null);
+  }
+
+  @Benchmark
+  public Object courseCards(CatalogState catalog) {
+    return catalog.bean(CourseController.class).getOfferableCoursesByCourseCard().getBody();
+  }
+
+  private static Specification<OfferableCourses> specification(SearchFilterDto filter) {
+    return hasVisibility(true)
+        .and(hasDiffLevel(filter.getDiffLevels()))
+        .and(hasCategory(filter.getCategories()))
+        .and(hasCreditsBetween(filter.getCourseSizeRange().getMinCredits(),
+            filter.getCourseSizeRange().getMaxCredits()))
+        .and(hasPriceBetween(filter.getPriceRange().getMinPrice(),
+            filter.getPriceRange().getMaxPrice()))
+        .and(hasTitle(filter.getSearchValue()).or(hasDescription(filter.getSearchValue())))
+        .and(hasDateBetween(filter.getDateRange().getStartDate(),
+            filter.getDateRange().getEndDate()))
+        .and(hasRatingBetween(filter.getRatingRange().getMinRating(),
+            filter.getRatingRange().getMaxRating()));
+  }
+}
@@ -0,0 +1,31 @@
+package no.ntnu.learniverseconnect.benchmarks;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares, per thread. Registered as the statement
+ * inspector of the benchmark application, so concurrent benchmark threads count only their
+ * own statements.
+ */
+public class StatementCounter implements StatementInspector {
+
+  private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+  @Override
+  public String inspect(String sql) {
+    COUNT.get()[0]++;
+    return sql;
+  }
+
+  /**
+   * Gets the number of statements prepared by this thread since the last call, and resets it.
+   *
+   * @return the number of statements
+   */
+  public static long take() {
+    long[] count = COUNT.get();
+    long taken = count[0];
+    count[0] = 0;
+    return taken;
+  }
+}
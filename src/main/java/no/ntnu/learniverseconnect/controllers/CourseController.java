@@ -1,24 +1,38 @@
 package no.ntnu.learniverseconnect.controllers;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.transaction.Transactional;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import no.ntnu.learniverseconnect.model.dto.CourseDetailsDto;
+import no.ntnu.learniverseconnect.model.dto.CourseSummaryDto;
 import no.ntnu.learniverseconnect.model.dto.CourseWithMinPriceAndRatingDto;
 import no.ntnu.learniverseconnect.model.entities.Course;
-import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
 import no.ntnu.learniverseconnect.model.repos.CourseRepo;
 import no.ntnu.learniverseconnect.model.repos.KeywordsRepo;
 import no.ntnu.learniverseconnect.model.repos.OfferableCoursesRepo;
 import no.ntnu.learniverseconnect.model.repos.UserCoursesRepo;
 import no.ntnu.learniverseconnect.security.swagger.SecuredEndpoint;
+import no.ntnu.learniverseconnect.services.BestOfferIndex;
+import no.ntnu.learniverseconnect.services.CatalogVersions;
+import no.ntnu.learniverseconnect.services.CatalogVersions.Area;
+import no.ntnu.learniverseconnect.services.CourseCardAssembler;
+import no.ntnu.learniverseconnect.services.CourseDetailsPart;
+import no.ntnu.learniverseconnect.services.CourseDetailsService;
+import no.ntnu.learniverseconnect.services.CourseRatingService;
+import no.ntnu.learniverseconnect.services.CourseSearchIndex;
+import no.ntnu.learniverseconnect.services.EntityCounters;
+import no.ntnu.learniverseconnect.services.IdBatches;
+import no.ntnu.learniverseconnect.services.OfferFilterEngine;
+import no.ntnu.learniverseconnect.services.SearchResultCache;
+import no.ntnu.learniverseconnect.services.SuggestionIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,7 +45,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * The CourseController class is a REST controller that handles HTTP requests related to courses.
@@ -57,26 +73,67 @@ public class CourseController {
   OfferableCoursesRepo offerableCoursesRepo;
   KeywordsRepo keywordsRepo;
   UserCoursesRepo userCoursesRepo;
+  CourseSearchIndex courseSearchIndex;
+  CourseCardAssembler courseCardAssembler;
+  CourseRatingService courseRatingService;
+  BestOfferIndex bestOfferIndex;
+  SearchResultCache searchResultCache;
+  OfferFilterEngine offerFilterEngine;
+  SuggestionIndex suggestionIndex;
+  CourseDetailsService courseDetailsService;
+  CatalogVersions catalogVersions;
+  EntityCounters entityCounters;
 
 
   /**
    * Creates a new instance of the CourseController using JPA black magic.
    *
    * @param repo the course repo interface.
+   * @param courseSearchIndex the text search index, kept current on course changes.
+   * @param courseCardAssembler reduces offers to course cards with ratings.
+   * @param courseRatingService maintains the course rating aggregates.
+   * @param bestOfferIndex the best visible offer of every course.
+   * @param searchResultCache the search result cache, invalidated on course changes.
+   * @param offerFilterEngine the in-memory search filter columns, reloaded on course changes.
+   * @param suggestionIndex the autocomplete index, kept current on course changes.
+   * @param courseDetailsService gathers the course page details.
+   * @param catalogVersions the catalog versions, bumped on course changes.
+   * @param entityCounters the maintained course count.
    */
 
   @Autowired
   public CourseController(CourseRepo repo, OfferableCoursesRepo offerableCoursesRepo,
-                          KeywordsRepo keywordsRepo, UserCoursesRepo userCoursesRepo) {
+                          KeywordsRepo keywordsRepo, UserCoursesRepo userCoursesRepo,
+                          CourseSearchIndex courseSearchIndex,
+                          CourseCardAssembler courseCardAssembler,
+                          CourseRatingService courseRatingService,
+                          BestOfferIndex bestOfferIndex,
+                          SearchResultCache searchResultCache,
+                          OfferFilterEngine offerFilterEngine,
+                          SuggestionIndex suggestionIndex,
+                          CourseDetailsService courseDetailsService,
+                          CatalogVersions catalogVersions,
+                          EntityCounters entityCounters) {
     this.courseRepo = repo;
     this.offerableCoursesRepo = offerableCoursesRepo;
     this.keywordsRepo = keywordsRepo;
     this.userCoursesRepo = userCoursesRepo;
+    this.courseSearchIndex = courseSearchIndex;
+    this.courseCardAssembler = courseCardAssembler;
+    this.courseRatingService = courseRatingService;
+    this.bestOfferIndex = bestOfferIndex;
+    this.searchResultCache = searchResultCache;
+    this.offerFilterEngine = offerFilterEngine;
+    this.suggestionIndex = suggestionIndex;
+    this.courseDetailsService = courseDetailsService;
+    this.catalogVersions = catalogVersions;
+    this.entityCounters = entityCounters;
   }
 
   /**
-   * Returns a list of all courses.
+   * Returns a list of all courses. Answers 304 if the client's copy is still current.
    *
+   * @param request the request, checked for a matching ETag.
    * @return a list of all courses.
    */
   @Operation(summary = "Get all courses",
@@ -84,10 +141,14 @@ public class CourseController {
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200",
           content = @Content(schema = @Schema(implementation = Course.class, type = "array"))),
+      @ApiResponse(responseCode = "304", description = "Courses not modified"),
       @ApiResponse(responseCode = "404", description = "No courses found")
   })
   @GetMapping("/courses")
-  public ResponseEntity<List<Course>> getCourses() {
+  public ResponseEntity<List<Course>> getCourses(WebRequest request) {
+    if (catalogVersions.isNotModified(request, catalogVersions.of(Area.COURSES))) {
+      return ResponseEntity.status(304).build();
+    }
     logger.info("Fetching all courses");
     List<Course> courses = courseRepo.findAll();
     if (courses.isEmpty()) {
@@ -114,13 +175,13 @@ public class CourseController {
   @GetMapping("/courses/total")
   public ResponseEntity<Integer> getCourseTotal() {
     logger.info("Fetching total number of courses");
-    List<Course> totalCourses = courseRepo.findAll();
-    if (totalCourses.isEmpty()) {
+    int totalCourses = (int) entityCounters.getCourseTotal();
+    if (totalCourses == 0) {
       logger.warn("No courses found");
       return ResponseEntity.status(404).body(null);
     } else {
-      logger.info("Found {} courses", totalCourses.size());
-      return ResponseEntity.status(200).body(totalCourses.size());
+      logger.info("Found {} courses", totalCourses);
+      return ResponseEntity.status(200).body(totalCourses);
     }
   }
 
@@ -146,14 +207,22 @@ public class CourseController {
       return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
     }
     logger.info("Adding course: {}", course.getId());
+    boolean created = !courseRepo.existsById(course.getId());
     courseRepo.save(course);
+    if (created) {
+      entityCounters.courseCreated();
+    }
+    courseSearchIndex.updateCourse(course);
+    suggestionIndex.updateCourse(course);
+    catalogVersions.changed(Area.COURSES, course.getId());
     return ResponseEntity.status(HttpStatus.CREATED).body(course);
   }
 
   /**
-   * Returns a course with the given id.
+   * Returns a course with the given id. Answers 304 if the client's copy is still current.
    *
    * @param id the id of the course to return.
+   * @param request the request, checked for a matching ETag.
    * @return the course with the given id.
    */
   @Operation(summary = "Get course by ID",
@@ -161,11 +230,15 @@ public class CourseController {
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200",
           content = @Content(schema = @Schema(implementation = Course.class))),
+      @ApiResponse(responseCode = "304", description = "Course not modified"),
       @ApiResponse(responseCode = "404", description = "Course not found")
   })
 
   @GetMapping("/course/{id}")
-  public ResponseEntity<Course> getCourse(@PathVariable int id) {
+  public ResponseEntity<Course> getCourse(@PathVariable int id, WebRequest request) {
+    if (catalogVersions.isNotModified(request, catalogVersions.of(Area.COURSES, id))) {
+      return ResponseEntity.status(304).build();
+    }
     logger.info("Fetching course with id: {}", id);
     Course course = courseRepo.getCoursesById(id);
     if (course == null) {
@@ -176,6 +249,47 @@ public class CourseController {
     }
   }
 
+  /**
+   * Returns a course with everything its page shows, in one response. The parts are fetched
+   * concurrently.
+   *
+   * @param id      the id of the course to return.
+   * @param include the parts to include: keywords, offers, rating, reviews and favorites. All
+   *                parts are included if none are given.
+   * @return the course with the requested parts, 404 if the course does not exist, or 400 if a
+   *     part is unknown.
+   */
+  @Operation(summary = "Get course page details",
+      description = "Retrieves the course with its keywords, offers, rating, reviews and"
+          + " favorite count in one call")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200",
+          content = @Content(schema = @Schema(implementation = CourseDetailsDto.class))),
+      @ApiResponse(responseCode = "400", description = "Unknown part in include"),
+      @ApiResponse(responseCode = "404", description = "Course not found")
+  })
+  @GetMapping("/course/{id}/full")
+  public ResponseEntity<CourseDetailsDto> getCourseDetails(
+      @PathVariable long id,
+      @Parameter(description = "Parts to include: keywords, offers, rating, reviews, favorites."
+          + " Omit to include all", example = "offers,rating")
+      @RequestParam(required = false) List<String> include) {
+    logger.info("Fetching details of course with id: {}", id);
+    Set<CourseDetailsPart> parts;
+    try {
+      parts = CourseDetailsPart.fromParameter(include);
+    } catch (IllegalArgumentException e) {
+      logger.warn("Invalid course details include: {}", e.getMessage());
+      return ResponseEntity.status(400).body(null);
+    }
+    return courseDetailsService.getDetails(id, parts)
+        .map(details -> ResponseEntity.status(200).body(details))
+        .orElseGet(() -> {
+          logger.warn("Course with id {} not found", id);
+          return ResponseEntity.status(404).body(null);
+        });
+  }
+
   /**
    * Returns the dto's needed to show the course card.
    *
@@ -191,35 +305,12 @@ public class CourseController {
   })
   @GetMapping("/courses/courseCard")
   public ResponseEntity<List<CourseWithMinPriceAndRatingDto>> getOfferableCoursesByCourseCard() {
-    List<OfferableCourses> courses = offerableCoursesRepo.findAllByVisibility(true);
-    List<CourseWithMinPriceAndRatingDto> filteredResult = new ArrayList<>(courses.stream()
-     .collect(Collectors.groupingBy(
-         OfferableCourses::getCourse,
-         Collectors.collectingAndThen(
-             Collectors.toList(),
-             list -> {
-               // Find offer with min discounted price and closest date
-               OfferableCourses bestOffer = list.stream()
-                  .min(Comparator.comparingDouble(
-                                     (OfferableCourses o) -> o.getPrice() * (1 - o.getDiscount()))
-                                 .thenComparing(OfferableCourses::getDate))
-                  .orElseThrow();
-
-               // Calculate average rating (assuming UserCourseRepo is available)
-               Float avgRating =
-                       userCoursesRepo.getAverageRatingByCourseId(bestOffer.getCourse().getId());
-               int numberOfRatings =
-                   userCoursesRepo.countByCourseId(bestOffer.getCourse().getId());
-               return new CourseWithMinPriceAndRatingDto(
-                   bestOffer.getCourse(),
-                   bestOffer.getPrice() * (1 - bestOffer.getDiscount()),
-                   bestOffer.getDate(),
-                   avgRating != null ? avgRating.floatValue() : 0f,
-                   numberOfRatings
-               );
-             }
-         )
-     )).values());
+    Collection<BestOfferIndex.BestOffer> bestOffers = bestOfferIndex.getBestOffers();
+    List<CourseSummaryDto> courses = IdBatches.fetch(
+        bestOffers.stream().map(BestOfferIndex.BestOffer::courseId).toList(),
+        courseRepo::getCourseSummariesByIdIn);
+    List<CourseWithMinPriceAndRatingDto> filteredResult =
+        courseCardAssembler.toCourseCards(bestOffers, courses);
     if (filteredResult.isEmpty()) {
       logger.warn("No courses found");
       return ResponseEntity.status(404).body(null);
@@ -253,7 +344,13 @@ public class CourseController {
     }
     course.setClosestCourse(existingCourse.getClosestCourse());
     course.setCertLink(existingCourse.getCertLink());
-    return ResponseEntity.status(200).body(courseRepo.save(course));
+    Course savedCourse = courseRepo.save(course);
+    courseSearchIndex.updateCourse(savedCourse);
+    suggestionIndex.updateCourse(savedCourse);
+    offerFilterEngine.markStale();
+    searchResultCache.courseChanged(savedCourse);
+    catalogVersions.changed(Area.COURSES, savedCourse.getId());
+    return ResponseEntity.status(200).body(savedCourse);
   }
 
   /**
@@ -279,6 +376,16 @@ public class CourseController {
     }
     keywordsRepo.deleteAllByCourse_Id(id);
     courseRepo.delete(course);
+    entityCounters.courseDeleted();
+    courseSearchIndex.removeCourse(id);
+    suggestionIndex.removeCourse(id);
+    courseRatingService.removeCourse(id);
+    bestOfferIndex.removeCourse(id);
+    offerFilterEngine.markStale();
+    searchResultCache.courseRemoved(id);
+    catalogVersions.changed(Area.COURSES, id);
+    catalogVersions.changed(Area.KEYWORDS, id);
+    catalogVersions.changed(Area.OFFERS);
     return ResponseEntity.status(204).body("Course deleted successfully");
   }
 
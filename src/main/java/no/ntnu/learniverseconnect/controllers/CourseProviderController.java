@@ -11,6 +11,8 @@ import java.util.List;
 import no.ntnu.learniverseconnect.model.entities.CourseProvider;
 import no.ntnu.learniverseconnect.model.repos.CourseProviderRepo;
 import no.ntnu.learniverseconnect.security.swagger.SecuredEndpoint;
+import no.ntnu.learniverseconnect.services.CatalogVersions;
+import no.ntnu.learniverseconnect.services.CatalogVersions.Area;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +24,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * The CourseProviderController class is a REST controller that handles HTTP requests related to
@@ -46,25 +49,38 @@ public class CourseProviderController {
 
   public static final Logger logger = LoggerFactory.getLogger(CourseProviderController.class);
   CourseProviderRepo repo;
+  CatalogVersions catalogVersions;
 
+  /**
+   * Constructor for CourseProviderController.
+   *
+   * @param repo            the course provider repository
+   * @param catalogVersions the catalog versions, bumped on provider changes
+   */
   @Autowired
-  public CourseProviderController(CourseProviderRepo repo) {
+  public CourseProviderController(CourseProviderRepo repo, CatalogVersions catalogVersions) {
     this.repo = repo;
+    this.catalogVersions = catalogVersions;
   }
 
   /**
-   * Returns a list of all course providers.
+   * Returns a list of all course providers. Answers 304 if the client's copy is still current.
    *
+   * @param request the request, checked for a matching ETag.
    * @return a list of all course providers.
    */
   @Operation(summary = "Get all providers",
       description = "Retrieves list of all course providers")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200",
-          content = @Content(schema = @Schema(implementation = CourseProvider.class,type = "array")))
+          content = @Content(schema = @Schema(implementation = CourseProvider.class,type = "array"))),
+      @ApiResponse(responseCode = "304", description = "Providers not modified")
   })
   @GetMapping("/providers")
-  public ResponseEntity<List<CourseProvider>> getProviders() {
+  public ResponseEntity<List<CourseProvider>> getProviders(WebRequest request) {
+    if (catalogVersions.isNotModified(request, catalogVersions.of(Area.PROVIDERS))) {
+      return ResponseEntity.status(304).build();
+    }
     logger.info("Fetching all course providers");
     return ResponseEntity.status(200).body(repo.findAll());
   }
@@ -72,9 +88,11 @@ public class CourseProviderController {
   ;
 
   /**
-   * Returns a course provider with the given id.
+   * Returns a course provider with the given id. Answers 304 if the client's copy is still
+   * current.
    *
    * @param id the id of the course provider to return.
+   * @param request the request, checked for a matching ETag.
    * @return the course provider with the given id.
    */
   @Operation(summary = "Get provider by ID",
@@ -82,10 +100,14 @@ public class CourseProviderController {
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200",
           content = @Content(schema = @Schema(implementation = CourseProvider.class))),
+      @ApiResponse(responseCode = "304", description = "Provider not modified"),
       @ApiResponse(responseCode = "404", description = "Provider not found")
   })
   @GetMapping("/provider/{id}")
-  public ResponseEntity<CourseProvider> getProvider(@PathVariable long id) {
+  public ResponseEntity<CourseProvider> getProvider(@PathVariable long id, WebRequest request) {
+    if (catalogVersions.isNotModified(request, catalogVersions.of(Area.PROVIDERS, id))) {
+      return ResponseEntity.status(304).build();
+    }
     logger.info("Fetching course provider with id: {}", id);
     int status = 200;
     CourseProvider provider = repo.getCourseProviderById(id);
@@ -126,6 +148,7 @@ public class CourseProviderController {
     }
 
     provider = repo.save(provider);
+    catalogVersions.changed(Area.PROVIDERS, provider.getId());
     logger.info("Adding new course provider with id: {}", provider.getId());
     return ResponseEntity.status(HttpStatus.CREATED).body(provider);
   }
@@ -153,6 +176,8 @@ public class CourseProviderController {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
       }
       repo.delete(provider);
+      catalogVersions.changed(Area.PROVIDERS, id);
+      catalogVersions.changed(Area.OFFERS);
       logger.info("Deleted course provider with id: {}", id);
       return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     } catch (EntityNotFoundException e) {
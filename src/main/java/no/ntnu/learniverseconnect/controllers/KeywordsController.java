@@ -6,10 +6,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.transaction.Transactional;
 import java.util.List;
 import no.ntnu.learniverseconnect.model.entities.Keywords;
-import no.ntnu.learniverseconnect.model.repos.CourseRepo;
 import no.ntnu.learniverseconnect.model.repos.KeywordsRepo;
 import no.ntnu.learniverseconnect.model.repos.UserRepo;
 import no.ntnu.learniverseconnect.security.swagger.SecuredEndpoint;
+import no.ntnu.learniverseconnect.services.CatalogVersions;
+import no.ntnu.learniverseconnect.services.CatalogVersions.Area;
+import no.ntnu.learniverseconnect.services.CourseSearchIndex;
+import no.ntnu.learniverseconnect.services.KeywordService;
+import no.ntnu.learniverseconnect.services.SearchResultCache;
+import no.ntnu.learniverseconnect.services.SuggestionIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +25,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * Controller for handling keywords.
@@ -28,24 +34,42 @@ import org.springframework.web.bind.annotation.RestController;
 public class KeywordsController {
   private static final Logger logger = LoggerFactory.getLogger(KeywordsController.class);
   private final KeywordsRepo keywordsRepo;
-  private final CourseRepo courseRepo;
+  private final KeywordService keywordService;
+  private final CourseSearchIndex courseSearchIndex;
+  private final SearchResultCache searchResultCache;
+  private final SuggestionIndex suggestionIndex;
+  private final CatalogVersions catalogVersions;
 
   /**
    * Constructor for KeywordsController.
    *
    * @param keywordsRepo the keyword repository
-   * @param courseRepo   the course repository
+   * @param keywordService replaces keywords without blanks or duplicates
    * @param userRepo     the user repository
+   * @param courseSearchIndex the text search index, kept current on keyword changes
+   * @param searchResultCache the search result cache, invalidated on keyword changes
+   * @param suggestionIndex   the autocomplete index, kept current on keyword changes
+   * @param catalogVersions   the catalog versions, bumped on keyword changes
    */
   @Autowired
-  public KeywordsController(KeywordsRepo keywordsRepo, CourseRepo courseRepo, UserRepo userRepo) {
+  public KeywordsController(KeywordsRepo keywordsRepo, KeywordService keywordService,
+                            UserRepo userRepo,
+                            CourseSearchIndex courseSearchIndex,
+                            SearchResultCache searchResultCache,
+                            SuggestionIndex suggestionIndex,
+                            CatalogVersions catalogVersions) {
     this.keywordsRepo = keywordsRepo;
-    this.courseRepo = courseRepo;
+    this.keywordService = keywordService;
+    this.courseSearchIndex = courseSearchIndex;
+    this.searchResultCache = searchResultCache;
+    this.suggestionIndex = suggestionIndex;
+    this.catalogVersions = catalogVersions;
   }
 
   /**
    * Retrieves all keywords for a specific course by its course ID.
-   * Uses minimal DTO for returning keyword data.
+   * Uses minimal DTO for returning keyword data. Answers 304 if the client's copy is still
+   * current.
    */
   @Operation(
       summary = "Get keywords by course ID",
@@ -56,13 +80,21 @@ public class KeywordsController {
           responseCode = "200",
           description = "List of keywords for the specified course ID"
       ),
+      @ApiResponse(
+          responseCode = "304",
+          description = "Keywords not modified"
+      ),
       @ApiResponse(
           responseCode = "404",
           description = "No keywords found for the specified course ID"
       )
   })
   @GetMapping("/keyword/{cid}")
-  public ResponseEntity<List<KeywordsDTO>> getKeyword(@PathVariable long cid) {
+  public ResponseEntity<List<KeywordsDTO>> getKeyword(@PathVariable long cid,
+                                                      WebRequest request) {
+    if (catalogVersions.isNotModified(request, catalogVersions.of(Area.KEYWORDS, cid))) {
+      return ResponseEntity.status(304).build();
+    }
     logger.info("Fetching keywords with CourseId: {}", cid);
     List<Keywords> keyword = keywordsRepo.getAllByCourse_Id(cid);
     List<KeywordsDTO> keywordsDTOList = keyword
@@ -109,16 +141,13 @@ public class KeywordsController {
   public ResponseEntity<List<KeywordsDTO>> addKeyword(@PathVariable Long cid,
                                              @RequestBody String[] keywords) {
     logger.info("Adding keywords to course with ID: {}", cid);
-    List<Keywords> existingKeywords = keywordsRepo.getAllByCourse_Id(cid);
-    keywordsRepo.deleteAll(existingKeywords);
-    for (String keyword : keywords) {
-      Keywords newKeyword = new Keywords();
-      newKeyword.setKeyword(keyword);
-      newKeyword.setCourse(courseRepo.getReferenceById(cid.intValue()));
-      keywordsRepo.save(newKeyword);
-
-    }
-    List<KeywordsDTO> keywordsDTOList = keywordsRepo.getAllByCourse_Id(cid)
+    List<Keywords> savedKeywords = keywordService.replaceKeywords(cid, List.of(keywords));
+    List<String> keywordTexts = savedKeywords.stream().map(Keywords::getKeyword).toList();
+    courseSearchIndex.updateKeywords(cid, keywordTexts);
+    suggestionIndex.updateKeywords(cid, keywordTexts);
+    searchResultCache.keywordsChanged(cid);
+    catalogVersions.changed(Area.KEYWORDS, cid);
+    List<KeywordsDTO> keywordsDTOList = savedKeywords
         .stream()
         .map(keywords1 -> {
           KeywordsDTO keywordsDTO = new KeywordsDTO();
@@ -154,6 +183,10 @@ public class KeywordsController {
       return ResponseEntity.status(404).build();
     }
     keywordsRepo.deleteAllByCourse_Id(cid);
+    courseSearchIndex.updateKeywords(cid, List.of());
+    suggestionIndex.updateKeywords(cid, List.of());
+    searchResultCache.keywordsChanged(cid);
+    catalogVersions.changed(Area.KEYWORDS, cid);
     return ResponseEntity.status(200).build();
   }
 
@@ -16,14 +16,22 @@ import no.ntnu.learniverseconnect.model.repos.CourseProviderRepo;
 import no.ntnu.learniverseconnect.model.repos.CourseRepo;
 import no.ntnu.learniverseconnect.model.repos.OfferableCoursesRepo;
 import no.ntnu.learniverseconnect.security.swagger.SecuredEndpoint;
+import no.ntnu.learniverseconnect.services.BestOfferIndex;
+import no.ntnu.learniverseconnect.services.CatalogVersions;
+import no.ntnu.learniverseconnect.services.CatalogVersions.Area;
+import no.ntnu.learniverseconnect.services.CatalogVersions.Version;
+import no.ntnu.learniverseconnect.services.OfferFilterEngine;
+import no.ntnu.learniverseconnect.services.SearchResultCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * The controller for offerable courses.
@@ -36,20 +44,40 @@ public class OfferableCoursesController {
   private final CourseRepo courseRepo;
   private final OfferableCoursesRepo repo;
   private final CourseProviderRepo courseProviderRepo;
+  private final BestOfferIndex bestOfferIndex;
+  private final SearchResultCache searchResultCache;
+  private final OfferFilterEngine offerFilterEngine;
+  private final CatalogVersions catalogVersions;
   private final Logger logger = Logger.getLogger(OfferableCoursesController.class.getName());
 
 
   @Autowired
   public OfferableCoursesController(OfferableCoursesRepo repo, CourseRepo courseRepo,
-                                    CourseProviderRepo courseProviderRepo) {
+                                    CourseProviderRepo courseProviderRepo,
+                                    BestOfferIndex bestOfferIndex,
+                                    SearchResultCache searchResultCache,
+                                    OfferFilterEngine offerFilterEngine,
+                                    CatalogVersions catalogVersions) {
     this.repo = repo;
     this.courseRepo = courseRepo;
     this.courseProviderRepo = courseProviderRepo;
+    this.bestOfferIndex = bestOfferIndex;
+    this.searchResultCache = searchResultCache;
+    this.offerFilterEngine = offerFilterEngine;
+    this.catalogVersions = catalogVersions;
+  }
+
+  /**
+   * Offers are returned with their course and provider, so their version covers all three.
+   */
+  private Version offersVersion() {
+    return catalogVersions.of(Area.OFFERS, Area.COURSES, Area.PROVIDERS);
   }
 
   /**
    * Returns a list of all offerable courses with provider information.
    *
+   * @param request the request, checked for a matching ETag.
    * @return a list of all offerable courses.
    */
   @Operation(summary = "Get all offerable courses",
@@ -58,10 +86,14 @@ public class OfferableCoursesController {
       @ApiResponse(responseCode = "200",
           content = @Content(schema = @Schema(
               implementation = OfferableCourses.class,
-              type = "array")))
+              type = "array"))),
+      @ApiResponse(responseCode = "304", description = "Not modified")
   })
   @GetMapping("/offerableCourses")
-  public ResponseEntity<List<OfferableCourses>> getOfferableCourses() {
+  public ResponseEntity<List<OfferableCourses>> getOfferableCourses(WebRequest request) {
+    if (catalogVersions.isNotModified(request, offersVersion())) {
+      return ResponseEntity.status(304).build();
+    }
     logger.info("Fetching all offerable courses");
     return ResponseEntity.status(200).body(repo.findAll());
   }
@@ -70,6 +102,7 @@ public class OfferableCoursesController {
    * Returns an offerable course with the given id.
    *
    * @param id id of the offerable course to return.
+   * @param request the request, checked for a matching ETag.
    * @return offerable course with the given id.
    */
   @Operation(summary = "Get offerable course by ID",
@@ -77,10 +110,15 @@ public class OfferableCoursesController {
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200",
           content = @Content(schema = @Schema(implementation = OfferableCourses.class))),
+      @ApiResponse(responseCode = "304", description = "Not modified"),
       @ApiResponse(responseCode = "404", description = "Not found")
   })
   @GetMapping("/offerableCourses/{id}")
-  public ResponseEntity<OfferableCourses> getOfferableCourseById(@PathVariable int id) {
+  public ResponseEntity<OfferableCourses> getOfferableCourseById(@PathVariable int id,
+                                                                 WebRequest request) {
+    if (catalogVersions.isNotModified(request, offersVersion())) {
+      return ResponseEntity.status(304).build();
+    }
     OfferableCourses offerableCourse = repo.findById(id).orElse(null);
     if (offerableCourse != null) {
       logger.info("Offerable course found with id: " + id);
@@ -110,6 +148,10 @@ public class OfferableCoursesController {
     if (offerableCourse != null) {
       logger.info("Deleting offerable course with id: " + id);
       repo.delete(offerableCourse);
+      bestOfferIndex.offerDeleted(offerableCourse.getCourse().getId(), id);
+      offerFilterEngine.markStale();
+      searchResultCache.offerRemoved(offerableCourse.getCourse().getId());
+      catalogVersions.changed(Area.OFFERS, id);
       return ResponseEntity.status(200).build();
     } else {
       logger.warning("Offerable course not found with id: " + id);
@@ -118,10 +160,45 @@ public class OfferableCoursesController {
   }
 
 
+  /**
+   * Shows or hides an offerable course.
+   *
+   * @param id         id of the offerable course.
+   * @param visibility true to show the offer in search and course cards, false to hide it.
+   * @return the updated offerable course, or 404 if not found.
+   */
+  @Operation(summary = "Set offer visibility",
+      description = "Shows or hides a course offering in search and course cards")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200",
+          content = @Content(schema = @Schema(implementation = OfferableCourses.class))),
+      @ApiResponse(responseCode = "404", description = "Not found")
+  })
+  @SecuredEndpoint
+  @PutMapping("/offerableCourses/{id}/visibility")
+  public ResponseEntity<OfferableCourses> setVisibility(@PathVariable long id,
+                                                        @RequestBody boolean visibility) {
+    OfferableCourses offerableCourse = repo.getOfferableCoursesById(id);
+    if (offerableCourse == null) {
+      logger.warning("Offerable course not found with id: " + id);
+      return ResponseEntity.status(404).body(null);
+    }
+    offerableCourse.setVisibility(visibility);
+    repo.save(offerableCourse);
+    bestOfferIndex.offerSaved(offerableCourse);
+    offerFilterEngine.markStale();
+    searchResultCache.offerChanged(offerableCourse);
+    catalogVersions.changed(Area.OFFERS, id);
+    logger.info("Visibility of offerable course " + id + " set to " + visibility);
+    return ResponseEntity.status(200).body(offerableCourse);
+  }
+
+
   /**
    * Returns a list of offerable courses for a given course id.
    *
    * @param cid Course id.
+   * @param request the request, checked for a matching ETag.
    * @return List of offerable courses for the given course id.
    */
   @Operation(summary = "Get courses by parent course ID",
@@ -130,11 +207,15 @@ public class OfferableCoursesController {
       @ApiResponse(responseCode = "200",
           content = @Content(schema = @Schema(implementation = OfferableCourses.class,
               type = "array"))),
+      @ApiResponse(responseCode = "304", description = "Not modified"),
       @ApiResponse(responseCode = "404", description = "Not found")
   })
   @GetMapping("/offerableCourses/course/{cid}")
   public ResponseEntity<List<OfferableCourses>> getOfferableCoursesByCourseId(
-      @PathVariable long cid) {
+      @PathVariable long cid, WebRequest request) {
+    if (catalogVersions.isNotModified(request, offersVersion())) {
+      return ResponseEntity.status(304).build();
+    }
     List<OfferableCourses> list = repo.getAllByCourse_Id(cid);
     if (!list.isEmpty()) {
       logger.info("Offerable courses found for course with id: " + cid);
@@ -154,11 +235,16 @@ public class OfferableCoursesController {
       @ApiResponse(responseCode = "200",
           content = @Content(schema = @Schema(
               implementation = Float.class))),
+      @ApiResponse(responseCode = "304", description = "Not modified"),
       @ApiResponse(responseCode = "404", description = "Not found")
   })
   //TODO delete?
   @GetMapping("/offerableCourses/lowestPrice/course/{cid}")
-  public ResponseEntity<Float> getOfferablePriceByCourseId(@PathVariable long cid) {
+  public ResponseEntity<Float> getOfferablePriceByCourseId(@PathVariable long cid,
+                                                           WebRequest request) {
+    if (catalogVersions.isNotModified(request, offersVersion())) {
+      return ResponseEntity.status(304).build();
+    }
     List<OfferableCourses> list = repo.getAllByCourse_Id(cid);
 
     float lowestPrice;
@@ -187,11 +273,16 @@ public class OfferableCoursesController {
       @ApiResponse(responseCode = "200",
           content = @Content(schema = @Schema(
               implementation = Date.class))),
+      @ApiResponse(responseCode = "304", description = "Not modified"),
       @ApiResponse(responseCode = "404", description = "Not found")
   })
   //TODO delete?
   @GetMapping("/offerableCourses/closestDate/course/{cid}")
-  public ResponseEntity<Date> getOfferableClosestDateByCourseID(@PathVariable long cid) {
+  public ResponseEntity<Date> getOfferableClosestDateByCourseID(@PathVariable long cid,
+                                                                WebRequest request) {
+    if (catalogVersions.isNotModified(request, offersVersion())) {
+      return ResponseEntity.status(304).build();
+    }
     List<OfferableCourses> list = repo.getAllByCourse_Id(cid);
 
     Date closestDate;
@@ -214,6 +305,7 @@ public class OfferableCoursesController {
    * Returns a list of offerable courses for a given provider id.
    *
    * @param pid Provider id.
+   * @param request the request, checked for a matching ETag.
    * @return List of offerable courses for the given provider id.
    */
   @Operation(summary = "Get offerings by provider",
@@ -223,11 +315,15 @@ public class OfferableCoursesController {
           content = @Content(schema = @Schema(
               implementation = OfferableCourses.class,
               type = "array"))),
+      @ApiResponse(responseCode = "304", description = "Not modified"),
       @ApiResponse(responseCode = "404", description = "Not found")
   })
   @GetMapping("/offerableCourses/provider/{pid}")
   public ResponseEntity<List<OfferableCourses>> getOfferableCoursesByProviderId(
-      @PathVariable long pid) {
+      @PathVariable long pid, WebRequest request) {
+    if (catalogVersions.isNotModified(request, offersVersion())) {
+      return ResponseEntity.status(304).build();
+    }
     List<OfferableCourses> list = repo.getAllByProvider_Id(pid);
     if (!list.isEmpty()) {
       logger.info("Offerable courses found for provider with id: " + pid);
@@ -255,11 +351,14 @@ public class OfferableCoursesController {
   public ResponseEntity<OfferableCourses> addOfferableCourse(
       @RequestBody OfferableCourses offerableCourse) {
     repo.save(offerableCourse);
+    bestOfferIndex.offerSaved(offerableCourse);
 
     // Get the associated course
     Course course = courseRepo.getById(offerableCourse.getCourse().getId());
     Date newCourseDate = offerableCourse.getDate();
     offerableCourse.setCourse(course);
+    offerFilterEngine.markStale();
+    searchResultCache.offerChanged(offerableCourse);
 
     // Get the associated course provider
     CourseProvider provider = courseProviderRepo.getCourseProviderById(offerableCourse.getProvider().getId());
@@ -268,7 +367,9 @@ public class OfferableCoursesController {
     if (course.getClosestCourse() == null || newCourseDate.before(course.getClosestCourse())) {
       course.setClosestCourse(newCourseDate);
       courseRepo.save(course);
+      catalogVersions.changed(Area.COURSES, course.getId());
     }
+    catalogVersions.changed(Area.OFFERS, offerableCourse.getId());
 
     logger.info("Offerable course added with id: " + offerableCourse.getId());
     return ResponseEntity.status(201).body(offerableCourse);
@@ -1,16 +1,5 @@
 package no.ntnu.learniverseconnect.controllers;
 
-import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasCategory;
-import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasCreditsBetween;
-import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasDateBetween;
-import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasDescription;
-import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasDiffLevel;
-import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasKeywords;
-import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasPriceBetween;
-import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasRatingBetween;
-import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasTitle;
-import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasVisibility;
-
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -19,49 +8,103 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.sql.Date;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import no.ntnu.learniverseconnect.model.dto.CourseWithMinPriceAndRatingDto;
 import no.ntnu.learniverseconnect.model.dto.SearchFilterDto;
-import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
-import no.ntnu.learniverseconnect.model.repos.UserCoursesRepo;
-import no.ntnu.learniverseconnect.model.repos.OfferableCoursesRepo;
+import no.ntnu.learniverseconnect.model.dto.SearchResponseDto;
+import no.ntnu.learniverseconnect.model.dto.SuggestionDto;
+import no.ntnu.learniverseconnect.security.swagger.SecuredEndpoint;
+import no.ntnu.learniverseconnect.services.CourseSearchService;
+import no.ntnu.learniverseconnect.services.SearchCacheStats;
+import no.ntnu.learniverseconnect.services.SearchPage;
+import no.ntnu.learniverseconnect.services.SearchPaginator;
+import no.ntnu.learniverseconnect.services.SearchPlanCache;
+import no.ntnu.learniverseconnect.services.SearchPlanStats;
+import no.ntnu.learniverseconnect.services.SearchResult;
+import no.ntnu.learniverseconnect.services.SearchResultCache;
+import no.ntnu.learniverseconnect.services.SearchSort;
+import no.ntnu.learniverseconnect.services.SearchStreamer;
+import no.ntnu.learniverseconnect.services.SearchTrace;
+import no.ntnu.learniverseconnect.services.SuggestionIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controller for handling search requests.
+ *
+ * <p>Results are sorted and keyset-paginated. The response body is the list of course cards on
+ * the requested page; the cursor of the next page and the total number of matches are returned
+ * in the {@value #NEXT_CURSOR_HEADER} and {@value #TOTAL_COUNT_HEADER} headers. With
+ * {@code facets=true} the body also holds facet counts for the filter sidebar. Text searches
+ * are ranked by relevance unless another sort is asked for, and every card carries its
+ * relevance score. A text search that matches nothing as typed returns a spelling correction
+ * in the {@value #DID_YOU_MEAN_HEADER} header; with {@code fuzzy=true} misspelled words match
+ * their close terms directly.</p>
+ *
+ * <p>With {@code Accept: application/x-ndjson}, GET {@code /search} instead streams every match
+ * as one course card per line, without sorting or paging.</p>
  */
 @Tag(name = "Course Search", description = "APIs for searching and filtering courses")
 @RestController
 public class SearchController {
 
-  private final OfferableCoursesRepo offerableCoursesRepo;
-  private final UserCoursesRepo userCoursesRepo;
+  private final CourseSearchService courseSearchService;
+  private final SearchResultCache searchResultCache;
+  private final SuggestionIndex suggestionIndex;
+  private final SearchPlanCache searchPlanCache;
+  private final SearchStreamer searchStreamer;
   private static final Logger logger = LoggerFactory.getLogger(SearchController.class);
 
+  /**
+   * Response header holding the cursor of the next page. Absent on the last page.
+   */
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  /**
+   * Response header holding the total number of matching courses.
+   */
+  public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+  /**
+   * Response header holding a spelling correction of the search text. Absent when the text
+   * matches as typed.
+   */
+  public static final String DID_YOU_MEAN_HEADER = "X-Did-You-Mean";
+
 
   /**
    * Constructor for SearchController.
    *
-   * @param offerableCoursesController Offerable courses repository
-   * @param userCoursesRepo            UserCourses repository, for Ratings
+   * @param courseSearchService Finds the courses matching a filter
+   * @param searchResultCache   Cache of search results, for its counters
+   * @param suggestionIndex     Autocomplete index over titles, keywords and categories
+   * @param searchPlanCache     Compiled search query plans, for its counters
+   * @param searchStreamer      Streams search results as newline-delimited JSON
    */
   public SearchController(
-      OfferableCoursesRepo offerableCoursesController,
-      UserCoursesRepo userCoursesRepo) {
+      CourseSearchService courseSearchService,
+      SearchResultCache searchResultCache,
+      SuggestionIndex suggestionIndex,
+      SearchPlanCache searchPlanCache,
+      SearchStreamer searchStreamer) {
 
-    this.offerableCoursesRepo = offerableCoursesController;
-    this.userCoursesRepo = userCoursesRepo;
+    this.courseSearchService = courseSearchService;
+    this.searchResultCache = searchResultCache;
+    this.suggestionIndex = suggestionIndex;
+    this.searchPlanCache = searchPlanCache;
+    this.searchStreamer = searchStreamer;
   }
 
 
@@ -79,7 +122,14 @@ public class SearchController {
    * @param maxPrice   (max-price) Maximum price
    * @param startDate  Start date in milliseconds since epoch
    * @param endDate    End date in milliseconds since epoch
-   * @return
+   * @param sort       Sort key, see {@link SearchSort}
+   * @param direction  Sort direction, asc or desc
+   * @param limit      Page size
+   * @param cursor     Cursor of the page to fetch
+   * @param count      Whether to count all matches
+   * @param facets     Whether to return facet counts with the results
+   * @param fuzzy      Whether to match misspelled search text
+   * @return the requested page of course cards, or 400 if the paging parameters are invalid
    */
   @Operation(
       summary = "Search courses with URL parameters",
@@ -89,13 +139,14 @@ public class SearchController {
   @ApiResponses(value = {
       @ApiResponse(
           responseCode = "200",
-          description = "Courses found",
+          description = "Courses found. With facets=true the body is a SearchResponseDto",
           content = @Content(schema = @Schema(implementation = CourseWithMinPriceAndRatingDto.class,
               type = "array"))
-          )})
+          ),
+      @ApiResponse(responseCode = "400", description = "Invalid sort, limit or cursor")})
 
   @GetMapping("/search")
-  public ResponseEntity<List<CourseWithMinPriceAndRatingDto>> searchCourse(
+  public ResponseEntity<?> searchCourse(
       @Parameter(description = "List of difficulty levels (1-5)", example = "[1,2]")
       @RequestParam(required = false) List<Integer> diffLevels,
         @Parameter(description = "List of categories", example = "[\"Math\", \"Science\"]")
@@ -117,80 +168,105 @@ public class SearchController {
       @Parameter(description = "Start date (epoch milliseconds)", example = "1672531200000")
       @RequestParam(required = false) Long startDate,
       @Parameter(description = "End date (epoch milliseconds)", example = "1704067199000")
-      @RequestParam(required = false) Long endDate
+      @RequestParam(required = false) Long endDate,
+      @Parameter(description = "Sort key: price, rating, date, credits or relevance."
+          + " Defaults to relevance when searching text, price otherwise",
+          example = "price")
+      @RequestParam(required = false) String sort,
+      @Parameter(description = "Sort direction: asc or desc. Defaults to desc for rating and"
+          + " relevance, asc otherwise", example = "asc")
+      @RequestParam(required = false) String direction,
+      @Parameter(description = "Page size (1-" + SearchPaginator.MAX_LIMIT + "). Omit to get"
+          + " all results", example = "20")
+      @RequestParam(required = false) Integer limit,
+      @Parameter(description = "Cursor from the X-Next-Cursor header of the previous page")
+      @RequestParam(required = false) String cursor,
+      @Parameter(description = "Whether to return the total match count in X-Total-Count",
+          example = "true")
+      @RequestParam(required = false, defaultValue = "true") boolean count,
+      @Parameter(description = "Whether to return facet counts. If true, the body is an object"
+          + " with the results and the facets", example = "false")
+      @RequestParam(required = false, defaultValue = "false") boolean facets,
+      @Parameter(description = "Whether to match misspelled search text, such as pyhton for"
+          + " python", example = "false")
+      @RequestParam(required = false, defaultValue = "false") boolean fuzzy
   ) {
 
-    SearchFilterDto searchFilterDto = new SearchFilterDto(
-        diffLevels,
-        categories,
-        search,
-        new SearchFilterDto.CourseSizeRange(minCredits, maxCredits),
-        new SearchFilterDto.RatingRange(minRating, maxRating),
-        new SearchFilterDto.PriceRange(minPrice, maxPrice),
-        new SearchFilterDto.DateRange(
-            Optional.ofNullable(startDate).map(Date::new).orElse(null),
-            Optional.ofNullable(endDate).map(Date::new).orElse(null)
-        )
-    );
+    SearchFilterDto searchFilterDto = toFilter(diffLevels, categories, search, minCredits,
+        maxCredits, minRating, maxRating, minPrice, maxPrice, startDate, endDate);
 
     // Log the incoming filter for debugging
     logger.info("Received search filter: {}", searchFilterDto);
 
+    return search(searchFilterDto, sort, direction, limit, cursor, count, facets, fuzzy);
+  }
 
-    List<OfferableCourses> courses = offerableCoursesRepo.findAll(
-        hasVisibility(true)
-            .and(hasDiffLevel(searchFilterDto.getDiffLevels()))
-            .and(hasCategory(searchFilterDto.getCategories()))
-            .and(hasCreditsBetween(
-                searchFilterDto.getCourseSizeRange().getMinCredits(),
-                searchFilterDto.getCourseSizeRange().getMaxCredits()
-            ))
-            .and(hasPriceBetween(
-                searchFilterDto.getPriceRange().getMinPrice(),
-                searchFilterDto.getPriceRange().getMaxPrice()
-            ))
-            .and(hasTitle(searchFilterDto.getSearchValue()).or(
-                hasDescription(searchFilterDto.getSearchValue())))
-            .and(hasDateBetween(
-                searchFilterDto.getDateRange().getStartDate(),
-                searchFilterDto.getDateRange().getEndDate()
-            ))
-            .and(hasRatingBetween(
-                searchFilterDto.getRatingRange().getMinRating(),
-                searchFilterDto.getRatingRange().getMaxRating()
-            ))
-    );
-
-    List<CourseWithMinPriceAndRatingDto> filteredResult = new ArrayList<>(courses.stream()
-        .collect(Collectors.groupingBy(
-            OfferableCourses::getCourse,
-            Collectors.collectingAndThen(
-                Collectors.toList(),
-                list -> {
-                  // Find offer with min discounted price and closest date
-                  OfferableCourses bestOffer = list.stream()
-                      .min(Comparator.comparingDouble(
-                              (OfferableCourses o) -> o.getPrice() * (1 - o.getDiscount()))
-                          .thenComparing(OfferableCourses::getDate))
-                      .orElseThrow();
 
-                  // Calculate average rating (assuming UserCourseRepo is available)
-                  Float avgRating =
-                      userCoursesRepo.getAverageRatingByCourseId(bestOffer.getCourse().getId());
-                  int numberOfRatings =
-                      userCoursesRepo.countByCourseId(bestOffer.getCourse().getId());
-                  return new CourseWithMinPriceAndRatingDto(
-                      bestOffer.getCourse(),
-                      bestOffer.getPrice() * (1 - bestOffer.getDiscount()),
-                      bestOffer.getDate(),
-                      avgRating != null ? avgRating.floatValue() : 0f,
-                      numberOfRatings
-                  );
-                }
-            )
-        )).values());
+  /**
+   * Streams every course matching the URL parameters as newline-delimited JSON, one course card
+   * per line. Cards are written while they are read from the database, so the first results
+   * arrive before the search is done and large result sets are not held in memory.
+   *
+   * @param diffLevels List of difficulty levels
+   * @param categories List of categories
+   * @param search     Search string
+   * @param minCredits (min-credits) Minimum credits
+   * @param maxCredits (max-credits) Maximum credits
+   * @param minRating  (min-rating) Minimum rating
+   * @param maxRating  (max-rating) Maximum rating
+   * @param minPrice   (min-price) Minimum price
+   * @param maxPrice   (max-price) Maximum price
+   * @param startDate  Start date in milliseconds since epoch
+   * @param endDate    End date in milliseconds since epoch
+   * @param limit      Largest number of cards to return
+   * @param fuzzy      Whether to match misspelled search text
+   * @return the matching course cards in course id order, or 400 if the limit is invalid
+   */
+  @Operation(
+      summary = "Stream search results as NDJSON",
+      description = "Takes the same filters as the regular search, but writes one course card"
+          + " per line as results are read. Cards come in course id order; sorting, cursors"
+          + " and facets are not supported"
+  )
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Course cards, one JSON object per line",
+          content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+              schema = @Schema(implementation = CourseWithMinPriceAndRatingDto.class))
+      ),
+      @ApiResponse(responseCode = "400", description = "Invalid limit")})
+  @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamCourses(
+      @RequestParam(required = false) List<Integer> diffLevels,
+      @RequestParam(required = false) List<String> categories,
+      @RequestParam(required = false) String search,
+      @RequestParam(required = false, name = "min-credits") Float minCredits,
+      @RequestParam(required = false, name = "max-credits") Float maxCredits,
+      @RequestParam(required = false, name = "min-rating") Double minRating,
+      @RequestParam(required = false, name = "max-rating") Double maxRating,
+      @RequestParam(required = false, name = "min-price") Float minPrice,
+      @RequestParam(required = false, name = "max-price") Float maxPrice,
+      @RequestParam(required = false) Long startDate,
+      @RequestParam(required = false) Long endDate,
+      @Parameter(description = "Largest number of cards to return. Omit to get all results",
+          example = "1000")
+      @RequestParam(required = false) Integer limit,
+      @Parameter(description = "Whether to match misspelled search text, such as pyhton for"
+          + " python", example = "false")
+      @RequestParam(required = false, defaultValue = "false") boolean fuzzy
+  ) {
+    if (limit != null && limit < 1) {
+      logger.warn("Invalid stream limit: {}", limit);
+      return ResponseEntity.status(400).build();
+    }
+    SearchFilterDto searchFilterDto = toFilter(diffLevels, categories, search, minCredits,
+        maxCredits, minRating, maxRating, minPrice, maxPrice, startDate, endDate);
+    logger.info("Streaming search results for filter: {}", searchFilterDto);
 
-    return ResponseEntity.status(200).body(filteredResult);
+    return ResponseEntity.status(200)
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(out -> searchStreamer.stream(searchFilterDto, fuzzy, limit, out));
   }
 
 
@@ -198,7 +274,15 @@ public class SearchController {
    * Searches for courses based on the provided search filter JSON object.
    *
    * @param searchFilterDto The search filter object containing various search parameters.
-   * @return A ResponseEntity containing a list of CourseWithMinPriceAndRatingDto objects.
+   * @param sort            Sort key, see {@link SearchSort}
+   * @param direction       Sort direction, asc or desc
+   * @param limit           Page size
+   * @param cursor          Cursor of the page to fetch
+   * @param count           Whether to count all matches
+   * @param facets          Whether to return facet counts with the results
+   * @param fuzzy           Whether to match misspelled search text
+   * @return A ResponseEntity containing a list of CourseWithMinPriceAndRatingDto objects, or a
+   *     SearchResponseDto with the facets if requested.
    * @deprecated Can be used for admin filtering, but is deprecated in favor of the URL-based
    * search for customers.
    */
@@ -209,75 +293,191 @@ public class SearchController {
   @ApiResponses(value = {
       @ApiResponse(
           responseCode = "200",
-          description = "Courses found",
+          description = "Courses found. With facets=true the body is a SearchResponseDto",
           content = @Content(schema = @Schema(implementation = CourseWithMinPriceAndRatingDto.class,
               type = "array"))
-      )})
+      ),
+      @ApiResponse(responseCode = "400", description = "Invalid sort, limit or cursor")})
   @Deprecated(
       since = "1.0",
       forRemoval = false
   )
   @PostMapping("/search")
-  public ResponseEntity<List<CourseWithMinPriceAndRatingDto>> searchCourses(
-      @RequestBody SearchFilterDto searchFilterDto) {
+  public ResponseEntity<?> searchCourses(
+      @RequestBody SearchFilterDto searchFilterDto,
+      @Parameter(description = "Sort key: price, rating, date, credits or relevance."
+          + " Defaults to relevance when searching text, price otherwise",
+          example = "price")
+      @RequestParam(required = false) String sort,
+      @Parameter(description = "Sort direction: asc or desc. Defaults to desc for rating and"
+          + " relevance, asc otherwise", example = "asc")
+      @RequestParam(required = false) String direction,
+      @Parameter(description = "Page size (1-" + SearchPaginator.MAX_LIMIT + "). Omit to get"
+          + " all results", example = "20")
+      @RequestParam(required = false) Integer limit,
+      @Parameter(description = "Cursor from the X-Next-Cursor header of the previous page")
+      @RequestParam(required = false) String cursor,
+      @Parameter(description = "Whether to return the total match count in X-Total-Count",
+          example = "true")
+      @RequestParam(required = false, defaultValue = "true") boolean count,
+      @Parameter(description = "Whether to return facet counts. If true, the body is an object"
+          + " with the results and the facets", example = "false")
+      @RequestParam(required = false, defaultValue = "false") boolean facets,
+      @Parameter(description = "Whether to match misspelled search text, such as pyhton for"
+          + " python", example = "false")
+      @RequestParam(required = false, defaultValue = "false") boolean fuzzy) {
     logger.info("Searching for courses with filter: {}", searchFilterDto);
 
+    return search(searchFilterDto, sort, direction, limit, cursor, count, facets, fuzzy);
+  }
+
 
-    List<OfferableCourses> courses = offerableCoursesRepo.findAll(
-        hasVisibility(true)
-            .and(hasDiffLevel(searchFilterDto.getDiffLevels()))
-            .and(hasCategory(searchFilterDto.getCategories()))
-            .and(hasCreditsBetween(
-                searchFilterDto.getCourseSizeRange().getMinCredits(),
-                searchFilterDto.getCourseSizeRange().getMaxCredits()
-            ))
-            .and(hasPriceBetween(
-                searchFilterDto.getPriceRange().getMinPrice(),
-                searchFilterDto.getPriceRange().getMaxPrice()
-            ))
-            .and(hasTitle(searchFilterDto.getSearchValue()).or(
-                hasDescription(searchFilterDto.getSearchValue())))
-            .and(hasDateBetween(
-                searchFilterDto.getDateRange().getStartDate(),
-                searchFilterDto.getDateRange().getEndDate()
-            ))
-            .and(hasRatingBetween(
-                searchFilterDto.getRatingRange().getMinRating(),
-                searchFilterDto.getRatingRange().getMaxRating()
-            ))
+  /**
+   * Builds a search filter from URL parameters.
+   *
+   * @return the search filter
+   */
+  private static SearchFilterDto toFilter(List<Integer> diffLevels, List<String> categories,
+                                          String search, Float minCredits, Float maxCredits,
+                                          Double minRating, Double maxRating, Float minPrice,
+                                          Float maxPrice, Long startDate, Long endDate) {
+    return new SearchFilterDto(
+        diffLevels,
+        categories,
+        search,
+        new SearchFilterDto.CourseSizeRange(minCredits, maxCredits),
+        new SearchFilterDto.RatingRange(minRating, maxRating),
+        new SearchFilterDto.PriceRange(minPrice, maxPrice),
+        new SearchFilterDto.DateRange(
+            Optional.ofNullable(startDate).map(Date::new).orElse(null),
+            Optional.ofNullable(endDate).map(Date::new).orElse(null)
+        )
     );
+  }
+
 
-    List<CourseWithMinPriceAndRatingDto> filteredResult = new ArrayList<>(courses.stream()
-        .collect(Collectors.groupingBy(
-            OfferableCourses::getCourse,
-            Collectors.collectingAndThen(
-                Collectors.toList(),
-                list -> {
-                  // Find offer with min discounted price and closest date
-                  OfferableCourses bestOffer = list.stream()
-                      .min(Comparator.comparingDouble(
-                              (OfferableCourses o) -> o.getPrice() * (1 - o.getDiscount()))
-                          .thenComparing(OfferableCourses::getDate))
-                      .orElseThrow();
+  /**
+   * Runs a search and returns the requested page.
+   *
+   * @return the page of course cards with paging headers, wrapped with the facet counts if
+   *     requested, or 400 if the paging parameters are invalid
+   */
+  private ResponseEntity<?> search(
+      SearchFilterDto searchFilterDto, String sort, String direction, Integer limit,
+      String cursor, boolean count, boolean facets, boolean fuzzy) {
+    SearchTrace trace = new SearchTrace();
+    RequestContextHolder.currentRequestAttributes().setAttribute(SearchTrace.ATTRIBUTE, trace,
+        RequestAttributes.SCOPE_REQUEST);
+    SearchResult result;
+    SearchPage page;
+    try {
+      result = courseSearchService.search(searchFilterDto, facets, fuzzy, trace);
+      SearchSort sortKey = SearchSort.fromParameter(sort,
+          result.scores() != null ? SearchSort.RELEVANCE : SearchSort.PRICE);
+      boolean descending = parseDirection(direction, sortKey);
+      page = SearchPaginator.paginate(result.cards(), result.scores(), sortKey, descending,
+          cursor, limit, count);
+      trace.lap(SearchTrace.Stage.PAGINATION);
+    } catch (IllegalArgumentException e) {
+      logger.warn("Invalid search paging parameters: {}", e.getMessage());
+      return ResponseEntity.status(400).body(null);
+    }
 
-                  // Calculate average rating (assuming UserCourseRepo is available)
-                  Float avgRating =
-                      userCoursesRepo.getAverageRatingByCourseId(bestOffer.getCourse().getId());
-                  int numberOfRatings =
-                      userCoursesRepo.countByCourseId(bestOffer.getCourse().getId());
-                  return new CourseWithMinPriceAndRatingDto(
-                      bestOffer.getCourse(),
-                      bestOffer.getPrice() * (1 - bestOffer.getDiscount()),
-                      bestOffer.getDate(),
-                      avgRating != null ? avgRating.floatValue() : 0f,
-                      numberOfRatings
-                  );
-                }
-            )
-        )).values());
+    HttpHeaders headers = new HttpHeaders();
+    if (page.nextCursor() != null) {
+      headers.add(NEXT_CURSOR_HEADER, page.nextCursor());
+    }
+    if (page.total() != null) {
+      headers.add(TOTAL_COUNT_HEADER, String.valueOf(page.total()));
+    }
+    if (result.didYouMean() != null) {
+      headers.add(DID_YOU_MEAN_HEADER, result.didYouMean());
+    }
+    if (facets) {
+      return ResponseEntity.status(200).headers(headers)
+          .body(new SearchResponseDto(page.results(), result.facets(),
+              result.didYouMean()));
+    }
+    return ResponseEntity.status(200).headers(headers).body(page.results());
+  }
 
-    return ResponseEntity.status(200).body(filteredResult);
+  private static boolean parseDirection(String direction, SearchSort sortKey) {
+    if (direction == null || direction.isBlank()) {
+      return sortKey.isDescendingByDefault();
+    }
+    if (direction.equalsIgnoreCase("asc")) {
+      return false;
+    }
+    if (direction.equalsIgnoreCase("desc")) {
+      return true;
+    }
+    throw new IllegalArgumentException("Unknown sort direction: " + direction);
   }
 
+  /**
+   * Suggests completions for the text typed into the search field.
+   *
+   * @param q     The text typed so far
+   * @param limit The most suggestions to return
+   * @return the suggestions, most popular first, or 400 if the limit is out of range
+   */
+  @Operation(
+      summary = "Autocomplete search text",
+      description = "Completes the start of any word in course titles, keywords, categories and"
+          + " related certifications, ranked by course popularity"
+  )
+  @ApiResponses(value = {
+      @ApiResponse(
+          responseCode = "200",
+          description = "Suggestions, possibly empty",
+          content = @Content(schema = @Schema(implementation = SuggestionDto.class,
+              type = "array"))
+      ),
+      @ApiResponse(responseCode = "400", description = "Invalid limit")})
+  @GetMapping("/search/suggest")
+  public ResponseEntity<List<SuggestionDto>> suggest(
+      @Parameter(description = "Text typed so far", example = "jav")
+      @RequestParam(required = false, defaultValue = "") String q,
+      @Parameter(description = "Maximum number of suggestions (1-"
+          + SuggestionIndex.MAX_SUGGESTIONS + ")", example = "5")
+      @RequestParam(required = false, defaultValue = "" + SuggestionIndex.MAX_SUGGESTIONS)
+      int limit) {
+    if (limit < 1 || limit > SuggestionIndex.MAX_SUGGESTIONS) {
+      return ResponseEntity.status(400).body(null);
+    }
+    return ResponseEntity.status(200).body(suggestionIndex.suggest(q, limit));
+  }
+
+  /**
+   * Returns the hit, miss and eviction counters of the search result cache.
+   *
+   * @return the cache counters
+   */
+  @Operation(
+      summary = "Get search cache statistics",
+      description = "Returns hit, miss, eviction and invalidation counts of the search cache"
+  )
+  @ApiResponse(responseCode = "200", description = "Cache statistics")
+  @SecuredEndpoint
+  @GetMapping("/searchCache/stats")
+  public ResponseEntity<SearchCacheStats> getCacheStats() {
+    return ResponseEntity.status(200).body(searchResultCache.getStats());
+  }
+
+  /**
+   * Returns the hit and miss counters of the search plan cache.
+   *
+   * @return the plan cache counters
+   */
+  @Operation(
+      summary = "Get search plan cache statistics",
+      description = "Returns how often faceted searches reused a compiled query plan"
+  )
+  @ApiResponse(responseCode = "200", description = "Plan cache statistics")
+  @SecuredEndpoint
+  @GetMapping("/searchCache/plans")
+  public ResponseEntity<SearchPlanStats> getPlanStats() {
+    return ResponseEntity.status(200).body(searchPlanCache.getStats());
+  }
 
 }
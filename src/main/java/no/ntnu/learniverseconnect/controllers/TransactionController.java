@@ -1,40 +1,52 @@
 package no.ntnu.learniverseconnect.controllers;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.transaction.Transactional;
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.logging.Logger;
 import no.ntnu.learniverseconnect.model.dto.CourseProviderStatsDto;
+import no.ntnu.learniverseconnect.model.dto.LiveRevenueDto;
+import no.ntnu.learniverseconnect.model.dto.RevenueBreakdownDto;
+import no.ntnu.learniverseconnect.model.dto.RevenueDashboardDto;
+import no.ntnu.learniverseconnect.model.dto.RevenueSummaryDto;
+import no.ntnu.learniverseconnect.model.dto.TransactionRowDto;
 import no.ntnu.learniverseconnect.model.entities.Course;
-import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
 import no.ntnu.learniverseconnect.model.entities.Transaction;
-import no.ntnu.learniverseconnect.model.entities.User;
-import no.ntnu.learniverseconnect.model.entities.CourseProvider;
-import no.ntnu.learniverseconnect.model.entities.UserCourse;
-import no.ntnu.learniverseconnect.model.repos.CourseProviderRepo;
 import no.ntnu.learniverseconnect.model.repos.CourseRepo;
-import no.ntnu.learniverseconnect.model.repos.OfferableCoursesRepo;
 import no.ntnu.learniverseconnect.model.repos.TransactionRepo;
-import no.ntnu.learniverseconnect.model.repos.UserCoursesRepo;
-import no.ntnu.learniverseconnect.model.repos.UserRepo;
 import no.ntnu.learniverseconnect.security.swagger.SecuredEndpoint;
 import no.ntnu.learniverseconnect.security.SecurityUtils;
+import no.ntnu.learniverseconnect.services.EntityCounters;
+import no.ntnu.learniverseconnect.services.LiveRevenueWindow;
+import no.ntnu.learniverseconnect.services.LiveRevenueWindow.Totals;
+import no.ntnu.learniverseconnect.services.PurchaseService;
+import no.ntnu.learniverseconnect.services.RevenueRollupService;
+import no.ntnu.learniverseconnect.services.TransactionExporter;
+import no.ntnu.learniverseconnect.services.TransactionExporter.Format;
+import no.ntnu.learniverseconnect.services.TransactionExporter.TransactionPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 /**
@@ -47,10 +59,11 @@ public class TransactionController {
 
   private final TransactionRepo repo;
   private final CourseRepo courseRepo;
-  private final OfferableCoursesRepo offerableCoursesRepo;
-  private final UserRepo userRepo;
-  private final CourseProviderRepo courseProviderRepo;
-  private final UserCoursesRepo userCoursesRepo;
+  private final EntityCounters entityCounters;
+  private final RevenueRollupService revenueRollupService;
+  private final LiveRevenueWindow liveRevenueWindow;
+  private final TransactionExporter transactionExporter;
+  private final PurchaseService purchaseService;
   private final Logger logger = Logger.getLogger(TransactionController.class.getName());
 
   /**
@@ -58,46 +71,112 @@ public class TransactionController {
    *
    * @param transactionRepo the transaction repository
    * @param courseRepo the course repository
-   * @param offerableCoursesRepo the offerable courses repository
-   * @param userRepo the user repository
-   * @param courseProviderRepo the course provider repository
+   * @param entityCounters the maintained course count, used for the average revenue
+   * @param revenueRollupService the hourly and daily revenue buckets, updated when
+   *                             transactions are deleted
+   * @param liveRevenueWindow the live revenue totals, updated when transactions are deleted
+   * @param transactionExporter lists and exports transactions as flat rows
+   * @param purchaseService records purchases
    */
   @Autowired
   public TransactionController(TransactionRepo transactionRepo, CourseRepo courseRepo,
-                               OfferableCoursesRepo offerableCoursesRepo, UserRepo userRepo,
-                               CourseProviderRepo courseProviderRepo, UserCoursesRepo userCoursesRepo) {
+                               EntityCounters entityCounters,
+                               RevenueRollupService revenueRollupService,
+                               LiveRevenueWindow liveRevenueWindow,
+                               TransactionExporter transactionExporter,
+                               PurchaseService purchaseService) {
     this.repo = transactionRepo;
     this.courseRepo = courseRepo;
-    this.offerableCoursesRepo = offerableCoursesRepo;
-    this.userRepo = userRepo;
-    this.courseProviderRepo = courseProviderRepo;
-    this.userCoursesRepo = userCoursesRepo;
+    this.entityCounters = entityCounters;
+    this.revenueRollupService = revenueRollupService;
+    this.liveRevenueWindow = liveRevenueWindow;
+    this.transactionExporter = transactionExporter;
+    this.purchaseService = purchaseService;
   }
 
 
   /**
-   * Returns a list of all transactions.
+   * Returns a page of transactions as flat rows, oldest first. The cursor of the next page is
+   * returned in the X-Next-Cursor header.
    *
-   * @return a list of all transactions.
+   * @param cursor the cursor from the previous page, or null for the first page
+   * @param limit  the largest number of transactions to return
+   * @return a page of transactions.
    */
-  @Operation(summary = "Get all transactions",
-      description = "Retrieves a list of all financial transactions")
+  @Operation(summary = "Get transactions",
+      description = "Retrieves a page of financial transactions in order of time. Pass the"
+          + " X-Next-Cursor header of a page as the cursor to get the next one")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Transactions found",
-          content = @Content(schema = @Schema(implementation = Transaction.class, type = "array"))),
+          content = @Content(schema = @Schema(implementation = TransactionRowDto.class,
+              type = "array"))),
+      @ApiResponse(responseCode = "400", description = "Invalid cursor or limit"),
       @ApiResponse(responseCode = "404", description = "No transactions found")
   })
   @SecuredEndpoint
   @GetMapping("/transactions")
-  public ResponseEntity<List<Transaction>> getTransactions() {
-    List<Transaction> transactions = repo.findAll();
-    if (transactions == null || transactions.isEmpty()) {
+  public ResponseEntity<List<TransactionRowDto>> getTransactions(
+      @Parameter(description = "Cursor from the X-Next-Cursor header of the previous page")
+      @RequestParam(required = false) String cursor,
+      @Parameter(description = "Largest number of transactions to return, at most "
+          + TransactionExporter.MAX_PAGE_SIZE, example = "100")
+      @RequestParam(required = false, defaultValue = "100") int limit) {
+    TransactionPage page;
+    try {
+      page = transactionExporter.page(cursor, limit);
+    } catch (IllegalArgumentException e) {
+      logger.warning("Invalid transaction paging parameters: " + e.getMessage());
+      return ResponseEntity.status(400).body(null);
+    }
+    if (page.rows().isEmpty() && cursor == null) {
       logger.warning("No transactions found");
       return ResponseEntity.status(404).body(null);
-    } else {
-      logger.info("Transactions found: " + transactions.size());
-      return ResponseEntity.status(200).body(transactions);
     }
+    logger.info("Transactions found: " + page.rows().size());
+    HttpHeaders headers = new HttpHeaders();
+    if (page.nextCursor() != null) {
+      headers.add(SearchController.NEXT_CURSOR_HEADER, page.nextCursor());
+    }
+    return ResponseEntity.status(200).headers(headers).body(page.rows());
+  }
+
+  /**
+   * Exports every transaction as flat rows, oldest first, written while they are read.
+   *
+   * @param format the export format, csv or ndjson
+   * @return the transactions, or 400 if the format is unknown
+   */
+  @Operation(summary = "Export transactions",
+      description = "Streams every transaction as CSV or NDJSON, one row per line, in order of"
+          + " time")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Transactions, one row per line",
+          content = {@Content(mediaType = "text/csv"),
+              @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                  schema = @Schema(implementation = TransactionRowDto.class))}),
+      @ApiResponse(responseCode = "400", description = "Unknown format")
+  })
+  @SecuredEndpoint
+  @GetMapping("/transactions/export")
+  public ResponseEntity<StreamingResponseBody> exportTransactions(
+      @Parameter(description = "Export format, csv or ndjson", example = "csv")
+      @RequestParam(required = false, defaultValue = "csv") String format) {
+    Format exportFormat;
+    try {
+      exportFormat = Format.of(format);
+    } catch (IllegalArgumentException e) {
+      logger.warning(e.getMessage());
+      return ResponseEntity.status(400).build();
+    }
+    logger.info("Exporting transactions as " + exportFormat);
+    MediaType mediaType = exportFormat == Format.CSV
+        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+        : MediaType.APPLICATION_NDJSON;
+    return ResponseEntity.status(200)
+        .contentType(mediaType)
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions."
+            + exportFormat.name().toLowerCase(Locale.ROOT) + "\"")
+        .body(out -> transactionExporter.export(exportFormat, out));
   }
 
   /**
@@ -120,6 +199,10 @@ public class TransactionController {
     if(!repo.existsByUser_Id(uid)){
       return ResponseEntity.status(404).build();
     }
+    for (Transaction transaction : repo.getAllByUser_Id(uid)) {
+      revenueRollupService.purchaseDeleted(transaction);
+      liveRevenueWindow.purchaseDeleted(transaction);
+    }
     repo.deleteAllByUser_Id(uid);
     return ResponseEntity.status(200).build();
   }
@@ -241,54 +324,30 @@ public class TransactionController {
 
 
   /**
-   * Adds a new transaction based on offerable course ID and user ID.
-   * Adds the transaction to the database and updates or adds the corresponding user course
-   * to the database.
+   * Buys an offerable course for the authenticated user. Records the transaction, enrolls the
+   * user in the course or moves their enrollment to now, and counts the revenue, all in one
+   * database transaction.
    *
    * @param oId the ID of the offerable course.
-   * @return the added transaction.
+   * @return the recorded transaction.
    */
   @Operation(summary = "Create transaction with IDs",
       description = "Records a new transaction using offerable course and user IDs")
   @ApiResponses(value = {
-      @ApiResponse(responseCode = "201", description = "Transaction created"),
+      @ApiResponse(responseCode = "201", description = "Transaction created",
+          content = @Content(schema = @Schema(implementation = TransactionRowDto.class))),
       @ApiResponse(responseCode = "404", description = " Course not found")
   })
   @SecuredEndpoint
   @PostMapping("/transaction/offerId/{oId}")
-  public ResponseEntity<Transaction> addTransaction(@PathVariable long oId) {
-    Transaction transaction = new Transaction();
-    OfferableCourses offerableCourse = offerableCoursesRepo.getOfferableCoursesById(oId);
+  public ResponseEntity<TransactionRowDto> addTransaction(@PathVariable long oId) {
     long uId = SecurityUtils.getAuthenticatedUserId();
-    User user = userRepo.getUsersById(uId);
-    if (offerableCourse == null || user == null) {
+    Optional<TransactionRowDto> transaction = purchaseService.purchase(oId, uId);
+    if (transaction.isEmpty()) {
+      logger.warning("No offerable course with id " + oId + " or user with id " + uId);
       return ResponseEntity.status(404).body(null);
     }
-    // Add the transaction to the database
-    transaction.setOfferableCourses(offerableCourse);
-    transaction.setUser(user);
-    transaction.setTimeOfTransaction(new Timestamp(System.currentTimeMillis()));
-    transaction.setPricePaid(offerableCourse.getPrice() * (1 - offerableCourse.getDiscount()));
-     repo.save(transaction);
-
-
-    // Add the user course to the database after transaction is created;
-    UserCourse userCourse;
-    if (userCoursesRepo.existsByUser_IdAndCourse_Id(uId, offerableCourse.getCourse().getId())) {
-      userCourse =  userCoursesRepo.getUserCoursesByUser_IdAndCourse_Id(uId, offerableCourse.getCourse().getId());
-      userCourse.setTimestamp();
-      // If the user course doesn't exist, create a new one
-    } else {
-      userCourse = new UserCourse();
-      userCourse.setCourse(courseRepo.getCoursesById(offerableCourse.getCourse().getId()));
-      userCourse.setUser(userRepo.getUsersById(uId));
-    }
-    this.userCoursesRepo.save(userCourse);
-    if (userCoursesRepo.existsById(userCourse.getId())) {
-      return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
-    } else {
-      return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-    }
+    return ResponseEntity.status(HttpStatus.CREATED).body(transaction.get());
   }
 
   /**
@@ -306,20 +365,7 @@ public class TransactionController {
   @SecuredEndpoint
   @GetMapping("/transaction/providersStats")
   public ResponseEntity<List<CourseProviderStatsDto>> getProviderStats() {
-    List<CourseProviderStatsDto> statsList = new ArrayList<>();
-    List<CourseProvider> providers = courseProviderRepo.findAll();
-    for (CourseProvider provider : providers) {
-      List<Transaction> transactions = repo.findAllByOfferableCourses_Provider(provider);
-      float revenueSum = 0;
-      for (Transaction transaction : transactions) {
-        revenueSum += transaction.getPricePaid();
-      }
-      if (revenueSum > 0) {
-        CourseProviderStatsDto providerStats =
-            new CourseProviderStatsDto(provider.getId(), provider.getName(), revenueSum);
-        statsList.add(providerStats);
-      }
-    }
+    List<CourseProviderStatsDto> statsList = repo.sumRevenueGroupedByProvider();
     if (statsList.isEmpty()) {
       logger.warning("No providers found");
       return ResponseEntity.status(404).body(null);
@@ -344,15 +390,12 @@ public class TransactionController {
   @SecuredEndpoint
   @GetMapping("/transaction/totalRevenue")
   public ResponseEntity<Float> getTotalRevenue() {
-    List<Transaction> transactions = repo.findAll();
-    if (transactions.isEmpty()) {
+    RevenueSummaryDto summary = summarizeRevenue();
+    if (summary.getTransactionCount() == 0) {
       logger.warning("No transactions found");
       return ResponseEntity.status(204).body(null);
     }
-    float revenueSum = 0;
-    for (Transaction transaction : transactions) {
-      revenueSum += transaction.getPricePaid();
-    }
+    float revenueSum = summary.getTotalRevenue();
     logger.info("Total revenue: " + revenueSum);
     return ResponseEntity.status(200).body(revenueSum);
   }
@@ -372,29 +415,24 @@ public class TransactionController {
   @SecuredEndpoint
   @GetMapping("/transaction/averageRevenuePerCourse")
   public ResponseEntity<Float> getAvgRevenuePerCourse() {
-    List<Course> courses = courseRepo.findAll();
-    int totalCourses = courses.size();
-    List<Transaction> transactions = repo.findAll();
+    long totalCourses = entityCounters.getCourseTotal();
+    RevenueSummaryDto summary = summarizeRevenue();
 
-    if (transactions.isEmpty()) {
+    if (summary.getTransactionCount() == 0) {
       logger.warning("No transactions found");
       return ResponseEntity.status(404).body(null);
-    } else if (courses.isEmpty()) {
+    } else if (totalCourses == 0) {
       logger.warning("No courses found");
       return ResponseEntity.status(404).body(null);
     }
 
-    float revenueSum = 0;
-    for (Transaction transaction : transactions) {
-      revenueSum += transaction.getPricePaid();
-    }
-    Float avgRevenue = revenueSum / totalCourses;
+    Float avgRevenue = summary.getTotalRevenue() / totalCourses;
     logger.info("Average revenue per course: " + avgRevenue);
     return ResponseEntity.status(200).body(avgRevenue);
   }
 
   /**
-   * Get the total revenue for the last 30 days.
+   * Get the total revenue for the last 30 days, from the live revenue totals.
    *
    * @return the revenue for the last 30 days
    */
@@ -403,25 +441,137 @@ public class TransactionController {
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Revenue calculated",
           content = @Content(schema = @Schema(implementation = Float.class))),
-      @ApiResponse(responseCode = "404", description = "No transactions found")
+      @ApiResponse(responseCode = "404", description = "No transactions in the last 30 days")
   })
   @SecuredEndpoint
   @GetMapping("/transaction/revenueLast30Days")
   public ResponseEntity<Float> getRevenueLast30Days() {
-    List<Transaction> transactions = repo.findAll();
+    Totals last30Days = liveRevenueWindow.last30Days();
 
-    if (transactions.isEmpty()) {
-      logger.warning("No transactions found");
+    if (last30Days.purchases() == 0) {
+      logger.warning("No transactions found in the last 30 days");
       return ResponseEntity.status(404).body(null);
     }
-    float revenueSum = 0;
-    for (Transaction transaction : transactions) {
-      if (transaction.getTimeOfTransaction().after(
-          Timestamp.valueOf(LocalDateTime.now().minusDays(30)))) {
-        revenueSum += transaction.getPricePaid();
-      }
+    return ResponseEntity.status(200).body((float) last30Days.revenue());
+  }
+
+  /**
+   * Get the live purchase and revenue totals of the last hour, 24 hours and 30 days.
+   *
+   * @return the live totals
+   */
+  @Operation(summary = "Get live revenue",
+      description = "Retrieves purchases and revenue of the last hour, 24 hours and 30 days")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Totals retrieved",
+          content = @Content(schema = @Schema(implementation = LiveRevenueDto.class)))
+  })
+  @SecuredEndpoint
+  @GetMapping("/transaction/revenue/live")
+  public ResponseEntity<LiveRevenueDto> getLiveRevenue() {
+    Totals lastHour = liveRevenueWindow.lastHour();
+    Totals last24Hours = liveRevenueWindow.last24Hours();
+    Totals last30Days = liveRevenueWindow.last30Days();
+    return ResponseEntity.status(200).body(new LiveRevenueDto(
+        lastHour.purchases(), (float) lastHour.revenue(),
+        last24Hours.purchases(), (float) last24Hours.revenue(),
+        last30Days.purchases(), (float) last30Days.revenue()));
+  }
+
+  /**
+   * Get all revenue metrics of the admin dashboard in one response.
+   *
+   * @return the transaction count, total revenue, revenue for the last 30 days, average revenue
+   *     per course and revenue per provider
+   */
+  @Operation(summary = "Get revenue dashboard",
+      description = "Retrieves all revenue metrics of the admin dashboard at once")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Metrics calculated",
+          content = @Content(schema = @Schema(implementation = RevenueDashboardDto.class)))
+  })
+  @SecuredEndpoint
+  @GetMapping("/transaction/dashboard")
+  public ResponseEntity<RevenueDashboardDto> getDashboard() {
+    RevenueDashboardDto dashboard = new RevenueDashboardDto(summarizeRevenue(),
+        entityCounters.getCourseTotal(), repo.sumRevenueGroupedByProvider());
+    logger.info("Revenue dashboard calculated for " + dashboard.getTransactionCount()
+        + " transactions");
+    return ResponseEntity.status(200).body(dashboard);
+  }
+
+  /**
+   * Get the revenue per provider during a time window, summed from hourly and daily buckets.
+   *
+   * @param from the start of the window in epoch milliseconds, rounded down to the hour
+   * @param to   the end of the window in epoch milliseconds, exclusive, rounded up to the hour
+   * @return the revenue of every provider that sold during the window
+   */
+  @Operation(summary = "Get provider revenue for a window",
+      description = "Sums the revenue per provider between two points in time")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Revenue calculated",
+          content = @Content(schema = @Schema(implementation = RevenueBreakdownDto.class,
+              type = "array"))),
+      @ApiResponse(responseCode = "400", description = "The window ends before it starts")
+  })
+  @SecuredEndpoint
+  @GetMapping("/transaction/revenue/providers")
+  public ResponseEntity<List<RevenueBreakdownDto>> getProviderRevenue(@RequestParam long from,
+                                                                      @RequestParam long to) {
+    if (to <= from) {
+      return ResponseEntity.status(400).body(null);
+    }
+    return ResponseEntity.status(200).body(revenueRollupService.revenueByProvider(from, to));
+  }
+
+  /**
+   * Get the revenue per course during a time window, summed from hourly and daily buckets.
+   *
+   * @param from the start of the window in epoch milliseconds, rounded down to the hour
+   * @param to   the end of the window in epoch milliseconds, exclusive, rounded up to the hour
+   * @return the revenue of every course sold during the window
+   */
+  @Operation(summary = "Get course revenue for a window",
+      description = "Sums the revenue per course between two points in time")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Revenue calculated",
+          content = @Content(schema = @Schema(implementation = RevenueBreakdownDto.class,
+              type = "array"))),
+      @ApiResponse(responseCode = "400", description = "The window ends before it starts")
+  })
+  @SecuredEndpoint
+  @GetMapping("/transaction/revenue/courses")
+  public ResponseEntity<List<RevenueBreakdownDto>> getCourseRevenue(@RequestParam long from,
+                                                                    @RequestParam long to) {
+    if (to <= from) {
+      return ResponseEntity.status(400).body(null);
     }
-    return ResponseEntity.status(200).body(revenueSum);
+    return ResponseEntity.status(200).body(revenueRollupService.revenueByCourse(from, to));
+  }
+
+  /**
+   * Recomputes the hourly and daily revenue buckets from the transaction history.
+   *
+   * @return 204 when the buckets are rebuilt
+   */
+  @Operation(summary = "Rebuild revenue buckets",
+      description = "Recomputes the hourly and daily revenue buckets from all transactions")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "204", description = "Buckets rebuilt")
+  })
+  @SecuredEndpoint
+  @PostMapping("/transaction/revenue/rebuild")
+  public ResponseEntity<Void> rebuildRevenueBuckets() {
+    revenueRollupService.rebuild();
+    return ResponseEntity.status(204).build();
+  }
+
+  /**
+   * Sums the revenue in the database, with the last 30 days as the recent period.
+   */
+  private RevenueSummaryDto summarizeRevenue() {
+    return repo.summarizeRevenue(Timestamp.valueOf(LocalDateTime.now().minusDays(30)));
   }
 
 }
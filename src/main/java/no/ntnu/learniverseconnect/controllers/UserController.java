@@ -7,8 +7,6 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.transaction.Transactional;
-import java.sql.Timestamp;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -24,6 +22,8 @@ import no.ntnu.learniverseconnect.model.repos.UserCoursesRepo;
 import no.ntnu.learniverseconnect.model.repos.UserRepo;
 import no.ntnu.learniverseconnect.security.swagger.SecuredEndpoint;
 import no.ntnu.learniverseconnect.security.SecurityUtils;
+import no.ntnu.learniverseconnect.services.CourseRatingService;
+import no.ntnu.learniverseconnect.services.EntityCounters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -50,15 +50,31 @@ public class UserController {
   FavoritesRepo favoritesRepo;
   UserCoursesRepo userCoursesRepo;
   TransactionRepo transactionRepo;
+  CourseRatingService courseRatingService;
+  EntityCounters entityCounters;
 
+  /**
+   * Constructor for UserController.
+   *
+   * @param repo                the user repository
+   * @param favoritesRepo       the favorites repository
+   * @param userCoursesRepo     the user courses repository
+   * @param transactionRepo     the transaction repository
+   * @param courseRatingService maintains the course rating aggregates
+   * @param entityCounters      the maintained user counts
+   */
   @Autowired
   public UserController(UserRepo repo,
                         FavoritesRepo favoritesRepo,
-                        UserCoursesRepo userCoursesRepo, TransactionRepo transactionRepo) {
+                        UserCoursesRepo userCoursesRepo, TransactionRepo transactionRepo,
+                        CourseRatingService courseRatingService,
+                        EntityCounters entityCounters) {
     this.repo = repo;
     this.favoritesRepo = favoritesRepo;
     this.userCoursesRepo = userCoursesRepo;
     this.transactionRepo = transactionRepo;
+    this.courseRatingService = courseRatingService;
+    this.entityCounters = entityCounters;
   }
 
 
@@ -221,13 +237,13 @@ public class UserController {
   @SecuredEndpoint
   @GetMapping("/users/total")
   public ResponseEntity<Integer> getUserTotal() {
-    List<User> totalUsers = repo.findAll();
-    if (totalUsers.isEmpty()) {
+    int totalUsers = (int) entityCounters.getUserTotal();
+    if (totalUsers == 0) {
       logger.warn("No users found");
       return ResponseEntity.status(404).body(0);
     }
     logger.info("Fetching total number of users");
-    return ResponseEntity.status(200).body(totalUsers.size());
+    return ResponseEntity.status(200).body(totalUsers);
   }
 
 
@@ -254,7 +270,8 @@ public class UserController {
 
 
   /**
-   * Get the total users that signed up the last 30 days.
+   * Get the total users that signed up the last 30 days, counted in whole days with today
+   * included.
    *
    * @return the amount of users for the last 30 days
    */
@@ -268,18 +285,11 @@ public class UserController {
   @SecuredEndpoint
   @GetMapping("/users/newUsers")
   public ResponseEntity<Float> getNewUsers() {
-    List<User> users = repo.findAll();
-    if (users.isEmpty()) {
+    if (entityCounters.getUserTotal() == 0) {
       logger.warn("No users found");
       return ResponseEntity.status(404).body(0f);
     }
-    float userSum = 0;
-    for (User user : users) {
-      if (user.getUserCreated().after(
-          Timestamp.valueOf(LocalDateTime.now().minusDays(30)))) {
-        userSum++;
-      }
-    }
+    float userSum = entityCounters.getNewUserCount();
     logger.info("Fetching total number of new users in the last 30 days");
     return ResponseEntity.status(200).body(userSum);
   }
@@ -300,7 +310,8 @@ public class UserController {
   @SecuredEndpoint
   @DeleteMapping("/user/{id}")
   public ResponseEntity<String> deleteUser(@PathVariable long id) {
-    if (repo.existsUserById(id)) {
+    User user = repo.getUsersById(id);
+    if (user != null) {
       logger.info("Deleting user with id: {}", id);
       if (transactionRepo.existsTransactionByUser_Id(id)) {
         transactionRepo.getAllByUser_Id(id).forEach(transaction -> {
@@ -309,8 +320,10 @@ public class UserController {
         });
       }
       favoritesRepo.deleteAllByUser_Id(id);
+      courseRatingService.removeRatingsOfUser(id);
       userCoursesRepo.deleteAllByUser_Id(id);
       repo.deleteUserById(id);
+      entityCounters.userDeleted(user.getUserCreated());
 
       return ResponseEntity.status(200).body("User with id " + id + " deleted");
     } else {
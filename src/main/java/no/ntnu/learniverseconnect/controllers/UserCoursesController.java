@@ -13,6 +13,7 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.CourseRating;
 import no.ntnu.learniverseconnect.model.entities.Review;
 import no.ntnu.learniverseconnect.model.entities.UserCourse;
 import no.ntnu.learniverseconnect.model.repos.CourseRepo;
@@ -21,6 +22,7 @@ import no.ntnu.learniverseconnect.model.repos.UserCoursesRepo;
 import no.ntnu.learniverseconnect.model.repos.UserRepo;
 import no.ntnu.learniverseconnect.security.swagger.SecuredEndpoint;
 import no.ntnu.learniverseconnect.security.SecurityUtils;
+import no.ntnu.learniverseconnect.services.CourseRatingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -47,6 +49,7 @@ public class UserCoursesController {
   UserRepo userRepo;
   CourseRepo courseRepo;
   ReviewRepo reviewRepo;
+  CourseRatingService courseRatingService;
   private static final Logger logger = LoggerFactory.getLogger(UserCoursesController.class);
 
   /**
@@ -55,14 +58,17 @@ public class UserCoursesController {
    * @param userCoursesRepo1 the repository for user courses
    * @param userRepo1        the repository for users
    * @param courseRepo1      the repository for courses
+   * @param courseRatingService1 the service maintaining the course rating aggregates
    */
   @Autowired
   public UserCoursesController(UserCoursesRepo userCoursesRepo1, UserRepo userRepo1,
-                               CourseRepo courseRepo1, ReviewRepo reviewRepo1) {
+                               CourseRepo courseRepo1, ReviewRepo reviewRepo1,
+                               CourseRatingService courseRatingService1) {
     this.userCoursesRepo = userCoursesRepo1;
     this.courseRepo = courseRepo1;
     this.userRepo = userRepo1;
     this.reviewRepo = reviewRepo1;
+    this.courseRatingService = courseRatingService1;
   }
 
 
@@ -137,35 +143,38 @@ public class UserCoursesController {
   })
   @GetMapping("/userCourses/averageRating/{cid}")
   public ResponseEntity<Float> getAverageByCourse(@PathVariable long cid) {
-    List<UserCourse> courses = userCoursesRepo.getAllByCourse_Id(cid);
-    if (courses.isEmpty()) {
-      logger.error("No courses found for course with id: {}", cid);
-      return ResponseEntity.status(404).body(null);
-    }
-    float average = 0;
-    int count = 0;
-    int status = 0;
-    for (UserCourse course : courses) {
-      if (course.getReview() != null) {
-        if (course.getReview().getRating() > 0 && course.getReview().getRating() < 6) {
-          average += course.getReview().getRating();
-          count++;
-        }
-      }
+    logger.info("Fetching average rating for course with id: {}", cid);
+    CourseRating rating = courseRatingService.getRating(cid).orElse(null);
+    if (rating == null || rating.getRatingCount() <= 0) {
+      logger.error("No ratings found for course with id: {}", cid);
+      return ResponseEntity.status(404).body(0f);
     }
-    if (count <= 0) {
-      status = 404;
-      average = 0;
-    } else {
-      average = average / count;
-      if (average > 0 && average < 6) {
-        status = 200;
-      } else {
-        status = 204;
-      }
+    return ResponseEntity.status(200).body(rating.getAverageRating());
+  }
+
+
+  /**
+   * Get the rating distribution of a given course: the average, the number of ratings and how
+   * many ratings each star value (1-5) has received.
+   *
+   * @param cid the course id.
+   * @return the rating aggregate of the course.
+   */
+  @Operation(summary = "Get rating distribution for a course",
+      description = "Retrieves the average, count and 1-5 star histogram of a course's ratings")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Distribution found",
+          content = @Content(schema = @Schema(implementation = CourseRating.class))),
+      @ApiResponse(responseCode = "404", description = "No ratings found")
+  })
+  @GetMapping("/userCourses/ratingDistribution/{cid}")
+  public ResponseEntity<CourseRating> getRatingDistribution(@PathVariable long cid) {
+    CourseRating rating = courseRatingService.getRating(cid).orElse(null);
+    if (rating == null || rating.getRatingCount() <= 0) {
+      logger.error("No ratings found for course with id: {}", cid);
+      return ResponseEntity.status(404).body(null);
     }
-    logger.info("Fetching average rating for course with id: {}", cid);
-    return ResponseEntity.status(status).body(average);
+    return ResponseEntity.status(200).body(rating);
   }
 
 
@@ -324,6 +333,7 @@ public class UserCoursesController {
     if (!userCoursesRepo.existsUserCourseByUser_Id(uid)) {
       return ResponseEntity.status(404).build();
     }
+    courseRatingService.removeRatingsOfUser(uid);
     userCoursesRepo.deleteAllByUser_Id(uid);
     return ResponseEntity.status(200).build();
   }
@@ -353,8 +363,11 @@ public class UserCoursesController {
     }
     long uid = SecurityUtils.getAuthenticatedUserId();
     // Makes sure the minimum review is 1 one star.
-    if (review.getRating() < 1) {
-      review.setRating(1);
+    if (review.getRating() < CourseRating.MIN_RATING) {
+      review.setRating(CourseRating.MIN_RATING);
+    }
+    if (review.getRating() > CourseRating.MAX_RATING) {
+      review.setRating(CourseRating.MAX_RATING);
     }
     review.setDate();
 
@@ -364,8 +377,10 @@ public class UserCoursesController {
       return ResponseEntity.status(404).build();
     }
     if (userCourse.getReview() != null) {
+      courseRatingService.removeRating(cid, userCourse.getReview().getRating());
       reviewRepo.delete(userCourse.getReview());
     }
+    courseRatingService.addRating(cid, review.getRating());
     userCourse.setReview(review);
     userCoursesRepo.save(userCourse);
     review = reviewRepo.save(review);
@@ -398,6 +413,7 @@ public class UserCoursesController {
       return ResponseEntity.status(404).build();
     }
     if (userCourse.getReview() != null) {
+      courseRatingService.removeRating(cid, userCourse.getReview().getRating());
       reviewRepo.delete(userCourse.getReview());
       userCourse.setReview(null);
       userCoursesRepo.save(userCourse);
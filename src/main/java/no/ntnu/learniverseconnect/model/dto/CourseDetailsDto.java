@@ -0,0 +1,82 @@
+package no.ntnu.learniverseconnect.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.CourseRating;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+
+/**
+ * Data Transfer Object for everything the course page shows: the course with its keywords,
+ * offers, rating, reviews and favorite count. Parts that were not requested are left out of
+ * the JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CourseDetailsDto {
+  private final Course course;
+  private List<String> keywords;
+  private List<OfferableCourses> offers;
+  private CourseRating rating;
+  private List<CourseReviewDto> reviews;
+  private Long favoriteCount;
+
+  /**
+   * Constructs a new CourseDetailsDto with only the course. The other parts are set when they
+   * are fetched.
+   *
+   * @param course the course
+   */
+  public CourseDetailsDto(Course course) {
+    this.course = course;
+  }
+
+  public Course getCourse() {
+    return course;
+  }
+
+  public List<String> getKeywords() {
+    return keywords;
+  }
+
+  public void setKeywords(List<String> keywords) {
+    this.keywords = keywords;
+  }
+
+  public List<OfferableCourses> getOffers() {
+    return offers;
+  }
+
+  public void setOffers(List<OfferableCourses> offers) {
+    this.offers = offers;
+  }
+
+  /**
+   * Gets the rating aggregate of the course.
+   *
+   * @return the rating aggregate, or null if it was not requested. A course that has never been
+   *     rated has an empty aggregate.
+   */
+  public CourseRating getRating() {
+    return rating;
+  }
+
+  public void setRating(CourseRating rating) {
+    this.rating = rating;
+  }
+
+  public List<CourseReviewDto> getReviews() {
+    return reviews;
+  }
+
+  public void setReviews(List<CourseReviewDto> reviews) {
+    this.reviews = reviews;
+  }
+
+  public Long getFavoriteCount() {
+    return favoriteCount;
+  }
+
+  public void setFavoriteCount(Long favoriteCount) {
+    this.favoriteCount = favoriteCount;
+  }
+}
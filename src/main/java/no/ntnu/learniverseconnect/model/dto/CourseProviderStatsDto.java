@@ -29,5 +29,44 @@ public class CourseProviderStatsDto {
     this.revenue = revenue;
   }
 
+  /**
+   * Constructs a new CourseProviderStatsDto from a revenue sum. Used as a JPQL constructor
+   * expression.
+   *
+   * @param idProvider the id of the course provider
+   * @param providerName the name of the course provider
+   * @param revenue the summed revenue of the course provider
+   */
+  public CourseProviderStatsDto(Long idProvider, String providerName, Double revenue) {
+    this(idProvider, providerName, revenue != null ? revenue.floatValue() : 0f);
+  }
+
+  /**
+   * Gets the id of the course provider.
+   *
+   * @return the id of the course provider
+   */
+  public Long getIdProvider() {
+    return idProvider;
+  }
+
+  /**
+   * Gets the name of the course provider.
+   *
+   * @return the name of the course provider
+   */
+  public String getProviderName() {
+    return providerName;
+  }
+
+  /**
+   * Gets the revenue of the course provider.
+   *
+   * @return the revenue of the course provider
+   */
+  public float getRevenue() {
+    return revenue;
+  }
+
 
 }
@@ -0,0 +1,83 @@
+package no.ntnu.learniverseconnect.model.dto;
+
+import java.sql.Timestamp;
+import no.ntnu.learniverseconnect.model.entities.Review;
+
+/**
+ * Data Transfer Object for a review of a course, with the public profile of its author. Used as
+ * a JPQL constructor expression, so the reviews of a course are read in one query.
+ */
+public class CourseReviewDto {
+  private final long id;
+  private final Reviewer user;
+  private final Review review;
+  private final Timestamp timestamp;
+
+  /**
+   * Constructs a new CourseReviewDto.
+   *
+   * @param id             the id of the enrollment the review belongs to
+   * @param userId         the id of the author
+   * @param userName       the name of the author
+   * @param profilePicture the profile picture of the author
+   * @param review         the review
+   * @param timestamp      the time of the enrollment
+   */
+  public CourseReviewDto(Long id, Long userId, String userName, String profilePicture,
+                         Review review, Timestamp timestamp) {
+    this.id = id;
+    this.user = new Reviewer(userId, userName, profilePicture);
+    this.review = review;
+    this.timestamp = timestamp;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public Reviewer getUser() {
+    return user;
+  }
+
+  public Review getReview() {
+    return review;
+  }
+
+  public Timestamp getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * The public profile of the author of a review.
+   */
+  public static class Reviewer {
+    private final long id;
+    private final String name;
+    private final String profilePicture;
+
+    /**
+     * Constructs a new Reviewer.
+     *
+     * @param id             the id of the user
+     * @param name           the name of the user
+     * @param profilePicture the profile picture of the user
+     */
+    public Reviewer(long id, String name, String profilePicture) {
+      this.id = id;
+      this.name = name;
+      this.profilePicture = profilePicture;
+    }
+
+    public long getId() {
+      return id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getProfilePicture() {
+      return profilePicture;
+    }
+  }
+}
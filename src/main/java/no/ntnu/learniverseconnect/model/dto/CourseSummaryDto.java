@@ -0,0 +1,118 @@
+package no.ntnu.learniverseconnect.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import no.ntnu.learniverseconnect.model.entities.Course;
+
+/**
+ * Data Transfer Object for the course fields shown on a course card. List responses carry this
+ * instead of the full {@link Course}, so they do not ship the whole description of every
+ * course. The full course is available from {@code /course/{id}}.
+ */
+@Schema(description = "The course fields shown on a course card")
+public class CourseSummaryDto {
+
+  /**
+   * The largest number of description characters in an excerpt, not counting the ellipsis.
+   */
+  public static final int EXCERPT_LENGTH = 200;
+
+  @Schema(description = "Unique course ID", example = "1")
+  private final long id;
+
+  @Schema(description = "Course title", example = "Introduction to Java")
+  private final String title;
+
+  @Schema(description = "Course category", example = "Programming")
+  private final String category;
+
+  @Schema(description = "Difficulty level (1-5)", example = "2")
+  private final int diffLevel;
+
+  @Schema(description = "Credit value", example = "7.5")
+  private final float credits;
+
+  @Schema(description = "Course image URL", example = "http://example.com/course.jpg")
+  private final String imgLink;
+
+  @Schema(description = "The start of the course description, cut at a word boundary",
+      example = "Learn Java fundamentals…")
+  private final String excerpt;
+
+  /**
+   * Constructs a new CourseSummaryDto. Used as a JPQL constructor expression, where the
+   * description is cut to one character more than {@link #EXCERPT_LENGTH} in the database.
+   *
+   * @param id          the id of the course
+   * @param title       the title of the course
+   * @param category    the category of the course
+   * @param diffLevel   the difficulty level of the course
+   * @param credits     the credit value of the course
+   * @param imgLink     the image link of the course
+   * @param description the description of the course, or its start
+   */
+  public CourseSummaryDto(long id, String title, String category, int diffLevel, float credits,
+                          String imgLink, String description) {
+    this.id = id;
+    this.title = title;
+    this.category = category;
+    this.diffLevel = diffLevel;
+    this.credits = credits;
+    this.imgLink = imgLink;
+    this.excerpt = excerpt(description);
+  }
+
+  /**
+   * Builds the summary of a loaded course.
+   *
+   * @param course the course
+   * @return the summary
+   */
+  public static CourseSummaryDto of(Course course) {
+    return new CourseSummaryDto(course.getId(), course.getTitle(), course.getCategory(),
+        course.getDiffLevel(), course.getCredits(), course.getImgLink(),
+        course.getDescription());
+  }
+
+  /**
+   * Cuts a description to at most {@link #EXCERPT_LENGTH} characters, at the last word boundary,
+   * and marks the cut with an ellipsis.
+   */
+  private static String excerpt(String description) {
+    if (description == null || description.length() <= EXCERPT_LENGTH) {
+      return description;
+    }
+    int end = description.lastIndexOf(' ', EXCERPT_LENGTH);
+    if (end <= 0) {
+      end = EXCERPT_LENGTH;
+    }
+    return description.substring(0, end).stripTrailing() + "…";
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  public String getCategory() {
+    return category;
+  }
+
+  public int getDiffLevel() {
+    return diffLevel;
+  }
+
+  public float getCredits() {
+    return credits;
+  }
+
+  public String getImgLink() {
+    return imgLink;
+  }
+
+  public String getExcerpt() {
+    return excerpt;
+  }
+}
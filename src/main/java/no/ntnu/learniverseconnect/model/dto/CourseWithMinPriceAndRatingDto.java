@@ -1,19 +1,22 @@
 package no.ntnu.learniverseconnect.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.Date;
-import no.ntnu.learniverseconnect.model.entities.Course;
 
 /**
- * Data Transfer Object for Course with minimum price. Used primarily for searching and filtering
+ * Data Transfer Object for Course with minimum price. Used primarily for searching and filtering.
+ * Carries a {@link CourseSummaryDto} rather than the full course.
  */
 public class CourseWithMinPriceAndRatingDto {
-  private Course course;
+  private CourseSummaryDto course;
   private float minDiscountedPrice;
   private Date closestDate;
   private float rating;
   private int numberOfRatings;
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Float score;
 
-  public CourseWithMinPriceAndRatingDto(Course course, float minDiscountedPrice, Date closestDate, float rating, int numberOfRatings) {
+  public CourseWithMinPriceAndRatingDto(CourseSummaryDto course, float minDiscountedPrice, Date closestDate, float rating, int numberOfRatings) {
     this.course = course;
     this.minDiscountedPrice = minDiscountedPrice;
     this.closestDate = closestDate;
@@ -21,7 +24,7 @@ public class CourseWithMinPriceAndRatingDto {
     this.numberOfRatings = numberOfRatings;
   }
 
-  public Course getCourse() {
+  public CourseSummaryDto getCourse() {
     return course;
   }
 
@@ -40,5 +43,18 @@ public class CourseWithMinPriceAndRatingDto {
     return numberOfRatings;
   }
 
+  /**
+   * Returns the relevance score of the course for a text search.
+   *
+   * @return the score, or null if the card was not found by a text search
+   */
+  public Float getScore() {
+    return score;
+  }
+
+  public void setScore(Float score) {
+    this.score = score;
+  }
+
 
 }
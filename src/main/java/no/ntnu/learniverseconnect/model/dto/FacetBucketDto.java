@@ -0,0 +1,58 @@
+package no.ntnu.learniverseconnect.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Data Transfer Object for one bucket of a range facet, such as a price range, with the number
+ * of courses in it.
+ */
+@Schema(description = "A range facet bucket with its course count")
+public class FacetBucketDto {
+  @Schema(description = "Lower bound, inclusive", example = "1000")
+  private final float from;
+  @Schema(description = "Upper bound, exclusive. Null for the open-ended last bucket",
+      example = "5000")
+  private final Float to;
+  @Schema(description = "Number of courses in the bucket", example = "12")
+  private final long count;
+
+  /**
+   * Constructs a new FacetBucketDto.
+   *
+   * @param from  the lower bound, inclusive
+   * @param to    the upper bound, exclusive, or null if the bucket is open-ended
+   * @param count the number of courses in the bucket
+   */
+  public FacetBucketDto(float from, Float to, long count) {
+    this.from = from;
+    this.to = to;
+    this.count = count;
+  }
+
+  /**
+   * Gets the lower bound.
+   *
+   * @return the lower bound, inclusive
+   */
+  public float getFrom() {
+    return from;
+  }
+
+  /**
+   * Gets the upper bound.
+   *
+   * @return the upper bound, exclusive, or null if the bucket is open-ended
+   */
+  public Float getTo() {
+    return to;
+  }
+
+  /**
+   * Gets the number of courses in the bucket.
+   *
+   * @return the course count
+   */
+  public long getCount() {
+    return count;
+  }
+}
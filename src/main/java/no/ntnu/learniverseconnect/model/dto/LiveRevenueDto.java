@@ -0,0 +1,89 @@
+package no.ntnu.learniverseconnect.model.dto;
+
+/**
+ * Data Transfer Object for the live purchase and revenue totals of the last hour, 24 hours and
+ * 30 days.
+ */
+public class LiveRevenueDto {
+  private final long purchasesLastHour;
+  private final float revenueLastHour;
+  private final long purchasesLast24Hours;
+  private final float revenueLast24Hours;
+  private final long purchasesLast30Days;
+  private final float revenueLast30Days;
+
+  /**
+   * Constructs a new LiveRevenueDto.
+   *
+   * @param purchasesLastHour    the number of purchases in the last hour
+   * @param revenueLastHour      the revenue of the last hour
+   * @param purchasesLast24Hours the number of purchases in the last 24 hours
+   * @param revenueLast24Hours   the revenue of the last 24 hours
+   * @param purchasesLast30Days  the number of purchases in the last 30 days
+   * @param revenueLast30Days    the revenue of the last 30 days
+   */
+  public LiveRevenueDto(long purchasesLastHour, float revenueLastHour,
+                        long purchasesLast24Hours, float revenueLast24Hours,
+                        long purchasesLast30Days, float revenueLast30Days) {
+    this.purchasesLastHour = purchasesLastHour;
+    this.revenueLastHour = revenueLastHour;
+    this.purchasesLast24Hours = purchasesLast24Hours;
+    this.revenueLast24Hours = revenueLast24Hours;
+    this.purchasesLast30Days = purchasesLast30Days;
+    this.revenueLast30Days = revenueLast30Days;
+  }
+
+  /**
+   * Gets the number of purchases in the last hour.
+   *
+   * @return the number of purchases in the last hour
+   */
+  public long getPurchasesLastHour() {
+    return purchasesLastHour;
+  }
+
+  /**
+   * Gets the revenue of the last hour.
+   *
+   * @return the revenue of the last hour
+   */
+  public float getRevenueLastHour() {
+    return revenueLastHour;
+  }
+
+  /**
+   * Gets the number of purchases in the last 24 hours.
+   *
+   * @return the number of purchases in the last 24 hours
+   */
+  public long getPurchasesLast24Hours() {
+    return purchasesLast24Hours;
+  }
+
+  /**
+   * Gets the revenue of the last 24 hours.
+   *
+   * @return the revenue of the last 24 hours
+   */
+  public float getRevenueLast24Hours() {
+    return revenueLast24Hours;
+  }
+
+  /**
+   * Gets the number of purchases in the last 30 days.
+   *
+   * @return the number of purchases in the last 30 days
+   */
+  public long getPurchasesLast30Days() {
+    return purchasesLast30Days;
+  }
+
+  /**
+   * Gets the revenue of the last 30 days.
+   *
+   * @return the revenue of the last 30 days
+   */
+  public float getRevenueLast30Days() {
+    return revenueLast30Days;
+  }
+}
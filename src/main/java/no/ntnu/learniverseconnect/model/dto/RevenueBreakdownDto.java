@@ -0,0 +1,50 @@
+package no.ntnu.learniverseconnect.model.dto;
+
+/**
+ * Data Transfer Object for the revenue of one provider or course during a time window.
+ */
+public class RevenueBreakdownDto {
+  private final long id;
+  private final float revenue;
+  private final long purchases;
+
+  /**
+   * Constructs a new RevenueBreakdownDto. Used as a JPQL constructor expression.
+   *
+   * @param id        the id of the provider or course
+   * @param revenue   the sum of the prices paid
+   * @param purchases the number of purchases
+   */
+  public RevenueBreakdownDto(Long id, Double revenue, Long purchases) {
+    this.id = id;
+    this.revenue = revenue != null ? revenue.floatValue() : 0f;
+    this.purchases = purchases != null ? purchases : 0;
+  }
+
+  /**
+   * Gets the id of the provider or course.
+   *
+   * @return the id
+   */
+  public long getId() {
+    return id;
+  }
+
+  /**
+   * Gets the revenue.
+   *
+   * @return the sum of the prices paid
+   */
+  public float getRevenue() {
+    return revenue;
+  }
+
+  /**
+   * Gets the number of purchases.
+   *
+   * @return the number of purchases
+   */
+  public long getPurchases() {
+    return purchases;
+  }
+}
@@ -0,0 +1,76 @@
+package no.ntnu.learniverseconnect.model.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the revenue metrics of the admin dashboard, returned together so
+ * the dashboard loads them in one request.
+ */
+public class RevenueDashboardDto {
+  private final long transactionCount;
+  private final float totalRevenue;
+  private final float revenueLast30Days;
+  private final float averageRevenuePerCourse;
+  private final List<CourseProviderStatsDto> providers;
+
+  /**
+   * Constructs a new RevenueDashboardDto.
+   *
+   * @param summary     the revenue totals, with the last 30 days as the recent period
+   * @param courseCount the number of courses, used for the average revenue per course
+   * @param providers   the revenue of every provider that has earned any
+   */
+  public RevenueDashboardDto(RevenueSummaryDto summary, long courseCount,
+                             List<CourseProviderStatsDto> providers) {
+    this.transactionCount = summary.getTransactionCount();
+    this.totalRevenue = summary.getTotalRevenue();
+    this.revenueLast30Days = summary.getRecentRevenue();
+    this.averageRevenuePerCourse = courseCount > 0 ? summary.getTotalRevenue() / courseCount : 0f;
+    this.providers = providers;
+  }
+
+  /**
+   * Gets the number of transactions.
+   *
+   * @return the number of transactions
+   */
+  public long getTransactionCount() {
+    return transactionCount;
+  }
+
+  /**
+   * Gets the total revenue.
+   *
+   * @return the sum of all prices paid
+   */
+  public float getTotalRevenue() {
+    return totalRevenue;
+  }
+
+  /**
+   * Gets the revenue of the last 30 days.
+   *
+   * @return the sum of the prices paid in the last 30 days
+   */
+  public float getRevenueLast30Days() {
+    return revenueLast30Days;
+  }
+
+  /**
+   * Gets the average revenue per course.
+   *
+   * @return the total revenue divided by the number of courses, 0 if there are no courses
+   */
+  public float getAverageRevenuePerCourse() {
+    return averageRevenuePerCourse;
+  }
+
+  /**
+   * Gets the revenue per provider.
+   *
+   * @return the revenue of every provider that has earned any
+   */
+  public List<CourseProviderStatsDto> getProviders() {
+    return providers;
+  }
+}
@@ -0,0 +1,52 @@
+package no.ntnu.learniverseconnect.model.dto;
+
+/**
+ * Data Transfer Object for the revenue totals of all transactions, summed by the database in
+ * one pass.
+ */
+public class RevenueSummaryDto {
+  private final long transactionCount;
+  private final float totalRevenue;
+  private final float recentRevenue;
+
+  /**
+   * Constructs a new RevenueSummaryDto. Used as a JPQL constructor expression.
+   *
+   * @param transactionCount the number of transactions
+   * @param totalRevenue     the sum of all prices paid, or null if there are no transactions
+   * @param recentRevenue    the sum of the prices paid in the recent period, or null if there
+   *                         are no transactions
+   */
+  public RevenueSummaryDto(Long transactionCount, Double totalRevenue, Double recentRevenue) {
+    this.transactionCount = transactionCount != null ? transactionCount : 0;
+    this.totalRevenue = totalRevenue != null ? totalRevenue.floatValue() : 0f;
+    this.recentRevenue = recentRevenue != null ? recentRevenue.floatValue() : 0f;
+  }
+
+  /**
+   * Gets the number of transactions.
+   *
+   * @return the number of transactions
+   */
+  public long getTransactionCount() {
+    return transactionCount;
+  }
+
+  /**
+   * Gets the total revenue.
+   *
+   * @return the sum of all prices paid
+   */
+  public float getTotalRevenue() {
+    return totalRevenue;
+  }
+
+  /**
+   * Gets the revenue of the recent period.
+   *
+   * @return the sum of the prices paid in the recent period
+   */
+  public float getRecentRevenue() {
+    return recentRevenue;
+  }
+}
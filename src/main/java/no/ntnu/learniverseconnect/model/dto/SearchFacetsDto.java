@@ -0,0 +1,88 @@
+package no.ntnu.learniverseconnect.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Transfer Object for the facet counts of a search. Each facet counts the courses that
+ * would match if that facet's own filter were removed, so selecting a value shows how many
+ * results it would give.
+ */
+@Schema(description = "Course counts per filter value")
+public class SearchFacetsDto {
+  @Schema(description = "Courses per category")
+  private final Map<String, Long> categories;
+  @Schema(description = "Courses per difficulty level")
+  private final Map<Integer, Long> diffLevels;
+  @Schema(description = "Courses per price range, by offer price before discount")
+  private final List<FacetBucketDto> prices;
+  @Schema(description = "Courses per credits range")
+  private final List<FacetBucketDto> credits;
+  @Schema(description = "Courses per average rating range. Unrated courses are not counted")
+  private final List<FacetBucketDto> ratings;
+
+  /**
+   * Constructs a new SearchFacetsDto.
+   *
+   * @param categories the course count per category
+   * @param diffLevels the course count per difficulty level
+   * @param prices     the course count per price range
+   * @param credits    the course count per credits range
+   * @param ratings    the course count per average rating range
+   */
+  public SearchFacetsDto(Map<String, Long> categories, Map<Integer, Long> diffLevels,
+                         List<FacetBucketDto> prices, List<FacetBucketDto> credits,
+                         List<FacetBucketDto> ratings) {
+    this.categories = categories;
+    this.diffLevels = diffLevels;
+    this.prices = prices;
+    this.credits = credits;
+    this.ratings = ratings;
+  }
+
+  /**
+   * Gets the course count per category.
+   *
+   * @return the counts keyed by category
+   */
+  public Map<String, Long> getCategories() {
+    return categories;
+  }
+
+  /**
+   * Gets the course count per difficulty level.
+   *
+   * @return the counts keyed by difficulty level
+   */
+  public Map<Integer, Long> getDiffLevels() {
+    return diffLevels;
+  }
+
+  /**
+   * Gets the course count per price range.
+   *
+   * @return the price buckets
+   */
+  public List<FacetBucketDto> getPrices() {
+    return prices;
+  }
+
+  /**
+   * Gets the course count per credits range.
+   *
+   * @return the credits buckets
+   */
+  public List<FacetBucketDto> getCredits() {
+    return credits;
+  }
+
+  /**
+   * Gets the course count per average rating range.
+   *
+   * @return the rating buckets
+   */
+  public List<FacetBucketDto> getRatings() {
+    return ratings;
+  }
+}
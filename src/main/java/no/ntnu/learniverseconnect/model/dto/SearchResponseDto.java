@@ -0,0 +1,62 @@
+package no.ntnu.learniverseconnect.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+/**
+ * Data Transfer Object for a page of search results together with the facet counts of the
+ * whole search. Returned by the search endpoints when facets are requested.
+ */
+@Schema(description = "Search results with facet counts")
+public class SearchResponseDto {
+  @Schema(description = "The course cards on the requested page")
+  private final List<CourseWithMinPriceAndRatingDto> results;
+  @Schema(description = "Facet counts over all matching courses")
+  private final SearchFacetsDto facets;
+  @Schema(description = "Spelling correction of the search text, present when the text as"
+      + " typed matches nothing", example = "python")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private final String didYouMean;
+
+  /**
+   * Constructs a new SearchResponseDto.
+   *
+   * @param results    the course cards on the requested page
+   * @param facets     the facet counts
+   * @param didYouMean the spelling correction of the search text, or null
+   */
+  public SearchResponseDto(List<CourseWithMinPriceAndRatingDto> results, SearchFacetsDto facets,
+                           String didYouMean) {
+    this.results = results;
+    this.facets = facets;
+    this.didYouMean = didYouMean;
+  }
+
+  /**
+   * Gets the course cards on the requested page.
+   *
+   * @return the course cards
+   */
+  public List<CourseWithMinPriceAndRatingDto> getResults() {
+    return results;
+  }
+
+  /**
+   * Gets the facet counts.
+   *
+   * @return the facet counts
+   */
+  public SearchFacetsDto getFacets() {
+    return facets;
+  }
+
+  /**
+   * Gets the spelling correction of the search text.
+   *
+   * @return the corrected search text, or null if none is needed
+   */
+  public String getDidYouMean() {
+    return didYouMean;
+  }
+}
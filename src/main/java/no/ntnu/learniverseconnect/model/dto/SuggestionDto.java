@@ -0,0 +1,58 @@
+package no.ntnu.learniverseconnect.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Data Transfer Object for one autocomplete suggestion.
+ */
+@Schema(description = "An autocomplete suggestion")
+public class SuggestionDto {
+  @Schema(description = "The suggested text", example = "Real-Time Programming in Java")
+  private final String text;
+  @Schema(description = "Where the text comes from: title, keyword, category or certification",
+      example = "title")
+  private final String type;
+  @Schema(description = "The course the suggestion belongs to, for titles of a single course",
+      example = "1")
+  private final Long courseId;
+
+  /**
+   * Constructs a new SuggestionDto.
+   *
+   * @param text     the suggested text
+   * @param type     the kind of text
+   * @param courseId the id of the only course with this text, or null
+   */
+  public SuggestionDto(String text, String type, Long courseId) {
+    this.text = text;
+    this.type = type;
+    this.courseId = courseId;
+  }
+
+  /**
+   * Gets the suggested text.
+   *
+   * @return the text
+   */
+  public String getText() {
+    return text;
+  }
+
+  /**
+   * Gets the kind of text: title, keyword, category or certification.
+   *
+   * @return the type
+   */
+  public String getType() {
+    return type;
+  }
+
+  /**
+   * Gets the id of the course the suggestion belongs to.
+   *
+   * @return the course id, or null if the text belongs to several courses or is not a title
+   */
+  public Long getCourseId() {
+    return courseId;
+  }
+}
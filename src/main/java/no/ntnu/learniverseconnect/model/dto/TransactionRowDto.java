@@ -0,0 +1,153 @@
+package no.ntnu.learniverseconnect.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.sql.Timestamp;
+
+/**
+ * Data Transfer Object for one transaction as a flat row, for listings and exports. Carries the
+ * ids and names of the user, offer, course and provider instead of the entities themselves.
+ */
+@Schema(description = "A transaction with the ids and names of what it refers to")
+public class TransactionRowDto {
+  @Schema(description = "Unique transaction ID", example = "1")
+  private final long id;
+  @Schema(description = "Timestamp of transaction", example = "2023-01-01T12:00:00Z")
+  private final Timestamp timeOfTransaction;
+  @Schema(description = "Final price paid (after discounts)", example = "49.99")
+  private final float pricePaid;
+  @Schema(description = "ID of the user who made the purchase, absent if the user is deleted",
+      example = "1")
+  private final Long userId;
+  @Schema(description = "Email of the user who made the purchase", example = "user@example.com")
+  private final String userEmail;
+  @Schema(description = "ID of the purchased course offering", example = "1")
+  private final long offerId;
+  @Schema(description = "ID of the purchased course", example = "1")
+  private final long courseId;
+  @Schema(description = "Title of the purchased course", example = "Introduction to Java")
+  private final String courseTitle;
+  @Schema(description = "ID of the course provider, absent if the offering has none",
+      example = "1")
+  private final Long providerId;
+  @Schema(description = "Name of the course provider", example = "NTNU")
+  private final String providerName;
+
+  /**
+   * Constructs a new TransactionRowDto. Used as a JPQL constructor expression.
+   *
+   * @param id                the transaction id
+   * @param timeOfTransaction the time of the transaction
+   * @param pricePaid         the price paid
+   * @param userId            the id of the user, or null if there is none
+   * @param userEmail         the email of the user, or null if there is no user
+   * @param offerId           the id of the course offering
+   * @param courseId          the id of the course
+   * @param courseTitle       the title of the course
+   * @param providerId        the id of the provider, or null if there is none
+   * @param providerName      the name of the provider, or null if there is no provider
+   */
+  public TransactionRowDto(Long id, Timestamp timeOfTransaction, Float pricePaid, Long userId,
+                           String userEmail, Long offerId, Long courseId, String courseTitle,
+                           Long providerId, String providerName) {
+    this.id = id;
+    this.timeOfTransaction = timeOfTransaction;
+    this.pricePaid = pricePaid != null ? pricePaid : 0f;
+    this.userId = userId;
+    this.userEmail = userEmail;
+    this.offerId = offerId;
+    this.courseId = courseId;
+    this.courseTitle = courseTitle;
+    this.providerId = providerId;
+    this.providerName = providerName;
+  }
+
+  /**
+   * Gets the transaction id.
+   *
+   * @return the transaction id
+   */
+  public long getId() {
+    return id;
+  }
+
+  /**
+   * Gets the time of the transaction.
+   *
+   * @return the time of the transaction
+   */
+  public Timestamp getTimeOfTransaction() {
+    return timeOfTransaction;
+  }
+
+  /**
+   * Gets the price paid.
+   *
+   * @return the price paid after discounts
+   */
+  public float getPricePaid() {
+    return pricePaid;
+  }
+
+  /**
+   * Gets the id of the user who made the purchase.
+   *
+   * @return the user id, or null if there is no user
+   */
+  public Long getUserId() {
+    return userId;
+  }
+
+  /**
+   * Gets the email of the user who made the purchase.
+   *
+   * @return the user email, or null if there is no user
+   */
+  public String getUserEmail() {
+    return userEmail;
+  }
+
+  /**
+   * Gets the id of the purchased course offering.
+   *
+   * @return the offer id
+   */
+  public long getOfferId() {
+    return offerId;
+  }
+
+  /**
+   * Gets the id of the purchased course.
+   *
+   * @return the course id
+   */
+  public long getCourseId() {
+    return courseId;
+  }
+
+  /**
+   * Gets the title of the purchased course.
+   *
+   * @return the course title
+   */
+  public String getCourseTitle() {
+    return courseTitle;
+  }
+
+  /**
+   * Gets the id of the course provider.
+   *
+   * @return the provider id, or null if there is no provider
+   */
+  public Long getProviderId() {
+    return providerId;
+  }
+
+  /**
+   * Gets the name of the course provider.
+   *
+   * @return the provider name
+   */
+  public String getProviderName() {
+    return providerName;
+  }
+}
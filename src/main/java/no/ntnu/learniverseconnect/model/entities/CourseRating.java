@@ -0,0 +1,146 @@
+package no.ntnu.learniverseconnect.model.entities;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * Pre-aggregated rating statistics for one course. Kept up to date whenever a review is added,
+ * replaced or removed, so that rating reads do not have to scan the user courses.
+ */
+@Schema(description = "Aggregated rating statistics for a course")
+@Entity
+public class CourseRating {
+
+  /**
+   * The lowest allowed rating.
+   */
+  public static final int MIN_RATING = 1;
+
+  /**
+   * The highest allowed rating.
+   */
+  public static final int MAX_RATING = 5;
+
+  @Schema(description = "ID of the rated course", example = "1")
+  @Id
+  private long courseId;
+
+  @Schema(description = "Sum of all ratings", example = "42")
+  private long ratingSum;
+
+  @Schema(description = "Number of ratings", example = "10")
+  private int ratingCount;
+
+  @Schema(description = "Average rating, 0 when there are no ratings", example = "4.2")
+  private float averageRating;
+
+  @Schema(description = "Number of one star ratings", example = "0")
+  private int oneStar;
+
+  @Schema(description = "Number of two star ratings", example = "1")
+  private int twoStars;
+
+  @Schema(description = "Number of three star ratings", example = "1")
+  private int threeStars;
+
+  @Schema(description = "Number of four star ratings", example = "3")
+  private int fourStars;
+
+  @Schema(description = "Number of five star ratings", example = "5")
+  private int fiveStars;
+
+  /**
+   * Default constructor for JPA.
+   */
+  public CourseRating() {
+  }
+
+  /**
+   * Creates an empty rating aggregate for a course.
+   *
+   * @param courseId the id of the course
+   */
+  public CourseRating(long courseId) {
+    this.courseId = courseId;
+  }
+
+  /**
+   * Checks whether a rating value is counted by the aggregate.
+   *
+   * @param rating the rating value
+   * @return true if the rating is between 1 and 5
+   */
+  public static boolean isValidRating(int rating) {
+    return rating >= MIN_RATING && rating <= MAX_RATING;
+  }
+
+  /**
+   * Adds a rating to the aggregate. Ratings outside 1-5 are ignored.
+   *
+   * @param rating the rating to add
+   */
+  public void addRating(int rating) {
+    adjust(rating, 1);
+  }
+
+  /**
+   * Adds the same rating several times. Used when seeding the aggregate from existing reviews.
+   *
+   * @param rating the rating to add
+   * @param count  how many times to add it
+   */
+  public void addRatings(int rating, int count) {
+    adjust(rating, count);
+  }
+
+  /**
+   * Removes a rating from the aggregate. Ratings outside 1-5 are ignored.
+   *
+   * @param rating the rating to remove
+   */
+  public void removeRating(int rating) {
+    adjust(rating, -1);
+  }
+
+  private void adjust(int rating, int delta) {
+    if (!isValidRating(rating)) {
+      return;
+    }
+    switch (rating) {
+      case 1 -> oneStar = Math.max(0, oneStar + delta);
+      case 2 -> twoStars = Math.max(0, twoStars + delta);
+      case 3 -> threeStars = Math.max(0, threeStars + delta);
+      case 4 -> fourStars = Math.max(0, fourStars + delta);
+      default -> fiveStars = Math.max(0, fiveStars + delta);
+    }
+    ratingCount = oneStar + twoStars + threeStars + fourStars + fiveStars;
+    ratingSum = oneStar + 2L * twoStars + 3L * threeStars + 4L * fourStars + 5L * fiveStars;
+    averageRating = ratingCount > 0 ? (float) ratingSum / ratingCount : 0f;
+  }
+
+  public long getCourseId() {
+    return courseId;
+  }
+
+  public long getRatingSum() {
+    return ratingSum;
+  }
+
+  public int getRatingCount() {
+    return ratingCount;
+  }
+
+  public float getAverageRating() {
+    return averageRating;
+  }
+
+  /**
+   * Returns the number of ratings per star, from one star at index 0 to five stars at index 4.
+   *
+   * @return the rating histogram
+   */
+  public int[] getHistogram() {
+    return new int[] {oneStar, twoStars, threeStars, fourStars, fiveStars};
+  }
+}
@@ -0,0 +1,124 @@
+package no.ntnu.learniverseconnect.model.entities;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Pre-aggregated revenue of one course offered by one provider during one hour or day. Kept up
+ * to date on every purchase, so that revenue for a time window sums a few buckets instead of
+ * scanning the transactions.
+ */
+@Schema(description = "Revenue of a course and provider during one time bucket")
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_revenue_rollup_bucket",
+    columnNames = {"granularity", "bucket_start", "provider_id", "course_id"}),
+    indexes = @Index(name = "idx_revenue_rollup_window",
+        columnList = "granularity, bucket_start"))
+public class RevenueRollup {
+
+  /**
+   * The length of a bucket.
+   */
+  public enum Granularity {
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    Granularity(ChronoUnit unit) {
+      this.unit = unit;
+    }
+
+    /**
+     * Gets the start of the bucket that a point in time falls in.
+     *
+     * @param time the point in time
+     * @return the start of its bucket
+     */
+    public Timestamp bucketOf(Timestamp time) {
+      return Timestamp.valueOf(time.toLocalDateTime().truncatedTo(unit));
+    }
+
+    /**
+     * Gets the start of the bucket that a point in time falls in.
+     *
+     * @param time the point in time
+     * @return the start of its bucket
+     */
+    public LocalDateTime bucketOf(LocalDateTime time) {
+      return time.truncatedTo(unit);
+    }
+  }
+
+  @Schema(description = "Unique ID of the bucket", example = "1")
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private long id;
+
+  @Schema(description = "Length of the bucket", example = "HOUR")
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 8)
+  private Granularity granularity;
+
+  @Schema(description = "Start of the bucket", example = "2025-01-01T12:00:00Z")
+  @Column(nullable = false)
+  private Timestamp bucketStart;
+
+  @Schema(description = "ID of the provider of the purchased offers", example = "1")
+  private long providerId;
+
+  @Schema(description = "ID of the purchased course", example = "1")
+  private long courseId;
+
+  @Schema(description = "Sum of the prices paid", example = "499.5")
+  private double revenue;
+
+  @Schema(description = "Number of purchases", example = "10")
+  private long purchases;
+
+  /**
+   * Default constructor for JPA.
+   */
+  public RevenueRollup() {
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public Granularity getGranularity() {
+    return granularity;
+  }
+
+  public Timestamp getBucketStart() {
+    return bucketStart;
+  }
+
+  public long getProviderId() {
+    return providerId;
+  }
+
+  public long getCourseId() {
+    return courseId;
+  }
+
+  public double getRevenue() {
+    return revenue;
+  }
+
+  public long getPurchases() {
+    return purchases;
+  }
+}
@@ -5,9 +5,11 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
 import java.sql.Timestamp;
@@ -25,6 +27,8 @@ import java.sql.Timestamp;
  * </ul>
  */
 @Entity
+@Table(indexes = @Index(name = "idx_transaction_time_id",
+    columnList = "time_of_transaction, id"))
 public class Transaction {
   @Schema(description = "Unique transaction ID", example = "1")
   @Id
@@ -0,0 +1,44 @@
+package no.ntnu.learniverseconnect.model.repos;
+
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+import no.ntnu.learniverseconnect.model.entities.CourseRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The course rating aggregate repository.
+ */
+@Repository
+public interface CourseRatingRepo extends JpaRepository<CourseRating, Long> {
+
+  Optional<CourseRating> findByCourseId(long courseId);
+
+  /**
+   * Gets the committed average rating of a course. A scalar, so it is read from the database
+   * even when the aggregate is already loaded in the persistence context.
+   */
+  @Query("SELECT cr.averageRating FROM CourseRating cr "
+      + "WHERE cr.courseId = :courseId AND cr.ratingCount > 0")
+  Optional<Float> findAverageRating(@Param("courseId") long courseId);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT cr FROM CourseRating cr WHERE cr.courseId = :courseId")
+  Optional<CourseRating> findForUpdate(@Param("courseId") long courseId);
+
+  /**
+   * Creates an empty aggregate for a course, unless one exists. Hibernate renders the upsert of
+   * the dialect, so a concurrent first rating of the same course does not fail either insert.
+   * The update leaves an existing aggregate as it is; {@code DO NOTHING} is not used, since
+   * Hibernate renders it as a plain insert on some databases.
+   */
+  @Modifying
+  @Query("INSERT INTO CourseRating (courseId, ratingSum, ratingCount, averageRating, oneStar, "
+      + "twoStars, threeStars, fourStars, fiveStars) VALUES (:courseId, 0, 0, 0, 0, 0, 0, 0, 0) "
+      + "ON CONFLICT (courseId) DO UPDATE SET ratingCount = ratingCount")
+  int insertIfAbsent(@Param("courseId") long courseId);
+}
@@ -1,8 +1,12 @@
 package no.ntnu.learniverseconnect.model.repos;
 
+import java.util.Collection;
 import java.util.List;
+import no.ntnu.learniverseconnect.model.dto.CourseSummaryDto;
 import no.ntnu.learniverseconnect.model.entities.Course;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -15,6 +19,20 @@ public interface CourseRepo extends JpaRepository<Course, Integer> {
 
   Course getCoursesById(long id);
 
+  boolean existsById(long id);
+
+  /**
+   * Gets the course card fields of the given courses, without loading the full descriptions.
+   *
+   * @param ids the course ids
+   * @return the course summaries
+   */
+  @Query("SELECT new no.ntnu.learniverseconnect.model.dto.CourseSummaryDto("
+      + "c.id, c.title, c.category, c.diffLevel, c.credits, c.imgLink, "
+      + "SUBSTRING(c.description, 1, " + (CourseSummaryDto.EXCERPT_LENGTH + 1) + ")) "
+      + "FROM Course c WHERE c.id IN :ids")
+  List<CourseSummaryDto> getCourseSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
   List<Course> getCoursesByTitleContaining(String title);
   List<Course> getCoursesByDescriptionContaining(String description);
   List<Course> getCoursesByTitleContainingOrDescriptionContaining(String title, String description);
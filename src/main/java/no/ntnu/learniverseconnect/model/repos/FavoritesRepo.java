@@ -14,6 +14,8 @@ public interface FavoritesRepo extends JpaRepository<Favorite, Integer> {
 
   List<Favorite> getByCourse_Id(long courseId);
 
+  long countByCourse_Id(long courseId);
+
   List<Favorite> findAllByUser_Name(String userName);
 
   List<Favorite> findFavoritesByUser_Id(Long userId);
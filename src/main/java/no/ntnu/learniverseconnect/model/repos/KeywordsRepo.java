@@ -3,6 +3,8 @@ package no.ntnu.learniverseconnect.model.repos;
 import java.util.List;
 import no.ntnu.learniverseconnect.model.entities.Keywords;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -18,4 +20,21 @@ public interface KeywordsRepo extends JpaRepository<Keywords, Integer> {
   void deleteAllByCourse_Id(long courseId);
 
   boolean existsByCourse_Id(long courseId);
+
+  /**
+   * Gets the keywords of a course as entered, without loading the rows.
+   *
+   * @param courseId the course id
+   * @return the keywords
+   */
+  @Query("SELECT k.keyword FROM Keywords k WHERE k.course.id = :courseId ORDER BY k.id")
+  List<String> findKeywordTextsByCourseId(@Param("courseId") long courseId);
+
+  /**
+   * Gets every keyword as a (course id, keyword) pair, without loading the courses.
+   *
+   * @return the pairs
+   */
+  @Query("SELECT k.course.id, k.keyword FROM Keywords k")
+  List<Object[]> findAllCourseKeywords();
 }
@@ -18,12 +18,47 @@ public interface OfferableCoursesRepo extends JpaRepository<OfferableCourses, In
     JpaSpecificationExecutor<OfferableCourses> {
   List<OfferableCourses> getAllByCourse_Id(long cid);
 
+  /**
+   * Gets the offers of a course together with their course and provider, in one query.
+   *
+   * @param courseId the course id
+   * @return the offers of the course
+   */
+  @Query("SELECT o FROM OfferableCourses o JOIN FETCH o.course LEFT JOIN FETCH o.provider "
+      + "WHERE o.course.id = :courseId")
+  List<OfferableCourses> findAllWithProviderByCourseId(@Param("courseId") long courseId);
+
   List<OfferableCourses> getAllByProvider_Id(long pid);
 
   void deleteAllByCourse_Id(long courseId);
 
   OfferableCourses getOfferableCoursesById(long id);
 
+  /**
+   * Gets what a purchase needs to know about an offer and its buyer, in one query. The row
+   * holds the price, discount, course id, course title, provider id, provider name and the
+   * email of the buyer.
+   *
+   * @param offerId the offer id
+   * @param userId  the id of the buyer
+   * @return one row, or none if the offer or the user does not exist
+   */
+  @Query("SELECT o.price, o.discount, c.id, c.title, p.id, p.name, u.email "
+      + "FROM OfferableCourses o JOIN o.course c LEFT JOIN o.provider p, User u "
+      + "WHERE o.id = :offerId AND u.id = :userId")
+  List<Object[]> findPurchaseDetails(@Param("offerId") long offerId,
+                                     @Param("userId") long userId);
+
 
   List<OfferableCourses> findAllByVisibility(boolean visibility);
+
+  /**
+   * Gets the filterable columns of every visible offer, ordered by course. Each row holds the
+   * offer id, course id, price, discount, date, difficulty level, credits and category.
+   *
+   * @return one row per visible offer
+   */
+  @Query("SELECT o.id, c.id, o.price, o.discount, o.date, c.diffLevel, c.credits, c.category "
+      + "FROM OfferableCourses o JOIN o.course c WHERE o.visibility = true ORDER BY c.id, o.id")
+  List<Object[]> getVisibleOfferColumns();
 }
@@ -0,0 +1,98 @@
+package no.ntnu.learniverseconnect.model.repos;
+
+import java.sql.Timestamp;
+import java.util.List;
+import no.ntnu.learniverseconnect.model.dto.RevenueBreakdownDto;
+import no.ntnu.learniverseconnect.model.entities.RevenueRollup;
+import no.ntnu.learniverseconnect.model.entities.RevenueRollup.Granularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The revenue rollup repository.
+ *
+ * <p>A window is summed from the daily buckets of its whole days, plus the hourly buckets
+ * before the first and after the last whole day. A window without whole days passes the same
+ * instant as both day bounds, which leaves only hourly buckets.</p>
+ */
+@Repository
+public interface RevenueRollupRepo extends JpaRepository<RevenueRollup, Long> {
+
+  String WINDOW = "(r.granularity = DAY AND r.bucketStart >= :dayFrom AND r.bucketStart < :dayTo) "
+      + "OR (r.granularity = HOUR AND r.bucketStart >= :from AND r.bucketStart < :dayFrom) "
+      + "OR (r.granularity = HOUR AND r.bucketStart >= :dayTo AND r.bucketStart < :to)";
+
+  /**
+   * Adds purchases to a bucket, creating it if it does not exist yet. Hibernate renders the
+   * upsert of the dialect, such as {@code INSERT ... ON DUPLICATE KEY UPDATE} on MySQL, so two
+   * first purchases racing to create the bucket both land in it.
+   */
+  @Modifying
+  @Query("INSERT INTO RevenueRollup (granularity, bucketStart, providerId, courseId, revenue, "
+      + "purchases) VALUES (:granularity, :bucketStart, :providerId, :courseId, :revenue, "
+      + ":purchases) ON CONFLICT (granularity, bucketStart, providerId, courseId) DO UPDATE "
+      + "SET revenue = revenue + excluded.revenue, purchases = purchases + excluded.purchases")
+  int upsertBucket(@Param("granularity") Granularity granularity,
+                   @Param("bucketStart") Timestamp bucketStart,
+                   @Param("providerId") long providerId, @Param("courseId") long courseId,
+                   @Param("revenue") double revenue, @Param("purchases") long purchases);
+
+  String REBUILD_INSERT = "INSERT INTO RevenueRollup (granularity, bucketStart, providerId, "
+      + "courseId, revenue, purchases) SELECT :granularity, ";
+  String REBUILD_SUMS = ", o.provider.id, o.course.id, SUM(t.pricePaid), COUNT(t) "
+      + "FROM Transaction t JOIN t.offerableCourses o WHERE o.provider IS NOT NULL GROUP BY ";
+  String REBUILD_HOURLY = REBUILD_INSERT + "truncate(t.timeOfTransaction, hour)" + REBUILD_SUMS
+      + "truncate(t.timeOfTransaction, hour), o.provider.id, o.course.id";
+  String REBUILD_DAILY = REBUILD_INSERT + "truncate(t.timeOfTransaction, day)" + REBUILD_SUMS
+      + "truncate(t.timeOfTransaction, day), o.provider.id, o.course.id";
+
+  /**
+   * Inserts the hourly buckets of all transactions, summed in the database. Expects the buckets
+   * to be deleted first, in the same transaction.
+   *
+   * @param granularity {@link Granularity#HOUR}
+   * @return the number of buckets inserted
+   */
+  @Modifying
+  @Query(REBUILD_HOURLY)
+  int insertHourlyBuckets(@Param("granularity") Granularity granularity);
+
+  /**
+   * Inserts the daily buckets of all transactions, as {@link #insertHourlyBuckets}.
+   *
+   * @param granularity {@link Granularity#DAY}
+   * @return the number of buckets inserted
+   */
+  @Modifying
+  @Query(REBUILD_DAILY)
+  int insertDailyBuckets(@Param("granularity") Granularity granularity);
+
+  @Modifying
+  @Query("UPDATE RevenueRollup r SET r.revenue = r.revenue + :revenue, "
+      + "r.purchases = r.purchases + :purchases WHERE r.granularity = :granularity "
+      + "AND r.bucketStart = :bucketStart AND r.providerId = :providerId "
+      + "AND r.courseId = :courseId")
+  int addToBucket(@Param("granularity") Granularity granularity,
+                  @Param("bucketStart") Timestamp bucketStart,
+                  @Param("providerId") long providerId, @Param("courseId") long courseId,
+                  @Param("revenue") double revenue, @Param("purchases") long purchases);
+
+  @Query("SELECT new no.ntnu.learniverseconnect.model.dto.RevenueBreakdownDto("
+      + "r.providerId, SUM(r.revenue), SUM(r.purchases)) FROM RevenueRollup r WHERE " + WINDOW
+      + " GROUP BY r.providerId HAVING SUM(r.purchases) > 0")
+  List<RevenueBreakdownDto> sumByProvider(@Param("from") Timestamp from,
+                                          @Param("dayFrom") Timestamp dayFrom,
+                                          @Param("dayTo") Timestamp dayTo,
+                                          @Param("to") Timestamp to);
+
+  @Query("SELECT new no.ntnu.learniverseconnect.model.dto.RevenueBreakdownDto("
+      + "r.courseId, SUM(r.revenue), SUM(r.purchases)) FROM RevenueRollup r WHERE " + WINDOW
+      + " GROUP BY r.courseId HAVING SUM(r.purchases) > 0")
+  List<RevenueBreakdownDto> sumByCourse(@Param("from") Timestamp from,
+                                        @Param("dayFrom") Timestamp dayFrom,
+                                        @Param("dayTo") Timestamp dayTo,
+                                        @Param("to") Timestamp to);
+}
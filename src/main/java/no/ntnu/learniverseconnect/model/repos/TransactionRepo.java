@@ -1,10 +1,21 @@
 package no.ntnu.learniverseconnect.model.repos;
 
+import jakarta.persistence.QueryHint;
+import java.sql.Timestamp;
 import java.util.List;
+import java.util.stream.Stream;
+import no.ntnu.learniverseconnect.model.dto.CourseProviderStatsDto;
+import no.ntnu.learniverseconnect.model.dto.RevenueSummaryDto;
+import no.ntnu.learniverseconnect.model.dto.TransactionRowDto;
 import no.ntnu.learniverseconnect.model.entities.Course;
 import no.ntnu.learniverseconnect.model.entities.CourseProvider;
 import no.ntnu.learniverseconnect.model.entities.Transaction;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -13,6 +24,19 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface TransactionRepo extends JpaRepository<Transaction, Integer> {
 
+  /**
+   * Selects transactions as flat rows, without loading the entities they refer to.
+   */
+  String ROWS = "SELECT new no.ntnu.learniverseconnect.model.dto.TransactionRowDto(t.id, "
+      + "t.timeOfTransaction, t.pricePaid, u.id, u.email, o.id, c.id, c.title, p.id, p.name) "
+      + "FROM Transaction t JOIN t.offerableCourses o JOIN o.course c "
+      + "LEFT JOIN o.provider p LEFT JOIN t.user u ";
+
+  /**
+   * Orders rows by their keyset.
+   */
+  String ROW_ORDER = "ORDER BY t.timeOfTransaction, t.id";
+
   Transaction findById(long id);
 
   List<Transaction> findByUser_Id(Long userId);
@@ -35,4 +59,35 @@ public interface TransactionRepo extends JpaRepository<Transaction, Integer> {
   boolean existsTransactionById(long id);
 
   boolean existsTransactionByUser_Id(long id);
+
+  @Query("SELECT new no.ntnu.learniverseconnect.model.dto.RevenueSummaryDto(COUNT(t), "
+      + "SUM(t.pricePaid), "
+      + "SUM(CASE WHEN t.timeOfTransaction >= :since THEN t.pricePaid ELSE 0 END)) "
+      + "FROM Transaction t")
+  RevenueSummaryDto summarizeRevenue(@Param("since") Timestamp since);
+
+  @Query("SELECT new no.ntnu.learniverseconnect.model.dto.CourseProviderStatsDto("
+      + "p.id, p.name, SUM(t.pricePaid)) "
+      + "FROM Transaction t JOIN t.offerableCourses o JOIN o.provider p "
+      + "GROUP BY p.id, p.name HAVING SUM(t.pricePaid) > 0")
+  List<CourseProviderStatsDto> sumRevenueGroupedByProvider();
+
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  @Query("SELECT t.timeOfTransaction, t.pricePaid FROM Transaction t "
+      + "WHERE t.timeOfTransaction >= :since")
+  Stream<Object[]> streamPurchasesSince(@Param("since") Timestamp since);
+
+  @Query(ROWS + ROW_ORDER)
+  List<TransactionRowDto> findFirstRows(Pageable page);
+
+  @Query(ROWS + "WHERE t.timeOfTransaction > :time "
+      + "OR (t.timeOfTransaction = :time AND t.id > :id) " + ROW_ORDER)
+  List<TransactionRowDto> findRowsAfter(@Param("time") Timestamp time, @Param("id") long id,
+                                        Pageable page);
+
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  @Query(ROWS + ROW_ORDER)
+  Stream<TransactionRowDto> streamRows();
 }
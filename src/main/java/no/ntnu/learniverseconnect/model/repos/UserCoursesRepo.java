@@ -1,9 +1,12 @@
 package no.ntnu.learniverseconnect.model.repos;
 
+import java.sql.Timestamp;
 import java.util.List;
+import no.ntnu.learniverseconnect.model.dto.CourseReviewDto;
 import no.ntnu.learniverseconnect.model.entities.User;
 import no.ntnu.learniverseconnect.model.entities.UserCourse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -20,6 +23,21 @@ public interface UserCoursesRepo extends JpaRepository<UserCourse, Integer> {
   @Query("SELECT AVG(uc.review.rating) FROM UserCourse uc WHERE uc.course.id = :courseId")
   Float getAverageRatingByCourseId(@Param("courseId") Long courseId);
 
+  /**
+   * Gets the reviews of a course with the public profiles of their authors, in one query.
+   *
+   * @param courseId the course id
+   * @return the reviews of the course
+   */
+  @Query("SELECT new no.ntnu.learniverseconnect.model.dto.CourseReviewDto("
+      + "uc.id, u.id, u.name, u.profilePicture, r, uc.timestamp) "
+      + "FROM UserCourse uc JOIN uc.user u JOIN uc.review r WHERE uc.course.id = :courseId")
+  List<CourseReviewDto> findReviewsByCourseId(@Param("courseId") long courseId);
+
+  @Query("SELECT uc.course.id, r.rating, COUNT(uc) FROM UserCourse uc JOIN uc.review r "
+      + "GROUP BY uc.course.id, r.rating")
+  List<Object[]> countRatingsGroupedByCourseAndRating();
+
   void deleteAllByCourse_Id(long courseId);
 
   int countByCourseId(long id);
@@ -32,6 +50,20 @@ public interface UserCoursesRepo extends JpaRepository<UserCourse, Integer> {
 
   boolean existsByUser_IdAndCourse_Id(Long userId, long courseId);
 
+  /**
+   * Moves the enrollment time of a user in a course, without loading the enrollment.
+   *
+   * @param userId   the user id
+   * @param courseId the course id
+   * @param time     the new enrollment time
+   * @return the number of enrollments updated, 0 if the user is not enrolled
+   */
+  @Modifying
+  @Query("UPDATE UserCourse uc SET uc.timestamp = :time "
+      + "WHERE uc.user.id = :userId AND uc.course.id = :courseId")
+  int touchEnrollment(@Param("userId") long userId, @Param("courseId") long courseId,
+                      @Param("time") Timestamp time);
+
   void deleteUserCourseByUser_Id(Long userId);
 
   void deleteAllByUser_Id(Long userId);
@@ -1,8 +1,12 @@
 package no.ntnu.learniverseconnect.model.repos;
 
+import java.sql.Timestamp;
+import java.util.List;
 import java.util.Optional;
 import no.ntnu.learniverseconnect.model.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -27,4 +31,8 @@ public interface UserRepo extends JpaRepository<User, Integer> {
   void deleteUserById(Long id);
 
   boolean existsUserById(Long id);
+
+  @Query("SELECT CAST(u.userCreated AS LocalDate), COUNT(u) FROM User u "
+      + "WHERE u.userCreated >= :since GROUP BY CAST(u.userCreated AS LocalDate)")
+  List<Object[]> countCreatedPerDaySince(@Param("since") Timestamp since);
 }
@@ -6,6 +6,7 @@ import no.ntnu.learniverseconnect.model.entities.Role;
 import no.ntnu.learniverseconnect.model.entities.User;
 import no.ntnu.learniverseconnect.model.repos.RoleRepo;
 import no.ntnu.learniverseconnect.model.repos.UserRepo;
+import no.ntnu.learniverseconnect.services.EntityCounters;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,6 +24,8 @@ public class AccessUserService implements UserDetailsService {
   UserRepo userRepo;
   @Autowired
   RoleRepo roleRepo;
+  @Autowired
+  EntityCounters entityCounters;
   private int MIN_PASSWORD_LENGTH = 8;
 
   @Value("${app.uploadBaseUrl}")
@@ -137,6 +140,7 @@ public class AccessUserService implements UserDetailsService {
       User user = new User(username, createHash(password), email, profilePicture);
       user.addRole(role);
       userRepo.save(user);
+      entityCounters.userCreated(user.getUserCreated());
     }
   }
 
@@ -153,6 +157,7 @@ public class AccessUserService implements UserDetailsService {
       User user = new User(username, null, email, profilePicture);
       user.addRole(role);
       userRepo.save(user);
+      entityCounters.userCreated(user.getUserCreated());
     }
   }
 
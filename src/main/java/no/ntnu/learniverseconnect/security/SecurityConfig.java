@@ -1,6 +1,7 @@
 package no.ntnu.learniverseconnect.security;
 
 import java.util.Arrays;
+import no.ntnu.learniverseconnect.controllers.SearchController;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -52,6 +53,7 @@ public class SecurityConfig {
             .requestMatchers(HttpMethod.GET, "/providers/**" , "/provider/**").permitAll()
             .requestMatchers(HttpMethod.GET, "/userCourses/reviews/**").permitAll()
             .requestMatchers(HttpMethod.GET, "/userCourses/averageRating/**").permitAll()
+            .requestMatchers(HttpMethod.GET, "/userCourses/ratingDistribution/**").permitAll()
             .requestMatchers(HttpMethod.GET, "/offerableCourses/**").permitAll()
             .requestMatchers( HttpMethod.GET, "/keyword/**").permitAll()
             .requestMatchers(HttpMethod.GET, "/search/**").permitAll()
@@ -115,6 +117,11 @@ public class SecurityConfig {
     ));
     configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
     configuration.setAllowedHeaders(Arrays.asList("*"));
+    configuration.setExposedHeaders(Arrays.asList(
+        SearchController.NEXT_CURSOR_HEADER,
+        SearchController.TOTAL_COUNT_HEADER,
+        SearchController.DID_YOU_MEAN_HEADER
+    ));
     configuration.setAllowCredentials(true);
 
     UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
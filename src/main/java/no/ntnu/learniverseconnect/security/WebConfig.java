@@ -1,9 +1,12 @@
 package no.ntnu.learniverseconnect.security;
 
+import no.ntnu.learniverseconnect.controllers.SearchController;
+import no.ntnu.learniverseconnect.services.SearchMetrics;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
@@ -13,6 +16,22 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @EnableWebMvc
 public class WebConfig implements WebMvcConfigurer {
 
+  private final SearchMetrics searchMetrics;
+
+  /**
+   * Constructor for WebConfig.
+   *
+   * @param searchMetrics records the stage timings of search requests
+   */
+  public WebConfig(SearchMetrics searchMetrics) {
+    this.searchMetrics = searchMetrics;
+  }
+
+  @Override
+  public void addInterceptors(@NonNull InterceptorRegistry registry) {
+    registry.addInterceptor(searchMetrics).addPathPatterns("/search");
+  }
+
   @Override
   public void addCorsMappings(@NonNull CorsRegistry registry) {
 
@@ -26,6 +45,8 @@ public class WebConfig implements WebMvcConfigurer {
             .allowedOrigins(allowedOrigins)
             .allowedMethods("GET", "PUT", "DELETE", "POST", "OPTIONS")
             .allowedHeaders("*")
+            .exposedHeaders(SearchController.NEXT_CURSOR_HEADER,
+                SearchController.TOTAL_COUNT_HEADER, SearchController.DID_YOU_MEAN_HEADER)
             .allowCredentials(true);
   }
 
@@ -0,0 +1,32 @@
+package no.ntnu.learniverseconnect.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers work on in-memory read models until the current transaction has committed, so a
+ * concurrent reader can not reload them from data that is not yet visible.
+ */
+final class AfterCommit {
+
+  private AfterCommit() {
+  }
+
+  /**
+   * Runs an action after the current transaction commits, or right away if there is none.
+   *
+   * @param action the action
+   */
+  static void run(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package no.ntnu.learniverseconnect.services;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.model.repos.OfferableCoursesRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory read model holding the best visible offer of every course: the one with the lowest
+ * discounted price, and among those the closest date.
+ *
+ * <p>The model is loaded from the database on startup and kept current by the offerable
+ * courses controller whenever an offer is added, deleted or has its visibility changed.
+ * Inside a transaction a change takes effect once the transaction commits, so a rolled back
+ * change never reaches the model. Course cards are served from it without reading the offers
+ * table.</p>
+ */
+@Component
+public class BestOfferIndex {
+
+  /**
+   * A visible offer reduced to the fields needed to rank it.
+   *
+   * @param offerId         the offer id
+   * @param courseId        the id of the offered course
+   * @param discountedPrice the price after discount
+   * @param date            the start date of the offer
+   */
+  public record BestOffer(long offerId, long courseId, float discountedPrice, Date date) {
+  }
+
+  /**
+   * Orders offers by discounted price, then by date.
+   */
+  private static final Comparator<BestOffer> ORDER =
+      Comparator.comparingDouble(BestOffer::discountedPrice).thenComparing(BestOffer::date);
+
+  private static final Logger logger = LoggerFactory.getLogger(BestOfferIndex.class);
+  private final OfferableCoursesRepo offerableCoursesRepo;
+
+  private final Map<Long, Map<Long, BestOffer>> visibleOffersByCourse = new HashMap<>();
+  private final Map<Long, BestOffer> bestOffers = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor for BestOfferIndex.
+   *
+   * @param offerableCoursesRepo the offerable courses repository
+   */
+  public BestOfferIndex(OfferableCoursesRepo offerableCoursesRepo) {
+    this.offerableCoursesRepo = offerableCoursesRepo;
+  }
+
+  /**
+   * Reloads every visible offer from the database.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void rebuild() {
+    visibleOffersByCourse.clear();
+    bestOffers.clear();
+    List<OfferableCourses> offers = offerableCoursesRepo.findAllByVisibility(true);
+    for (OfferableCourses offer : offers) {
+      visibleOffersByCourse
+          .computeIfAbsent(offer.getCourse().getId(), id -> new HashMap<>())
+          .put(offer.getId(), toBestOffer(offer));
+    }
+    for (Long courseId : visibleOffersByCourse.keySet()) {
+      refresh(courseId);
+    }
+    logger.info("Loaded best offers for {} courses", bestOffers.size());
+  }
+
+  /**
+   * Records a saved offer. Visible offers are added or replaced, hidden offers are removed.
+   *
+   * @param offer the saved offer
+   */
+  public void offerSaved(OfferableCourses offer) {
+    long courseId = offer.getCourse().getId();
+    long offerId = offer.getId();
+    // Read the offer now, the entity may be changed or detached by the time the change applies
+    BestOffer visible = offer.isVisible() ? toBestOffer(offer) : null;
+    AfterCommit.run(() -> applyOfferSaved(courseId, offerId, visible));
+  }
+
+  /**
+   * Records a deleted offer.
+   *
+   * @param courseId the id of the offered course
+   * @param offerId  the id of the deleted offer
+   */
+  public void offerDeleted(long courseId, long offerId) {
+    AfterCommit.run(() -> applyOfferDeleted(courseId, offerId));
+  }
+
+  /**
+   * Forgets every offer of a deleted course.
+   *
+   * @param courseId the id of the deleted course
+   */
+  public void removeCourse(long courseId) {
+    AfterCommit.run(() -> applyRemoveCourse(courseId));
+  }
+
+  /**
+   * Gets the best offer of every course with at least one visible offer.
+   *
+   * @return the best offers, one per course
+   */
+  public Collection<BestOffer> getBestOffers() {
+    return new ArrayList<>(bestOffers.values());
+  }
+
+  /**
+   * Gets the best offer of a course.
+   *
+   * @param courseId the course id
+   * @return the best visible offer, or null if the course has no visible offers
+   */
+  public BestOffer getBestOffer(long courseId) {
+    return bestOffers.get(courseId);
+  }
+
+  private synchronized void applyOfferSaved(long courseId, long offerId, BestOffer visible) {
+    if (visible != null) {
+      visibleOffersByCourse.computeIfAbsent(courseId, id -> new HashMap<>()).put(offerId, visible);
+    } else {
+      removeOffer(courseId, offerId);
+    }
+    refresh(courseId);
+  }
+
+  private synchronized void applyOfferDeleted(long courseId, long offerId) {
+    removeOffer(courseId, offerId);
+    refresh(courseId);
+  }
+
+  private synchronized void applyRemoveCourse(long courseId) {
+    visibleOffersByCourse.remove(courseId);
+    bestOffers.remove(courseId);
+  }
+
+  private void removeOffer(long courseId, long offerId) {
+    Map<Long, BestOffer> offers = visibleOffersByCourse.get(courseId);
+    if (offers != null) {
+      offers.remove(offerId);
+      if (offers.isEmpty()) {
+        visibleOffersByCourse.remove(courseId);
+      }
+    }
+  }
+
+  private void refresh(long courseId) {
+    Map<Long, BestOffer> offers = visibleOffersByCourse.get(courseId);
+    if (offers == null || offers.isEmpty()) {
+      bestOffers.remove(courseId);
+    } else {
+      bestOffers.put(courseId, offers.values().stream().min(ORDER).orElseThrow());
+    }
+  }
+
+  private static BestOffer toBestOffer(OfferableCourses offer) {
+    return new BestOffer(offer.getId(), offer.getCourse().getId(),
+        CourseCardAssembler.discountedPrice(offer), offer.getDate());
+  }
+}
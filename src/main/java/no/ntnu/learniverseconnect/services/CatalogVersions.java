@@ -0,0 +1,147 @@
+package no.ntnu.learniverseconnect.services;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Version counters of the public catalog, used for ETags and Last-Modified headers.
+ *
+ * <p>Each catalog area has a version, and so does each entity in it. The write endpoints call
+ * {@link #changed(Area, long)} after a change, which takes the next value of one global clock
+ * as the new version of both the entity and its area. Because the clock only moves forward,
+ * the largest version of several areas changes whenever any of them does, so responses built
+ * from several areas can combine their versions.</p>
+ *
+ * <p>Read endpoints look up the version before reading the database, and answer a conditional
+ * request whose ETag still matches with 304 without reading or serializing anything. The
+ * counters live in memory and start over on restart, so every ETag carries the start time of
+ * the application: changes made while it was down can never be mistaken for the old
+ * versions.</p>
+ */
+@Component
+public class CatalogVersions {
+
+  /**
+   * The parts of the catalog that are versioned separately.
+   */
+  public enum Area {
+    COURSES,
+    PROVIDERS,
+    KEYWORDS,
+    OFFERS
+  }
+
+  /**
+   * A version of a catalog resource.
+   *
+   * @param version      the version, 0 if the resource has not changed since startup
+   * @param lastModified the time of the change in epoch milliseconds, the startup time if the
+   *                     resource has not changed since
+   */
+  public record Version(long version, long lastModified) {
+  }
+
+  private final String epoch;
+  private final Version initial;
+  private final AtomicLong clock = new AtomicLong();
+  private final Map<Area, Version> areaVersions = new ConcurrentHashMap<>();
+  private final Map<Area, Map<Long, Version>> entityVersions = new EnumMap<>(Area.class);
+
+  /**
+   * Constructor for CatalogVersions.
+   */
+  public CatalogVersions() {
+    long startedAt = System.currentTimeMillis();
+    this.epoch = Long.toString(startedAt, 36);
+    this.initial = new Version(0, startedAt);
+    for (Area area : Area.values()) {
+      areaVersions.put(area, initial);
+      entityVersions.put(area, new ConcurrentHashMap<>());
+    }
+  }
+
+  /**
+   * Records a change to an entity, once the current transaction commits if there is one.
+   * Bumping before the commit would let a reader pair the new version with the old data.
+   *
+   * @param area the area of the entity
+   * @param id   the id of the entity
+   */
+  public void changed(Area area, long id) {
+    AfterCommit.run(() -> {
+      Version version = bump(area);
+      entityVersions.get(area).merge(id, version, CatalogVersions::latest);
+    });
+  }
+
+  /**
+   * Records a change to an area as a whole, such as deleting several entities at once.
+   *
+   * @param area the area
+   */
+  public void changed(Area area) {
+    AfterCommit.run(() -> bump(area));
+  }
+
+  /**
+   * Gets the version of an entity.
+   *
+   * @param area the area of the entity
+   * @param id   the id of the entity
+   * @return the version of the entity
+   */
+  public Version of(Area area, long id) {
+    return entityVersions.get(area).getOrDefault(id, initial);
+  }
+
+  /**
+   * Gets the combined version of whole areas.
+   *
+   * @param areas the areas
+   * @return the latest version among the areas
+   */
+  public Version of(Area... areas) {
+    Version latest = initial;
+    for (Area area : areas) {
+      latest = latest(latest, areaVersions.get(area));
+    }
+    return latest;
+  }
+
+  /**
+   * Checks a conditional request against a version. If the client already has this version,
+   * the response is set to 304. The ETag and Last-Modified headers are set either way.
+   *
+   * @param request the request
+   * @param version the current version of the requested resource
+   * @return true if the client's copy is current and nothing more should be written
+   */
+  public boolean isNotModified(WebRequest request, Version version) {
+    return request.checkNotModified(etag(version), version.lastModified());
+  }
+
+  /**
+   * Formats the ETag of a version.
+   *
+   * @param version the version
+   * @return the ETag value, without quotes
+   */
+  public String etag(Version version) {
+    return epoch + "-" + version.version();
+  }
+
+  private Version bump(Area area) {
+    Version version = new Version(clock.incrementAndGet(), System.currentTimeMillis());
+    // Concurrent bumps may finish out of order, so an older version never replaces a newer one
+    areaVersions.merge(area, version, CatalogVersions::latest);
+    return version;
+  }
+
+  private static Version latest(Version a, Version b) {
+    return b.version() > a.version() ? b : a;
+  }
+}
@@ -0,0 +1,130 @@
+package no.ntnu.learniverseconnect.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import no.ntnu.learniverseconnect.model.dto.CourseSummaryDto;
+import no.ntnu.learniverseconnect.model.dto.CourseWithMinPriceAndRatingDto;
+import no.ntnu.learniverseconnect.model.entities.CourseRating;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.model.repos.CourseRatingRepo;
+import no.ntnu.learniverseconnect.model.repos.CourseRepo;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds {@link CourseWithMinPriceAndRatingDto} course cards from a list of offers.
+ *
+ * <p>Offers are grouped by course and reduced to the one with the lowest discounted price and
+ * the closest date. The course summaries and the ratings of all courses are then read with
+ * one query each, from the summary projection and the {@link CourseRating} aggregates, instead
+ * of loading every course or querying per course.</p>
+ */
+@Component
+public class CourseCardAssembler {
+
+  /**
+   * Orders offers by discounted price, then by date.
+   */
+  public static final Comparator<OfferableCourses> BEST_OFFER_ORDER =
+      Comparator.comparingDouble(CourseCardAssembler::discountedPrice)
+          .thenComparing(OfferableCourses::getDate);
+
+  private final CourseRepo courseRepo;
+  private final CourseRatingRepo courseRatingRepo;
+
+  /**
+   * Constructor for CourseCardAssembler.
+   *
+   * @param courseRepo       the course repository, for course summaries
+   * @param courseRatingRepo the course rating aggregate repository
+   */
+  public CourseCardAssembler(CourseRepo courseRepo, CourseRatingRepo courseRatingRepo) {
+    this.courseRepo = courseRepo;
+    this.courseRatingRepo = courseRatingRepo;
+  }
+
+  /**
+   * Reduces the given offers to one course card per course.
+   *
+   * @param offers the offers to reduce
+   * @return one course card per course, in order of first appearance
+   */
+  public List<CourseWithMinPriceAndRatingDto> toCourseCards(Collection<OfferableCourses> offers) {
+    Map<Long, OfferableCourses> bestOffers = new LinkedHashMap<>();
+    for (OfferableCourses offer : offers) {
+      bestOffers.merge(offer.getCourse().getId(), offer,
+          (current, candidate) -> BEST_OFFER_ORDER.compare(candidate, current) < 0
+              ? candidate : current);
+    }
+
+    List<BestOfferIndex.BestOffer> reduced = new ArrayList<>(bestOffers.size());
+    for (OfferableCourses bestOffer : bestOffers.values()) {
+      reduced.add(new BestOfferIndex.BestOffer(bestOffer.getId(), bestOffer.getCourse().getId(),
+          discountedPrice(bestOffer), bestOffer.getDate()));
+    }
+    return toCourseCards(reduced,
+        IdBatches.fetch(bestOffers.keySet(), courseRepo::getCourseSummariesByIdIn));
+  }
+
+  /**
+   * Builds course cards from precomputed best offers.
+   *
+   * @param bestOffers the best offer of each course
+   * @param courses    the summaries of the courses of the offers. Offers whose course is missing
+   *                   are skipped.
+   * @return one course card per best offer
+   */
+  public List<CourseWithMinPriceAndRatingDto> toCourseCards(
+      Collection<BestOfferIndex.BestOffer> bestOffers, Collection<CourseSummaryDto> courses) {
+    Map<Long, CourseSummaryDto> coursesById = new HashMap<>();
+    for (CourseSummaryDto course : courses) {
+      coursesById.put(course.getId(), course);
+    }
+    Map<Long, CourseRating> ratings = getRatings(coursesById.keySet());
+    List<CourseWithMinPriceAndRatingDto> cards = new ArrayList<>(bestOffers.size());
+    for (BestOfferIndex.BestOffer bestOffer : bestOffers) {
+      CourseSummaryDto course = coursesById.get(bestOffer.courseId());
+      if (course == null) {
+        continue;
+      }
+      CourseRating rating = ratings.get(bestOffer.courseId());
+      cards.add(new CourseWithMinPriceAndRatingDto(
+          course,
+          bestOffer.discountedPrice(),
+          bestOffer.date(),
+          rating != null ? rating.getAverageRating() : 0f,
+          rating != null ? rating.getRatingCount() : 0
+      ));
+    }
+    return cards;
+  }
+
+  /**
+   * Looks up the rating aggregate of every given course, batching the ids to keep the
+   * IN clause bounded.
+   *
+   * @param courseIds the course ids
+   * @return the rating aggregates keyed by course id. Courses never rated are absent.
+   */
+  public Map<Long, CourseRating> getRatings(Collection<Long> courseIds) {
+    Map<Long, CourseRating> ratings = new HashMap<>();
+    for (CourseRating rating : IdBatches.fetch(courseIds, courseRatingRepo::findAllById)) {
+      ratings.put(rating.getCourseId(), rating);
+    }
+    return ratings;
+  }
+
+  /**
+   * Returns the price of an offer after discount.
+   *
+   * @param offer the offer
+   * @return the discounted price
+   */
+  public static float discountedPrice(OfferableCourses offer) {
+    return offer.getPrice() * (1 - offer.getDiscount());
+  }
+}
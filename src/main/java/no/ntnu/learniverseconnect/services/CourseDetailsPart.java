@@ -0,0 +1,42 @@
+package no.ntnu.learniverseconnect.services;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The optional parts of the course details, selected with the {@code include} parameter.
+ */
+public enum CourseDetailsPart {
+  KEYWORDS,
+  OFFERS,
+  RATING,
+  REVIEWS,
+  FAVORITES;
+
+  /**
+   * Parses the parts to include from a request parameter, ignoring case.
+   *
+   * @param values the parameter values, or null
+   * @return the parts, all of them when no value is given
+   * @throws IllegalArgumentException if a value is not a known part
+   */
+  public static Set<CourseDetailsPart> fromParameter(Collection<String> values) {
+    if (values == null || values.isEmpty()) {
+      return EnumSet.allOf(CourseDetailsPart.class);
+    }
+    Set<CourseDetailsPart> parts = EnumSet.noneOf(CourseDetailsPart.class);
+    for (String value : values) {
+      if (value.isBlank()) {
+        continue;
+      }
+      try {
+        parts.add(valueOf(value.trim().toUpperCase(Locale.ROOT)));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Unknown course detail: " + value);
+      }
+    }
+    return parts;
+  }
+}
@@ -0,0 +1,150 @@
+package no.ntnu.learniverseconnect.services;
+
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+import no.ntnu.learniverseconnect.model.dto.CourseDetailsDto;
+import no.ntnu.learniverseconnect.model.dto.CourseReviewDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.CourseRating;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.model.repos.CourseRepo;
+import no.ntnu.learniverseconnect.model.repos.FavoritesRepo;
+import no.ntnu.learniverseconnect.model.repos.KeywordsRepo;
+import no.ntnu.learniverseconnect.model.repos.OfferableCoursesRepo;
+import no.ntnu.learniverseconnect.model.repos.UserCoursesRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Gathers everything the course page shows into one {@link CourseDetailsDto}.
+ *
+ * <p>The parts are independent queries. They are started together on a small dedicated pool
+ * while the request thread loads the course itself, so the page waits for the slowest query
+ * instead of the sum of them. Each part runs in its own short read-only transaction. The pool
+ * has {@code course.details.threads} threads, so that busy course pages cannot take every
+ * database connection, and queues at most {@code course.details.queue-capacity} parts. When
+ * the queue is full, the request thread fetches the part itself, which slows new requests
+ * down instead of letting the queue grow without bound.</p>
+ */
+@Service
+public class CourseDetailsService {
+
+  private final CourseRepo courseRepo;
+  private final KeywordsRepo keywordsRepo;
+  private final OfferableCoursesRepo offerableCoursesRepo;
+  private final CourseRatingService courseRatingService;
+  private final UserCoursesRepo userCoursesRepo;
+  private final FavoritesRepo favoritesRepo;
+  private final TransactionTemplate transactionTemplate;
+  private final ThreadPoolTaskExecutor executor;
+
+  /**
+   * Constructor for CourseDetailsService.
+   *
+   * @param courseRepo           the course repository
+   * @param keywordsRepo         the keywords repository
+   * @param offerableCoursesRepo the offerable courses repository
+   * @param courseRatingService  the course rating aggregates
+   * @param userCoursesRepo      the user courses repository, for reviews
+   * @param favoritesRepo        the favorites repository
+   * @param transactionManager   the transaction manager, for the read-only part transactions
+   * @param threads              the number of parts fetched at once across all requests
+   * @param queueCapacity        the number of parts waiting for a thread across all requests
+   */
+  public CourseDetailsService(CourseRepo courseRepo, KeywordsRepo keywordsRepo,
+                              OfferableCoursesRepo offerableCoursesRepo,
+                              CourseRatingService courseRatingService,
+                              UserCoursesRepo userCoursesRepo, FavoritesRepo favoritesRepo,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${course.details.threads:8}") int threads,
+                              @Value("${course.details.queue-capacity:64}") int queueCapacity) {
+    this.courseRepo = courseRepo;
+    this.keywordsRepo = keywordsRepo;
+    this.offerableCoursesRepo = offerableCoursesRepo;
+    this.courseRatingService = courseRatingService;
+    this.userCoursesRepo = userCoursesRepo;
+    this.favoritesRepo = favoritesRepo;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+    this.executor = new ThreadPoolTaskExecutor();
+    this.executor.setCorePoolSize(threads);
+    this.executor.setMaxPoolSize(threads);
+    this.executor.setQueueCapacity(queueCapacity);
+    this.executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    this.executor.setThreadNamePrefix("course-details-");
+    this.executor.initialize();
+  }
+
+  /**
+   * Stops the fetch pool when the application shuts down.
+   */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * Gets the course and the requested parts of its details.
+   *
+   * @param courseId the course id
+   * @param parts    the parts to include
+   * @return the details, or empty if the course does not exist
+   */
+  public Optional<CourseDetailsDto> getDetails(long courseId, Set<CourseDetailsPart> parts) {
+    CompletableFuture<List<String>> keywords = fetch(parts, CourseDetailsPart.KEYWORDS,
+        () -> keywordsRepo.findKeywordTextsByCourseId(courseId));
+    CompletableFuture<List<OfferableCourses>> offers = fetch(parts, CourseDetailsPart.OFFERS,
+        () -> offerableCoursesRepo.findAllWithProviderByCourseId(courseId));
+    CompletableFuture<CourseRating> rating = fetch(parts, CourseDetailsPart.RATING,
+        () -> courseRatingService.getRating(courseId)
+            .orElseGet(() -> new CourseRating(courseId)));
+    CompletableFuture<List<CourseReviewDto>> reviews = fetch(parts, CourseDetailsPart.REVIEWS,
+        () -> userCoursesRepo.findReviewsByCourseId(courseId));
+    CompletableFuture<Long> favoriteCount = fetch(parts, CourseDetailsPart.FAVORITES,
+        () -> favoritesRepo.countByCourse_Id(courseId));
+
+    Course course = courseRepo.getCoursesById(courseId);
+    if (course == null) {
+      return Optional.empty();
+    }
+    CourseDetailsDto details = new CourseDetailsDto(course);
+    details.setKeywords(join(keywords));
+    details.setOffers(join(offers));
+    details.setRating(join(rating));
+    details.setReviews(join(reviews));
+    details.setFavoriteCount(join(favoriteCount));
+    return Optional.of(details);
+  }
+
+  private <T> CompletableFuture<T> fetch(Set<CourseDetailsPart> parts, CourseDetailsPart part,
+                                         Supplier<T> query) {
+    if (!parts.contains(part)) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> query.get()),
+        executor);
+  }
+
+  /**
+   * Waits for a part, rethrowing the exception of a failed query as it was thrown.
+   */
+  private static <T> T join(CompletableFuture<T> part) {
+    try {
+      return part.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package no.ntnu.learniverseconnect.services;
+
+import jakarta.transaction.Transactional;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import no.ntnu.learniverseconnect.model.entities.CourseRating;
+import no.ntnu.learniverseconnect.model.entities.UserCourse;
+import no.ntnu.learniverseconnect.model.repos.CourseRatingRepo;
+import no.ntnu.learniverseconnect.model.repos.UserCoursesRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains the per-course {@link CourseRating} aggregate.
+ *
+ * <p>Every change to a review goes through this service in the same transaction as the review
+ * change itself. The aggregate row is locked while it is updated, so concurrent reviews of the
+ * same course cannot lose updates. The first rating of a course creates the row with an
+ * insert-if-absent before locking it, so two first ratings racing to create it do not fail each
+ * other.</p>
+ */
+@Service
+public class CourseRatingService {
+
+  private static final Logger logger = LoggerFactory.getLogger(CourseRatingService.class);
+  private final CourseRatingRepo courseRatingRepo;
+  private final UserCoursesRepo userCoursesRepo;
+  private final SearchResultCache searchResultCache;
+  private final OfferFilterEngine offerFilterEngine;
+  private final SuggestionIndex suggestionIndex;
+
+  /**
+   * Constructor for CourseRatingService.
+   *
+   * @param courseRatingRepo  the course rating repository
+   * @param userCoursesRepo   the user courses repository
+   * @param searchResultCache the search result cache, invalidated when a rating changes
+   * @param offerFilterEngine the in-memory search filter columns, updated when a rating changes
+   * @param suggestionIndex   the autocomplete index, re-ranked when a rating changes
+   */
+  public CourseRatingService(CourseRatingRepo courseRatingRepo, UserCoursesRepo userCoursesRepo,
+                             SearchResultCache searchResultCache,
+                             OfferFilterEngine offerFilterEngine,
+                             SuggestionIndex suggestionIndex) {
+    this.courseRatingRepo = courseRatingRepo;
+    this.userCoursesRepo = userCoursesRepo;
+    this.searchResultCache = searchResultCache;
+    this.offerFilterEngine = offerFilterEngine;
+    this.suggestionIndex = suggestionIndex;
+  }
+
+  /**
+   * Recomputes every aggregate from the reviews in the database. Runs on startup so that
+   * reviews inserted outside the application are counted.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void rebuild() {
+    Map<Long, CourseRating> ratings = new HashMap<>();
+    for (Object[] row : userCoursesRepo.countRatingsGroupedByCourseAndRating()) {
+      long courseId = ((Number) row[0]).longValue();
+      int rating = ((Number) row[1]).intValue();
+      int count = ((Number) row[2]).intValue();
+      ratings.computeIfAbsent(courseId, CourseRating::new).addRatings(rating, count);
+    }
+    courseRatingRepo.deleteAllInBatch();
+    courseRatingRepo.saveAll(ratings.values());
+    offerFilterEngine.markStale();
+    logger.info("Rebuilt rating aggregates for {} courses", ratings.size());
+  }
+
+  /**
+   * Gets the rating aggregate of a course.
+   *
+   * @param courseId the course id
+   * @return the aggregate, or empty if the course has never been rated
+   */
+  public Optional<CourseRating> getRating(long courseId) {
+    return courseRatingRepo.findByCourseId(courseId);
+  }
+
+  /**
+   * Records a new rating for a course.
+   *
+   * @param courseId the course id
+   * @param rating   the new rating
+   */
+  @Transactional
+  public void addRating(long courseId, int rating) {
+    CourseRating courseRating = courseRatingRepo.findForUpdate(courseId).orElseGet(() -> {
+      // A row that does not exist cannot be locked, so create it first
+      courseRatingRepo.insertIfAbsent(courseId);
+      return courseRatingRepo.findForUpdate(courseId).orElseThrow();
+    });
+    courseRating.addRating(rating);
+    courseRatingRepo.save(courseRating);
+    offerFilterEngine.ratingChanged(courseId);
+    suggestionIndex.ratingChanged(courseRating);
+    searchResultCache.ratingChanged(courseId);
+  }
+
+  /**
+   * Removes a previously recorded rating from a course.
+   *
+   * @param courseId the course id
+   * @param rating   the rating to remove
+   */
+  @Transactional
+  public void removeRating(long courseId, int rating) {
+    courseRatingRepo.findForUpdate(courseId).ifPresent(courseRating -> {
+      courseRating.removeRating(rating);
+      courseRatingRepo.save(courseRating);
+      offerFilterEngine.ratingChanged(courseId);
+      suggestionIndex.ratingChanged(courseRating);
+      searchResultCache.ratingChanged(courseId);
+    });
+  }
+
+  /**
+   * Removes the ratings of all enrollments of a user. Must be called before the enrollments
+   * are deleted.
+   *
+   * @param userId the user id
+   */
+  @Transactional
+  public void removeRatingsOfUser(long userId) {
+    for (UserCourse userCourse : userCoursesRepo.getAllByUser_Id(userId)) {
+      if (userCourse.getReview() != null) {
+        removeRating(userCourse.getCourse().getId(), userCourse.getReview().getRating());
+      }
+    }
+  }
+
+  /**
+   * Deletes the aggregate of a deleted course.
+   *
+   * @param courseId the course id
+   */
+  @Transactional
+  public void removeCourse(long courseId) {
+    courseRatingRepo.findByCourseId(courseId).ifPresent(courseRatingRepo::delete);
+  }
+}
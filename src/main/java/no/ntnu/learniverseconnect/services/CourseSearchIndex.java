@@ -0,0 +1,604 @@
+package no.ntnu.learniverseconnect.services;
+
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.repos.CourseRepo;
+import no.ntnu.learniverseconnect.model.repos.KeywordsRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory inverted index over course title, description and keywords.
+ *
+ * <p>Replaces the {@code LIKE '%term%'} scans in the search endpoint. Every course is split into
+ * lowercase tokens, and each token maps to the set of course ids containing it. The index is
+ * built from the database when the application starts and is kept current by the course and
+ * keyword controllers. Inside a transaction a change takes effect once the transaction commits,
+ * so a rolled back change never shows in search results.</p>
+ *
+ * <p>Matches are ranked with BM25F: term frequencies are normalized by field length per field,
+ * weighted by field ({@value #TITLE_BOOST} for the title, {@value #KEYWORD_BOOST} for keywords,
+ * {@value #DESCRIPTION_BOOST} for the description), summed, saturated with {@value #K1} and
+ * multiplied by the inverse document frequency of the term.</p>
+ *
+ * <p>In fuzzy mode a query token also matches indexed terms within a small edit distance. The
+ * candidates are the terms sharing a trigram with the token, looked up in a trigram index over
+ * the vocabulary, so only a small part of the vocabulary is compared with the token. Tokens too
+ * short for the trigram filter to be safe are compared with every term of a close length
+ * instead. Each candidate is then verified with an edit distance computation that gives up as
+ * soon as the bound is exceeded.</p>
+ */
+@Component
+public class CourseSearchIndex {
+
+  private static final Logger logger = LoggerFactory.getLogger(CourseSearchIndex.class);
+  private static final String TOKEN_SEPARATOR = "[^\\p{L}\\p{N}]+";
+
+  /**
+   * Term frequency saturation. Higher values let repeated terms keep adding to the score.
+   */
+  private static final float K1 = 1.2f;
+
+  /**
+   * Field length normalization. 0 ignores field length, 1 fully normalizes by it.
+   */
+  private static final float B = 0.75f;
+  private static final float TITLE_BOOST = 3f;
+  private static final float KEYWORD_BOOST = 2f;
+  private static final float DESCRIPTION_BOOST = 1f;
+
+  /**
+   * Tokens shorter than this are never fuzzy matched, since almost every short term is within
+   * one edit of them.
+   */
+  private static final int MIN_FUZZY_LENGTH = 3;
+
+  /**
+   * Tokens at least this long may be two edits away from a match, shorter ones one edit.
+   */
+  private static final int TWO_EDITS_LENGTH = 6;
+  private static final char PADDING = '$';
+
+  private final CourseRepo courseRepo;
+  private final KeywordsRepo keywordsRepo;
+
+  private final NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+  private final Map<Long, Set<String>> termsByCourse = new HashMap<>();
+  private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+  private final Map<Integer, Set<String>> termsByLength = new HashMap<>();
+  private final Field titleField = new Field(TITLE_BOOST);
+  private final Field descriptionField = new Field(DESCRIPTION_BOOST);
+  private final Field keywordField = new Field(KEYWORD_BOOST);
+  private final List<Field> fields = List.of(titleField, descriptionField, keywordField);
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /**
+   * Constructor for CourseSearchIndex.
+   *
+   * @param courseRepo   the course repository
+   * @param keywordsRepo the keywords repository
+   */
+  public CourseSearchIndex(CourseRepo courseRepo, KeywordsRepo keywordsRepo) {
+    this.courseRepo = courseRepo;
+    this.keywordsRepo = keywordsRepo;
+  }
+
+  /**
+   * Rebuilds the whole index from the database.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void rebuild() {
+    Map<Long, List<String>> keywords = new HashMap<>();
+    for (Object[] row : keywordsRepo.findAllCourseKeywords()) {
+      keywords.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+    }
+    List<Course> allCourses = courseRepo.findAll();
+    lock.writeLock().lock();
+    try {
+      postings.clear();
+      termsByCourse.clear();
+      termsByTrigram.clear();
+      termsByLength.clear();
+      for (Field field : fields) {
+        field.clear();
+      }
+      for (Course course : allCourses) {
+        titleField.put(course.getId(), tokenize(course.getTitle()));
+        descriptionField.put(course.getId(), tokenize(course.getDescription()));
+        keywordField.put(course.getId(),
+            keywordTokens(keywords.getOrDefault(course.getId(), Collections.emptyList())));
+        reindex(course.getId());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    logger.info("Indexed {} courses for text search", allCourses.size());
+  }
+
+  /**
+   * Adds or replaces the title and description of a course in the index.
+   *
+   * @param course the saved course
+   */
+  public void updateCourse(Course course) {
+    long courseId = course.getId();
+    List<String> title = tokenize(course.getTitle());
+    List<String> description = tokenize(course.getDescription());
+    AfterCommit.run(() -> {
+      lock.writeLock().lock();
+      try {
+        titleField.put(courseId, title);
+        descriptionField.put(courseId, description);
+        reindex(courseId);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    });
+  }
+
+  /**
+   * Replaces the keywords of a course in the index.
+   *
+   * @param courseId the course id
+   * @param keywords the new keywords of the course
+   */
+  public void updateKeywords(long courseId, Collection<String> keywords) {
+    List<String> tokens = keywordTokens(keywords);
+    AfterCommit.run(() -> {
+      lock.writeLock().lock();
+      try {
+        keywordField.put(courseId, tokens);
+        reindex(courseId);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    });
+  }
+
+  /**
+   * Removes a course and its keywords from the index.
+   *
+   * @param courseId the id of the deleted course
+   */
+  public void removeCourse(long courseId) {
+    AfterCommit.run(() -> {
+      lock.writeLock().lock();
+      try {
+        unindex(courseId);
+        for (Field field : fields) {
+          field.remove(courseId);
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    });
+  }
+
+  /**
+   * Finds all courses matching every token of the query. A query token matches any indexed
+   * token it is a prefix of, so "jav" matches "java" and "javascript".
+   *
+   * <p>Each match is given a BM25F relevance score, the sum over query tokens of the best
+   * scoring indexed term the token is a prefix of.</p>
+   *
+   * @param query the free text query
+   * @return relevance scores keyed by matching course id, or null if the query contains no
+   *     searchable tokens
+   */
+  public Map<Long, Float> search(String query) {
+    return search(query, false);
+  }
+
+  /**
+   * Finds all courses matching every token of the query, optionally tolerating typos. In fuzzy
+   * mode a token also matches indexed terms one edit away, or two edits for tokens of
+   * {@value #TWO_EDITS_LENGTH} or more characters, where swapping two adjacent letters counts
+   * as one edit. The score of a term found this way is divided by one plus its distance.
+   *
+   * @param query the free text query
+   * @param fuzzy whether to match misspelled tokens
+   * @return relevance scores keyed by matching course id, or null if the query contains no
+   *     searchable tokens
+   */
+  public Map<Long, Float> search(String query, boolean fuzzy) {
+    List<String> queryTokens = tokenize(query);
+    if (queryTokens.isEmpty()) {
+      return null;
+    }
+    lock.readLock().lock();
+    try {
+      List<Map<String, Integer>> expansions = new ArrayList<>(queryTokens.size());
+      for (String token : queryTokens) {
+        expansions.add(matchingTerms(token, fuzzy));
+      }
+      Set<Long> result = null;
+      for (Map<String, Integer> terms : expansions) {
+        Set<Long> matches = new HashSet<>();
+        for (String term : terms.keySet()) {
+          matches.addAll(postings.get(term));
+        }
+        if (result == null) {
+          result = matches;
+        } else {
+          result.retainAll(matches);
+        }
+        if (result.isEmpty()) {
+          return new HashMap<>();
+        }
+      }
+      Map<Long, Float> scores = new HashMap<>();
+      for (Map<String, Integer> terms : expansions) {
+        Map<Long, Float> best = new HashMap<>();
+        for (Map.Entry<String, Integer> term : terms.entrySet()) {
+          Set<Long> ids = postings.get(term.getKey());
+          float idf = idf(ids.size()) / (1 + term.getValue());
+          for (Long courseId : ids) {
+            if (result.contains(courseId)) {
+              best.merge(courseId, score(courseId, term.getKey(), idf), Math::max);
+            }
+          }
+        }
+        best.forEach((courseId, score) -> scores.merge(courseId, score, Float::sum));
+      }
+      return scores;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Splits text into lowercase letter and digit tokens.
+   *
+   * @param text the text to split
+   * @return the tokens in order of appearance
+   */
+  static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    if (text == null || text.isBlank()) {
+      return tokens;
+    }
+    for (String token : text.toLowerCase(Locale.ROOT).split(TOKEN_SEPARATOR)) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+
+  /**
+   * Suggests a spelling correction for a query. Every token that is not a prefix of any
+   * indexed term is replaced with the closest indexed term, preferring the more common one
+   * when two are equally close.
+   *
+   * @param query the free text query
+   * @return the corrected query in lowercase, or null if no token needs or has a correction
+   */
+  public String suggestCorrection(String query) {
+    List<String> queryTokens = tokenize(query);
+    boolean corrected = false;
+    lock.readLock().lock();
+    try {
+      for (int i = 0; i < queryTokens.size(); i++) {
+        String token = queryTokens.get(i);
+        if (!expand(token).isEmpty()) {
+          continue;
+        }
+        String closest = null;
+        int closestDistance = Integer.MAX_VALUE;
+        for (Map.Entry<String, Integer> term : similarTerms(token).entrySet()) {
+          int distance = term.getValue();
+          if (closest == null || distance < closestDistance
+              || distance == closestDistance
+              && postings.get(term.getKey()).size() > postings.get(closest).size()) {
+            closest = term.getKey();
+            closestDistance = distance;
+          }
+        }
+        if (closest != null) {
+          queryTokens.set(i, closest);
+          corrected = true;
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return corrected ? String.join(" ", queryTokens) : null;
+  }
+
+  /**
+   * Computes the edit distance between two strings, counting insertions, deletions,
+   * substitutions and swaps of adjacent characters as one edit each.
+   *
+   * @param a   the first string
+   * @param b   the second string
+   * @param max the largest distance of interest
+   * @return the distance, or {@code max + 1} if it is larger than {@code max}
+   */
+  static int editDistance(String a, String b, int max) {
+    if (Math.abs(a.length() - b.length()) > max) {
+      return max + 1;
+    }
+    int[] previous = new int[b.length() + 1];
+    int[] current = new int[b.length() + 1];
+    int[] beforePrevious = new int[b.length() + 1];
+    for (int j = 0; j <= b.length(); j++) {
+      previous[j] = j;
+    }
+    for (int i = 1; i <= a.length(); i++) {
+      current[0] = i;
+      int rowMinimum = i;
+      for (int j = 1; j <= b.length(); j++) {
+        int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+        int distance = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1),
+            previous[j - 1] + cost);
+        if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2)
+            && a.charAt(i - 2) == b.charAt(j - 1)) {
+          distance = Math.min(distance, beforePrevious[j - 2] + 1);
+        }
+        current[j] = distance;
+        rowMinimum = Math.min(rowMinimum, distance);
+      }
+      if (rowMinimum > max) {
+        return max + 1;
+      }
+      int[] recycled = beforePrevious;
+      beforePrevious = previous;
+      previous = current;
+      current = recycled;
+    }
+    return Math.min(previous[b.length()], max + 1);
+  }
+
+  /**
+   * Returns the indexed terms a query token matches, with their edit distance: every term the
+   * token is a prefix of at distance 0 and, in fuzzy mode, the terms close to the token.
+   * Caller must hold the read lock.
+   */
+  private Map<String, Integer> matchingTerms(String token, boolean fuzzy) {
+    Map<String, Integer> terms = new HashMap<>();
+    if (fuzzy) {
+      terms.putAll(similarTerms(token));
+    }
+    for (String term : expand(token).keySet()) {
+      terms.put(term, 0);
+    }
+    return terms;
+  }
+
+  /**
+   * Finds the indexed terms within the edit distance bound of a token. Candidates are the
+   * terms sharing enough trigrams with the token; only those are compared in full. Caller
+   * must hold the read lock.
+   */
+  private Map<String, Integer> similarTerms(String token) {
+    Map<String, Integer> similar = new HashMap<>();
+    if (token.length() < MIN_FUZZY_LENGTH) {
+      return similar;
+    }
+    int maxDistance = token.length() >= TWO_EDITS_LENGTH ? 2 : 1;
+    List<String> tokenTrigrams = trigrams(token);
+    // A substitution or deletion destroys at most three trigrams, and swapping two adjacent
+    // characters up to four, so a close term must share the rest.
+    int minShared = tokenTrigrams.size() - 4 * maxDistance;
+
+    Map<String, Integer> shared = new HashMap<>();
+    if (minShared < 1) {
+      // A close term may share no trigram at all, as "jvaa" and "java" do, so compare every
+      // term of a close length
+      for (int length = token.length() - maxDistance; length <= token.length() + maxDistance;
+           length++) {
+        for (String term : termsByLength.getOrDefault(length, Collections.emptySet())) {
+          shared.put(term, 0);
+        }
+      }
+    } else {
+      for (String trigram : tokenTrigrams) {
+        for (String term : termsByTrigram.getOrDefault(trigram, Collections.emptySet())) {
+          shared.merge(term, 1, Integer::sum);
+        }
+      }
+    }
+    for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+      String term = candidate.getKey();
+      if (candidate.getValue() < minShared
+          || Math.abs(term.length() - token.length()) > maxDistance) {
+        continue;
+      }
+      int distance = editDistance(token, term, maxDistance);
+      if (distance <= maxDistance) {
+        similar.put(term, distance);
+      }
+    }
+    return similar;
+  }
+
+  /**
+   * Splits a term into its distinct trigrams, padded so that the first and last characters
+   * are part of as many trigrams as the others.
+   */
+  private static List<String> trigrams(String term) {
+    String padded = PADDING + term + PADDING;
+    Set<String> trigrams = new HashSet<>();
+    for (int i = 0; i + 3 <= padded.length(); i++) {
+      trigrams.add(padded.substring(i, i + 3));
+    }
+    return new ArrayList<>(trigrams);
+  }
+
+  /**
+   * Returns the postings of every indexed term starting with the token. Caller must hold the
+   * read lock.
+   */
+  private SortedMap<String, Set<Long>> expand(String token) {
+    return postings.subMap(token, true, token + Character.MAX_VALUE, true);
+  }
+
+  /**
+   * Inverse document frequency of a term found in the given number of courses. Never negative,
+   * so terms found in most courses still add a little to the score.
+   */
+  private float idf(int documentFrequency) {
+    int courses = termsByCourse.size();
+    return (float) Math.log(1 + (courses - documentFrequency + 0.5)
+        / (documentFrequency + 0.5));
+  }
+
+  /**
+   * BM25F score of one indexed term in one course. Caller must hold the read lock.
+   */
+  private float score(long courseId, String term, float idf) {
+    float frequency = 0;
+    for (Field field : fields) {
+      frequency += field.normalizedFrequency(courseId, term);
+    }
+    return idf * frequency * (K1 + 1) / (frequency + K1);
+  }
+
+  private static List<String> keywordTokens(Collection<String> keywords) {
+    List<String> tokens = new ArrayList<>();
+    for (String keyword : keywords) {
+      tokens.addAll(tokenize(keyword));
+    }
+    return tokens;
+  }
+
+  /**
+   * Recomputes the postings of one course. Caller must hold the write lock.
+   */
+  private void reindex(long courseId) {
+    unindex(courseId);
+    Set<String> terms = new HashSet<>();
+    for (Field field : fields) {
+      terms.addAll(field.terms(courseId));
+    }
+    for (String term : terms) {
+      postings.computeIfAbsent(term, t -> {
+        for (String trigram : trigrams(t)) {
+          termsByTrigram.computeIfAbsent(trigram, g -> new HashSet<>()).add(t);
+        }
+        termsByLength.computeIfAbsent(t.length(), l -> new HashSet<>()).add(t);
+        return new HashSet<>();
+      }).add(courseId);
+    }
+    termsByCourse.put(courseId, terms);
+  }
+
+  /**
+   * Removes every posting of one course. Caller must hold the write lock.
+   */
+  private void unindex(long courseId) {
+    Set<String> terms = termsByCourse.remove(courseId);
+    if (terms == null) {
+      return;
+    }
+    for (String term : terms) {
+      Set<Long> ids = postings.get(term);
+      if (ids != null) {
+        ids.remove(courseId);
+        if (ids.isEmpty()) {
+          postings.remove(term);
+          forgetTrigrams(term);
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes a term that is no longer indexed from the trigram and length indexes. Caller must
+   * hold the write lock.
+   */
+  private void forgetTrigrams(String term) {
+    for (String trigram : trigrams(term)) {
+      Set<String> terms = termsByTrigram.get(trigram);
+      if (terms != null) {
+        terms.remove(term);
+        if (terms.isEmpty()) {
+          termsByTrigram.remove(trigram);
+        }
+      }
+    }
+    Set<String> sameLength = termsByLength.get(term.length());
+    if (sameLength != null) {
+      sameLength.remove(term);
+      if (sameLength.isEmpty()) {
+        termsByLength.remove(term.length());
+      }
+    }
+  }
+
+  /**
+   * Term frequencies and lengths of one field of every course. Guarded by the index lock.
+   */
+  private static final class Field {
+
+    private final float boost;
+    private final Map<Long, Map<String, Integer>> frequencies = new HashMap<>();
+    private final Map<Long, Integer> lengths = new HashMap<>();
+    private long totalLength;
+
+    Field(float boost) {
+      this.boost = boost;
+    }
+
+    void clear() {
+      frequencies.clear();
+      lengths.clear();
+      totalLength = 0;
+    }
+
+    void put(long courseId, List<String> tokens) {
+      remove(courseId);
+      Map<String, Integer> counts = new HashMap<>();
+      for (String token : tokens) {
+        counts.merge(token, 1, Integer::sum);
+      }
+      frequencies.put(courseId, counts);
+      lengths.put(courseId, tokens.size());
+      totalLength += tokens.size();
+    }
+
+    void remove(long courseId) {
+      frequencies.remove(courseId);
+      Integer length = lengths.remove(courseId);
+      if (length != null) {
+        totalLength -= length;
+      }
+    }
+
+    Set<String> terms(long courseId) {
+      return frequencies.getOrDefault(courseId, Collections.emptyMap()).keySet();
+    }
+
+    /**
+     * Returns the boosted, length normalized frequency of a term in this field of a course.
+     */
+    float normalizedFrequency(long courseId, String term) {
+      Map<String, Integer> counts = frequencies.get(courseId);
+      Integer count = counts != null ? counts.get(term) : null;
+      if (count == null) {
+        return 0;
+      }
+      float averageLength = lengths.isEmpty() ? 1 : (float) totalLength / lengths.size();
+      float relativeLength = averageLength > 0 ? lengths.get(courseId) / averageLength : 1;
+      return boost * count / (1 - B + B * relativeLength);
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package no.ntnu.learniverseconnect.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import no.ntnu.learniverseconnect.model.dto.CourseSummaryDto;
+import no.ntnu.learniverseconnect.model.dto.CourseWithMinPriceAndRatingDto;
+import no.ntnu.learniverseconnect.model.dto.SearchFilterDto;
+import no.ntnu.learniverseconnect.model.repos.CourseRepo;
+import org.springframework.stereotype.Service;
+
+/**
+ * Finds the courses matching a search filter.
+ *
+ * <p>The text part of the filter is resolved from the in-memory {@link CourseSearchIndex}, and
+ * the remaining filters are evaluated by the {@link OfferFilterEngine}. Only the matching
+ * courses and their ratings are read from the database. Results are cached per canonical
+ * filter in the {@link SearchResultCache}. Text searches that match nothing as typed carry a
+ * spelling correction; in fuzzy mode misspelled tokens match their close terms directly.</p>
+ *
+ * <p>When facet counts are requested, the engine feeds the offers matching the text and dates
+ * to a {@link SearchFacetCounter}, which evaluates the remaining filters and the facets
+ * together.</p>
+ */
+@Service
+public class CourseSearchService {
+
+  private final CourseRepo courseRepo;
+  private final OfferFilterEngine offerFilterEngine;
+  private final CourseCardAssembler courseCardAssembler;
+  private final CourseSearchIndex courseSearchIndex;
+  private final SearchResultCache searchResultCache;
+
+  /**
+   * Constructor for CourseSearchService.
+   *
+   * @param courseRepo           the course repository
+   * @param offerFilterEngine    evaluates filters over the visible offers in memory
+   * @param courseCardAssembler  reduces offers to course cards with ratings
+   * @param courseSearchIndex    text index over course title, description and keywords
+   * @param searchResultCache    cache of search results
+   */
+  public CourseSearchService(CourseRepo courseRepo,
+                             OfferFilterEngine offerFilterEngine,
+                             CourseCardAssembler courseCardAssembler,
+                             CourseSearchIndex courseSearchIndex,
+                             SearchResultCache searchResultCache) {
+    this.courseRepo = courseRepo;
+    this.offerFilterEngine = offerFilterEngine;
+    this.courseCardAssembler = courseCardAssembler;
+    this.courseSearchIndex = courseSearchIndex;
+    this.searchResultCache = searchResultCache;
+  }
+
+  /**
+   * Finds every course matching the filter, from the cache if possible.
+   *
+   * @param searchFilterDto the search filter
+   * @param withFacets      whether to count facets
+   * @param fuzzy           whether to match misspelled search text
+   * @param trace           the stage timings of the search
+   * @return the best offer for each matching course, with relevance scores, facets if
+   *     requested, and a spelling correction if the search text matches nothing as typed
+   */
+  public SearchResult search(SearchFilterDto searchFilterDto, boolean withFacets,
+                             boolean fuzzy, SearchTrace trace) {
+    SearchCacheKey key = SearchCacheKey.of(searchFilterDto, withFacets, fuzzy);
+    trace.setKey(key);
+    SearchResult cached = searchResultCache.get(key);
+    trace.lap(SearchTrace.Stage.FILTER);
+    if (cached != null) {
+      trace.setCached(true);
+      return cached;
+    }
+
+    long generation = searchResultCache.generation();
+    // Changes reach the filter engine after they invalidate the cache, so a result computed
+    // before the engine has caught up is not cached
+    boolean cacheable = !offerFilterEngine.isUpdating();
+    String text = searchFilterDto.getSearchValue();
+    Map<Long, Float> scores = courseSearchIndex.search(text, key.fuzzy());
+    trace.lap(SearchTrace.Stage.QUERY);
+    SearchResult result = withFacets
+        ? findMatchesWithFacets(key, scores, trace)
+        : new SearchResult(findMatches(key, scores, trace), scores);
+    if (scores != null) {
+      result = result.withDidYouMean(courseSearchIndex.suggestCorrection(text));
+      for (CourseWithMinPriceAndRatingDto card : result.cards()) {
+        card.setScore(scores.get(card.getCourse().getId()));
+      }
+    }
+    if (cacheable) {
+      searchResultCache.put(key, result, generation);
+    }
+    trace.lap(SearchTrace.Stage.ASSEMBLY);
+    return result;
+  }
+
+  /**
+   * Runs the filter against the in-memory offer columns. The columns are scanned and reduced
+   * to the best offer per course in one pass, which is timed as the query.
+   *
+   * @param key         the normalized search filter
+   * @param textMatches relevance scores of the courses matching the search text, or null
+   *                    if the filter has no search text
+   * @param trace       the stage timings of the search
+   * @return the best offer for each matching course
+   */
+  private List<CourseWithMinPriceAndRatingDto> findMatches(SearchCacheKey key,
+                                                           Map<Long, Float> textMatches,
+                                                           SearchTrace trace) {
+    if (textMatches != null && textMatches.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    List<BestOfferIndex.BestOffer> bestOffers = offerFilterEngine.findBestOffers(key,
+        textMatches != null ? textMatches.keySet() : null);
+    trace.lap(SearchTrace.Stage.QUERY);
+    return toCourseCards(bestOffers);
+  }
+
+  /**
+   * Runs the filter against the in-memory offer columns with facet counts. The facets are
+   * counted in the same scan that filters the offers, which is timed as the aggregation.
+   *
+   * @param key         the normalized search filter
+   * @param textMatches relevance scores of the courses matching the search text, or null
+   *                    if the filter has no search text
+   * @param trace       the stage timings of the search
+   * @return the best offer for each matching course, with facet counts
+   */
+  private SearchResult findMatchesWithFacets(SearchCacheKey key, Map<Long, Float> textMatches,
+                                             SearchTrace trace) {
+    OfferFilterEngine.FacetedOffers offers = offerFilterEngine.findBestOffersWithFacets(key,
+        textMatches != null ? textMatches.keySet() : null);
+    trace.lap(SearchTrace.Stage.AGGREGATION);
+    return new SearchResult(toCourseCards(offers.bestOffers()), textMatches, offers.facets(),
+        offers.courseIds(), null);
+  }
+
+  /**
+   * Builds the course cards of the best offers, reading only the course summaries and
+   * ratings from the database.
+   */
+  private List<CourseWithMinPriceAndRatingDto> toCourseCards(
+      List<BestOfferIndex.BestOffer> bestOffers) {
+    if (bestOffers.isEmpty()) {
+      return new ArrayList<>();
+    }
+    List<Long> courseIds = new ArrayList<>(bestOffers.size());
+    for (BestOfferIndex.BestOffer bestOffer : bestOffers) {
+      courseIds.add(bestOffer.courseId());
+    }
+    List<CourseSummaryDto> courses =
+        IdBatches.fetch(courseIds, courseRepo::getCourseSummariesByIdIn);
+    return courseCardAssembler.toCourseCards(bestOffers, courses);
+  }
+}
@@ -0,0 +1,148 @@
+package no.ntnu.learniverseconnect.services;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import no.ntnu.learniverseconnect.model.repos.CourseRepo;
+import no.ntnu.learniverseconnect.model.repos.UserRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maintained counts for the admin dashboard, so that it never loads whole tables to count them.
+ *
+ * <p>The counters are seeded from COUNT and GROUP BY queries on startup and then kept current
+ * by the endpoints that create and delete courses and users. Sign-ups are counted per day of
+ * creation for the last {@value #NEW_USER_DAYS} days, so "new users" is a sum of at most that
+ * many buckets. Updates are applied once the change is committed.</p>
+ */
+@Component
+public class EntityCounters {
+
+  /**
+   * The number of days a user counts as new, including today.
+   */
+  public static final int NEW_USER_DAYS = 30;
+
+  private static final Logger logger = LoggerFactory.getLogger(EntityCounters.class);
+  private final CourseRepo courseRepo;
+  private final UserRepo userRepo;
+  private final AtomicLong courses = new AtomicLong();
+  private final AtomicLong users = new AtomicLong();
+  private final NavigableMap<LocalDate, Long> usersCreatedPerDay = new ConcurrentSkipListMap<>();
+
+  /**
+   * Constructor for EntityCounters.
+   *
+   * @param courseRepo the course repository, counted on startup
+   * @param userRepo   the user repository, counted on startup
+   */
+  public EntityCounters(CourseRepo courseRepo, UserRepo userRepo) {
+    this.courseRepo = courseRepo;
+    this.userRepo = userRepo;
+  }
+
+  /**
+   * Counts the courses and users in the database. Runs on startup so that rows inserted
+   * outside the application are counted.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void seed() {
+    courses.set(courseRepo.count());
+    users.set(userRepo.count());
+    LocalDate firstDay = firstNewUserDay();
+    usersCreatedPerDay.clear();
+    for (Object[] row : userRepo.countCreatedPerDaySince(
+        Timestamp.valueOf(firstDay.atStartOfDay()))) {
+      usersCreatedPerDay.put((LocalDate) row[0], ((Number) row[1]).longValue());
+    }
+    logger.info("Counted {} courses and {} users", courses.get(), users.get());
+  }
+
+  /**
+   * Gets the number of courses.
+   *
+   * @return the number of courses
+   */
+  public long getCourseTotal() {
+    return courses.get();
+  }
+
+  /**
+   * Gets the number of users.
+   *
+   * @return the number of users
+   */
+  public long getUserTotal() {
+    return users.get();
+  }
+
+  /**
+   * Gets the number of users created in the last {@value #NEW_USER_DAYS} days, today included.
+   *
+   * @return the number of new users
+   */
+  public long getNewUserCount() {
+    long count = 0;
+    for (long created : usersCreatedPerDay.tailMap(firstNewUserDay(), true).values()) {
+      count += created;
+    }
+    return count;
+  }
+
+  /**
+   * Counts a new course.
+   */
+  public void courseCreated() {
+    AfterCommit.run(courses::incrementAndGet);
+  }
+
+  /**
+   * Uncounts a deleted course.
+   */
+  public void courseDeleted() {
+    AfterCommit.run(courses::decrementAndGet);
+  }
+
+  /**
+   * Counts a new user.
+   *
+   * @param created the creation time of the user
+   */
+  public void userCreated(Timestamp created) {
+    AfterCommit.run(() -> {
+      users.incrementAndGet();
+      LocalDate firstDay = firstNewUserDay();
+      usersCreatedPerDay.headMap(firstDay).clear();
+      LocalDate day = created.toLocalDateTime().toLocalDate();
+      if (!day.isBefore(firstDay)) {
+        usersCreatedPerDay.merge(day, 1L, Long::sum);
+      }
+    });
+  }
+
+  /**
+   * Uncounts a deleted user.
+   *
+   * @param created the creation time of the user, or null if it is unknown
+   */
+  public void userDeleted(Timestamp created) {
+    AfterCommit.run(() -> {
+      users.decrementAndGet();
+      if (created != null) {
+        // Days that have left the window are gone already and must not come back negative
+        usersCreatedPerDay.computeIfPresent(created.toLocalDateTime().toLocalDate(),
+            (day, count) -> count > 1 ? count - 1 : null);
+      }
+    });
+  }
+
+  private static LocalDate firstNewUserDay() {
+    return LocalDate.now().minusDays(NEW_USER_DAYS - 1);
+  }
+}
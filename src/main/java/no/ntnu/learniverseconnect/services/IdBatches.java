@@ -0,0 +1,40 @@
+package no.ntnu.learniverseconnect.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Runs queries that take a list of ids in batches, so that no IN clause grows past what the
+ * database accepts as bind parameters, however large the catalog gets.
+ */
+public final class IdBatches {
+
+  /**
+   * Upper bound on the number of ids sent in one IN clause.
+   */
+  static final int BATCH_SIZE = 1000;
+
+  private IdBatches() {
+  }
+
+  /**
+   * Runs a query once per batch of ids and collects the results.
+   *
+   * @param ids   the ids
+   * @param query the query, given at most {@link #BATCH_SIZE} ids at a time
+   * @param <T>   the type of the results
+   * @return the results of every batch, in batch order
+   */
+  public static <T> List<T> fetch(Collection<Long> ids,
+                                  Function<List<Long>, ? extends Iterable<T>> query) {
+    List<T> results = new ArrayList<>();
+    List<Long> idList = ids instanceof List<Long> list ? list : new ArrayList<>(ids);
+    for (int from = 0; from < idList.size(); from += BATCH_SIZE) {
+      query.apply(idList.subList(from, Math.min(from + BATCH_SIZE, idList.size())))
+          .forEach(results::add);
+    }
+    return results;
+  }
+}
@@ -0,0 +1,83 @@
+package no.ntnu.learniverseconnect.services;
+
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.Keywords;
+import no.ntnu.learniverseconnect.model.repos.CourseRepo;
+import no.ntnu.learniverseconnect.model.repos.KeywordsRepo;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the keywords of a course free of blanks and duplicates.
+ *
+ * <p>Keyword lookups for {@code /search} do not touch the database. Keywords are a weighted
+ * field of the in-memory {@link CourseSearchIndex}, whose postings already map every keyword
+ * token to its courses and are merged with title and description matches there.</p>
+ */
+@Service
+public class KeywordService {
+
+  private final KeywordsRepo keywordsRepo;
+  private final CourseRepo courseRepo;
+
+  /**
+   * Constructor for KeywordService.
+   *
+   * @param keywordsRepo the keywords repository
+   * @param courseRepo   the course repository
+   */
+  public KeywordService(KeywordsRepo keywordsRepo, CourseRepo courseRepo) {
+    this.keywordsRepo = keywordsRepo;
+    this.courseRepo = courseRepo;
+  }
+
+  /**
+   * Replaces the keywords of a course. Blank keywords are skipped, and of keywords that only
+   * differ in case or whitespace only the first is kept.
+   *
+   * @param courseId the course id
+   * @param keywords the new keywords
+   * @return the saved keywords
+   */
+  @Transactional
+  public List<Keywords> replaceKeywords(long courseId, Collection<String> keywords) {
+    Map<String, String> keywordsByNormalized = new LinkedHashMap<>();
+    for (String keyword : keywords) {
+      String normalized = normalize(keyword);
+      if (!normalized.isEmpty()) {
+        keywordsByNormalized.putIfAbsent(normalized, keyword.strip());
+      }
+    }
+
+    keywordsRepo.deleteAllByCourse_Id(courseId);
+    Course course = courseRepo.getReferenceById((int) courseId);
+    List<Keywords> rows = new ArrayList<>(keywordsByNormalized.size());
+    for (String keyword : keywordsByNormalized.values()) {
+      Keywords row = new Keywords();
+      row.setCourse(course);
+      row.setKeyword(keyword);
+      rows.add(row);
+    }
+    return keywordsRepo.saveAll(rows);
+  }
+
+  /**
+   * Normalizes a keyword for duplicate detection: trims it, collapses inner whitespace and
+   * lowercases it.
+   *
+   * @param keyword the keyword as entered
+   * @return the normalized keyword, empty if the keyword is null or blank
+   */
+  static String normalize(String keyword) {
+    if (keyword == null) {
+      return "";
+    }
+    return keyword.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,223 @@
+package no.ntnu.learniverseconnect.services;
+
+import jakarta.transaction.Transactional;
+import java.sql.Timestamp;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+import no.ntnu.learniverseconnect.model.entities.Transaction;
+import no.ntnu.learniverseconnect.model.repos.TransactionRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Live purchase and revenue totals for the last hour, 24 hours and 30 days.
+ *
+ * <p>Purchases are counted in two rings of time buckets: one per minute covering the last 24
+ * hours, and one per hour covering the last 30 days. A bucket holds striped adders, so
+ * concurrent purchases never contend on a lock, and a bucket whose time has passed is replaced
+ * with a compare-and-set when its slot comes round again. A total sums a fixed number of
+ * buckets, however many purchases there are. The 30 day total starts at the beginning of the
+ * hour 30 days ago.</p>
+ *
+ * <p>The rings are seeded on startup from the transactions of the last 30 days, the same
+ * transactions that are counted live, offers without a provider included.</p>
+ */
+@Component
+public class LiveRevenueWindow {
+
+  /**
+   * Purchase and revenue totals of a period.
+   *
+   * @param purchases the number of purchases
+   * @param revenue   the sum of the prices paid
+   */
+  public record Totals(long purchases, double revenue) {
+  }
+
+  private static final long MINUTE = 60_000L;
+  private static final long HOUR = 60 * MINUTE;
+  private static final int MINUTES_PER_DAY = 24 * 60;
+  private static final int HOURS_PER_MONTH = 30 * 24;
+
+  private static final Logger logger = LoggerFactory.getLogger(LiveRevenueWindow.class);
+  private final TransactionRepo transactionRepo;
+  private final LongSupplier clock;
+  private final Ring minutes = new Ring(MINUTES_PER_DAY, MINUTE);
+  private final Ring hours = new Ring(HOURS_PER_MONTH, HOUR);
+
+  /**
+   * Constructor for LiveRevenueWindow.
+   *
+   * @param transactionRepo the transaction repository, read to seed the rings
+   */
+  @Autowired
+  public LiveRevenueWindow(TransactionRepo transactionRepo) {
+    this(transactionRepo, System::currentTimeMillis);
+  }
+
+  LiveRevenueWindow(TransactionRepo transactionRepo, LongSupplier clock) {
+    this.transactionRepo = transactionRepo;
+    this.clock = clock;
+  }
+
+  /**
+   * Seeds the rings from the transactions in the database. Runs on startup.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void seed() {
+    long now = clock.getAsLong();
+    long firstMinute = minutes.firstTime(now);
+    long purchases = 0;
+    try (Stream<Object[]> rows = transactionRepo.streamPurchasesSince(
+        new Timestamp(hours.firstTime(now)))) {
+      for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+        long time = ((Timestamp) row[0]).getTime();
+        double pricePaid = ((Number) row[1]).doubleValue();
+        hours.add(time, 1, pricePaid);
+        if (time >= firstMinute) {
+          minutes.add(time, 1, pricePaid);
+        }
+        purchases++;
+      }
+    }
+    logger.info("Seeded live revenue with {} purchases from the last 30 days", purchases);
+  }
+
+  /**
+   * Counts a purchase once it is committed.
+   *
+   * @param transaction the saved transaction
+   */
+  public void purchased(Transaction transaction) {
+    long time = transaction.getTimeOfTransaction().getTime();
+    double pricePaid = transaction.getPricePaid();
+    AfterCommit.run(() -> add(time, 1, pricePaid));
+  }
+
+  /**
+   * Uncounts a purchase once its deletion is committed.
+   *
+   * @param transaction the deleted transaction
+   */
+  public void purchaseDeleted(Transaction transaction) {
+    long time = transaction.getTimeOfTransaction().getTime();
+    double pricePaid = transaction.getPricePaid();
+    AfterCommit.run(() -> add(time, -1, -pricePaid));
+  }
+
+  /**
+   * Gets the totals of the last hour, the current minute included.
+   *
+   * @return the totals of the last hour
+   */
+  public Totals lastHour() {
+    return minutes.sum(clock.getAsLong(), 60);
+  }
+
+  /**
+   * Gets the totals of the last 24 hours, the current minute included.
+   *
+   * @return the totals of the last 24 hours
+   */
+  public Totals last24Hours() {
+    return minutes.sum(clock.getAsLong(), MINUTES_PER_DAY);
+  }
+
+  /**
+   * Gets the totals of the last 30 days, the current hour included.
+   *
+   * @return the totals of the last 30 days
+   */
+  public Totals last30Days() {
+    return hours.sum(clock.getAsLong(), HOURS_PER_MONTH);
+  }
+
+  private void add(long time, long purchases, double revenue) {
+    minutes.add(time, purchases, revenue);
+    hours.add(time, purchases, revenue);
+  }
+
+  /**
+   * A fixed number of buckets of equal width, reused round-robin as time passes.
+   */
+  private static final class Ring {
+
+    private final AtomicReferenceArray<Bucket> slots;
+    private final long width;
+
+    Ring(int size, long width) {
+      this.slots = new AtomicReferenceArray<>(size);
+      this.width = width;
+    }
+
+    long firstTime(long now) {
+      return (Math.floorDiv(now, width) - slots.length() + 1) * width;
+    }
+
+    void add(long time, long purchases, double revenue) {
+      Bucket bucket = bucket(Math.floorDiv(time, width));
+      if (bucket != null) {
+        bucket.purchases.add(purchases);
+        bucket.revenue.add(revenue);
+      }
+    }
+
+    Totals sum(long now, int count) {
+      long last = Math.floorDiv(now, width);
+      long purchases = 0;
+      double revenue = 0;
+      for (long index = last - count + 1; index <= last; index++) {
+        Bucket bucket = slots.get(slot(index));
+        if (bucket != null && bucket.index == index) {
+          purchases += bucket.purchases.sum();
+          revenue += bucket.revenue.sum();
+        }
+      }
+      return new Totals(purchases, revenue);
+    }
+
+    private Bucket bucket(long index) {
+      int slot = slot(index);
+      while (true) {
+        Bucket current = slots.get(slot);
+        if (current != null && current.index == index) {
+          return current;
+        }
+        if (current != null && current.index > index) {
+          // The slot already holds a later bucket, so this time has left the ring
+          return null;
+        }
+        Bucket fresh = new Bucket(index);
+        if (slots.compareAndSet(slot, current, fresh)) {
+          return fresh;
+        }
+      }
+    }
+
+    private int slot(long index) {
+      return (int) Math.floorMod(index, (long) slots.length());
+    }
+  }
+
+  /**
+   * The totals of one bucket of time.
+   */
+  private static final class Bucket {
+
+    private final long index;
+    private final LongAdder purchases = new LongAdder();
+    private final DoubleAdder revenue = new DoubleAdder();
+
+    Bucket(long index) {
+      this.index = index;
+    }
+  }
+}
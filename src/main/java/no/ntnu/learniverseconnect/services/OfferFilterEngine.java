@@ -0,0 +1,452 @@
+package no.ntnu.learniverseconnect.services;
+
+import jakarta.annotation.PreDestroy;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import no.ntnu.learniverseconnect.model.dto.SearchFacetsDto;
+import no.ntnu.learniverseconnect.model.entities.CourseRating;
+import no.ntnu.learniverseconnect.model.repos.CourseRatingRepo;
+import no.ntnu.learniverseconnect.model.repos.OfferableCoursesRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory columnar snapshot of the visible offers, used to evaluate search filters without
+ * querying the database.
+ *
+ * <p>Every filterable field is stored as a primitive array indexed by row, and each category
+ * has a bitmap of its rows. A search starts from the rows of the text matches or categories
+ * and narrows them with range scans over the arrays, clearing bits of failing rows. No objects
+ * are allocated per row. Rows are ordered by course, so the surviving rows are reduced to the
+ * best offer of each course in a single scan. Faceted searches feed the same rows to a
+ * {@link SearchFacetCounter} instead of narrowing them.</p>
+ *
+ * <p>A published snapshot is never modified, so searches read it without locking. Every change
+ * is applied on a single background thread once its transaction has committed, and the result
+ * is published through a volatile field. Writes to offers and courses reload the snapshot with
+ * one query, and writes committing during a reload are picked up by one more. A rating change
+ * only replaces the rating column, copied with the new rating for the rows of its course.
+ * Searches keep using the previous snapshot meanwhile.</p>
+ */
+@Component
+public class OfferFilterEngine {
+
+  /**
+   * Marks a row whose offer has no date. Such rows fail every date filter.
+   */
+  private static final long NO_DATE = Long.MIN_VALUE;
+
+  /**
+   * The result of a faceted search.
+   *
+   * @param bestOffers the best matching offer of each course, ordered by course id
+   * @param facets     the facet counts, each without its own filter
+   * @param courseIds  the courses matching the search text and dates, before the facet filters
+   */
+  public record FacetedOffers(List<BestOfferIndex.BestOffer> bestOffers, SearchFacetsDto facets,
+                              Set<Long> courseIds) {
+  }
+
+  /**
+   * The column arrays of one snapshot.
+   */
+  private static final class Columns {
+    private final int size;
+    private final long[] offerIds;
+    private final long[] courseIds;
+    private final float[] prices;
+    private final float[] discounts;
+    private final long[] dates;
+    private final int[] diffLevels;
+    private final float[] credits;
+    private final float[] ratings;
+    private final String[] categoryNames;
+    private final Map<String, BitSet> categories;
+    private final Map<Long, int[]> rowsByCourse;
+
+    private Columns(int size) {
+      this.size = size;
+      offerIds = new long[size];
+      courseIds = new long[size];
+      prices = new float[size];
+      discounts = new float[size];
+      dates = new long[size];
+      diffLevels = new int[size];
+      credits = new float[size];
+      ratings = new float[size];
+      categoryNames = new String[size];
+      categories = new HashMap<>();
+      rowsByCourse = new HashMap<>();
+    }
+
+    /**
+     * Shares every column of a snapshot except the ratings.
+     */
+    private Columns(Columns columns, float[] ratings) {
+      size = columns.size;
+      offerIds = columns.offerIds;
+      courseIds = columns.courseIds;
+      prices = columns.prices;
+      discounts = columns.discounts;
+      dates = columns.dates;
+      diffLevels = columns.diffLevels;
+      credits = columns.credits;
+      this.ratings = ratings;
+      categoryNames = columns.categoryNames;
+      categories = columns.categories;
+      rowsByCourse = columns.rowsByCourse;
+    }
+  }
+
+  private static final Logger logger = LoggerFactory.getLogger(OfferFilterEngine.class);
+  private final OfferableCoursesRepo offerableCoursesRepo;
+  private final CourseRatingRepo courseRatingRepo;
+  private final Executor updater;
+
+  private final AtomicBoolean reloadScheduled = new AtomicBoolean();
+  private final AtomicInteger pendingUpdates = new AtomicInteger();
+  private volatile Columns columns;
+
+  /**
+   * Constructor for OfferFilterEngine.
+   *
+   * @param offerableCoursesRepo the offerable courses repository
+   * @param courseRatingRepo     the course rating aggregate repository
+   */
+  @Autowired
+  public OfferFilterEngine(OfferableCoursesRepo offerableCoursesRepo,
+                           CourseRatingRepo courseRatingRepo) {
+    this(offerableCoursesRepo, courseRatingRepo, singleThread());
+  }
+
+  OfferFilterEngine(OfferableCoursesRepo offerableCoursesRepo,
+                    CourseRatingRepo courseRatingRepo, Executor updater) {
+    this.offerableCoursesRepo = offerableCoursesRepo;
+    this.courseRatingRepo = courseRatingRepo;
+    this.updater = updater;
+  }
+
+  private static ThreadPoolTaskExecutor singleThread() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.setThreadNamePrefix("offer-filter-");
+    executor.initialize();
+    return executor;
+  }
+
+  /**
+   * Stops the background thread.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (updater instanceof ThreadPoolTaskExecutor executor) {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Reloads the snapshot and waits for it. Runs on startup, so the first search does not pay
+   * for it.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    CompletableFuture.runAsync(this::reload, updater).join();
+  }
+
+  /**
+   * Reloads the snapshot in the background after an offer or course changed, or after every
+   * rating was recomputed. Inside a transaction this happens once the transaction commits.
+   */
+  public void markStale() {
+    AfterCommit.run(() -> {
+      if (reloadScheduled.compareAndSet(false, true)) {
+        update(() -> {
+          // Cleared first, so that a write committing during the load schedules another
+          reloadScheduled.set(false);
+          reload();
+        });
+      }
+    });
+  }
+
+  /**
+   * Publishes the new rating of a course in the background, once the current transaction
+   * commits if there is one. The rating is read back after the commit, and the changes are
+   * applied one at a time, so that of two changes committing close together, the last one
+   * applied carries the latest rating.
+   *
+   * @param courseId the id of the course whose rating changed
+   */
+  public void ratingChanged(long courseId) {
+    AfterCommit.run(() -> update(() -> refreshRating(courseId)));
+  }
+
+  /**
+   * Tells whether a committed change has not been published yet. A search result computed
+   * meanwhile may predate the change, and should not be cached.
+   *
+   * @return true if an update is scheduled or running
+   */
+  public boolean isUpdating() {
+    return pendingUpdates.get() > 0;
+  }
+
+  private void update(Runnable change) {
+    pendingUpdates.incrementAndGet();
+    updater.execute(() -> {
+      try {
+        change.run();
+      } finally {
+        pendingUpdates.decrementAndGet();
+      }
+    });
+  }
+
+  /**
+   * Runs on the updater only, so no change is lost between reading and publishing.
+   */
+  private void refreshRating(long courseId) {
+    Columns snapshot = columns;
+    int[] range = snapshot != null ? snapshot.rowsByCourse.get(courseId) : null;
+    if (range == null) {
+      // Not loaded yet, or no visible offers: the next load reads the committed rating
+      return;
+    }
+    float rating = courseRatingRepo.findAverageRating(courseId).orElse(Float.NaN);
+    float[] ratings = Arrays.copyOf(snapshot.ratings, snapshot.size);
+    Arrays.fill(ratings, range[0], range[1], rating);
+    columns = new Columns(snapshot, ratings);
+  }
+
+  /**
+   * Finds the best offer of every course that has an offer matching the filter. The text part
+   * of the filter must already be resolved to course ids.
+   *
+   * @param filter    the normalized search filter
+   * @param courseIds the courses matching the search text, or null if there is no search text
+   * @return the best matching offer of each course, ordered by course id
+   */
+  public List<BestOfferIndex.BestOffer> findBestOffers(SearchCacheKey filter,
+                                                       Collection<Long> courseIds) {
+    Columns snapshot = current();
+    BitSet rows = textRows(snapshot, courseIds);
+    keepCategories(rows, snapshot, filter);
+    keepDates(rows, snapshot, filter);
+
+    if (!filter.diffLevels().isEmpty()) {
+      keepDiffLevels(rows, snapshot.diffLevels,
+          filter.diffLevels().stream().mapToInt(Integer::intValue).toArray());
+    }
+    if (filter.minCredits() != null) {
+      keepRange(rows, snapshot.credits, filter.minCredits(), filter.maxCredits());
+    }
+    if (filter.minPrice() != null) {
+      keepRange(rows, snapshot.prices, filter.minPrice(), filter.maxPrice());
+    }
+    if (filter.hasRatingRange()) {
+      keepRange(rows, snapshot.ratings, filter.minRating(), filter.maxRating());
+    }
+
+    return bestOffers(snapshot, rows);
+  }
+
+  /**
+   * Finds the best offer of every course that has an offer matching the filter, and counts
+   * the facets of the offers matching the search text and dates. The text part of the filter
+   * must already be resolved to course ids.
+   *
+   * @param filter    the normalized search filter
+   * @param courseIds the courses matching the search text, or null if there is no search text
+   * @return the best matching offers with the facet counts
+   */
+  public FacetedOffers findBestOffersWithFacets(SearchCacheKey filter,
+                                                Collection<Long> courseIds) {
+    Columns snapshot = current();
+    BitSet rows = textRows(snapshot, courseIds);
+    keepDates(rows, snapshot, filter);
+
+    SearchFacetCounter counter = new SearchFacetCounter(filter);
+    BitSet matches = new BitSet(snapshot.size);
+    Set<Long> candidates = new HashSet<>();
+    for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+      candidates.add(snapshot.courseIds[row]);
+      if (counter.add(snapshot.courseIds[row], snapshot.diffLevels[row],
+          snapshot.categoryNames[row], snapshot.credits[row], snapshot.prices[row],
+          snapshot.ratings[row])) {
+        matches.set(row);
+      }
+    }
+    return new FacetedOffers(bestOffers(snapshot, matches), counter.getFacets(), candidates);
+  }
+
+  private static BitSet textRows(Columns snapshot, Collection<Long> courseIds) {
+    BitSet rows = new BitSet(snapshot.size);
+    if (courseIds == null) {
+      rows.set(0, snapshot.size);
+    } else {
+      for (Long courseId : courseIds) {
+        int[] range = snapshot.rowsByCourse.get(courseId);
+        if (range != null) {
+          rows.set(range[0], range[1]);
+        }
+      }
+    }
+    return rows;
+  }
+
+  private static void keepCategories(BitSet rows, Columns snapshot, SearchCacheKey filter) {
+    if (filter.categories().isEmpty()) {
+      return;
+    }
+    BitSet inCategories = new BitSet(snapshot.size);
+    for (String category : filter.categories()) {
+      BitSet categoryRows = snapshot.categories.get(category);
+      if (categoryRows != null) {
+        inCategories.or(categoryRows);
+      }
+    }
+    rows.and(inCategories);
+  }
+
+  private static void keepDates(BitSet rows, Columns snapshot, SearchCacheKey filter) {
+    if (filter.startDate() != null && filter.endDate() != null) {
+      keepRange(rows, snapshot.dates, filter.startDate(), filter.endDate());
+    } else if (filter.startDate() != null || filter.endDate() != null) {
+      // Like FilterSpecification.hasDateBetween, a range with one bound matches nothing
+      rows.clear();
+    }
+  }
+
+  private static void keepDiffLevels(BitSet rows, int[] column, int[] levels) {
+    for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+      boolean found = false;
+      for (int level : levels) {
+        if (column[row] == level) {
+          found = true;
+          break;
+        }
+      }
+      if (!found) {
+        rows.clear(row);
+      }
+    }
+  }
+
+  private static void keepRange(BitSet rows, float[] column, float min, float max) {
+    for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+      // NaN, used for unrated courses, fails both comparisons
+      if (!(column[row] >= min && column[row] <= max)) {
+        rows.clear(row);
+      }
+    }
+  }
+
+  private static void keepRange(BitSet rows, long[] column, long min, long max) {
+    for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+      if (column[row] == NO_DATE || column[row] < min || column[row] > max) {
+        rows.clear(row);
+      }
+    }
+  }
+
+  /**
+   * Reduces the surviving rows to the cheapest offer of each course, then the closest date.
+   * Relies on rows being ordered by course.
+   */
+  private static List<BestOfferIndex.BestOffer> bestOffers(Columns snapshot, BitSet rows) {
+    List<BestOfferIndex.BestOffer> bestOffers = new ArrayList<>();
+    int best = -1;
+    float bestPrice = 0;
+    for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+      float price = snapshot.prices[row] * (1 - snapshot.discounts[row]);
+      if (best >= 0 && snapshot.courseIds[row] != snapshot.courseIds[best]) {
+        bestOffers.add(toBestOffer(snapshot, best, bestPrice));
+        best = -1;
+      }
+      if (best < 0 || price < bestPrice
+          || (price == bestPrice && snapshot.dates[row] < snapshot.dates[best])) {
+        best = row;
+        bestPrice = price;
+      }
+    }
+    if (best >= 0) {
+      bestOffers.add(toBestOffer(snapshot, best, bestPrice));
+    }
+    return bestOffers;
+  }
+
+  private static BestOfferIndex.BestOffer toBestOffer(Columns snapshot, int row, float price) {
+    long date = snapshot.dates[row];
+    return new BestOfferIndex.BestOffer(snapshot.offerIds[row], snapshot.courseIds[row], price,
+        date == NO_DATE ? null : new Date(date));
+  }
+
+  /**
+   * Returns the published snapshot. Only a search arriving before the startup load has
+   * finished waits for a load.
+   */
+  private Columns current() {
+    Columns snapshot = columns;
+    if (snapshot == null) {
+      rebuild();
+      snapshot = columns;
+    }
+    return snapshot;
+  }
+
+  private void reload() {
+    columns = load();
+  }
+
+  private Columns load() {
+    Map<Long, Float> averageRatings = new HashMap<>();
+    for (CourseRating rating : courseRatingRepo.findAll()) {
+      if (rating.getRatingCount() > 0) {
+        averageRatings.put(rating.getCourseId(), rating.getAverageRating());
+      }
+    }
+
+    List<Object[]> rows = offerableCoursesRepo.getVisibleOfferColumns();
+    Columns snapshot = new Columns(rows.size());
+    for (int row = 0; row < rows.size(); row++) {
+      final int index = row;
+      Object[] values = rows.get(row);
+      long courseId = ((Number) values[1]).longValue();
+      snapshot.offerIds[row] = ((Number) values[0]).longValue();
+      snapshot.courseIds[row] = courseId;
+      snapshot.prices[row] = ((Number) values[2]).floatValue();
+      snapshot.discounts[row] = ((Number) values[3]).floatValue();
+      snapshot.dates[row] = values[4] != null ? ((java.util.Date) values[4]).getTime() : NO_DATE;
+      snapshot.diffLevels[row] = ((Number) values[5]).intValue();
+      snapshot.credits[row] = ((Number) values[6]).floatValue();
+      snapshot.ratings[row] = averageRatings.getOrDefault(courseId, Float.NaN);
+      snapshot.categoryNames[row] = (String) values[7];
+      if (values[7] != null) {
+        snapshot.categories.computeIfAbsent((String) values[7], c -> new BitSet(rows.size()))
+            .set(row);
+      }
+      int[] range = snapshot.rowsByCourse.computeIfAbsent(courseId, id -> new int[] {index, index});
+      range[1] = row + 1;
+    }
+    logger.info("Loaded {} visible offers into the filter engine", rows.size());
+    return snapshot;
+  }
+}
@@ -0,0 +1,107 @@
+package no.ntnu.learniverseconnect.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+import no.ntnu.learniverseconnect.model.dto.TransactionRowDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.model.entities.Transaction;
+import no.ntnu.learniverseconnect.model.entities.User;
+import no.ntnu.learniverseconnect.model.entities.UserCourse;
+import no.ntnu.learniverseconnect.model.repos.OfferableCoursesRepo;
+import no.ntnu.learniverseconnect.model.repos.TransactionRepo;
+import no.ntnu.learniverseconnect.model.repos.UserCoursesRepo;
+import org.springframework.stereotype.Service;
+
+/**
+ * Buys a course offer for a user: records the transaction, enrolls the user in the course and
+ * counts the revenue, all in one transaction.
+ *
+ * <p>A purchase reads one row: the price of the offer, the ids and names it is counted under
+ * and the email of the buyer. The transaction and enrollment refer to the offer, user and
+ * course through reference proxies, so none of them is loaded. The enrollment is moved to the
+ * time of purchase with one UPDATE, and only inserted when the user was not enrolled yet. A
+ * repeat purchase thus takes three statements, plus the updates of the revenue buckets.</p>
+ */
+@Service
+public class PurchaseService {
+
+  private final EntityManager entityManager;
+  private final OfferableCoursesRepo offerableCoursesRepo;
+  private final TransactionRepo transactionRepo;
+  private final UserCoursesRepo userCoursesRepo;
+  private final RevenueRollupService revenueRollupService;
+  private final LiveRevenueWindow liveRevenueWindow;
+
+  /**
+   * Constructor for PurchaseService.
+   *
+   * @param entityManager        the entity manager the references are taken from
+   * @param offerableCoursesRepo the offerable courses repository
+   * @param transactionRepo      the transaction repository
+   * @param userCoursesRepo      the user courses repository
+   * @param revenueRollupService the hourly and daily revenue buckets, updated on purchase
+   * @param liveRevenueWindow    the live revenue totals, updated on purchase
+   */
+  public PurchaseService(EntityManager entityManager, OfferableCoursesRepo offerableCoursesRepo,
+                         TransactionRepo transactionRepo, UserCoursesRepo userCoursesRepo,
+                         RevenueRollupService revenueRollupService,
+                         LiveRevenueWindow liveRevenueWindow) {
+    this.entityManager = entityManager;
+    this.offerableCoursesRepo = offerableCoursesRepo;
+    this.transactionRepo = transactionRepo;
+    this.userCoursesRepo = userCoursesRepo;
+    this.revenueRollupService = revenueRollupService;
+    this.liveRevenueWindow = liveRevenueWindow;
+  }
+
+  /**
+   * Buys an offer for a user at its discounted price.
+   *
+   * @param offerId the id of the offer
+   * @param userId  the id of the buyer
+   * @return the recorded transaction, or empty if the offer or the user does not exist
+   */
+  @Transactional
+  public Optional<TransactionRowDto> purchase(long offerId, long userId) {
+    List<Object[]> details = offerableCoursesRepo.findPurchaseDetails(offerId, userId);
+    if (details.isEmpty()) {
+      return Optional.empty();
+    }
+    Object[] row = details.get(0);
+    float price = ((Number) row[0]).floatValue();
+    float discount = ((Number) row[1]).floatValue();
+    long courseId = ((Number) row[2]).longValue();
+    Long providerId = row[4] != null ? ((Number) row[4]).longValue() : null;
+
+    Transaction transaction = new Transaction();
+    transaction.setOfferableCourses(entityManager.getReference(OfferableCourses.class, offerId));
+    transaction.setUser(entityManager.getReference(User.class, userId));
+    transaction.setPricePaid(price * (1 - discount));
+    transactionRepo.save(transaction);
+    Timestamp time = transaction.getTimeOfTransaction();
+    // Offers without a provider are left out of the revenue buckets, as when they are rebuilt
+    if (providerId != null) {
+      revenueRollupService.purchased(providerId, courseId, time, transaction.getPricePaid());
+    }
+    liveRevenueWindow.purchased(transaction);
+    enroll(userId, courseId, time);
+
+    return Optional.of(new TransactionRowDto(transaction.getId(), time,
+        transaction.getPricePaid(), userId, (String) row[6], offerId, courseId, (String) row[3],
+        providerId, (String) row[5]));
+  }
+
+  private void enroll(long userId, long courseId, Timestamp time) {
+    if (userCoursesRepo.touchEnrollment(userId, courseId, time) > 0) {
+      return;
+    }
+    UserCourse userCourse = new UserCourse();
+    userCourse.setCourse(entityManager.getReference(Course.class, courseId));
+    userCourse.setUser(entityManager.getReference(User.class, userId));
+    userCoursesRepo.save(userCourse);
+  }
+}
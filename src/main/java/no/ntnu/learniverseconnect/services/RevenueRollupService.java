@@ -0,0 +1,184 @@
+package no.ntnu.learniverseconnect.services;
+
+import jakarta.transaction.Transactional;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import no.ntnu.learniverseconnect.model.dto.RevenueBreakdownDto;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.model.entities.RevenueRollup;
+import no.ntnu.learniverseconnect.model.entities.RevenueRollup.Granularity;
+import no.ntnu.learniverseconnect.model.entities.Transaction;
+import no.ntnu.learniverseconnect.model.repos.RevenueRollupRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains the hourly and daily {@link RevenueRollup} buckets, and answers revenue questions
+ * for a time window from them.
+ *
+ * <p>Purchases are added to their buckets in the same transaction as the purchase itself, with
+ * one atomic upsert per granularity, which creates the bucket the first time a course and
+ * provider sell during an hour or day. No second connection is needed. On MySQL the upsert is
+ * {@code INSERT ... ON DUPLICATE KEY UPDATE}, so of two first purchases racing to create a
+ * bucket, the second waits for the first and then adds to the bucket. Deleted purchases are
+ * taken out with a plain UPDATE. Offers without a provider are not counted. Buckets are in the
+ * time zone of the application.</p>
+ */
+@Service
+public class RevenueRollupService {
+
+  private static final Logger logger = LoggerFactory.getLogger(RevenueRollupService.class);
+  private final RevenueRollupRepo revenueRollupRepo;
+
+  /**
+   * Constructor for RevenueRollupService.
+   *
+   * @param revenueRollupRepo the revenue rollup repository
+   */
+  public RevenueRollupService(RevenueRollupRepo revenueRollupRepo) {
+    this.revenueRollupRepo = revenueRollupRepo;
+  }
+
+  /**
+   * Recomputes every bucket from the transaction history, for transactions inserted outside the
+   * application. Not run on startup, since every purchase keeps its buckets current.
+   *
+   * <p>The buckets are deleted and summed again with one set-based INSERT ... SELECT per
+   * granularity, in one transaction, so the history is never loaded into memory. On MySQL the
+   * delete locks every bucket until the rebuild commits, so a purchase made meanwhile either is
+   * in the sums or waits and then adds to the rebuilt bucket. It is never dropped.</p>
+   */
+  @Transactional
+  public void rebuild() {
+    revenueRollupRepo.deleteAllInBatch();
+    int buckets = revenueRollupRepo.insertHourlyBuckets(Granularity.HOUR)
+        + revenueRollupRepo.insertDailyBuckets(Granularity.DAY);
+    logger.info("Rebuilt {} revenue buckets", buckets);
+  }
+
+  /**
+   * Adds a purchase to its buckets. Must be called in the transaction that saves it.
+   *
+   * @param transaction the saved transaction
+   */
+  @Transactional
+  public void purchased(Transaction transaction) {
+    addToBuckets(transaction, transaction.getPricePaid(), 1);
+  }
+
+  /**
+   * Adds a purchase to its buckets, given the ids it is counted under. Must be called in the
+   * transaction that saves it. Spares loading the offer when it is only referenced.
+   *
+   * @param providerId the id of the provider of the offer
+   * @param courseId   the id of the course of the offer
+   * @param time       the time of the purchase
+   * @param pricePaid  the price paid
+   */
+  @Transactional
+  public void purchased(long providerId, long courseId, Timestamp time, float pricePaid) {
+    addToBuckets(providerId, courseId, time, pricePaid, 1);
+  }
+
+  /**
+   * Removes a deleted purchase from its buckets.
+   *
+   * @param transaction the deleted transaction
+   */
+  @Transactional
+  public void purchaseDeleted(Transaction transaction) {
+    addToBuckets(transaction, -transaction.getPricePaid(), -1);
+  }
+
+  /**
+   * Sums the revenue per provider during a time window.
+   *
+   * @param from the start of the window in epoch milliseconds, rounded down to the hour
+   * @param to   the end of the window in epoch milliseconds, exclusive, rounded up to the hour
+   * @return the revenue of every provider that sold during the window
+   */
+  public List<RevenueBreakdownDto> revenueByProvider(long from, long to) {
+    Window window = Window.of(from, to);
+    return revenueRollupRepo.sumByProvider(window.from(), window.dayFrom(), window.dayTo(),
+        window.to());
+  }
+
+  /**
+   * Sums the revenue per course during a time window.
+   *
+   * @param from the start of the window in epoch milliseconds, rounded down to the hour
+   * @param to   the end of the window in epoch milliseconds, exclusive, rounded up to the hour
+   * @return the revenue of every course sold during the window
+   */
+  public List<RevenueBreakdownDto> revenueByCourse(long from, long to) {
+    Window window = Window.of(from, to);
+    return revenueRollupRepo.sumByCourse(window.from(), window.dayFrom(), window.dayTo(),
+        window.to());
+  }
+
+  private void addToBuckets(Transaction transaction, double revenue, long purchases) {
+    OfferableCourses offer = transaction.getOfferableCourses();
+    // Offers without a provider are left out of the buckets, as when they are rebuilt
+    if (offer.getProvider() == null) {
+      return;
+    }
+    addToBuckets(offer.getProvider().getId(), offer.getCourse().getId(),
+        transaction.getTimeOfTransaction(), revenue, purchases);
+  }
+
+  private void addToBuckets(long providerId, long courseId, Timestamp time, double revenue,
+                            long purchases) {
+    for (Granularity granularity : Granularity.values()) {
+      BucketKey key = new BucketKey(granularity, granularity.bucketOf(time), providerId,
+          courseId);
+      if (purchases > 0) {
+        revenueRollupRepo.upsertBucket(key.granularity(), key.bucketStart(), providerId,
+            courseId, revenue, purchases);
+      } else if (revenueRollupRepo.addToBucket(key.granularity(), key.bucketStart(),
+          providerId, courseId, revenue, purchases) == 0) {
+        logger.warn("Revenue bucket {} is missing, rebuild the buckets", key);
+      }
+    }
+  }
+
+  /**
+   * Identifies a bucket.
+   */
+  private record BucketKey(Granularity granularity, Timestamp bucketStart, long providerId,
+                           long courseId) {
+  }
+
+  /**
+   * A window split into whole days and the hours around them.
+   */
+  private record Window(Timestamp from, Timestamp dayFrom, Timestamp dayTo, Timestamp to) {
+
+    static Window of(long fromMillis, long toMillis) {
+      LocalDateTime from = Granularity.HOUR.bucketOf(toLocal(fromMillis));
+      LocalDateTime to = toLocal(toMillis);
+      if (!Granularity.HOUR.bucketOf(to).equals(to)) {
+        to = Granularity.HOUR.bucketOf(to).plusHours(1);
+      }
+      LocalDateTime dayFrom = Granularity.DAY.bucketOf(from);
+      if (dayFrom.isBefore(from)) {
+        dayFrom = dayFrom.plus(1, ChronoUnit.DAYS);
+      }
+      LocalDateTime dayTo = Granularity.DAY.bucketOf(to);
+      if (!dayFrom.isBefore(dayTo)) {
+        dayFrom = from;
+        dayTo = from;
+      }
+      return new Window(Timestamp.valueOf(from), Timestamp.valueOf(dayFrom),
+          Timestamp.valueOf(dayTo), Timestamp.valueOf(to));
+    }
+
+    private static LocalDateTime toLocal(long millis) {
+      return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+  }
+}
@@ -0,0 +1,184 @@
+package no.ntnu.learniverseconnect.services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+import no.ntnu.learniverseconnect.model.dto.SearchFilterDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.specifications.FilterSpecification;
+
+/**
+ * Canonical form of a {@link SearchFilterDto}, used as the search result cache key.
+ *
+ * <p>Filters that select the same courses map to equal keys: lists are sorted and deduplicated,
+ * the search text is reduced to its sorted tokens, and ranges are resolved to the bounds the
+ * query actually applies.</p>
+ *
+ * @param diffLevels  the difficulty levels, empty for any
+ * @param categories  the categories, empty for any
+ * @param terms       the search text tokens, empty if there is no search text
+ * @param minCredits  the lower credits bound, or null if credits are not filtered
+ * @param maxCredits  the upper credits bound, or null if credits are not filtered
+ * @param minPrice    the lower price bound, or null if price is not filtered
+ * @param maxPrice    the upper price bound, or null if price is not filtered
+ * @param minRating   the lower rating bound, or null if rating is not filtered
+ * @param maxRating   the upper rating bound, or null if rating is not filtered
+ * @param startDate   the start date in epoch milliseconds, or null
+ * @param endDate     the end date in epoch milliseconds, or null
+ * @param facets      whether facet counts are computed
+ * @param fuzzy       whether the search text is matched with typo tolerance
+ */
+public record SearchCacheKey(List<Integer> diffLevels, List<String> categories,
+                             List<String> terms, Float minCredits, Float maxCredits,
+                             Float minPrice, Float maxPrice, Float minRating, Float maxRating,
+                             Long startDate, Long endDate, boolean facets, boolean fuzzy) {
+
+  /**
+   * Builds the canonical key of an exact search filter.
+   *
+   * @param filter the search filter
+   * @param facets whether facet counts are computed
+   * @return the cache key
+   */
+  public static SearchCacheKey of(SearchFilterDto filter, boolean facets) {
+    return of(filter, facets, false);
+  }
+
+  /**
+   * Builds the canonical key of a search filter.
+   *
+   * @param filter the search filter
+   * @param facets whether facet counts are computed
+   * @param fuzzy  whether the search text is matched with typo tolerance
+   * @return the cache key
+   */
+  public static SearchCacheKey of(SearchFilterDto filter, boolean facets, boolean fuzzy) {
+    SearchFilterDto.CourseSizeRange credits = filter.getCourseSizeRange();
+    SearchFilterDto.PriceRange price = filter.getPriceRange();
+    SearchFilterDto.RatingRange rating = filter.getRatingRange();
+    SearchFilterDto.DateRange date = filter.getDateRange();
+
+    Float[] creditBounds = credits == null ? null
+        : FilterSpecification.resolveRange(credits.getMinCredits(), credits.getMaxCredits());
+    Float[] priceBounds = price == null ? null
+        : FilterSpecification.resolveRange(price.getMinPrice(), price.getMaxPrice());
+    Float[] ratingBounds = rating == null ? null
+        : FilterSpecification.resolveRatingRange(rating.getMinRating(), rating.getMaxRating());
+
+    return new SearchCacheKey(
+        sorted(filter.getDiffLevels()),
+        sorted(filter.getCategories()),
+        CourseSearchIndex.tokenize(filter.getSearchValue()).stream().sorted().toList(),
+        creditBounds == null ? null : creditBounds[0],
+        creditBounds == null ? null : creditBounds[1],
+        priceBounds == null ? null : priceBounds[0],
+        priceBounds == null ? null : priceBounds[1],
+        ratingBounds == null ? null : ratingBounds[0],
+        ratingBounds == null ? null : ratingBounds[1],
+        date == null || date.getStartDate() == null ? null : date.getStartDate().getTime(),
+        date == null || date.getEndDate() == null ? null : date.getEndDate().getTime(),
+        facets,
+        fuzzy && !CourseSearchIndex.tokenize(filter.getSearchValue()).isEmpty()
+    );
+  }
+
+  /**
+   * Returns whether the search filters on text.
+   *
+   * @return true if there is search text
+   */
+  public boolean hasText() {
+    return !terms.isEmpty();
+  }
+
+  /**
+   * Returns whether the search filters on rating.
+   *
+   * @return true if there is a rating range
+   */
+  public boolean hasRatingRange() {
+    return minRating != null;
+  }
+
+  /**
+   * Checks whether a course passes the course filters of this search: difficulty, category and
+   * credits. Text and rating are not checked, so a true result means "may match". With facets,
+   * courses failing these filters are still counted, so every course may match.
+   *
+   * @param course the course
+   * @return false if the course can not match this search
+   */
+  public boolean mayMatch(Course course) {
+    return facets || (diffLevels.isEmpty() || diffLevels.contains(course.getDiffLevel()))
+        && (categories.isEmpty() || categories.contains(course.getCategory()))
+        && (minCredits == null
+            || (course.getCredits() >= minCredits && course.getCredits() <= maxCredits));
+  }
+
+  /**
+   * Checks whether an offer passes the filters of this search. Text and rating are not checked,
+   * so a true result means "may match".
+   *
+   * @param offer the offer
+   * @return false if the offer can not match this search
+   */
+  public boolean mayMatch(OfferableCourses offer) {
+    if (!offer.isVisible() || !mayMatch(offer.getCourse())) {
+      return false;
+    }
+    if (!facets && minPrice != null && (offer.getPrice() < minPrice || offer.getPrice() > maxPrice)) {
+      return false;
+    }
+    if (startDate != null && endDate != null && offer.getDate() != null) {
+      long date = offer.getDate().getTime();
+      return date >= startDate && date <= endDate;
+    }
+    return true;
+  }
+
+  /**
+   * Names the filters this search applies, such as {@code text+category+price}, without their
+   * values. Searches of one shape run the same stages, so the shape is a metric tag of bounded
+   * cardinality.
+   *
+   * @return the filter shape, {@code none} if nothing is filtered
+   */
+  public String shape() {
+    StringJoiner shape = new StringJoiner("+");
+    shape.setEmptyValue("none");
+    if (hasText()) {
+      shape.add(fuzzy ? "fuzzy" : "text");
+    }
+    if (!diffLevels.isEmpty()) {
+      shape.add("difficulty");
+    }
+    if (!categories.isEmpty()) {
+      shape.add("category");
+    }
+    if (minCredits != null) {
+      shape.add("credits");
+    }
+    if (minPrice != null) {
+      shape.add("price");
+    }
+    if (hasRatingRange()) {
+      shape.add("rating");
+    }
+    if (startDate != null && endDate != null) {
+      shape.add("date");
+    }
+    if (facets) {
+      shape.add("facets");
+    }
+    return shape.toString();
+  }
+
+  private static <T extends Comparable<T>> List<T> sorted(Collection<T> values) {
+    if (values == null) {
+      return List.of();
+    }
+    return values.stream().filter(Objects::nonNull).distinct().sorted().toList();
+  }
+}
@@ -0,0 +1,17 @@
+package no.ntnu.learniverseconnect.services;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Counters of the search result cache since startup.
+ *
+ * @param hits          lookups answered from the cache
+ * @param misses        lookups that had to run the search
+ * @param evictions     entries dropped because the cache was full or the entry had expired
+ * @param invalidations entries dropped because the data behind them changed
+ * @param size          entries currently cached
+ */
+@Schema(description = "Search result cache counters")
+public record SearchCacheStats(long hits, long misses, long evictions, long invalidations,
+                               int size) {
+}
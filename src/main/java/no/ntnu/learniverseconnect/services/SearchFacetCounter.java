@@ -0,0 +1,191 @@
+package no.ntnu.learniverseconnect.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import no.ntnu.learniverseconnect.model.dto.FacetBucketDto;
+import no.ntnu.learniverseconnect.model.dto.SearchFacetsDto;
+
+/**
+ * Filters offers and counts search facets in one pass, fed by the {@link OfferFilterEngine}
+ * with one row of its snapshot at a time.
+ *
+ * <p>The offers fed in have already been filtered on visibility, text and date. For every offer
+ * the counter evaluates the facet filters (difficulty, category, credits, price and rating) and
+ * records which of them failed. An offer with no failures is a match. An offer whose only
+ * failure is facet F still counts towards facet F, which gives each facet the counts it would
+ * have without its own filter. Counts are of distinct courses.</p>
+ */
+final class SearchFacetCounter {
+
+  /**
+   * Lower bounds of the price buckets. The last bucket is open-ended.
+   */
+  static final float[] PRICE_EDGES = {0, 1000, 5000, 10000, 20000};
+
+  /**
+   * Lower bounds of the credits buckets. The last bucket is open-ended.
+   */
+  static final float[] CREDIT_EDGES = {0, 5, 7.5f, 10, 15};
+
+  /**
+   * Lower bounds of the average rating buckets. The last bucket is open-ended.
+   */
+  static final float[] RATING_EDGES = {1, 2, 3, 4};
+
+  private static final int DIFF_LEVEL = 1;
+  private static final int CATEGORY = 1 << 1;
+  private static final int CREDITS = 1 << 2;
+  private static final int PRICE = 1 << 3;
+  private static final int RATING = 1 << 4;
+  private static final int[] COURSE_FACETS = {DIFF_LEVEL, CATEGORY, CREDITS, RATING};
+
+  /**
+   * What one course contributes to the facets.
+   */
+  private static final class CourseFacets {
+    private final int diffLevel;
+    private final String category;
+    private final float credits;
+    private final float rating;
+    private int countedIn;
+    private int priceBuckets;
+
+    private CourseFacets(int diffLevel, String category, float credits, float rating) {
+      this.diffLevel = diffLevel;
+      this.category = category;
+      this.credits = credits;
+      this.rating = rating;
+    }
+  }
+
+  private final SearchCacheKey filter;
+  private final Map<Long, CourseFacets> courses = new HashMap<>();
+
+  /**
+   * Creates a counter for a search.
+   *
+   * @param filter the normalized search filter
+   */
+  SearchFacetCounter(SearchCacheKey filter) {
+    this.filter = filter;
+  }
+
+  /**
+   * Evaluates an offer against the facet filters and counts it.
+   *
+   * @param courseId  the id of the course of the offer
+   * @param diffLevel the difficulty level of the course
+   * @param category  the category of the course, or null
+   * @param credits   the credits of the course
+   * @param price     the price of the offer
+   * @param rating    the average rating of the course, or NaN if it has never been rated
+   * @return true if the offer passed every filter
+   */
+  boolean add(long courseId, int diffLevel, String category, float credits, float price,
+              float rating) {
+    CourseFacets facets = courses.computeIfAbsent(courseId,
+        id -> new CourseFacets(diffLevel, category, credits, rating));
+    int failed = failedCourseFilters(facets);
+    if (!inRange(price, filter.minPrice(), filter.maxPrice())) {
+      failed |= PRICE;
+    }
+
+    for (int facet : COURSE_FACETS) {
+      if ((failed & ~facet) == 0) {
+        facets.countedIn |= facet;
+      }
+    }
+    if ((failed & ~PRICE) == 0) {
+      int bucket = bucketOf(price, PRICE_EDGES);
+      if (bucket >= 0) {
+        facets.priceBuckets |= 1 << bucket;
+      }
+    }
+    return failed == 0;
+  }
+
+  /**
+   * Gets the facet counts of all offers added so far.
+   *
+   * @return the facet counts
+   */
+  SearchFacetsDto getFacets() {
+    Map<String, Long> categories = new TreeMap<>();
+    Map<Integer, Long> diffLevels = new TreeMap<>();
+    long[] prices = new long[PRICE_EDGES.length];
+    long[] credits = new long[CREDIT_EDGES.length];
+    long[] ratingCounts = new long[RATING_EDGES.length];
+
+    for (CourseFacets facets : courses.values()) {
+      if ((facets.countedIn & CATEGORY) != 0 && facets.category != null) {
+        categories.merge(facets.category, 1L, Long::sum);
+      }
+      if ((facets.countedIn & DIFF_LEVEL) != 0) {
+        diffLevels.merge(facets.diffLevel, 1L, Long::sum);
+      }
+      if ((facets.countedIn & CREDITS) != 0) {
+        increment(credits, bucketOf(facets.credits, CREDIT_EDGES));
+      }
+      if ((facets.countedIn & RATING) != 0) {
+        // NaN, used for unrated courses, falls in no bucket
+        increment(ratingCounts, bucketOf(facets.rating, RATING_EDGES));
+      }
+      for (int bucket = 0; bucket < prices.length; bucket++) {
+        if ((facets.priceBuckets & (1 << bucket)) != 0) {
+          prices[bucket]++;
+        }
+      }
+    }
+
+    return new SearchFacetsDto(categories, diffLevels, toBuckets(PRICE_EDGES, prices),
+        toBuckets(CREDIT_EDGES, credits), toBuckets(RATING_EDGES, ratingCounts));
+  }
+
+  private int failedCourseFilters(CourseFacets course) {
+    int failed = 0;
+    if (!filter.diffLevels().isEmpty() && !filter.diffLevels().contains(course.diffLevel)) {
+      failed |= DIFF_LEVEL;
+    }
+    if (!filter.categories().isEmpty() && !filter.categories().contains(course.category)) {
+      failed |= CATEGORY;
+    }
+    if (!inRange(course.credits, filter.minCredits(), filter.maxCredits())) {
+      failed |= CREDITS;
+    }
+    if (!inRange(course.rating, filter.minRating(), filter.maxRating())) {
+      failed |= RATING;
+    }
+    return failed;
+  }
+
+  private static boolean inRange(float value, Float min, Float max) {
+    // NaN, used for unrated courses, fails every range
+    return min == null || (value >= min && value <= max);
+  }
+
+  private static int bucketOf(float value, float[] edges) {
+    int bucket = -1;
+    for (int i = 0; i < edges.length && value >= edges[i]; i++) {
+      bucket = i;
+    }
+    return bucket;
+  }
+
+  private static void increment(long[] counts, int bucket) {
+    if (bucket >= 0) {
+      counts[bucket]++;
+    }
+  }
+
+  private static List<FacetBucketDto> toBuckets(float[] edges, long[] counts) {
+    List<FacetBucketDto> buckets = new ArrayList<>(edges.length);
+    for (int i = 0; i < edges.length; i++) {
+      Float to = i + 1 < edges.length ? edges[i + 1] : null;
+      buckets.add(new FacetBucketDto(edges[i], to, counts[i]));
+    }
+    return buckets;
+  }
+}
@@ -0,0 +1,98 @@
+package no.ntnu.learniverseconnect.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Records the {@link SearchTrace} of each search request once its response has been written.
+ *
+ * <p>Every stage is timed by the {@value #STAGE_TIMER} histogram, tagged with the stage, the
+ * filter shape and whether the result came from the cache. The whole request is timed by
+ * {@value #REQUEST_TIMER} with the same tags except the stage. Searches slower than
+ * {@code search.slow-log.threshold-ms} are logged with their normalized filter and the time
+ * of every stage.</p>
+ *
+ * <p>Registered as an interceptor of the search endpoints, because the response body is
+ * serialized after the controller returns.</p>
+ */
+@Component
+public class SearchMetrics implements HandlerInterceptor {
+
+  /**
+   * Name of the per-stage timer.
+   */
+  public static final String STAGE_TIMER = "search.stage";
+
+  /**
+   * Name of the whole-request timer.
+   */
+  public static final String REQUEST_TIMER = "search.request";
+
+  private static final Logger logger = LoggerFactory.getLogger(SearchMetrics.class);
+  private final MeterRegistry meterRegistry;
+  private final long slowThresholdNanos;
+
+  /**
+   * Constructor for SearchMetrics.
+   *
+   * @param meterRegistry   the registry the timers are published to
+   * @param slowThresholdMs searches slower than this many milliseconds are logged
+   */
+  public SearchMetrics(MeterRegistry meterRegistry,
+                       @Value("${search.slow-log.threshold-ms:500}") long slowThresholdMs) {
+    this.meterRegistry = meterRegistry;
+    this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+  }
+
+  @Override
+  public void afterCompletion(@NonNull HttpServletRequest request,
+                              @NonNull HttpServletResponse response, @NonNull Object handler,
+                              Exception ex) {
+    if (request.getAttribute(SearchTrace.ATTRIBUTE) instanceof SearchTrace trace) {
+      trace.lap(SearchTrace.Stage.SERIALIZATION);
+      record(trace);
+    }
+  }
+
+  /**
+   * Publishes the timings of a finished search, and logs it if it was slow.
+   *
+   * @param trace the trace of the search
+   */
+  public void record(SearchTrace trace) {
+    String shape = trace.getShape();
+    String cache = trace.isCached() ? "hit" : "miss";
+    for (SearchTrace.Stage stage : SearchTrace.Stage.values()) {
+      timer(STAGE_TIMER, shape, cache).tag("stage", stage.name().toLowerCase())
+          .register(meterRegistry)
+          .record(trace.getNanos(stage), TimeUnit.NANOSECONDS);
+    }
+    long total = trace.getTotalNanos();
+    timer(REQUEST_TIMER, shape, cache).register(meterRegistry)
+        .record(total, TimeUnit.NANOSECONDS);
+
+    if (total > slowThresholdNanos) {
+      logger.warn("Slow search took {} ms (cache {}): filter {}, stages {}",
+          TimeUnit.NANOSECONDS.toMillis(total), cache, trace.getKey(), trace.toMillis());
+    }
+  }
+
+  private static Timer.Builder timer(String name, String shape, String cache) {
+    return Timer.builder(name)
+        .tag("shape", shape)
+        .tag("cache", cache)
+        .publishPercentileHistogram()
+        .minimumExpectedValue(Duration.ofMillis(1))
+        .maximumExpectedValue(Duration.ofSeconds(10));
+  }
+}
@@ -0,0 +1,15 @@
+package no.ntnu.learniverseconnect.services;
+
+import java.util.List;
+import no.ntnu.learniverseconnect.model.dto.CourseWithMinPriceAndRatingDto;
+
+/**
+ * One page of search results.
+ *
+ * @param results    the course cards on this page
+ * @param nextCursor the cursor of the next page, or null if this is the last page
+ * @param total      the number of matching courses across all pages, or null if not counted
+ */
+public record SearchPage(List<CourseWithMinPriceAndRatingDto> results, String nextCursor,
+                         Integer total) {
+}
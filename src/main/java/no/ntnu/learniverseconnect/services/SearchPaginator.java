@@ -0,0 +1,154 @@
+package no.ntnu.learniverseconnect.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import no.ntnu.learniverseconnect.model.dto.CourseWithMinPriceAndRatingDto;
+
+/**
+ * Sorts search results and cuts them into keyset-paginated pages.
+ *
+ * <p>Results are ordered by the chosen sort key and then by course id, which makes the order
+ * total and stable. A cursor holds the sort key, direction, value and course id of the last
+ * result on a page; the next page starts right after that position, so results are neither
+ * skipped nor repeated when courses are added or removed between requests.</p>
+ *
+ * <p>When a page size is given, the page is selected with a heap bounded by the page size
+ * instead of sorting every match, so a page costs O(n log k) for n matches and page size k.</p>
+ */
+public final class SearchPaginator {
+
+  /**
+   * The largest page size a client may ask for.
+   */
+  public static final int MAX_LIMIT = 100;
+
+  private SearchPaginator() {
+  }
+
+  /**
+   * Sorts the results and returns the requested page.
+   *
+   * @param cards        all matching course cards
+   * @param scores       relevance scores by course id, or null if the search had no text
+   * @param sort         the sort key
+   * @param descending   true to sort from high to low
+   * @param cursor       the cursor returned with the previous page, or null for the first page
+   * @param limit        the page size, or null to return all remaining results
+   * @param includeTotal whether to report the total number of matches
+   * @return the page
+   * @throws IllegalArgumentException if the cursor is malformed or was issued for a different
+   *                                  sort, or the limit is not positive
+   */
+  public static SearchPage paginate(List<CourseWithMinPriceAndRatingDto> cards,
+                                    Map<Long, Float> scores, SearchSort sort, boolean descending,
+                                    String cursor, Integer limit, boolean includeTotal) {
+    if (limit != null && limit < 1) {
+      throw new IllegalArgumentException("limit must be positive");
+    }
+    int pageSize = limit == null ? Integer.MAX_VALUE : Math.min(limit, MAX_LIMIT);
+    Position after = cursor == null || cursor.isBlank()
+        ? null : Position.decode(cursor, sort, descending);
+
+    Comparator<Position> order = Position.order(descending);
+    List<Position> top = limit == null
+        ? sortRemaining(cards, scores, sort, order, after)
+        : selectTop(cards, scores, sort, order, after, pageSize + 1);
+
+    List<CourseWithMinPriceAndRatingDto> page = new ArrayList<>();
+    for (int i = 0; i < top.size() && i < pageSize; i++) {
+      page.add(top.get(i).card());
+    }
+    String nextCursor = top.size() > pageSize
+        ? top.get(pageSize - 1).encode(sort, descending) : null;
+    return new SearchPage(page, nextCursor, includeTotal ? cards.size() : null);
+  }
+
+  /**
+   * Sorts every result after the cursor.
+   */
+  private static List<Position> sortRemaining(List<CourseWithMinPriceAndRatingDto> cards,
+                                              Map<Long, Float> scores, SearchSort sort,
+                                              Comparator<Position> order, Position after) {
+    List<Position> remaining = new ArrayList<>();
+    for (CourseWithMinPriceAndRatingDto card : cards) {
+      Position position = new Position(sort.valueOf(card, scores), card.getCourse().getId(), card);
+      if (after == null || order.compare(position, after) > 0) {
+        remaining.add(position);
+      }
+    }
+    remaining.sort(order);
+    return remaining;
+  }
+
+  /**
+   * Selects the first {@code count} results after the cursor, in order. The heap keeps the
+   * worst selected result on top, so each candidate is either rejected with one comparison or
+   * replaces it.
+   */
+  private static List<Position> selectTop(List<CourseWithMinPriceAndRatingDto> cards,
+                                          Map<Long, Float> scores, SearchSort sort,
+                                          Comparator<Position> order, Position after,
+                                          int count) {
+    PriorityQueue<Position> heap = new PriorityQueue<>(count, order.reversed());
+    for (CourseWithMinPriceAndRatingDto card : cards) {
+      Position position = new Position(sort.valueOf(card, scores), card.getCourse().getId(), card);
+      if (after != null && order.compare(position, after) <= 0) {
+        continue;
+      }
+      if (heap.size() < count) {
+        heap.add(position);
+      } else if (order.compare(position, heap.peek()) < 0) {
+        heap.poll();
+        heap.add(position);
+      }
+    }
+    List<Position> top = new ArrayList<>(heap);
+    top.sort(order);
+    return top;
+  }
+
+  /**
+   * The position of a result in the sort order.
+   */
+  private record Position(double value, long courseId, CourseWithMinPriceAndRatingDto card) {
+
+    static Comparator<Position> order(boolean descending) {
+      Comparator<Position> byValue = Comparator.comparingDouble(Position::value);
+      return (descending ? byValue.reversed() : byValue)
+          .thenComparingLong(Position::courseId);
+    }
+
+    String encode(SearchSort sort, boolean descending) {
+      String raw = sort.name() + ":" + (descending ? "desc" : "asc") + ":" + value + ":"
+          + courseId;
+      return Base64.getUrlEncoder().withoutPadding()
+          .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Position decode(String cursor, SearchSort sort, boolean descending) {
+      String[] parts;
+      try {
+        parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+            .split(":");
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Malformed cursor");
+      }
+      if (parts.length != 4) {
+        throw new IllegalArgumentException("Malformed cursor");
+      }
+      if (!parts[0].equals(sort.name()) || !parts[1].equals(descending ? "desc" : "asc")) {
+        throw new IllegalArgumentException("Cursor was issued for a different sort order");
+      }
+      try {
+        return new Position(Double.parseDouble(parts[2]), Long.parseLong(parts[3]), null);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Malformed cursor");
+      }
+    }
+  }
+}
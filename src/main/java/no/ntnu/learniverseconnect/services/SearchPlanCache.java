@@ -0,0 +1,175 @@
+package no.ntnu.learniverseconnect.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.sql.Date;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs streamed searches from precompiled query plans.
+ *
+ * <p>Building a {@code Specification} chain per request makes Hibernate render a new Criteria
+ * tree to SQL every time, including {@code conjunction()} placeholders for absent filters.
+ * Instead, the query text is compiled once per filter shape, that is per combination of
+ * filters present, and only the parameter values are bound per request. The same text is
+ * passed to Hibernate for every search of a shape, so its query plan cache is hit as well.
+ * Offers are fetched together with their course and provider, since every result reads
+ * them.</p>
+ *
+ * <p>The plans read the offers from a database cursor ordered by course, together with the
+ * rating aggregate of the course, so that a caller can reduce them one course at a time. They
+ * apply the difficulty, category, credits, price and rating filters, so only matching offers
+ * cross the cursor.</p>
+ */
+@Component
+public class SearchPlanCache {
+
+  /**
+   * Which filters a search applies.
+   *
+   * @param courseIds  whether the courses are restricted to the text matches
+   * @param dateRange  whether a date range is given
+   * @param diffLevels whether the difficulty levels are filtered
+   * @param categories whether the categories are filtered
+   * @param credits    whether the credits are filtered
+   * @param price      whether the price is filtered
+   * @param rating     whether the rating is filtered
+   */
+  private record Shape(boolean courseIds, boolean dateRange, boolean diffLevels, boolean categories, boolean credits, boolean price,
+                       boolean rating) {
+  }
+
+  /**
+   * Number of rows fetched from the database cursor at a time when streaming.
+   */
+  private static final int FETCH_SIZE = 500;
+
+  private final EntityManager entityManager;
+  private final Map<Shape, String> plans = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Constructor for SearchPlanCache.
+   *
+   * @param entityManager the entity manager the plans are run on
+   */
+  public SearchPlanCache(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  /**
+   * Streams the visible offers matching a search from a database cursor, ordered by course.
+   * Must be called inside a transaction, and the stream must be closed.
+   *
+   * <p>Every filter of the key except the search text is applied by the query. Facets are
+   * not computed, so the key should be built without them. As with
+   * {@code FilterSpecification.hasDateBetween}, a date range with only one bound matches
+   * nothing.</p>
+   *
+   * @param courseIds the ids of the courses matching the search text, or null if the search
+   *                  has no text
+   * @param key       the other filters of the search
+   * @return rows of the matching offer and the rating aggregate of its course, which is null
+   *     if the course has never been rated
+   */
+  public Stream<Object[]> streamVisibleOffers(Collection<Long> courseIds, SearchCacheKey key) {
+    if (courseIds != null && courseIds.isEmpty()) {
+      return Stream.empty();
+    }
+    Shape shape = new Shape(courseIds != null, key.startDate() != null || key.endDate() != null,
+        !key.diffLevels().isEmpty(), !key.categories().isEmpty(),
+        key.minCredits() != null, key.minPrice() != null, key.hasRatingRange());
+    TypedQuery<Object[]> query = entityManager.createQuery(getPlan(shape), Object[].class);
+    bind(query, shape, courseIds, key);
+    query.setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE);
+    query.setHint(HibernateHints.HINT_READ_ONLY, true);
+    return query.getResultStream();
+  }
+
+  /**
+   * Gets the counters of the plan cache.
+   *
+   * @return the hit and miss counts and the number of compiled plans
+   */
+  public SearchPlanStats getStats() {
+    return new SearchPlanStats(hits.get(), misses.get(), plans.size());
+  }
+
+  private String getPlan(Shape shape) {
+    String plan = plans.get(shape);
+    if (plan != null) {
+      hits.incrementAndGet();
+      return plan;
+    }
+    misses.incrementAndGet();
+    return plans.computeIfAbsent(shape, SearchPlanCache::compile);
+  }
+
+  private static void bind(TypedQuery<?> query, Shape shape, Collection<Long> courseIds,
+                           SearchCacheKey key) {
+    if (shape.courseIds()) {
+      query.setParameter("courseIds", courseIds);
+    }
+    if (shape.dateRange()) {
+      query.setParameter("startDate",
+          key.startDate() != null ? new Date(key.startDate()) : null);
+      query.setParameter("endDate", key.endDate() != null ? new Date(key.endDate()) : null);
+    }
+    if (shape.diffLevels()) {
+      query.setParameter("diffLevels", key.diffLevels());
+    }
+    if (shape.categories()) {
+      query.setParameter("categories", key.categories());
+    }
+    if (shape.credits()) {
+      query.setParameter("minCredits", key.minCredits());
+      query.setParameter("maxCredits", key.maxCredits());
+    }
+    if (shape.price()) {
+      query.setParameter("minPrice", key.minPrice());
+      query.setParameter("maxPrice", key.maxPrice());
+    }
+    if (shape.rating()) {
+      query.setParameter("minRating", key.minRating());
+      query.setParameter("maxRating", key.maxRating());
+    }
+  }
+
+  private static String compile(Shape shape) {
+    StringBuilder jpql = new StringBuilder("SELECT o, r");
+    jpql.append(" FROM OfferableCourses o JOIN FETCH o.course c LEFT JOIN FETCH o.provider");
+    jpql.append(" LEFT JOIN CourseRating r ON r.courseId = c.id");
+    jpql.append(" WHERE o.visibility = true");
+    if (shape.courseIds()) {
+      jpql.append(" AND c.id IN :courseIds");
+    }
+    if (shape.dateRange()) {
+      jpql.append(" AND o.date BETWEEN :startDate AND :endDate");
+    }
+    if (shape.diffLevels()) {
+      jpql.append(" AND c.diffLevel IN :diffLevels");
+    }
+    if (shape.categories()) {
+      jpql.append(" AND c.category IN :categories");
+    }
+    if (shape.credits()) {
+      jpql.append(" AND c.credits BETWEEN :minCredits AND :maxCredits");
+    }
+    if (shape.price()) {
+      jpql.append(" AND o.price BETWEEN :minPrice AND :maxPrice");
+    }
+    if (shape.rating()) {
+      // Unrated courses have no aggregate row, so the comparison leaves them out
+      jpql.append(" AND r.ratingCount > 0 AND r.averageRating BETWEEN :minRating AND :maxRating");
+    }
+    jpql.append(" ORDER BY c.id");
+    return jpql.toString();
+  }
+}
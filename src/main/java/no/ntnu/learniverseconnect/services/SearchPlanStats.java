@@ -0,0 +1,14 @@
+package no.ntnu.learniverseconnect.services;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Counters of the search plan cache since startup.
+ *
+ * @param hits   searches that reused a compiled plan
+ * @param misses searches that had to compile a plan for a new filter shape
+ * @param plans  plans currently compiled, at most one per filter shape
+ */
+@Schema(description = "Search plan cache counters")
+public record SearchPlanStats(long hits, long misses, int plans) {
+}
@@ -0,0 +1,50 @@
+package no.ntnu.learniverseconnect.services;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import no.ntnu.learniverseconnect.model.dto.CourseWithMinPriceAndRatingDto;
+import no.ntnu.learniverseconnect.model.dto.SearchFacetsDto;
+
+/**
+ * Every course matching a search, before sorting and paging.
+ *
+ * @param cards     one course card per matching course
+ * @param scores    relevance scores by course id, or null if the search had no text
+ * @param facets    the facet counts, or null if they were not requested
+ * @param courseIds the ids of every course the result depends on: the matching courses, and
+ *                  with facets also the courses counted in them
+ * @param didYouMean a spelling correction of the search text, or null if none is needed
+ */
+public record SearchResult(List<CourseWithMinPriceAndRatingDto> cards, Map<Long, Float> scores,
+                           SearchFacetsDto facets, Set<Long> courseIds, String didYouMean) {
+
+  /**
+   * Creates a result without facets or spelling correction.
+   *
+   * @param cards  one course card per matching course
+   * @param scores relevance scores by course id, or null if the search had no text
+   */
+  public SearchResult(List<CourseWithMinPriceAndRatingDto> cards, Map<Long, Float> scores) {
+    this(cards, scores, null, courseIdsOf(cards), null);
+  }
+
+  /**
+   * Returns a copy of this result with a spelling correction.
+   *
+   * @param correction the corrected search text, or null
+   * @return the result with the correction
+   */
+  public SearchResult withDidYouMean(String correction) {
+    return new SearchResult(cards, scores, facets, courseIds, correction);
+  }
+
+  private static Set<Long> courseIdsOf(List<CourseWithMinPriceAndRatingDto> cards) {
+    Set<Long> courseIds = new HashSet<>();
+    for (CourseWithMinPriceAndRatingDto card : cards) {
+      courseIds.add(card.getCourse().getId());
+    }
+    return courseIds;
+  }
+}
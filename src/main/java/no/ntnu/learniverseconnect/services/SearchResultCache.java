@@ -0,0 +1,188 @@
+package no.ntnu.learniverseconnect.services;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of search results, keyed by {@link SearchCacheKey}.
+ *
+ * <p>The least recently used entry is evicted when the cache is full, and entries expire after
+ * a fixed time to live. Writes to courses, offers, keywords and reviews invalidate only the
+ * entries they can affect: entries that contain the changed course, and entries the course
+ * could now enter. Inside a transaction, entries are invalidated once it commits.</p>
+ *
+ * <p>A result computed while a write happened may already be stale, so {@link #put} only
+ * stores results computed since the last invalidation.</p>
+ */
+@Component
+public class SearchResultCache {
+
+  private record Entry(SearchResult result, Set<Long> courseIds, long expiresAt) {
+  }
+
+  private final int maxSize;
+  private final long ttlMillis;
+  private final LinkedHashMap<SearchCacheKey, Entry> entries;
+
+  private long generation;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long invalidations;
+
+  /**
+   * Constructor for SearchResultCache.
+   *
+   * @param maxSize    the maximum number of cached searches
+   * @param ttlSeconds how long a result may be served, in seconds
+   */
+  public SearchResultCache(@Value("${search.cache.max-size:1000}") int maxSize,
+                           @Value("${search.cache.ttl-seconds:300}") long ttlSeconds) {
+    this.maxSize = maxSize;
+    this.ttlMillis = ttlSeconds * 1000;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<SearchCacheKey, Entry> eldest) {
+        if (size() > SearchResultCache.this.maxSize) {
+          evictions++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Looks up a cached result.
+   *
+   * @param key the search
+   * @return the cached result, or null if it is not cached or has expired
+   */
+  public synchronized SearchResult get(SearchCacheKey key) {
+    Entry entry = entries.get(key);
+    if (entry != null && entry.expiresAt() <= System.currentTimeMillis()) {
+      entries.remove(key);
+      evictions++;
+      entry = null;
+    }
+    if (entry == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    return entry.result();
+  }
+
+  /**
+   * Returns the current generation. Read it before running a search and pass it to
+   * {@link #put}.
+   *
+   * @return the number of writes seen so far
+   */
+  public synchronized long generation() {
+    return generation;
+  }
+
+  /**
+   * Caches a result, unless data changed since it was computed.
+   *
+   * @param key        the search
+   * @param result     the result
+   * @param generation the generation read before the search was run
+   */
+  public synchronized void put(SearchCacheKey key, SearchResult result, long generation) {
+    if (maxSize <= 0 || generation != this.generation) {
+      return;
+    }
+    entries.put(key, new Entry(result, result.courseIds(),
+        System.currentTimeMillis() + ttlMillis));
+  }
+
+  /**
+   * Invalidates the searches containing a deleted course.
+   *
+   * @param courseId the course id
+   */
+  public void courseRemoved(long courseId) {
+    invalidate(courseId, key -> false);
+  }
+
+  /**
+   * Invalidates the searches containing the course of a deleted offer. Removing an offer can
+   * not add the course to other results.
+   *
+   * @param courseId the id of the offered course
+   */
+  public void offerRemoved(long courseId) {
+    invalidate(courseId, key -> false);
+  }
+
+  /**
+   * Invalidates the searches a changed course is in or may now match.
+   *
+   * @param course the course after the change
+   */
+  public void courseChanged(Course course) {
+    invalidate(course.getId(), key -> key.mayMatch(course));
+  }
+
+  /**
+   * Invalidates the searches a saved offer's course is in or may now match.
+   *
+   * @param offer the offer after the change
+   */
+  public void offerChanged(OfferableCourses offer) {
+    invalidate(offer.getCourse().getId(), key -> key.mayMatch(offer));
+  }
+
+  /**
+   * Invalidates the searches a course is in, and the text searches it may now match.
+   *
+   * @param courseId the id of the course whose keywords changed
+   */
+  public void keywordsChanged(long courseId) {
+    invalidate(courseId, SearchCacheKey::hasText);
+  }
+
+  /**
+   * Invalidates the searches a course is in, and the rating filtered searches it may now match.
+   *
+   * @param courseId the id of the course whose rating changed
+   */
+  public void ratingChanged(long courseId) {
+    invalidate(courseId, SearchCacheKey::hasRatingRange);
+  }
+
+  /**
+   * Gets the cache counters.
+   *
+   * @return the counters
+   */
+  public synchronized SearchCacheStats getStats() {
+    return new SearchCacheStats(hits, misses, evictions, invalidations, entries.size());
+  }
+
+  private void invalidate(long courseId, Predicate<SearchCacheKey> mayNowMatch) {
+    AfterCommit.run(() -> invalidateNow(courseId, mayNowMatch));
+  }
+
+  private synchronized void invalidateNow(long courseId,
+                                          Predicate<SearchCacheKey> mayNowMatch) {
+    generation++;
+    Iterator<Map.Entry<SearchCacheKey, Entry>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<SearchCacheKey, Entry> entry = iterator.next();
+      if (entry.getValue().courseIds().contains(courseId) || mayNowMatch.test(entry.getKey())) {
+        iterator.remove();
+        invalidations++;
+      }
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package no.ntnu.learniverseconnect.services;
+
+import java.util.Locale;
+import java.util.Map;
+import no.ntnu.learniverseconnect.model.dto.CourseWithMinPriceAndRatingDto;
+
+/**
+ * The keys search results can be sorted by. Each key has a natural direction, used when the
+ * client does not ask for one.
+ */
+public enum SearchSort {
+  PRICE(false),
+  RATING(true),
+  DATE(false),
+  CREDITS(false),
+  RELEVANCE(true);
+
+  private final boolean descendingByDefault;
+
+  SearchSort(boolean descendingByDefault) {
+    this.descendingByDefault = descendingByDefault;
+  }
+
+  /**
+   * Parses a sort key from a request parameter, ignoring case.
+   *
+   * @param value the parameter value, or null
+   * @param fallback the key to use when no value is given
+   * @return the sort key
+   * @throws IllegalArgumentException if the value is not a known sort key
+   */
+  public static SearchSort fromParameter(String value, SearchSort fallback) {
+    if (value == null || value.isBlank()) {
+      return fallback;
+    }
+    try {
+      return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown sort key: " + value);
+    }
+  }
+
+  /**
+   * Returns whether this key sorts from high to low unless told otherwise.
+   *
+   * @return true for rating and relevance
+   */
+  public boolean isDescendingByDefault() {
+    return descendingByDefault;
+  }
+
+  /**
+   * Extracts the value of this key from a course card.
+   *
+   * @param card   the course card
+   * @param scores relevance scores by course id, or null if the search had no text
+   * @return the sort value
+   */
+  public double valueOf(CourseWithMinPriceAndRatingDto card, Map<Long, Float> scores) {
+    return switch (this) {
+      case PRICE -> card.getMinDiscountedPrice();
+      case RATING -> card.getRating();
+      case DATE -> card.getClosestDate() != null ? card.getClosestDate().getTime() : 0;
+      case CREDITS -> card.getCourse().getCredits();
+      case RELEVANCE -> scores != null ? scores.getOrDefault(card.getCourse().getId(), 0f) : 0;
+    };
+  }
+}
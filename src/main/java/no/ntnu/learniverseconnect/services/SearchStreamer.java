@@ -0,0 +1,138 @@
+package no.ntnu.learniverseconnect.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+import no.ntnu.learniverseconnect.model.dto.CourseSummaryDto;
+import no.ntnu.learniverseconnect.model.dto.CourseWithMinPriceAndRatingDto;
+import no.ntnu.learniverseconnect.model.dto.SearchFilterDto;
+import no.ntnu.learniverseconnect.model.entities.CourseRating;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes search results as newline-delimited JSON while they are read from the database.
+ *
+ * <p>Offers are read from a database cursor ordered by course, so all offers of a course
+ * arrive together. Every filter but the search text is applied by the query, so each row
+ * matches. Each course is reduced to its best offer as its rows go by, and its card is written
+ * and flushed as soon as the next course starts. The persistence context is cleared at every
+ * course boundary, so memory use does not grow with the number of rows read.</p>
+ *
+ * <p>Cards are written in course id order. They carry the same fields and relevance scores as
+ * the paged search, but are not sorted or cached.</p>
+ */
+@Service
+public class SearchStreamer {
+
+  private final SearchPlanCache searchPlanCache;
+  private final CourseSearchIndex courseSearchIndex;
+  private final EntityManager entityManager;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Constructor for SearchStreamer.
+   *
+   * @param searchPlanCache    runs the streamed search queries
+   * @param courseSearchIndex  text index over course title, description and keywords
+   * @param entityManager      the entity manager the rows are read with, cleared per course
+   * @param transactionManager the transaction manager, the cursor is read in a read-only
+   *                           transaction
+   * @param objectMapper       writes the cards
+   */
+  public SearchStreamer(SearchPlanCache searchPlanCache, CourseSearchIndex courseSearchIndex,
+                        EntityManager entityManager,
+                        PlatformTransactionManager transactionManager,
+                        ObjectMapper objectMapper) {
+    this.searchPlanCache = searchPlanCache;
+    this.courseSearchIndex = courseSearchIndex;
+    this.entityManager = entityManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Streams the cards of every course matching the filter, one JSON object per line.
+   *
+   * @param searchFilterDto the search filter
+   * @param fuzzy           whether to match misspelled search text
+   * @param limit           the largest number of cards to write, or null for all
+   * @param out             the stream to write to
+   * @throws IOException if writing fails
+   */
+  public void stream(SearchFilterDto searchFilterDto, boolean fuzzy, Integer limit,
+                     OutputStream out) throws IOException {
+    SearchCacheKey key = SearchCacheKey.of(searchFilterDto, false, fuzzy);
+    Map<Long, Float> scores = courseSearchIndex.search(searchFilterDto.getSearchValue(),
+        key.fuzzy());
+    try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n")
+        .writeValues(out)) {
+      transactionTemplate.executeWithoutResult(status -> {
+        try (Stream<Object[]> rows = searchPlanCache.streamVisibleOffers(
+            scores != null ? scores.keySet() : null, key)) {
+          writeCards(rows.iterator(), scores, limit, writer);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      // End the last line, so that clients reading line by line see every card
+      writer.flush();
+      out.write('\n');
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private void writeCards(Iterator<Object[]> rows, Map<Long, Float> scores, Integer limit,
+                          SequenceWriter writer) throws IOException {
+    int written = 0;
+    OfferableCourses best = null;
+    CourseRating bestRating = null;
+    while (rows.hasNext() && (limit == null || written < limit)) {
+      Object[] row = rows.next();
+      OfferableCourses offer = (OfferableCourses) row[0];
+      CourseRating rating = (CourseRating) row[1];
+      if (best != null && best.getCourse().getId() != offer.getCourse().getId()) {
+        writer.write(toCard(best, bestRating, scores));
+        written++;
+        best = null;
+        // Every row matches, so this runs at every course boundary. The row just read keeps
+        // its course, which was fetched with it.
+        entityManager.clear();
+      }
+      if (best == null || CourseCardAssembler.BEST_OFFER_ORDER.compare(offer, best) < 0) {
+        best = offer;
+        bestRating = rating;
+      }
+    }
+    if (best != null && (limit == null || written < limit)) {
+      writer.write(toCard(best, bestRating, scores));
+    }
+  }
+
+  private static CourseWithMinPriceAndRatingDto toCard(OfferableCourses offer,
+                                                       CourseRating rating,
+                                                       Map<Long, Float> scores) {
+    CourseWithMinPriceAndRatingDto card = new CourseWithMinPriceAndRatingDto(
+        CourseSummaryDto.of(offer.getCourse()),
+        CourseCardAssembler.discountedPrice(offer),
+        offer.getDate(),
+        rating != null ? rating.getAverageRating() : 0f,
+        rating != null ? rating.getRatingCount() : 0
+    );
+    if (scores != null) {
+      card.setScore(scores.get(offer.getCourse().getId()));
+    }
+    return card;
+  }
+}
@@ -0,0 +1,143 @@
+package no.ntnu.learniverseconnect.services;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage timings of one search request.
+ *
+ * <p>The trace is a stopwatch: each call to {@link #lap(Stage)} charges the time since the
+ * previous lap to the given stage. It is created when the search starts, passed along to the
+ * services the search runs through, and recorded by {@link SearchMetrics} once the response
+ * has been written.</p>
+ */
+public class SearchTrace {
+
+  /**
+   * Request attribute holding the trace of the current search.
+   */
+  public static final String ATTRIBUTE = SearchTrace.class.getName();
+
+  /**
+   * The stages of a search request, in the order they run.
+   */
+  public enum Stage {
+    /**
+     * Normalizing the filter and looking up the result cache.
+     */
+    FILTER,
+    /**
+     * Matching the search text and selecting the offers, in memory or in the database.
+     */
+    QUERY,
+    /**
+     * Reducing the offers to the best offer per course, and counting facets.
+     */
+    AGGREGATION,
+    /**
+     * Loading course summaries and ratings, and building the course cards.
+     */
+    ASSEMBLY,
+    /**
+     * Sorting, counting and cutting out the requested page.
+     */
+    PAGINATION,
+    /**
+     * Writing the response body.
+     */
+    SERIALIZATION
+  }
+
+  private final long[] nanos = new long[Stage.values().length];
+  private long lastLap = System.nanoTime();
+  private SearchCacheKey key;
+  private boolean cached;
+
+  /**
+   * Charges the time since the previous lap to a stage.
+   *
+   * @param stage the stage that just ended
+   */
+  public void lap(Stage stage) {
+    long now = System.nanoTime();
+    nanos[stage.ordinal()] += now - lastLap;
+    lastLap = now;
+  }
+
+  /**
+   * Sets the normalized filter of the search.
+   *
+   * @param key the normalized filter
+   */
+  public void setKey(SearchCacheKey key) {
+    this.key = key;
+  }
+
+  /**
+   * Gets the normalized filter of the search.
+   *
+   * @return the normalized filter, or null if the filter was never normalized
+   */
+  public SearchCacheKey getKey() {
+    return key;
+  }
+
+  /**
+   * Gets the filter shape of the search, see {@link SearchCacheKey#shape()}.
+   *
+   * @return the filter shape, {@code unknown} if the filter was never normalized
+   */
+  public String getShape() {
+    return key != null ? key.shape() : "unknown";
+  }
+
+  /**
+   * Marks the search as answered from the result cache.
+   *
+   * @param cached whether the result came from the cache
+   */
+  public void setCached(boolean cached) {
+    this.cached = cached;
+  }
+
+  public boolean isCached() {
+    return cached;
+  }
+
+  /**
+   * Gets the time spent in a stage.
+   *
+   * @param stage the stage
+   * @return the time in nanoseconds
+   */
+  public long getNanos(Stage stage) {
+    return nanos[stage.ordinal()];
+  }
+
+  /**
+   * Gets the time spent in all stages.
+   *
+   * @return the time in nanoseconds
+   */
+  public long getTotalNanos() {
+    long total = 0;
+    for (long stageNanos : nanos) {
+      total += stageNanos;
+    }
+    return total;
+  }
+
+  /**
+   * Gets the time spent in each stage, for logging.
+   *
+   * @return the milliseconds per stage, in stage order
+   */
+  public Map<Stage, Long> toMillis() {
+    Map<Stage, Long> millis = new EnumMap<>(Stage.class);
+    for (Stage stage : Stage.values()) {
+      millis.put(stage, TimeUnit.NANOSECONDS.toMillis(nanos[stage.ordinal()]));
+    }
+    return millis;
+  }
+}
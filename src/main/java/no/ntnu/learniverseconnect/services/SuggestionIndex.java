@@ -0,0 +1,522 @@
+package no.ntnu.learniverseconnect.services;
+
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import no.ntnu.learniverseconnect.model.dto.SuggestionDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.CourseRating;
+import no.ntnu.learniverseconnect.model.repos.CourseRatingRepo;
+import no.ntnu.learniverseconnect.model.repos.CourseRepo;
+import no.ntnu.learniverseconnect.model.repos.KeywordsRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Autocomplete index over course titles, keywords, categories and related certifications.
+ *
+ * <p>Every phrase is stored in a compressed prefix tree under its normalized form and under
+ * each of its word starts, so "prog" completes "Real-Time Programming in Java". Each node keeps
+ * the {@value #MAX_SUGGESTIONS} best phrases of its subtree, which makes a lookup a walk down
+ * the prefix with no further search. Phrases are ranked by the popularity of their courses:
+ * the number of ratings, then the average rating.</p>
+ *
+ * <p>The index is built when the application starts and updated phrase by phrase by the course
+ * and keyword controllers, and by the rating service when a course is rated. Only the nodes on
+ * the path of a changed phrase are recomputed. Inside a transaction a change takes effect once
+ * the transaction commits.</p>
+ */
+@Component
+public class SuggestionIndex {
+
+  /**
+   * The most suggestions returned for one prefix.
+   */
+  public static final int MAX_SUGGESTIONS = 10;
+
+  /**
+   * The kinds of text that are suggested.
+   */
+  enum SuggestionType {
+    TITLE, KEYWORD, CATEGORY, CERTIFICATION
+  }
+
+  /**
+   * A suggested text and the courses behind it.
+   */
+  private static final class Phrase {
+    private final SuggestionType type;
+    private final String key;
+    private final String text;
+    private final Set<Long> courseIds = new HashSet<>();
+    private double weight;
+
+    private Phrase(SuggestionType type, String key, String text) {
+      this.type = type;
+      this.key = key;
+      this.text = text;
+    }
+  }
+
+  /**
+   * A node of the prefix tree. The label is the text of the edge from the parent.
+   */
+  private static final class Node {
+    private String label;
+    private Node parent;
+    private Node[] children = new Node[0];
+    private Phrase[] phrases = new Phrase[0];
+    private Phrase[] top = new Phrase[0];
+
+    private Node(String label, Node parent) {
+      this.label = label;
+      this.parent = parent;
+    }
+
+    private Node child(char first) {
+      for (Node child : children) {
+        if (child.label.charAt(0) == first) {
+          return child;
+        }
+      }
+      return null;
+    }
+  }
+
+  private static final Comparator<Phrase> RANKING =
+      Comparator.comparingDouble((Phrase phrase) -> -phrase.weight)
+          .thenComparing(phrase -> phrase.text);
+
+  private static final Logger logger = LoggerFactory.getLogger(SuggestionIndex.class);
+  private final CourseRepo courseRepo;
+  private final KeywordsRepo keywordsRepo;
+  private final CourseRatingRepo courseRatingRepo;
+
+  private Node root = new Node("", null);
+  private final Map<String, Phrase> phrases = new HashMap<>();
+  private final Map<Long, List<Phrase>> coursePhrases = new HashMap<>();
+  private final Map<Long, List<Phrase>> keywordPhrases = new HashMap<>();
+  private final Map<Long, Double> courseWeights = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private boolean rebuilding;
+
+  /**
+   * Constructor for SuggestionIndex.
+   *
+   * @param courseRepo       the course repository
+   * @param keywordsRepo     the keywords repository
+   * @param courseRatingRepo the course rating aggregate repository, for popularity
+   */
+  public SuggestionIndex(CourseRepo courseRepo, KeywordsRepo keywordsRepo,
+                         CourseRatingRepo courseRatingRepo) {
+    this.courseRepo = courseRepo;
+    this.keywordsRepo = keywordsRepo;
+    this.courseRatingRepo = courseRatingRepo;
+  }
+
+  /**
+   * Rebuilds the whole index from the database.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void rebuild() {
+    Map<Long, List<String>> keywords = new HashMap<>();
+    for (Object[] row : keywordsRepo.findAllCourseKeywords()) {
+      keywords.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+    }
+    List<Course> allCourses = courseRepo.findAll();
+    List<CourseRating> ratings = courseRatingRepo.findAll();
+    lock.writeLock().lock();
+    try {
+      root = new Node("", null);
+      phrases.clear();
+      coursePhrases.clear();
+      keywordPhrases.clear();
+      courseWeights.clear();
+      for (CourseRating rating : ratings) {
+        courseWeights.put(rating.getCourseId(), weightOf(rating));
+      }
+      // Ranks are computed once for the whole tree instead of after every insert
+      rebuilding = true;
+      for (Course course : allCourses) {
+        coursePhrases.put(course.getId(), addPhrases(course.getId(), courseTexts(course)));
+        keywordPhrases.put(course.getId(), addPhrases(course.getId(), keywordTexts(
+            keywords.getOrDefault(course.getId(), Collections.emptyList()))));
+      }
+      rankSubtree(root);
+    } finally {
+      rebuilding = false;
+      lock.writeLock().unlock();
+    }
+    logger.info("Indexed {} phrases for autocomplete", phrases.size());
+  }
+
+  /**
+   * Adds or replaces the title, category and related certification of a course, and refreshes
+   * its popularity.
+   *
+   * @param course the saved course
+   */
+  public void updateCourse(Course course) {
+    long courseId = course.getId();
+    double weight = courseRatingRepo.findByCourseId(courseId)
+        .map(SuggestionIndex::weightOf).orElse(0.0);
+    Map<SuggestionType, List<String>> texts = courseTexts(course);
+    AfterCommit.run(() -> {
+      lock.writeLock().lock();
+      try {
+        removePhrases(courseId, coursePhrases.remove(courseId));
+        List<Phrase> keywords = keywordPhrases.remove(courseId);
+        removePhrases(courseId, keywords);
+        courseWeights.put(courseId, weight);
+        coursePhrases.put(courseId, addPhrases(courseId, texts));
+        keywordPhrases.put(courseId, addPhrases(courseId, textsOf(keywords)));
+      } finally {
+        lock.writeLock().unlock();
+      }
+    });
+  }
+
+  /**
+   * Replaces the keywords of a course.
+   *
+   * @param courseId the course id
+   * @param keywords the new keywords of the course
+   */
+  public void updateKeywords(long courseId, Collection<String> keywords) {
+    Map<SuggestionType, List<String>> texts = keywordTexts(keywords);
+    AfterCommit.run(() -> {
+      lock.writeLock().lock();
+      try {
+        removePhrases(courseId, keywordPhrases.remove(courseId));
+        keywordPhrases.put(courseId, addPhrases(courseId, texts));
+      } finally {
+        lock.writeLock().unlock();
+      }
+    });
+  }
+
+  /**
+   * Re-ranks the phrases of a course after its rating changed.
+   *
+   * @param rating the updated rating aggregate of the course
+   */
+  public void ratingChanged(CourseRating rating) {
+    long courseId = rating.getCourseId();
+    double weight = weightOf(rating);
+    AfterCommit.run(() -> {
+      lock.writeLock().lock();
+      try {
+        double change = weight - courseWeights.getOrDefault(courseId, 0.0);
+        courseWeights.put(courseId, weight);
+        reweigh(coursePhrases.get(courseId), change);
+        reweigh(keywordPhrases.get(courseId), change);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    });
+  }
+
+  /**
+   * Removes every phrase of a deleted course.
+   *
+   * @param courseId the id of the deleted course
+   */
+  public void removeCourse(long courseId) {
+    AfterCommit.run(() -> {
+      lock.writeLock().lock();
+      try {
+        removePhrases(courseId, coursePhrases.remove(courseId));
+        removePhrases(courseId, keywordPhrases.remove(courseId));
+        courseWeights.remove(courseId);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    });
+  }
+
+  /**
+   * Gets the best completions of a prefix. The prefix is matched against the start of every
+   * word of the suggested texts, ignoring case and punctuation.
+   *
+   * @param prefix the text typed so far
+   * @param limit  the most suggestions to return, at most {@value #MAX_SUGGESTIONS}
+   * @return the suggestions, best first
+   */
+  public List<SuggestionDto> suggest(String prefix, int limit) {
+    String key = normalize(prefix);
+    if (key.isEmpty() || limit <= 0) {
+      return new ArrayList<>();
+    }
+    lock.readLock().lock();
+    try {
+      Node node = find(key);
+      if (node == null) {
+        return new ArrayList<>();
+      }
+      int count = Math.min(limit, node.top.length);
+      List<SuggestionDto> suggestions = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        Phrase phrase = node.top[i];
+        Long courseId = phrase.type == SuggestionType.TITLE && phrase.courseIds.size() == 1
+            ? phrase.courseIds.iterator().next() : null;
+        suggestions.add(new SuggestionDto(phrase.text,
+            phrase.type.name().toLowerCase(Locale.ROOT), courseId));
+      }
+      return suggestions;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Lowercases text and reduces every run of characters other than letters and digits to a
+   * single space.
+   *
+   * @param text the text, may be null
+   * @return the normalized text
+   */
+  static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+  }
+
+  private static double weightOf(CourseRating rating) {
+    // The average is at most 5, so it only breaks ties between equal rating counts
+    return rating.getRatingCount() + rating.getAverageRating() / 10.0;
+  }
+
+  private static Map<SuggestionType, List<String>> courseTexts(Course course) {
+    Map<SuggestionType, List<String>> texts = new HashMap<>();
+    texts.put(SuggestionType.TITLE, textList(course.getTitle()));
+    texts.put(SuggestionType.CATEGORY, textList(course.getCategory()));
+    texts.put(SuggestionType.CERTIFICATION, textList(course.getRelatedCert()));
+    return texts;
+  }
+
+  private static Map<SuggestionType, List<String>> keywordTexts(Collection<String> keywords) {
+    return Map.of(SuggestionType.KEYWORD, new ArrayList<>(keywords));
+  }
+
+  private static Map<SuggestionType, List<String>> textsOf(List<Phrase> phraseList) {
+    List<String> texts = new ArrayList<>();
+    if (phraseList != null) {
+      for (Phrase phrase : phraseList) {
+        texts.add(phrase.text);
+      }
+    }
+    return keywordTexts(texts);
+  }
+
+  private static List<String> textList(String text) {
+    return text == null ? List.of() : List.of(text);
+  }
+
+  private List<Phrase> addPhrases(long courseId, Map<SuggestionType, List<String>> texts) {
+    double weight = courseWeights.getOrDefault(courseId, 0.0);
+    List<Phrase> added = new ArrayList<>();
+    for (Map.Entry<SuggestionType, List<String>> entry : texts.entrySet()) {
+      for (String text : entry.getValue()) {
+        String key = normalize(text);
+        if (key.isEmpty()) {
+          continue;
+        }
+        String id = entry.getKey() + ":" + key;
+        Phrase phrase = phrases.get(id);
+        boolean isNew = phrase == null;
+        if (isNew) {
+          phrase = new Phrase(entry.getKey(), key, text.trim());
+          phrases.put(id, phrase);
+        }
+        if (!phrase.courseIds.add(courseId)) {
+          continue;
+        }
+        phrase.weight += weight;
+        added.add(phrase);
+        for (String suffix : wordStarts(key)) {
+          if (isNew) {
+            insert(suffix, phrase);
+          } else {
+            refresh(find(suffix));
+          }
+        }
+      }
+    }
+    return added;
+  }
+
+  private void removePhrases(long courseId, List<Phrase> phraseList) {
+    if (phraseList == null) {
+      return;
+    }
+    double weight = courseWeights.getOrDefault(courseId, 0.0);
+    for (Phrase phrase : phraseList) {
+      if (!phrase.courseIds.remove(courseId)) {
+        continue;
+      }
+      phrase.weight -= weight;
+      boolean unused = phrase.courseIds.isEmpty();
+      if (unused) {
+        phrases.remove(phrase.type + ":" + phrase.key);
+      }
+      for (String suffix : wordStarts(phrase.key)) {
+        if (unused) {
+          remove(suffix, phrase);
+        } else {
+          refresh(find(suffix));
+        }
+      }
+    }
+  }
+
+  private void reweigh(List<Phrase> phraseList, double change) {
+    if (phraseList == null || change == 0) {
+      return;
+    }
+    for (Phrase phrase : phraseList) {
+      phrase.weight += change;
+      for (String suffix : wordStarts(phrase.key)) {
+        refresh(find(suffix));
+      }
+    }
+  }
+
+  private static List<String> wordStarts(String key) {
+    List<String> suffixes = new ArrayList<>();
+    suffixes.add(key);
+    for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+      suffixes.add(key.substring(i + 1));
+    }
+    return suffixes;
+  }
+
+  /**
+   * Finds the node whose subtree holds exactly the keys starting with the prefix.
+   */
+  private Node find(String prefix) {
+    Node node = root;
+    int i = 0;
+    while (i < prefix.length()) {
+      Node child = node.child(prefix.charAt(i));
+      if (child == null) {
+        return null;
+      }
+      int remaining = prefix.length() - i;
+      if (remaining <= child.label.length()) {
+        return child.label.startsWith(prefix.substring(i)) ? child : null;
+      }
+      if (!prefix.startsWith(child.label, i)) {
+        return null;
+      }
+      node = child;
+      i += child.label.length();
+    }
+    return node;
+  }
+
+  private void insert(String key, Phrase phrase) {
+    Node node = root;
+    int i = 0;
+    while (i < key.length()) {
+      Node child = node.child(key.charAt(i));
+      if (child == null) {
+        Node leaf = new Node(key.substring(i), node);
+        node.children = append(node.children, leaf);
+        node = leaf;
+        break;
+      }
+      int common = 1;
+      while (common < child.label.length() && i + common < key.length()
+          && child.label.charAt(common) == key.charAt(i + common)) {
+        common++;
+      }
+      if (common < child.label.length()) {
+        Node middle = new Node(child.label.substring(0, common), node);
+        node.children[Arrays.asList(node.children).indexOf(child)] = middle;
+        child.label = child.label.substring(common);
+        child.parent = middle;
+        middle.children = new Node[] {child};
+        middle.top = child.top;
+        child = middle;
+      }
+      node = child;
+      i += common;
+    }
+    node.phrases = append(node.phrases, phrase);
+    refresh(node);
+  }
+
+  private void remove(String key, Phrase phrase) {
+    Node node = find(key);
+    if (node == null) {
+      return;
+    }
+    node.phrases = Arrays.stream(node.phrases).filter(p -> p != phrase).toArray(Phrase[]::new);
+    while (node != root && node.phrases.length == 0 && node.children.length == 0) {
+      Node parent = node.parent;
+      Node removed = node;
+      parent.children = Arrays.stream(parent.children).filter(c -> c != removed)
+          .toArray(Node[]::new);
+      node = parent;
+    }
+    if (node != root && node.phrases.length == 0 && node.children.length == 1) {
+      Node child = node.children[0];
+      child.label = node.label + child.label;
+      child.parent = node.parent;
+      Node[] siblings = node.parent.children;
+      siblings[Arrays.asList(siblings).indexOf(node)] = child;
+      node = child;
+    }
+    refresh(node);
+  }
+
+  /**
+   * Recomputes the best phrases of a node and of every node above it.
+   */
+  private void refresh(Node node) {
+    if (rebuilding) {
+      return;
+    }
+    for (Node current = node; current != null; current = current.parent) {
+      rank(current);
+    }
+  }
+
+  private static void rankSubtree(Node node) {
+    for (Node child : node.children) {
+      rankSubtree(child);
+    }
+    rank(node);
+  }
+
+  private static void rank(Node node) {
+    Set<Phrase> candidates = new HashSet<>(Arrays.asList(node.phrases));
+    for (Node child : node.children) {
+      candidates.addAll(Arrays.asList(child.top));
+    }
+    node.top = candidates.stream().sorted(RANKING).limit(MAX_SUGGESTIONS)
+        .toArray(Phrase[]::new);
+  }
+
+  private static <T> T[] append(T[] array, T value) {
+    T[] copy = Arrays.copyOf(array, array.length + 1);
+    copy[array.length] = value;
+    return copy;
+  }
+}
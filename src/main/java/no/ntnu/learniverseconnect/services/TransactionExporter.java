@@ -0,0 +1,232 @@
+package no.ntnu.learniverseconnect.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+import no.ntnu.learniverseconnect.model.dto.TransactionRowDto;
+import no.ntnu.learniverseconnect.model.repos.TransactionRepo;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Lists and exports transactions as flat rows, in order of time and id.
+ *
+ * <p>Pages are read with keyset pagination: a cursor holds the time and id of the last row of
+ * the previous page, and the next page starts right after it. Every page costs the same, however
+ * deep into the history it is, and rows inserted meanwhile do not shift the pages.</p>
+ *
+ * <p>Exports read every row from a forward-only database cursor and write each one as soon as
+ * it is read. Rows are selected straight into {@link TransactionRowDto}, so no entities are
+ * loaded into the persistence context and memory use does not grow with the export.</p>
+ */
+@Service
+public class TransactionExporter {
+
+  /**
+   * The formats transactions can be exported in.
+   */
+  public enum Format {
+    CSV, NDJSON;
+
+    /**
+     * Finds the format with the given name, ignoring case.
+     *
+     * @param name the name of the format
+     * @return the format
+     * @throws IllegalArgumentException if there is no such format
+     */
+    public static Format of(String name) {
+      try {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Unknown export format: " + name);
+      }
+    }
+  }
+
+  /**
+   * One page of transactions.
+   *
+   * @param rows       the transactions on this page
+   * @param nextCursor the cursor of the next page, or null if this is the last page
+   */
+  public record TransactionPage(List<TransactionRowDto> rows, String nextCursor) {
+  }
+
+  public static final int MAX_PAGE_SIZE = 1000;
+  private static final String CSV_HEADER = "id,time_of_transaction,price_paid,user_id,"
+      + "user_email,offer_id,course_id,course_title,provider_id,provider_name";
+
+  private final TransactionRepo transactionRepo;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Constructor for TransactionExporter.
+   *
+   * @param transactionRepo    the transaction repository
+   * @param transactionManager the transaction manager, the cursor is read in a read-only
+   *                           transaction
+   * @param objectMapper       writes the NDJSON rows
+   */
+  public TransactionExporter(TransactionRepo transactionRepo,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper) {
+    this.transactionRepo = transactionRepo;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Gets a page of transactions.
+   *
+   * @param cursor the cursor returned with the previous page, or null for the first page
+   * @param limit  the largest number of transactions on the page
+   * @return the page
+   * @throws IllegalArgumentException if the cursor is malformed or the limit is out of range
+   */
+  public TransactionPage page(String cursor, int limit) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    // Read one row more than asked for, to learn whether there is a next page
+    PageRequest request = PageRequest.of(0, limit + 1);
+    List<TransactionRowDto> rows;
+    if (cursor == null || cursor.isBlank()) {
+      rows = transactionRepo.findFirstRows(request);
+    } else {
+      Position after = Position.decode(cursor);
+      rows = transactionRepo.findRowsAfter(after.time(), after.id(), request);
+    }
+    if (rows.size() <= limit) {
+      return new TransactionPage(rows, null);
+    }
+    List<TransactionRowDto> page = rows.subList(0, limit);
+    return new TransactionPage(page, Position.of(page.get(limit - 1)).encode());
+  }
+
+  /**
+   * Writes every transaction to the stream.
+   *
+   * @param format the format to write
+   * @param out    the stream to write to
+   * @throws IOException if writing fails
+   */
+  public void export(Format format, OutputStream out) throws IOException {
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        try (Stream<TransactionRowDto> rows = transactionRepo.streamRows()) {
+          if (format == Format.CSV) {
+            writeCsv(rows.iterator(), out);
+          } else {
+            writeNdjson(rows.iterator(), out);
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private void writeNdjson(Iterator<TransactionRowDto> rows, OutputStream out)
+      throws IOException {
+    try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n")
+        .writeValues(out)) {
+      boolean any = rows.hasNext();
+      while (rows.hasNext()) {
+        writer.write(rows.next());
+      }
+      // End the last line, so that clients reading line by line see every row
+      writer.flush();
+      if (any) {
+        out.write('\n');
+      }
+    }
+  }
+
+  private static void writeCsv(Iterator<TransactionRowDto> rows, OutputStream out)
+      throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    writer.write(CSV_HEADER);
+    writer.write("\r\n");
+    while (rows.hasNext()) {
+      TransactionRowDto row = rows.next();
+      writer.write(row.getId() + ","
+          + (row.getTimeOfTransaction() != null
+              ? row.getTimeOfTransaction().toInstant().toString() : "") + ","
+          + row.getPricePaid() + ","
+          + (row.getUserId() != null ? row.getUserId() : "") + ","
+          + csvField(row.getUserEmail()) + ","
+          + row.getOfferId() + ","
+          + row.getCourseId() + ","
+          + csvField(row.getCourseTitle()) + ","
+          + (row.getProviderId() != null ? row.getProviderId() : "") + ","
+          + csvField(row.getProviderName()));
+      writer.write("\r\n");
+    }
+    writer.flush();
+  }
+
+  /**
+   * Quotes a text field if it holds a separator, quote or line break.
+   */
+  static String csvField(String value) {
+    if (value == null) {
+      return "";
+    }
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+        && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+
+  /**
+   * The keyset of a row: its time, to the nanosecond, and its id.
+   */
+  private record Position(Timestamp time, long id) {
+
+    static Position of(TransactionRowDto row) {
+      return new Position(row.getTimeOfTransaction(), row.getId());
+    }
+
+    String encode() {
+      String raw = time.getTime() + ":" + time.getNanos() + ":" + id;
+      return Base64.getUrlEncoder().withoutPadding()
+          .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Position decode(String cursor) {
+      try {
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor),
+            StandardCharsets.UTF_8).split(":");
+        if (parts.length != 3) {
+          throw new IllegalArgumentException("Malformed cursor");
+        }
+        Timestamp time = new Timestamp(Long.parseLong(parts[0]));
+        time.setNanos(Integer.parseInt(parts[1]));
+        return new Position(time, Long.parseLong(parts[2]));
+      } catch (IllegalArgumentException e) {
+        // Also covers NumberFormatException and nanos out of range
+        throw new IllegalArgumentException("Malformed cursor");
+      }
+    }
+  }
+}
@@ -1,16 +1,13 @@
 package no.ntnu.learniverseconnect.specifications;
 
-import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Path;
-import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import jakarta.persistence.criteria.Subquery;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
-import no.ntnu.learniverseconnect.model.entities.Course;
-import no.ntnu.learniverseconnect.model.entities.Keywords;
+import no.ntnu.learniverseconnect.model.entities.CourseRating;
 import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
-import no.ntnu.learniverseconnect.model.entities.UserCourse;
 import org.springframework.data.jpa.domain.Specification;
 
 /**
@@ -34,31 +31,19 @@ public class FilterSpecification {
   }
 
   /**
-   * Filter courses by keywords containing search string
+   * Filter courses by a set of course ids, typically resolved from the text search index
+   *
+   * @param courseIds ids of the courses to keep, or null to keep all
+   * @return specification for filtering courses by id
    */
-  public static Specification<OfferableCourses> hasKeywords(String keywords) {
-    if (keywords == null || keywords.isEmpty()) {
+  public static Specification<OfferableCourses> hasCourseIdIn(Collection<Long> courseIds) {
+    if (courseIds == null) {
       return (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
     }
-    return (root, query, criteriaBuilder) -> {
-      Join<OfferableCourses, Course> courseJoin = root.join("course");
-
-      // Subquery to find courses with matching keywords
-      Subquery<Long> keywordSubquery = query.subquery(Long.class);
-      Root<Keywords> keywordRoot = keywordSubquery.from(Keywords.class);
-
-      keywordSubquery.select(keywordRoot.get("course").get("id"))
-          .where(
-              criteriaBuilder.and(
-                  criteriaBuilder.equal(keywordRoot.get("course").get("id"), courseJoin.get("id")),
-                  criteriaBuilder.like(
-                      criteriaBuilder.lower(keywordRoot.get("keyword")),
-                      "%" + keywords.toLowerCase() + "%"
-                  )
-              )
-          );
-      return criteriaBuilder.exists(keywordSubquery);
-    };
+    if (courseIds.isEmpty()) {
+      return (root, query, criteriaBuilder) -> criteriaBuilder.disjunction();
+    }
+    return (root, query, criteriaBuilder) -> root.get("course").get("id").in(courseIds);
   }
 
   /**
@@ -120,10 +105,10 @@ public class FilterSpecification {
    */
   public static Specification<OfferableCourses> hasCreditsBetween(Float creditsMin,
                                                                   Float creditsMax) {
-    if (creditsMin == null && creditsMax == null) {
+    Float[] credits = resolveRange(creditsMin, creditsMax);
+    if (credits == null) {
       return (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
     }
-    Float[] credits = checkForNull(creditsMin, creditsMax);
     return (root, query, criteriaBuilder) -> {
       Path<Float> creditsPath = root.get("course").get("credits");
       return criteriaBuilder.between(
@@ -131,6 +116,40 @@ public class FilterSpecification {
     };
   }
 
+  /**
+   * Resolves a min/max pair to the bounds applied by the credits and price filters
+   *
+   * @param min minimum value, or null
+   * @param max maximum value, or null
+   * @return the bounds as {min, max}, or null if neither is given
+   */
+  public static Float[] resolveRange(Float min, Float max) {
+    if (min == null && max == null) {
+      return null;
+    }
+    return checkForNull(min, max);
+  }
+
+  /**
+   * Resolves a min/max pair to the bounds applied by the rating filter
+   *
+   * @param minRating minimum rating, or null
+   * @param maxRating maximum rating, or null
+   * @return the bounds as {min, max}, or null if neither is given
+   */
+  public static Float[] resolveRatingRange(Double minRating, Double maxRating) {
+    if (minRating == null && maxRating == null) {
+      return null;
+    }
+    if (minRating == null) {
+      minRating = 0.0;
+    }
+    if (maxRating == null) {
+      maxRating = 5.0;
+    }
+    return checkForNull(minRating.floatValue(), maxRating.floatValue());
+  }
+
   /**
    * Helper method for evaluating null values. Returns 0..Float.MAX_VALUE if v1 or v2 is null.
    * This ensures filtering works "infinitely" when nothing is specified by the user.
@@ -158,17 +177,18 @@ public class FilterSpecification {
    * @return specification for filtering courses by price
    */
   public static Specification<OfferableCourses> hasPriceBetween(Float priceMin, Float priceMax) {
-    if (priceMin == null && priceMax == null) {
+    Float[] price = resolveRange(priceMin, priceMax);
+    if (price == null) {
       return (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
     }
-    Float[] price = checkForNull(priceMin, priceMax);
     return (root, query, criteriaBuilder) -> criteriaBuilder.between(root.get("price"), price[0],
         price[1]);
   }
 
   /**
    * Filter courses by rating
-   * Joins UserCourse to Course to calculate average rating per course
+   * Looks up the pre-aggregated average rating of the course by primary key, so no ratings
+   * are averaged at query time. Courses without ratings do not match.
    *
    * @param minRating minimum rating
    * @param maxRating maximum rating
@@ -176,45 +196,21 @@ public class FilterSpecification {
    */
   public static Specification<OfferableCourses> hasRatingBetween(Double minRating,
                                                                  Double maxRating) {
-    if (minRating == null && maxRating == null) {
+    Float[] rating = resolveRatingRange(minRating, maxRating);
+    if (rating == null) {
       return (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
     }
-    if (minRating == null) {
-      minRating = 0.0;
-    }
-    if (maxRating == null) {
-      maxRating = 5.0;
-    }
-    Float[] rating = checkForNull(minRating.floatValue(),maxRating.floatValue());
     return (root, query, criteriaBuilder) -> {
-
-      // Subquery to calculate average rating per course
-      Subquery<Double> avgRatingSubquery = query.subquery(Double.class);
-      Root<UserCourse> userCourseRoot = avgRatingSubquery.from(UserCourse.class);
-
-      // Join UserCourse to Course (since Course is not directly mapped in UserCourse)
-      Join<UserCourse, Course> userCourseCourseJoin = userCourseRoot.join("course");
-
-      // Calculate average rating for the course
-      avgRatingSubquery.select(criteriaBuilder.avg(userCourseRoot.get("rating")))
-          .where(criteriaBuilder.equal(userCourseCourseJoin, root.get("course")));
-
-      // Apply filtering based on the calculated average rating
-      Predicate predicate = criteriaBuilder.conjunction();
-      if (rating[0] != null) {
-        predicate = criteriaBuilder.and(
-            predicate,
-            criteriaBuilder.greaterThanOrEqualTo(avgRatingSubquery, rating[0].doubleValue())
-        );
-      }
-      if (rating[1] != null) {
-        predicate = criteriaBuilder.and(
-            predicate,
-            criteriaBuilder.lessThanOrEqualTo(avgRatingSubquery, rating[1].doubleValue())
-        );
-      }
-
-      return predicate;
+      Subquery<Float> avgRatingSubquery = query.subquery(Float.class);
+      Root<CourseRating> courseRatingRoot = avgRatingSubquery.from(CourseRating.class);
+      avgRatingSubquery.select(courseRatingRoot.get("averageRating"))
+          .where(criteriaBuilder.and(
+              criteriaBuilder.equal(courseRatingRoot.get("courseId"),
+                  root.get("course").get("id")),
+              criteriaBuilder.greaterThan(courseRatingRoot.get("ratingCount"), 0)
+          ));
+
+      return criteriaBuilder.between(avgRatingSubquery, rating[0], rating[1]);
     };
   }
 
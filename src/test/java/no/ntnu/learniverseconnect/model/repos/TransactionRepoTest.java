@@ -0,0 +1,97 @@
+package no.ntnu.learniverseconnect.model.repos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import no.ntnu.learniverseconnect.model.dto.CourseProviderStatsDto;
+import no.ntnu.learniverseconnect.model.dto.RevenueSummaryDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.CourseProvider;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.model.entities.Transaction;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+/**
+ * Verifies that revenue is aggregated by the database the same way the dashboard used to sum
+ * it in memory.
+ */
+@DataJpaTest
+class TransactionRepoTest {
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private TransactionRepo transactionRepo;
+
+  @Test
+  void summarizesRevenueInOneQuery() throws Exception {
+    Timestamp since = Timestamp.valueOf(LocalDateTime.now().minusDays(30));
+    RevenueSummaryDto empty = transactionRepo.summarizeRevenue(since);
+    assertEquals(0, empty.getTransactionCount());
+    assertEquals(0f, empty.getTotalRevenue());
+    assertEquals(List.of(), transactionRepo.sumRevenueGroupedByProvider());
+
+    OfferableCourses java = createOffer("Java", "Provider A");
+    OfferableCourses python = createOffer("Python", "Provider B");
+    OfferableCourses free = createOffer("Free", "Provider C");
+    createTransaction(java, 100f, LocalDateTime.now());
+    createTransaction(java, 50f, LocalDateTime.now().minusDays(60));
+    createTransaction(python, 20f, LocalDateTime.now().minusDays(2));
+    createTransaction(free, 0f, LocalDateTime.now());
+    entityManager.flush();
+    entityManager.clear();
+
+    RevenueSummaryDto summary = transactionRepo.summarizeRevenue(since);
+    assertEquals(4, summary.getTransactionCount());
+    assertEquals(170f, summary.getTotalRevenue());
+    assertEquals(120f, summary.getRecentRevenue());
+
+    List<CourseProviderStatsDto> providers = transactionRepo.sumRevenueGroupedByProvider();
+    assertEquals(2, providers.size());
+    CourseProviderStatsDto providerA = providers.stream()
+        .filter(stats -> stats.getProviderName().equals("Provider A")).findFirst().orElseThrow();
+    assertEquals(150f, providerA.getRevenue());
+    assertEquals(java.getProvider().getId(), providerA.getIdProvider());
+
+    JsonNode json = new ObjectMapper().valueToTree(providerA);
+    assertEquals(150.0, json.get("REVENUE").asDouble());
+    assertEquals("Provider A", json.get("PROVIDER_NAME").asText());
+  }
+
+  private OfferableCourses createOffer(String title, String providerName) {
+    CourseProvider provider = new CourseProvider();
+    provider.setName(providerName);
+    entityManager.persist(provider);
+    Course course = new Course();
+    course.setTitle(title);
+    entityManager.persist(course);
+    OfferableCourses offer = new OfferableCourses();
+    offer.setCourse(course);
+    offer.setProvider(provider);
+    offer.setDate(new Date(System.currentTimeMillis()));
+    entityManager.persist(offer);
+    return offer;
+  }
+
+  private void createTransaction(OfferableCourses offer, float pricePaid, LocalDateTime time) {
+    Transaction transaction = new Transaction();
+    transaction.setOfferableCourses(offer);
+    transaction.setPricePaid(pricePaid);
+    entityManager.persist(transaction);
+    entityManager.flush();
+    entityManager.getEntityManager()
+        .createQuery("UPDATE Transaction t SET t.timeOfTransaction = :time WHERE t.id = :id")
+        .setParameter("time", Timestamp.valueOf(time))
+        .setParameter("id", transaction.getId())
+        .executeUpdate();
+  }
+}
@@ -0,0 +1,74 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+import java.sql.Date;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.model.repos.OfferableCoursesRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Verifies that the best offer index only takes changes made inside a transaction once the
+ * transaction commits.
+ */
+class BestOfferIndexTest {
+
+  private final BestOfferIndex index = new BestOfferIndex(mock(OfferableCoursesRepo.class));
+
+  @AfterEach
+  void endTransaction() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void appliesChangesOnCommitOnly() {
+    index.offerSaved(offer(1, 7, 100));
+    assertEquals(1, index.getBestOffer(7).offerId());
+
+    // Rolled back: the synchronizations are dropped without running
+    TransactionSynchronizationManager.initSynchronization();
+    index.removeCourse(7);
+    index.offerSaved(offer(2, 7, 50));
+    assertEquals(1, index.getBestOffer(7).offerId());
+    TransactionSynchronizationManager.clearSynchronization();
+    assertEquals(1, index.getBestOffer(7).offerId());
+
+    TransactionSynchronizationManager.initSynchronization();
+    index.offerSaved(offer(2, 7, 50));
+    assertEquals(1, index.getBestOffer(7).offerId());
+    commit();
+    assertEquals(2, index.getBestOffer(7).offerId());
+
+    TransactionSynchronizationManager.initSynchronization();
+    index.removeCourse(7);
+    commit();
+    assertNull(index.getBestOffer(7));
+  }
+
+  private static void commit() {
+    var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+    TransactionSynchronizationManager.clearSynchronization();
+    synchronizations.forEach(TransactionSynchronization::afterCommit);
+  }
+
+  private static OfferableCourses offer(long offerId, long courseId, float price) {
+    Course course = new Course();
+    ReflectionTestUtils.setField(course, "id", courseId);
+    OfferableCourses offer = new OfferableCourses();
+    ReflectionTestUtils.setField(offer, "id", offerId);
+    offer.setCourse(course);
+    offer.setPrice(price);
+    offer.setVisibility(true);
+    offer.setDate(Date.valueOf("2025-01-01"));
+    return offer;
+  }
+}
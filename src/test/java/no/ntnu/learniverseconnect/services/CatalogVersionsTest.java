@@ -0,0 +1,67 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import no.ntnu.learniverseconnect.services.CatalogVersions.Area;
+import no.ntnu.learniverseconnect.services.CatalogVersions.Version;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Verifies that catalog versions answer matching conditional requests with 304 and move on
+ * every change.
+ */
+class CatalogVersionsTest {
+
+  private final CatalogVersions catalogVersions = new CatalogVersions();
+
+  @Test
+  void matchingEtagIsNotModified() {
+    Version version = catalogVersions.of(Area.COURSES, 1);
+    MockHttpServletResponse first = new MockHttpServletResponse();
+    assertFalse(catalogVersions.isNotModified(request(null, first), version));
+    String etag = first.getHeader("ETag");
+    assertEquals("\"" + catalogVersions.etag(version) + "\"", etag);
+
+    MockHttpServletResponse second = new MockHttpServletResponse();
+    assertTrue(catalogVersions.isNotModified(request(etag, second),
+        catalogVersions.of(Area.COURSES, 1)));
+    assertEquals(304, second.getStatus());
+
+    catalogVersions.changed(Area.COURSES, 1);
+    assertFalse(catalogVersions.isNotModified(request(etag, new MockHttpServletResponse()),
+        catalogVersions.of(Area.COURSES, 1)));
+  }
+
+  @Test
+  void changesMoveEntityAndCombinedAreaVersions() {
+    Version course = catalogVersions.of(Area.COURSES, 1);
+    Version otherCourse = catalogVersions.of(Area.COURSES, 2);
+    Version offers = catalogVersions.of(Area.OFFERS, Area.COURSES, Area.PROVIDERS);
+
+    catalogVersions.changed(Area.COURSES, 1);
+    assertNotEquals(course, catalogVersions.of(Area.COURSES, 1));
+    assertEquals(otherCourse, catalogVersions.of(Area.COURSES, 2));
+    Version afterCourse = catalogVersions.of(Area.OFFERS, Area.COURSES, Area.PROVIDERS);
+    assertTrue(afterCourse.version() > offers.version());
+
+    catalogVersions.changed(Area.PROVIDERS);
+    assertTrue(catalogVersions.of(Area.OFFERS, Area.COURSES, Area.PROVIDERS).version()
+        > afterCourse.version());
+    assertEquals(catalogVersions.of(Area.COURSES), catalogVersions.of(Area.COURSES, 1));
+  }
+
+  private static ServletWebRequest request(String ifNoneMatch,
+                                           MockHttpServletResponse response) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/courses");
+    if (ifNoneMatch != null) {
+      request.addHeader("If-None-Match", ifNoneMatch);
+    }
+    return new ServletWebRequest(request, response);
+  }
+}
@@ -0,0 +1,141 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import no.ntnu.learniverseconnect.model.dto.CourseSummaryDto;
+import no.ntnu.learniverseconnect.model.dto.CourseWithMinPriceAndRatingDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.CourseProvider;
+import no.ntnu.learniverseconnect.model.entities.CourseRating;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.model.repos.CourseRepo;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Verifies that course cards are assembled with a constant number of queries.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(CourseCardAssembler.class)
+class CourseCardAssemblerTest {
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private CourseCardAssembler courseCardAssembler;
+
+  @Autowired
+  private CourseRepo courseRepo;
+
+  @Test
+  void queryCountDoesNotGrowWithResultSize() {
+    CourseProvider provider = new CourseProvider();
+    provider.setName("Provider");
+    entityManager.persist(provider);
+
+    List<OfferableCourses> few = createCourses(provider, 2);
+    List<OfferableCourses> many = createCourses(provider, 40);
+    entityManager.flush();
+
+    assertEquals(2, countStatements(few));
+    assertEquals(2, countStatements(many));
+  }
+
+  @Test
+  void picksCheapestOfferAndAveragesRatings() {
+    CourseProvider provider = new CourseProvider();
+    provider.setName("Provider");
+    entityManager.persist(provider);
+
+    List<OfferableCourses> offers = createCourses(provider, 1);
+    entityManager.flush();
+
+    List<CourseWithMinPriceAndRatingDto> cards = courseCardAssembler.toCourseCards(offers);
+    assertEquals(1, cards.size());
+    assertEquals(50f, cards.get(0).getMinDiscountedPrice());
+    assertEquals(3.5f, cards.get(0).getRating());
+    assertEquals(2, cards.get(0).getNumberOfRatings());
+  }
+
+  @Test
+  void summariesCarryDescriptionExcerpt() {
+    Course shortCourse = new Course();
+    shortCourse.setTitle("Short");
+    shortCourse.setCategory("Programming");
+    shortCourse.setDescription("Learn Java fundamentals.");
+    entityManager.persist(shortCourse);
+    Course longCourse = new Course();
+    longCourse.setTitle("Long");
+    longCourse.setDescription("word ".repeat(1000));
+    entityManager.persist(longCourse);
+    entityManager.flush();
+    entityManager.clear();
+
+    List<CourseSummaryDto> summaries = courseRepo.getCourseSummariesByIdIn(
+        List.of(shortCourse.getId(), longCourse.getId()));
+    assertEquals(2, summaries.size());
+    for (CourseSummaryDto summary : summaries) {
+      if (summary.getId() == shortCourse.getId()) {
+        assertEquals("Short", summary.getTitle());
+        assertEquals("Programming", summary.getCategory());
+        assertEquals("Learn Java fundamentals.", summary.getExcerpt());
+      } else {
+        assertTrue(summary.getExcerpt().length() <= CourseSummaryDto.EXCERPT_LENGTH + 1);
+        assertTrue(summary.getExcerpt().endsWith("word…"));
+      }
+    }
+  }
+
+  private long countStatements(List<OfferableCourses> offers) {
+    Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+        .unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+    List<CourseWithMinPriceAndRatingDto> cards = courseCardAssembler.toCourseCards(offers);
+    assertEquals(offers.size() / 2, cards.size());
+    return statistics.getPrepareStatementCount();
+  }
+
+  /**
+   * Creates courses with two offers and a rating aggregate of a 3 and a 4 each.
+   */
+  private List<OfferableCourses> createCourses(CourseProvider provider, int count) {
+    List<OfferableCourses> offers = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Course course = new Course();
+      course.setTitle("Course " + i);
+      entityManager.persist(course);
+
+      offers.add(createOffer(course, provider, 100f, 0.5f));
+      offers.add(createOffer(course, provider, 80f, 0f));
+
+      CourseRating rating = new CourseRating(course.getId());
+      rating.addRating(3);
+      rating.addRating(4);
+      entityManager.persist(rating);
+    }
+    return offers;
+  }
+
+  private OfferableCourses createOffer(Course course, CourseProvider provider, float price,
+                                       float discount) {
+    OfferableCourses offer = new OfferableCourses();
+    offer.setCourse(course);
+    offer.setProvider(provider);
+    offer.setDate(new Date(System.currentTimeMillis()));
+    offer.setPrice(price);
+    offer.setDiscount(discount);
+    offer.setVisibility(true);
+    entityManager.persist(offer);
+    return offer;
+  }
+}
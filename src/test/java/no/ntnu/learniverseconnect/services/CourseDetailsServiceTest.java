@@ -0,0 +1,159 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import no.ntnu.learniverseconnect.model.dto.CourseDetailsDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.CourseProvider;
+import no.ntnu.learniverseconnect.model.entities.CourseRating;
+import no.ntnu.learniverseconnect.model.entities.Favorite;
+import no.ntnu.learniverseconnect.model.entities.Keywords;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.model.entities.Review;
+import no.ntnu.learniverseconnect.model.entities.User;
+import no.ntnu.learniverseconnect.model.entities.UserCourse;
+import no.ntnu.learniverseconnect.model.repos.CourseProviderRepo;
+import no.ntnu.learniverseconnect.model.repos.CourseRepo;
+import no.ntnu.learniverseconnect.model.repos.FavoritesRepo;
+import no.ntnu.learniverseconnect.model.repos.KeywordsRepo;
+import no.ntnu.learniverseconnect.model.repos.OfferableCoursesRepo;
+import no.ntnu.learniverseconnect.model.repos.ReviewRepo;
+import no.ntnu.learniverseconnect.model.repos.UserCoursesRepo;
+import no.ntnu.learniverseconnect.model.repos.UserRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Verifies that the course page details are gathered from concurrent queries. The test data is
+ * committed, because the queries run on other threads than the test.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CourseDetailsServiceTest {
+
+  @Autowired
+  private CourseRepo courseRepo;
+  @Autowired
+  private CourseProviderRepo courseProviderRepo;
+  @Autowired
+  private KeywordsRepo keywordsRepo;
+  @Autowired
+  private OfferableCoursesRepo offerableCoursesRepo;
+  @Autowired
+  private UserRepo userRepo;
+  @Autowired
+  private ReviewRepo reviewRepo;
+  @Autowired
+  private UserCoursesRepo userCoursesRepo;
+  @Autowired
+  private FavoritesRepo favoritesRepo;
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  private CourseDetailsService courseDetailsService;
+  private Course course;
+
+  @BeforeEach
+  void createCourse() {
+    course = new Course();
+    course.setTitle("Java");
+    courseRepo.save(course);
+    CourseProvider provider = new CourseProvider();
+    provider.setName("Provider");
+    courseProviderRepo.save(provider);
+    for (String text : List.of("Java", "Streams")) {
+      Keywords keyword = new Keywords();
+      keyword.setCourse(course);
+      keyword.setKeyword(text);
+      keywordsRepo.save(keyword);
+    }
+    OfferableCourses offer = new OfferableCourses();
+    offer.setCourse(course);
+    offer.setProvider(provider);
+    offer.setDate(new Date(System.currentTimeMillis()));
+    offer.setPrice(100f);
+    offerableCoursesRepo.save(offer);
+    User user = userRepo.save(new User("Reviewer", "hash", "details@example.com"));
+    Review review = new Review();
+    review.setRating(4);
+    reviewRepo.save(review);
+    UserCourse userCourse = new UserCourse();
+    userCourse.setCourse(course);
+    userCourse.setUser(user);
+    userCourse.setReview(review);
+    userCoursesRepo.save(userCourse);
+    favoritesRepo.save(new Favorite(user, course));
+
+    CourseRatingService courseRatingService = mock(CourseRatingService.class);
+    CourseRating rating = new CourseRating(course.getId());
+    rating.addRating(4);
+    when(courseRatingService.getRating(course.getId())).thenAnswer(invocation -> {
+      assertTrue(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+      return Optional.of(rating);
+    });
+    // Fewer threads and queue slots than parts, so the request thread fetches some parts itself
+    courseDetailsService = new CourseDetailsService(courseRepo, keywordsRepo,
+        offerableCoursesRepo, courseRatingService, userCoursesRepo, favoritesRepo,
+        transactionManager, 2, 1);
+  }
+
+  @AfterEach
+  void deleteCourse() {
+    courseDetailsService.shutdown();
+    favoritesRepo.deleteAll();
+    userCoursesRepo.deleteAll();
+    reviewRepo.deleteAll();
+    userRepo.deleteAll();
+    offerableCoursesRepo.deleteAll();
+    courseProviderRepo.deleteAll();
+    keywordsRepo.deleteAll();
+    courseRepo.deleteAll();
+  }
+
+  @Test
+  void gathersAllParts() {
+    CourseDetailsDto details = courseDetailsService.getDetails(course.getId(),
+        CourseDetailsPart.fromParameter(null)).orElseThrow();
+
+    assertEquals("Java", details.getCourse().getTitle());
+    assertEquals(List.of("Java", "Streams"), details.getKeywords());
+    assertEquals("Provider", details.getOffers().get(0).getProvider().getName());
+    assertEquals(4f, details.getRating().getAverageRating());
+    assertEquals(1, details.getReviews().size());
+    assertEquals("Reviewer", details.getReviews().get(0).getUser().getName());
+    assertEquals(4, details.getReviews().get(0).getReview().getRating());
+    assertEquals(1L, details.getFavoriteCount());
+  }
+
+  @Test
+  void includesOnlyRequestedParts() {
+    CourseDetailsDto details = courseDetailsService.getDetails(course.getId(),
+        CourseDetailsPart.fromParameter(List.of("Rating", " favorites"))).orElseThrow();
+
+    assertNull(details.getKeywords());
+    assertNull(details.getOffers());
+    assertNull(details.getReviews());
+    assertEquals(1, details.getRating().getRatingCount());
+    assertEquals(1L, details.getFavoriteCount());
+    assertTrue(courseDetailsService.getDetails(-1,
+        EnumSet.allOf(CourseDetailsPart.class)).isEmpty());
+    assertThrows(IllegalArgumentException.class,
+        () -> CourseDetailsPart.fromParameter(List.of("price")));
+  }
+}
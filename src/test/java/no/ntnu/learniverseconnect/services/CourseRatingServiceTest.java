@@ -0,0 +1,157 @@
+package no.ntnu.learniverseconnect.services;
+
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasRatingBetween;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Date;
+import java.util.List;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.CourseRating;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.model.entities.Review;
+import no.ntnu.learniverseconnect.model.entities.User;
+import no.ntnu.learniverseconnect.model.entities.UserCourse;
+import no.ntnu.learniverseconnect.model.repos.CourseRatingRepo;
+import no.ntnu.learniverseconnect.model.repos.OfferableCoursesRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Verifies that the rating aggregate follows added and removed reviews, and that the rating
+ * filter reads it. Two first ratings racing to create an aggregate rely on MySQL's
+ * {@code ON DUPLICATE KEY UPDATE}, which the {@code MERGE} of H2 does not reproduce, so only the
+ * insert-if-absent itself is covered here.
+ */
+@DataJpaTest
+@Import({CourseRatingService.class, SearchResultCache.class, OfferFilterEngine.class,
+    SuggestionIndex.class})
+class CourseRatingServiceTest {
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private CourseRatingService courseRatingService;
+
+  @Autowired
+  private CourseRatingRepo courseRatingRepo;
+
+  @Autowired
+  private OfferableCoursesRepo offerableCoursesRepo;
+
+  @Test
+  void addsAndRemovesRatings() {
+    long courseId = course("Java").getId();
+    courseRatingService.addRating(courseId, 5);
+    courseRatingService.addRating(courseId, 3);
+    courseRatingService.addRating(courseId, 3);
+    courseRatingService.removeRating(courseId, 3);
+    courseRatingService.addRating(courseId, 7);
+
+    CourseRating rating = courseRatingService.getRating(courseId).orElseThrow();
+    assertEquals(2, rating.getRatingCount());
+    assertEquals(8, rating.getRatingSum());
+    assertEquals(4f, rating.getAverageRating());
+    assertArrayEquals(new int[] {0, 0, 1, 0, 1}, rating.getHistogram());
+
+    long unrated = course("Python").getId();
+    courseRatingService.removeRating(unrated, 4);
+    assertTrue(courseRatingService.getRating(unrated).isEmpty());
+  }
+
+  @Test
+  void createsMissingAggregateOnce() {
+    long courseId = course("Java").getId();
+    assertEquals(1, courseRatingRepo.insertIfAbsent(courseId));
+    courseRatingService.addRating(courseId, 4);
+    courseRatingRepo.insertIfAbsent(courseId);
+    entityManager.clear();
+
+    CourseRating rating = courseRatingService.getRating(courseId).orElseThrow();
+    assertEquals(1, rating.getRatingCount());
+    assertEquals(4f, rating.getAverageRating());
+  }
+
+  @Test
+  void removesRatingsOfUser() {
+    Course java = course("Java");
+    Course python = course("Python");
+    User leaving = user("leaving@example.com");
+    User staying = user("staying@example.com");
+    review(leaving, java, 1);
+    review(leaving, python, 2);
+    review(leaving, python, 0);
+    review(staying, java, 5);
+    entityManager.flush();
+
+    courseRatingService.removeRatingsOfUser(leaving.getId());
+    assertArrayEquals(new int[] {0, 0, 0, 0, 1},
+        courseRatingService.getRating(java.getId()).orElseThrow().getHistogram());
+    assertEquals(0, courseRatingService.getRating(python.getId()).orElseThrow().getRatingCount());
+  }
+
+  @Test
+  void ratingFilterReadsAggregate() {
+    Course good = course("Good");
+    Course poor = course("Poor");
+    Course unrated = course("Unrated");
+    offer(good);
+    offer(poor);
+    offer(unrated);
+    courseRatingService.addRating(good.getId(), 5);
+    courseRatingService.addRating(good.getId(), 4);
+    courseRatingService.addRating(poor.getId(), 2);
+    courseRatingService.addRating(poor.getId(), 5);
+    courseRatingService.removeRating(poor.getId(), 5);
+    entityManager.flush();
+
+    assertEquals(List.of(good.getId()), courseIds(hasRatingBetween(4.0, null)));
+    assertEquals(List.of(poor.getId()), courseIds(hasRatingBetween(null, 3.0)));
+    assertEquals(List.of(good.getId(), poor.getId()), courseIds(hasRatingBetween(1.0, 5.0)));
+  }
+
+  private List<Long> courseIds(Specification<OfferableCourses> specification) {
+    return offerableCoursesRepo.findAll(specification).stream()
+        .map(offer -> offer.getCourse().getId()).sorted().toList();
+  }
+
+  private Course course(String title) {
+    Course course = new Course();
+    course.setTitle(title);
+    return entityManager.persist(course);
+  }
+
+  private User user(String email) {
+    return entityManager.persist(new User("Reviewer", "hash", email));
+  }
+
+  private void offer(Course course) {
+    OfferableCourses offer = new OfferableCourses();
+    offer.setCourse(course);
+    offer.setDate(new Date(System.currentTimeMillis()));
+    entityManager.persist(offer);
+  }
+
+  /**
+   * Enrolls a user in a course with a review, or without one if the rating is zero, and counts
+   * the review as the review controller does.
+   */
+  private void review(User user, Course course, int rating) {
+    UserCourse userCourse = new UserCourse();
+    userCourse.setUser(user);
+    userCourse.setCourse(course);
+    if (rating > 0) {
+      Review review = new Review();
+      review.setRating(rating);
+      userCourse.setReview(entityManager.persist(review));
+      courseRatingService.addRating(course.getId(), rating);
+    }
+    entityManager.persist(userCourse);
+  }
+}
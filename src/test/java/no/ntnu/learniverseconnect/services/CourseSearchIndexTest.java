@@ -0,0 +1,162 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import no.ntnu.learniverseconnect.model.dto.CourseSummaryDto;
+import no.ntnu.learniverseconnect.model.dto.CourseWithMinPriceAndRatingDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.repos.CourseRepo;
+import no.ntnu.learniverseconnect.model.repos.KeywordsRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Verifies BM25 ranking, typo tolerance and top-k page selection of text matches.
+ */
+class CourseSearchIndexTest {
+
+  private CourseSearchIndex courseSearchIndex;
+
+  @BeforeEach
+  void createIndex() {
+    courseSearchIndex = new CourseSearchIndex(mock(CourseRepo.class), mock(KeywordsRepo.class));
+  }
+
+  @Test
+  void ranksTitleAboveKeywordAboveDescription() {
+    courseSearchIndex.updateCourse(course(1, "Cloud Basics", "An introduction to java"));
+    courseSearchIndex.updateCourse(course(2, "Java Programming", "Learn to program"));
+    courseSearchIndex.updateCourse(course(3, "Programming", "Learn to program"));
+    courseSearchIndex.updateKeywords(3, List.of("java"));
+    courseSearchIndex.updateCourse(course(4, "Azure", "Cloud platform"));
+
+    Map<Long, Float> scores = courseSearchIndex.search("jav");
+    assertEquals(3, scores.size());
+    assertTrue(scores.get(2L) > scores.get(3L));
+    assertTrue(scores.get(3L) > scores.get(1L));
+    assertTrue(courseSearchIndex.search("java azure").isEmpty());
+    assertNull(courseSearchIndex.search("  "));
+  }
+
+  @Test
+  void appliesChangesOnCommitOnly() {
+    courseSearchIndex.updateCourse(course(1, "Java Basics", null));
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      courseSearchIndex.removeCourse(1);
+      courseSearchIndex.updateKeywords(1, List.of("cloud"));
+      assertTrue(courseSearchIndex.search("cloud").isEmpty());
+    } finally {
+      // Rolled back: the synchronizations are dropped without running
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    assertEquals(List.of(1L), List.copyOf(courseSearchIndex.search("java").keySet()));
+
+    TransactionSynchronizationManager.initSynchronization();
+    courseSearchIndex.updateKeywords(1, List.of("cloud"));
+    List<TransactionSynchronization> committed =
+        TransactionSynchronizationManager.getSynchronizations();
+    TransactionSynchronizationManager.clearSynchronization();
+    committed.forEach(TransactionSynchronization::afterCommit);
+    assertEquals(List.of(1L), List.copyOf(courseSearchIndex.search("cloud").keySet()));
+  }
+
+  @Test
+  void rareTermsWeighMore() {
+    courseSearchIndex.updateCourse(course(1, "Java Security", null));
+    courseSearchIndex.updateCourse(course(2, "Java Streams", null));
+    courseSearchIndex.updateCourse(course(3, "Java Basics", null));
+
+    Map<Long, Float> scores = courseSearchIndex.search("java security");
+    assertEquals(1, scores.size());
+    assertTrue(scores.get(1L) > courseSearchIndex.search("java").get(1L));
+  }
+
+  @Test
+  void fuzzyModeMatchesMisspelledTerms() {
+    courseSearchIndex.updateCourse(course(1, "Python Basics", null));
+    courseSearchIndex.updateCourse(course(2, "Kubernetes in Production", null));
+    courseSearchIndex.updateCourse(course(3, "Pyramid Schemes", null));
+
+    assertTrue(courseSearchIndex.search("pyhton").isEmpty());
+    assertEquals(Map.of(1L, courseSearchIndex.search("pyhton", true).get(1L)),
+        courseSearchIndex.search("pyhton", true));
+    assertEquals(List.of(2L), List.copyOf(courseSearchIndex.search("kubernets prodction", true)
+        .keySet()));
+    assertTrue(courseSearchIndex.search("python", false).get(1L)
+        > courseSearchIndex.search("pyhton", true).get(1L));
+    assertTrue(courseSearchIndex.search("pyt", true).containsKey(1L));
+  }
+
+  @Test
+  void fuzzyModeMatchesSwappedCharacters() {
+    courseSearchIndex.updateCourse(course(1, "Java Basics", null));
+
+    // Swapping the middle characters of a short word breaks every one of its trigrams
+    assertEquals(Set.of(1L), courseSearchIndex.search("jvaa", true).keySet());
+    assertEquals(Set.of(1L), courseSearchIndex.search("jaav", true).keySet());
+    assertEquals("java", courseSearchIndex.suggestCorrection("jvaa"));
+  }
+
+  @Test
+  void suggestsCorrectionOnlyForUnmatchedTokens() {
+    courseSearchIndex.updateCourse(course(1, "Python Basics", null));
+    courseSearchIndex.updateCourse(course(2, "Kubernetes in Production", null));
+
+    assertEquals("python basics", courseSearchIndex.suggestCorrection("Pyhton basics"));
+    assertEquals("kubernetes", courseSearchIndex.suggestCorrection("kubernets"));
+    assertNull(courseSearchIndex.suggestCorrection("pyth"));
+    assertNull(courseSearchIndex.suggestCorrection("haskell"));
+  }
+
+  @Test
+  void editDistanceIsBounded() {
+    assertEquals(1, CourseSearchIndex.editDistance("pyhton", "python", 2));
+    assertEquals(1, CourseSearchIndex.editDistance("kubernets", "kubernetes", 2));
+    assertEquals(2, CourseSearchIndex.editDistance("prodction", "producton", 2));
+    assertEquals(3, CourseSearchIndex.editDistance("java", "haskell", 2));
+  }
+
+  @Test
+  void topKPagesMatchFullSort() {
+    List<CourseWithMinPriceAndRatingDto> cards = new ArrayList<>();
+    for (int i = 0; i < 57; i++) {
+      cards.add(new CourseWithMinPriceAndRatingDto(
+          CourseSummaryDto.of(course(i, "Course " + i, null)),
+          (i * 37) % 11, null, 0f, 0));
+    }
+    List<CourseWithMinPriceAndRatingDto> expected = new ArrayList<>(cards);
+    expected.sort(Comparator.comparing(CourseWithMinPriceAndRatingDto::getMinDiscountedPrice)
+        .thenComparing(card -> card.getCourse().getId()));
+
+    List<CourseWithMinPriceAndRatingDto> paged = new ArrayList<>();
+    String cursor = null;
+    do {
+      SearchPage page = SearchPaginator.paginate(cards, null, SearchSort.PRICE, false, cursor,
+          10, false);
+      paged.addAll(page.results());
+      cursor = page.nextCursor();
+    } while (cursor != null);
+    assertEquals(expected, paged);
+  }
+
+  private static Course course(long id, String title, String description) {
+    Course course = new Course();
+    ReflectionTestUtils.setField(course, "id", id);
+    course.setTitle(title);
+    course.setDescription(description);
+    return course;
+  }
+}
@@ -0,0 +1,89 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Verifies that the counters are seeded from the database and follow creations and deletions.
+ */
+@DataJpaTest
+@Import(EntityCounters.class)
+class EntityCountersTest {
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private EntityCounters entityCounters;
+
+  @Test
+  void seedsFromDatabase() {
+    entityCounters.seed();
+    long courses = entityCounters.getCourseTotal();
+    long users = entityCounters.getUserTotal();
+    long newUsers = entityCounters.getNewUserCount();
+
+    entityManager.persist(new Course());
+    createUser("today@example.com", LocalDateTime.now());
+    createUser("recent@example.com", LocalDateTime.now().minusDays(10));
+    createUser("window@example.com",
+        LocalDate.now().minusDays(EntityCounters.NEW_USER_DAYS - 1).atStartOfDay());
+    createUser("old@example.com", LocalDateTime.now().minusDays(EntityCounters.NEW_USER_DAYS));
+    entityManager.flush();
+    entityManager.clear();
+
+    entityCounters.seed();
+    assertEquals(courses + 1, entityCounters.getCourseTotal());
+    assertEquals(users + 4, entityCounters.getUserTotal());
+    assertEquals(newUsers + 3, entityCounters.getNewUserCount());
+  }
+
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void followsCreationsAndDeletions() {
+    entityCounters.seed();
+    long courses = entityCounters.getCourseTotal();
+    long users = entityCounters.getUserTotal();
+    long newUsers = entityCounters.getNewUserCount();
+    Timestamp now = new Timestamp(System.currentTimeMillis());
+    Timestamp old = Timestamp.valueOf(LocalDateTime.now().minusDays(60));
+
+    entityCounters.courseCreated();
+    entityCounters.userCreated(now);
+    entityCounters.userCreated(now);
+    entityCounters.userCreated(old);
+    assertEquals(courses + 1, entityCounters.getCourseTotal());
+    assertEquals(users + 3, entityCounters.getUserTotal());
+    assertEquals(newUsers + 2, entityCounters.getNewUserCount());
+
+    entityCounters.courseDeleted();
+    entityCounters.userDeleted(now);
+    entityCounters.userDeleted(old);
+    assertEquals(courses, entityCounters.getCourseTotal());
+    assertEquals(users + 1, entityCounters.getUserTotal());
+    assertEquals(newUsers + 1, entityCounters.getNewUserCount());
+  }
+
+  private void createUser(String email, LocalDateTime created) {
+    User user = new User("User", null, email);
+    entityManager.persist(user);
+    entityManager.flush();
+    entityManager.getEntityManager()
+        .createQuery("UPDATE User u SET u.userCreated = :created WHERE u.id = :id")
+        .setParameter("created", Timestamp.valueOf(created))
+        .setParameter("id", user.getId())
+        .executeUpdate();
+  }
+}
@@ -0,0 +1,35 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that id queries are split into bounded batches without losing or repeating ids.
+ */
+class IdBatchesTest {
+
+  @Test
+  void splitsIdsIntoBoundedBatches() {
+    Set<Long> ids = new LinkedHashSet<>();
+    LongStream.range(0, 2 * IdBatches.BATCH_SIZE + 1).forEach(ids::add);
+    List<Integer> batchSizes = new ArrayList<>();
+
+    List<Long> results = IdBatches.fetch(ids, batch -> {
+      batchSizes.add(batch.size());
+      return batch.stream().map(id -> id * 2).toList();
+    });
+    assertEquals(List.of(IdBatches.BATCH_SIZE, IdBatches.BATCH_SIZE, 1), batchSizes);
+    assertEquals(ids.stream().map(id -> id * 2).toList(), results);
+
+    assertTrue(IdBatches.fetch(List.of(), batch -> {
+      throw new AssertionError("Queried without ids");
+    }).isEmpty());
+  }
+}
@@ -0,0 +1,55 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.Keywords;
+import no.ntnu.learniverseconnect.model.repos.KeywordsRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Verifies that replacing the keywords of a course drops blanks and duplicates.
+ */
+@DataJpaTest
+@Import(KeywordService.class)
+class KeywordServiceTest {
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private KeywordService keywordService;
+
+  @Autowired
+  private KeywordsRepo keywordsRepo;
+
+  @Test
+  void replacesKeywordsWithoutDuplicates() {
+    Course java = new Course();
+    java.setTitle("Java");
+    entityManager.persist(java);
+    keywordService.replaceKeywords(java.getId(), List.of("Old"));
+
+    List<Keywords> saved = keywordService.replaceKeywords(java.getId(),
+        List.of(" Machine  Learning", "JAVA", "machine learning", " "));
+    entityManager.flush();
+    entityManager.clear();
+
+    assertEquals(List.of("Machine  Learning", "JAVA"),
+        saved.stream().map(Keywords::getKeyword).toList());
+    assertEquals(List.of("Machine  Learning", "JAVA"),
+        keywordsRepo.findKeywordTextsByCourseId(java.getId()));
+  }
+
+  @Test
+  void normalizesCaseAndWhitespace() {
+    assertEquals("machine learning", KeywordService.normalize("  Machine \t Learning "));
+    assertEquals("", KeywordService.normalize(" "));
+    assertEquals("", KeywordService.normalize(null));
+  }
+}
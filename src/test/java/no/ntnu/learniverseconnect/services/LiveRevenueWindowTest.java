@@ -0,0 +1,111 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import no.ntnu.learniverseconnect.model.entities.Transaction;
+import no.ntnu.learniverseconnect.model.repos.TransactionRepo;
+import no.ntnu.learniverseconnect.services.LiveRevenueWindow.Totals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that the live revenue window slides with time, reuses its buckets and counts
+ * concurrent purchases exactly.
+ */
+class LiveRevenueWindowTest {
+
+  private static final long MINUTE = 60_000L;
+  private static final long HOUR = 60 * MINUTE;
+  private static final long DAY = 24 * HOUR;
+  private static final long START = 1_750_000_000_000L / HOUR * HOUR;
+
+  private final AtomicLong now = new AtomicLong(START);
+  private TransactionRepo transactionRepo;
+  private LiveRevenueWindow window;
+
+  @BeforeEach
+  void createWindow() {
+    transactionRepo = mock(TransactionRepo.class);
+    window = new LiveRevenueWindow(transactionRepo, now::get);
+  }
+
+  @Test
+  void slidesWithTime() {
+    window.purchased(purchase(START - 30 * MINUTE, 10));
+    window.purchased(purchase(START - 5 * HOUR, 20));
+    window.purchased(purchase(START - 3 * DAY, 40));
+    window.purchased(purchase(START - 40 * DAY, 80));
+
+    assertEquals(new Totals(1, 10), window.lastHour());
+    assertEquals(new Totals(2, 30), window.last24Hours());
+    assertEquals(new Totals(3, 70), window.last30Days());
+
+    now.addAndGet(DAY);
+    window.purchased(purchase(now.get(), 5));
+    assertEquals(new Totals(1, 5), window.lastHour());
+    assertEquals(new Totals(1, 5), window.last24Hours());
+    assertEquals(new Totals(4, 75), window.last30Days());
+
+    Transaction late = purchase(now.get() - 10 * MINUTE, 1);
+    window.purchased(late);
+    window.purchaseDeleted(late);
+    assertEquals(new Totals(1, 5), window.lastHour());
+
+    now.addAndGet(30 * DAY);
+    assertEquals(new Totals(0, 0), window.last30Days());
+  }
+
+  @Test
+  void seedsFromDatabase() {
+    when(transactionRepo.streamPurchasesSince(any())).thenReturn(Stream.of(
+        new Object[] {new Timestamp(START - 10 * DAY), 15f},
+        new Object[] {new Timestamp(START - 2 * DAY), 35f},
+        new Object[] {new Timestamp(START - 2 * HOUR), 20f},
+        new Object[] {new Timestamp(START - 10 * MINUTE), 10f}));
+
+    window.seed();
+    assertEquals(new Totals(1, 10), window.lastHour());
+    assertEquals(new Totals(2, 30), window.last24Hours());
+    assertEquals(new Totals(4, 80), window.last30Days());
+  }
+
+  @Test
+  void countsConcurrentPurchasesExactly() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < 8; thread++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 4_800; i++) {
+            window.purchased(purchase(START - (i % 120) * MINUTE, 1));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(new Totals(38_400, 38_400), window.last24Hours());
+    assertEquals(38_400 / 2, window.lastHour().purchases());
+  }
+
+  private static Transaction purchase(long time, float pricePaid) {
+    Transaction transaction = new Transaction();
+    transaction.setTimeOfTransaction(new Timestamp(time));
+    transaction.setPricePaid(pricePaid);
+    return transaction;
+  }
+}
@@ -0,0 +1,230 @@
+package no.ntnu.learniverseconnect.services;
+
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasCategory;
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasCreditsBetween;
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasDateBetween;
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasDiffLevel;
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasPriceBetween;
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasRatingBetween;
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasVisibility;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import no.ntnu.learniverseconnect.model.dto.SearchFilterDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.CourseProvider;
+import no.ntnu.learniverseconnect.model.entities.CourseRating;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.model.repos.CourseRatingRepo;
+import no.ntnu.learniverseconnect.model.repos.OfferableCoursesRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Verifies that the in-memory filter engine selects the same courses and best offers as the
+ * JPA specifications. Its updates run on the test thread, so that they see the test data.
+ */
+@DataJpaTest
+class OfferFilterEngineTest {
+
+  private static final long DAY = 24L * 60 * 60 * 1000;
+  private static final long NOW = 1_750_000_000_000L;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private OfferableCoursesRepo offerableCoursesRepo;
+
+  @Autowired
+  private CourseRatingRepo courseRatingRepo;
+
+  private OfferFilterEngine offerFilterEngine;
+
+  @BeforeEach
+  void createCatalog() {
+    offerFilterEngine = new OfferFilterEngine(offerableCoursesRepo, courseRatingRepo,
+        Runnable::run);
+    CourseProvider provider = new CourseProvider();
+    provider.setName("Provider");
+    entityManager.persist(provider);
+    String[] categories = {"Math", "IT", "Science"};
+    for (int i = 0; i < 30; i++) {
+      Course course = new Course();
+      course.setTitle("Course " + i);
+      course.setCategory(categories[i % categories.length]);
+      course.setDiffLevel(1 + i % 5);
+      course.setCredits(2.5f * (i % 7));
+      entityManager.persist(course);
+      for (int j = 0; j < 3; j++) {
+        OfferableCourses offer = new OfferableCourses();
+        offer.setCourse(course);
+        offer.setProvider(provider);
+        offer.setPrice(500f * ((i * 7 + j * 3) % 40));
+        offer.setDiscount(j == 1 ? 0.25f : 0f);
+        offer.setDate(new Date(NOW + ((i + j * 11) % 60) * DAY));
+        offer.setVisibility((i + j) % 4 != 0);
+        entityManager.persist(offer);
+      }
+      if (i % 3 != 0) {
+        CourseRating rating = new CourseRating(course.getId());
+        rating.addRatings(1 + i % 5, 2);
+        rating.addRating(5);
+        entityManager.persist(rating);
+      }
+    }
+    entityManager.flush();
+    offerFilterEngine.rebuild();
+  }
+
+  @Test
+  void matchesSpecificationResults() {
+    assertSameMatches(filter(null, null, null, null, null, null, null, null, null, null));
+    assertSameMatches(filter(List.of(1, 3), List.of("Math", "IT"), null, null, null, null,
+        null, null, null, null));
+    assertSameMatches(filter(null, null, 5f, 12.5f, 1000f, 9000f, null, null, null, null));
+    assertSameMatches(filter(List.of(2), null, null, null, null, null, 3.0, 4.5, null, null));
+    assertSameMatches(filter(null, List.of("Science"), null, null, null, 15000f, null, null,
+        NOW + 10 * DAY, NOW + 40 * DAY));
+  }
+
+  @Test
+  void picksCheapestMatchingOffer() {
+    SearchFilterDto filter = filter(null, null, null, null, null, null, null, null, null, null);
+    for (BestOfferIndex.BestOffer bestOffer :
+        offerFilterEngine.findBestOffers(SearchCacheKey.of(filter, false), null)) {
+      float cheapest = Float.MAX_VALUE;
+      for (OfferableCourses offer : offerableCoursesRepo.getAllByCourse_Id(bestOffer.courseId())) {
+        if (offer.isVisible()) {
+          cheapest = Math.min(cheapest, CourseCardAssembler.discountedPrice(offer));
+        }
+      }
+      assertEquals(cheapest, bestOffer.discountedPrice());
+    }
+  }
+
+  @Test
+  void facetedSearchFindsSameOffers() {
+    SearchFilterDto filter = filter(List.of(1, 2, 4), List.of("IT", "Science"), 2.5f, 12.5f,
+        null, 14000f, 2.0, 5.0, NOW, NOW + 50 * DAY);
+    SearchCacheKey key = SearchCacheKey.of(filter, true);
+    OfferFilterEngine.FacetedOffers faceted =
+        offerFilterEngine.findBestOffersWithFacets(key, null);
+    assertEquals(offerFilterEngine.findBestOffers(key, null), faceted.bestOffers());
+    assertEquals(List.of(), offerFilterEngine.findBestOffersWithFacets(key, Set.of())
+        .bestOffers());
+  }
+
+  @Test
+  void updatesRatingsOnCommit() {
+    CourseRating added = new CourseRating(course("Course 0").getId());
+    added.addRating(5);
+    entityManager.persist(added);
+    CourseRating lowered = entityManager.find(CourseRating.class, course("Course 4").getId());
+    lowered.addRatings(1, 20);
+    entityManager.flush();
+
+    SearchFilterDto top = filter(null, null, null, null, null, null, 4.9, 5.0, null, null);
+    SearchFilterDto low = filter(null, null, null, null, null, null, null, 1.5, null, null);
+    Set<Long> before = courseIds(top);
+    List<TransactionSynchronization> registered =
+        TransactionSynchronizationManager.getSynchronizations();
+    offerFilterEngine.ratingChanged(added.getCourseId());
+    offerFilterEngine.ratingChanged(lowered.getCourseId());
+    assertEquals(before, courseIds(top));
+
+    commitSince(registered);
+    assertSameMatches(top);
+    assertSameMatches(low);
+    assertSameMatches(filter(null, null, null, null, null, null, 2.0, 4.0, null, null));
+  }
+
+  @Test
+  void reloadsOffersOnCommit() {
+    Course course = course("Course 0");
+    OfferableCourses offer = new OfferableCourses();
+    offer.setCourse(course);
+    offer.setPrice(1f);
+    offer.setDiscount(0f);
+    offer.setVisibility(true);
+    entityManager.persist(offer);
+    entityManager.flush();
+
+    SearchFilterDto cheap = filter(null, null, null, null, 0f, 1f, null, null, null, null);
+    List<TransactionSynchronization> registered =
+        TransactionSynchronizationManager.getSynchronizations();
+    offerFilterEngine.markStale();
+    offerFilterEngine.markStale();
+    assertEquals(Set.of(), courseIds(cheap));
+
+    commitSince(registered);
+    assertEquals(Set.of(course.getId()), courseIds(cheap));
+    assertSameMatches(cheap);
+  }
+
+  /**
+   * Runs what was registered to happen after commit since the given synchronizations. The test
+   * transaction itself is rolled back, so its synchronizations never run on their own.
+   */
+  private static void commitSince(List<TransactionSynchronization> registered) {
+    TransactionSynchronizationManager.getSynchronizations().stream()
+        .filter(synchronization -> !registered.contains(synchronization))
+        .forEach(TransactionSynchronization::afterCommit);
+  }
+
+  private Course course(String title) {
+    return entityManager.getEntityManager()
+        .createQuery("SELECT c FROM Course c WHERE c.title = :title", Course.class)
+        .setParameter("title", title)
+        .getSingleResult();
+  }
+
+  private Set<Long> courseIds(SearchFilterDto filter) {
+    Set<Long> courseIds = new TreeSet<>();
+    for (BestOfferIndex.BestOffer bestOffer :
+        offerFilterEngine.findBestOffers(SearchCacheKey.of(filter, false), null)) {
+      courseIds.add(bestOffer.courseId());
+    }
+    return courseIds;
+  }
+
+  private void assertSameMatches(SearchFilterDto filter) {
+    Set<Long> expected = new TreeSet<>();
+    for (OfferableCourses offer : offerableCoursesRepo.findAll(
+        hasVisibility(true)
+            .and(hasDiffLevel(filter.getDiffLevels()))
+            .and(hasCategory(filter.getCategories()))
+            .and(hasCreditsBetween(filter.getCourseSizeRange().getMinCredits(),
+                filter.getCourseSizeRange().getMaxCredits()))
+            .and(hasPriceBetween(filter.getPriceRange().getMinPrice(),
+                filter.getPriceRange().getMaxPrice()))
+            .and(hasDateBetween(filter.getDateRange().getStartDate(),
+                filter.getDateRange().getEndDate()))
+            .and(hasRatingBetween(filter.getRatingRange().getMinRating(),
+                filter.getRatingRange().getMaxRating())))) {
+      expected.add(offer.getCourse().getId());
+    }
+
+    assertEquals(expected, courseIds(filter));
+  }
+
+  private static SearchFilterDto filter(List<Integer> diffLevels, List<String> categories,
+                                        Float minCredits, Float maxCredits, Float minPrice,
+                                        Float maxPrice, Double minRating, Double maxRating,
+                                        Long startDate, Long endDate) {
+    return new SearchFilterDto(diffLevels, categories, null,
+        new SearchFilterDto.CourseSizeRange(minCredits, maxCredits),
+        new SearchFilterDto.RatingRange(minRating, maxRating),
+        new SearchFilterDto.PriceRange(minPrice, maxPrice),
+        new SearchFilterDto.DateRange(startDate != null ? new Date(startDate) : null,
+            endDate != null ? new Date(endDate) : null));
+  }
+}
@@ -0,0 +1,130 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.sql.Date;
+import java.util.List;
+import no.ntnu.learniverseconnect.model.dto.TransactionRowDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.CourseProvider;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.model.entities.User;
+import no.ntnu.learniverseconnect.model.entities.UserCourse;
+import no.ntnu.learniverseconnect.model.repos.CourseProviderRepo;
+import no.ntnu.learniverseconnect.model.repos.CourseRepo;
+import no.ntnu.learniverseconnect.model.repos.OfferableCoursesRepo;
+import no.ntnu.learniverseconnect.model.repos.TransactionRepo;
+import no.ntnu.learniverseconnect.model.repos.UserCoursesRepo;
+import no.ntnu.learniverseconnect.model.repos.UserRepo;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Verifies that a purchase records the transaction, enrolls the buyer once and counts the
+ * revenue, with a fixed number of statements. The test data is committed, so that each purchase
+ * runs in a transaction of its own, as it does in the application.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({PurchaseService.class, RevenueRollupService.class, LiveRevenueWindow.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PurchaseServiceTest {
+
+  @Autowired
+  private PurchaseService purchaseService;
+  @Autowired
+  private RevenueRollupService revenueRollupService;
+  @Autowired
+  private LiveRevenueWindow liveRevenueWindow;
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+  @Autowired
+  private TransactionRepo transactionRepo;
+  @Autowired
+  private UserCoursesRepo userCoursesRepo;
+  @Autowired
+  private OfferableCoursesRepo offerableCoursesRepo;
+  @Autowired
+  private CourseProviderRepo courseProviderRepo;
+  @Autowired
+  private CourseRepo courseRepo;
+  @Autowired
+  private UserRepo userRepo;
+
+  private OfferableCourses offer;
+  private User user;
+
+  @BeforeEach
+  void createOffer() {
+    Course course = new Course();
+    course.setTitle("Java");
+    courseRepo.save(course);
+    CourseProvider provider = new CourseProvider();
+    provider.setName("Provider");
+    courseProviderRepo.save(provider);
+    offer = new OfferableCourses();
+    offer.setCourse(course);
+    offer.setProvider(provider);
+    offer.setDate(new Date(System.currentTimeMillis()));
+    offer.setPrice(100);
+    offer.setDiscount(0.25f);
+    offerableCoursesRepo.save(offer);
+    user = new User();
+    user.setEmail("buyer@example.com");
+    userRepo.save(user);
+  }
+
+  @AfterEach
+  void deleteData() {
+    userCoursesRepo.deleteAll();
+    transactionRepo.deleteAll();
+    revenueRollupService.rebuild();
+    offerableCoursesRepo.deleteAll();
+    courseProviderRepo.deleteAll();
+    courseRepo.deleteAll();
+    userRepo.deleteAll();
+  }
+
+  @Test
+  void repeatPurchaseMovesTheEnrollment() {
+    TransactionRowDto first = purchaseService.purchase(offer.getId(), user.getId())
+        .orElseThrow();
+    assertEquals(75f, first.getPricePaid());
+    assertEquals("Java", first.getCourseTitle());
+    assertEquals("buyer@example.com", first.getUserEmail());
+    assertEquals(offer.getProvider().getId(), first.getProviderId());
+
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+    TransactionRowDto second = purchaseService.purchase(offer.getId(), user.getId())
+        .orElseThrow();
+    // The purchase details, the transaction, the enrollment and the two revenue buckets
+    assertEquals(5, statistics.getPrepareStatementCount());
+
+    assertEquals(2, transactionRepo.count());
+    List<UserCourse> enrollments = userCoursesRepo.findAll();
+    assertEquals(1, enrollments.size());
+    assertEquals(second.getTimeOfTransaction(), enrollments.get(0).getTimestamp());
+    assertEquals(150f, revenueRollupService.revenueByCourse(
+        second.getTimeOfTransaction().getTime() - 3_600_000,
+        second.getTimeOfTransaction().getTime() + 3_600_000).get(0).getRevenue());
+    assertEquals(2, liveRevenueWindow.lastHour().purchases());
+  }
+
+  @Test
+  void unknownOfferOrUserBuysNothing() {
+    assertTrue(purchaseService.purchase(offer.getId() + 1000, user.getId()).isEmpty());
+    assertTrue(purchaseService.purchase(offer.getId(), user.getId() + 1000).isEmpty());
+    assertEquals(0, transactionRepo.count());
+    assertEquals(0, userCoursesRepo.count());
+  }
+}
@@ -0,0 +1,190 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import no.ntnu.learniverseconnect.model.dto.RevenueBreakdownDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.CourseProvider;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.model.entities.Transaction;
+import no.ntnu.learniverseconnect.model.repos.CourseProviderRepo;
+import no.ntnu.learniverseconnect.model.repos.CourseRepo;
+import no.ntnu.learniverseconnect.model.repos.OfferableCoursesRepo;
+import no.ntnu.learniverseconnect.model.repos.RevenueRollupRepo;
+import no.ntnu.learniverseconnect.model.repos.TransactionRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Verifies that revenue buckets follow purchases, answer windows from whole days and the hours
+ * around them, and can be rebuilt from history. The test data is committed, so that concurrent
+ * purchases add to committed buckets as they do in production. Two first purchases racing to
+ * create a bucket rely on MySQL's {@code ON DUPLICATE KEY UPDATE}, which the {@code MERGE} of
+ * H2 does not reproduce, so that race is not covered here.
+ */
+@DataJpaTest
+@Import(RevenueRollupService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RevenueRollupServiceTest {
+
+  private static final LocalDateTime DAY = LocalDateTime.of(2025, 3, 10, 0, 0);
+
+  @Autowired
+  private RevenueRollupService revenueRollupService;
+  @Autowired
+  private RevenueRollupRepo revenueRollupRepo;
+  @Autowired
+  private TransactionRepo transactionRepo;
+  @Autowired
+  private OfferableCoursesRepo offerableCoursesRepo;
+  @Autowired
+  private CourseProviderRepo courseProviderRepo;
+  @Autowired
+  private CourseRepo courseRepo;
+
+  @AfterEach
+  void deleteData() {
+    transactionRepo.deleteAll();
+    revenueRollupService.rebuild();
+    offerableCoursesRepo.deleteAll();
+    courseProviderRepo.deleteAll();
+    courseRepo.deleteAll();
+  }
+
+  @Test
+  void sumsWindowsFromDaysAndHours() {
+    OfferableCourses p1c1 = offer(1, 1);
+    OfferableCourses p1c2 = offer(1, 2);
+    OfferableCourses p2c1 = offer(2, 1);
+    OfferableCourses p2c2 = offer(2, 2);
+    revenueRollupService.purchased(purchase(p1c1, 10, DAY.minusMinutes(30)));
+    revenueRollupService.purchased(purchase(p1c1, 20, DAY.plusMinutes(15)));
+    Transaction noon = purchase(p1c2, 5, DAY.plusHours(12));
+    revenueRollupService.purchased(noon);
+    revenueRollupService.purchased(purchase(p2c1, 7, DAY.plusDays(1).plusHours(1)));
+    revenueRollupService.purchased(purchase(p2c2, 100, DAY.plusDays(2).plusHours(10)));
+
+    long from = millis(DAY.minusHours(1));
+    long to = millis(DAY.plusDays(1).plusHours(2));
+    assertEquals(Map.of(1L, 35f, 2L, 7f),
+        revenue(revenueRollupService.revenueByProvider(from, to)));
+    assertEquals(Map.of(1L, 37f, 2L, 5f),
+        revenue(revenueRollupService.revenueByCourse(from, to)));
+    assertEquals(3, revenueRollupService.revenueByProvider(from, to).stream()
+        .filter(row -> row.getId() == 1).findFirst().orElseThrow().getPurchases());
+
+    long noonFrom = millis(DAY.plusHours(11).plusMinutes(20));
+    long noonTo = millis(DAY.plusHours(12).plusMinutes(40));
+    assertEquals(Map.of(2L, 5f), revenue(revenueRollupService.revenueByCourse(noonFrom, noonTo)));
+
+    revenueRollupService.purchaseDeleted(noon);
+    assertTrue(revenueRollupService.revenueByCourse(noonFrom, noonTo).isEmpty());
+    assertEquals(Map.of(1L, 37f), revenue(revenueRollupService.revenueByCourse(from, to)));
+  }
+
+  @Test
+  void concurrentPurchasesShareOneBucket() throws Exception {
+    OfferableCourses offer = offer(1, 1);
+    revenueRollupService.purchased(purchase(offer, 2, DAY.plusHours(3)));
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 7; i++) {
+        futures.add(executor.submit(
+            () -> revenueRollupService.purchased(purchase(offer, 2, DAY.plusHours(3)))));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(2, revenueRollupRepo.count());
+    assertEquals(Map.of(1L, 16f),
+        revenue(revenueRollupService.revenueByCourse(millis(DAY), millis(DAY.plusDays(1)))));
+  }
+
+  @Test
+  void skipsOffersWithoutProvider() {
+    OfferableCourses offer = offer(1, 1);
+    ReflectionTestUtils.setField(offer, "provider", null);
+    Transaction transaction = purchase(offer, 10, DAY.plusHours(3));
+    revenueRollupService.purchased(transaction);
+    revenueRollupService.purchaseDeleted(transaction);
+    assertEquals(0, revenueRollupRepo.count());
+  }
+
+  @Test
+  void rebuildsFromHistory() {
+    Course course = new Course();
+    course.setTitle("Java");
+    courseRepo.save(course);
+    CourseProvider provider = new CourseProvider();
+    provider.setName("Provider");
+    courseProviderRepo.save(provider);
+    OfferableCourses offer = new OfferableCourses();
+    offer.setCourse(course);
+    offer.setProvider(provider);
+    offer.setDate(new Date(System.currentTimeMillis()));
+    offerableCoursesRepo.save(offer);
+    for (float price : new float[] {10, 15}) {
+      Transaction transaction = new Transaction();
+      transaction.setOfferableCourses(offer);
+      transaction.setPricePaid(price);
+      transactionRepo.save(transaction);
+    }
+
+    revenueRollupService.rebuild();
+    assertEquals(2, revenueRollupRepo.count());
+    long now = System.currentTimeMillis();
+    assertEquals(Map.of(provider.getId(), 25f),
+        revenue(revenueRollupService.revenueByProvider(now - 3_600_000, now + 3_600_000)));
+  }
+
+  private static Map<Long, Float> revenue(List<RevenueBreakdownDto> rows) {
+    return rows.stream().collect(Collectors.toMap(RevenueBreakdownDto::getId,
+        RevenueBreakdownDto::getRevenue));
+  }
+
+  private static OfferableCourses offer(long providerId, long courseId) {
+    CourseProvider provider = new CourseProvider();
+    ReflectionTestUtils.setField(provider, "id", providerId);
+    Course course = new Course();
+    ReflectionTestUtils.setField(course, "id", courseId);
+    OfferableCourses offer = new OfferableCourses();
+    offer.setProvider(provider);
+    offer.setCourse(course);
+    return offer;
+  }
+
+  private static Transaction purchase(OfferableCourses offer, float pricePaid,
+                                      LocalDateTime time) {
+    Transaction transaction = new Transaction();
+    transaction.setOfferableCourses(offer);
+    transaction.setPricePaid(pricePaid);
+    transaction.setTimeOfTransaction(Timestamp.valueOf(time));
+    return transaction;
+  }
+
+  private static long millis(LocalDateTime time) {
+    return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+}
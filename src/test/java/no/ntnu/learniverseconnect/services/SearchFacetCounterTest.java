@@ -0,0 +1,39 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import no.ntnu.learniverseconnect.model.dto.SearchFacetsDto;
+import no.ntnu.learniverseconnect.model.dto.SearchFilterDto;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that each facet is counted without its own filter.
+ */
+class SearchFacetCounterTest {
+
+  @Test
+  void countsEachFacetWithoutItsOwnFilter() {
+    SearchFilterDto filter = new SearchFilterDto(List.of(1), List.of("Math"), null,
+        new SearchFilterDto.CourseSizeRange(null, null),
+        new SearchFilterDto.RatingRange(null, null),
+        new SearchFilterDto.PriceRange(null, 2000f),
+        new SearchFilterDto.DateRange(null, null));
+    SearchFacetCounter counter = new SearchFacetCounter(SearchCacheKey.of(filter, true));
+
+    assertTrue(counter.add(1, 1, "Math", 5, 500, Float.NaN));
+    assertFalse(counter.add(1, 1, "Math", 5, 12000, Float.NaN));
+    assertFalse(counter.add(2, 1, "Science", 5, 800, Float.NaN));
+    assertFalse(counter.add(3, 3, "Math", 5, 6000, Float.NaN));
+
+    SearchFacetsDto facets = counter.getFacets();
+    assertEquals(Map.of("Math", 1L, "Science", 1L), facets.getCategories());
+    assertEquals(Map.of(1, 1L), facets.getDiffLevels());
+    assertEquals(1, facets.getPrices().get(0).getCount());
+    assertEquals(0, facets.getPrices().get(2).getCount());
+    assertEquals(1, facets.getPrices().get(3).getCount());
+  }
+}
@@ -0,0 +1,65 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import no.ntnu.learniverseconnect.model.dto.SearchFilterDto;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifies that search stage timings are published per stage and filter shape.
+ */
+class SearchMetricsTest {
+
+  @Test
+  void namesFilterShapeWithoutValues() {
+    assertEquals("none", key(null, null, null, false).shape());
+    assertEquals("text+category+price", key("java", List.of("Math"), 100f, false).shape());
+    assertEquals("fuzzy+facets", SearchCacheKey.of(filter("pyhton", null, null), true, true)
+        .shape());
+    assertEquals(key("java", List.of("Math"), 100f, false).shape(),
+        key("python", List.of("Science", "Art"), 5f, false).shape());
+  }
+
+  @Test
+  void recordsEveryStageTaggedByShape() throws InterruptedException {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    SearchMetrics searchMetrics = new SearchMetrics(registry, 0);
+
+    SearchTrace trace = new SearchTrace();
+    trace.setKey(key("java", null, null, false));
+    trace.lap(SearchTrace.Stage.FILTER);
+    Thread.sleep(5);
+    trace.lap(SearchTrace.Stage.QUERY);
+    trace.lap(SearchTrace.Stage.ASSEMBLY);
+    searchMetrics.record(trace);
+
+    for (SearchTrace.Stage stage : SearchTrace.Stage.values()) {
+      Timer timer = registry.find(SearchMetrics.STAGE_TIMER)
+          .tags("stage", stage.name().toLowerCase(), "shape", "text", "cache", "miss")
+          .timer();
+      assertNotNull(timer);
+      assertEquals(1, timer.count());
+    }
+    Timer query = registry.find(SearchMetrics.STAGE_TIMER).tags("stage", "query").timer();
+    assertTrue(query.totalTime(TimeUnit.MILLISECONDS) >= 5);
+    Timer request = registry.find(SearchMetrics.REQUEST_TIMER).tags("shape", "text").timer();
+    assertEquals(trace.getTotalNanos(), (long) request.totalTime(TimeUnit.NANOSECONDS));
+  }
+
+  private static SearchCacheKey key(String search, List<String> categories, Float minPrice,
+                                    boolean facets) {
+    return SearchCacheKey.of(filter(search, categories, minPrice), facets);
+  }
+
+  private static SearchFilterDto filter(String search, List<String> categories,
+                                        Float minPrice) {
+    return new SearchFilterDto(null, categories, search, null, null,
+        minPrice == null ? null : new SearchFilterDto.PriceRange(minPrice, null), null);
+  }
+}
@@ -0,0 +1,126 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import no.ntnu.learniverseconnect.model.dto.CourseSummaryDto;
+import no.ntnu.learniverseconnect.model.dto.CourseWithMinPriceAndRatingDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Verifies that search pages follow each other in a total order, that cursors carry the
+ * position of the last result, and that cursors are only accepted for the sort they were
+ * issued for.
+ */
+class SearchPaginatorTest {
+
+  /**
+   * Prices of courses 1 to 7. Ties are broken by course id, so ascending by price the order is
+   * 2, 4, 6, 3, 7, 1, 5.
+   */
+  private static final float[] PRICES = {30, 10, 20, 10, 30, 10, 20};
+
+  private final List<CourseWithMinPriceAndRatingDto> cards = cards();
+
+  @Test
+  void pagesFollowEachOtherWithIdTieBreaker() {
+    assertEquals(List.of(List.of(2L, 4L), List.of(6L, 3L), List.of(7L, 1L), List.of(5L)),
+        pageIds(false, 2));
+    assertEquals(List.of(List.of(1L, 5L, 3L), List.of(7L, 2L, 4L), List.of(6L)),
+        pageIds(true, 3));
+
+    // Without a limit, everything after the cursor comes in the same order
+    SearchPage first = page(null, false, 3);
+    assertEquals(List.of(3L, 7L, 1L, 5L), ids(page(first.nextCursor(), false, null)));
+  }
+
+  @Test
+  void encodesLastResultInCursor() {
+    SearchPage first = page(null, false, 2);
+    String decoded = new String(Base64.getUrlDecoder().decode(first.nextCursor()),
+        StandardCharsets.UTF_8);
+    assertEquals("PRICE:asc:10.0:4", decoded);
+
+    assertEquals(List.of(7L, 1L), ids(page(cursor("PRICE:asc:20.0:3"), false, 2)));
+  }
+
+  @Test
+  void endsOnLastPage() {
+    SearchPage all = SearchPaginator.paginate(cards, null, SearchSort.PRICE, false, null,
+        cards.size(), true);
+    assertEquals(cards.size(), all.results().size());
+    assertNull(all.nextCursor());
+    assertEquals(cards.size(), all.total());
+
+    SearchPage allButOne = page(null, false, cards.size() - 1);
+    assertNotNull(allButOne.nextCursor());
+    assertNull(allButOne.total());
+    SearchPage last = page(allButOne.nextCursor(), false, cards.size() - 1);
+    assertEquals(List.of(5L), ids(last));
+    assertNull(last.nextCursor());
+
+    // A cursor at the last result gives an empty page
+    SearchPage empty = page(cursor("PRICE:asc:30.0:5"), false, 1);
+    assertEquals(List.of(), ids(empty));
+    assertNull(empty.nextCursor());
+    assertNull(page(null, false, null).nextCursor());
+  }
+
+  @Test
+  void rejectsCursorsOfOtherSorts() {
+    String cursor = page(null, false, 2).nextCursor();
+    assertThrows(IllegalArgumentException.class, () -> SearchPaginator.paginate(cards, null,
+        SearchSort.RATING, false, cursor, 2, false));
+    assertThrows(IllegalArgumentException.class, () -> page(cursor, true, 2));
+    assertThrows(IllegalArgumentException.class, () -> page("not a cursor", false, 2));
+    assertThrows(IllegalArgumentException.class,
+        () -> page(cursor("PRICE:asc:10.0"), false, 2));
+    assertThrows(IllegalArgumentException.class,
+        () -> page(cursor("PRICE:asc:ten:4"), false, 2));
+    assertThrows(IllegalArgumentException.class, () -> page(null, false, 0));
+  }
+
+  private static String cursor(String position) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(position.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private List<List<Long>> pageIds(boolean descending, int limit) {
+    List<List<Long>> pages = new ArrayList<>();
+    String cursor = null;
+    do {
+      SearchPage page = page(cursor, descending, limit);
+      pages.add(ids(page));
+      cursor = page.nextCursor();
+    } while (cursor != null);
+    return pages;
+  }
+
+  private SearchPage page(String cursor, boolean descending, Integer limit) {
+    return SearchPaginator.paginate(cards, null, SearchSort.PRICE, descending, cursor, limit,
+        false);
+  }
+
+  private static List<Long> ids(SearchPage page) {
+    return page.results().stream().map(card -> card.getCourse().getId()).toList();
+  }
+
+  private static List<CourseWithMinPriceAndRatingDto> cards() {
+    List<CourseWithMinPriceAndRatingDto> cards = new ArrayList<>();
+    for (int i = 0; i < PRICES.length; i++) {
+      Course course = new Course();
+      ReflectionTestUtils.setField(course, "id", i + 1L);
+      cards.add(new CourseWithMinPriceAndRatingDto(CourseSummaryDto.of(course), PRICES[i], null,
+          0f, 0));
+    }
+    return cards;
+  }
+}
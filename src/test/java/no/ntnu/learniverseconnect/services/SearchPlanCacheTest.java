@@ -0,0 +1,124 @@
+package no.ntnu.learniverseconnect.services;
+
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasCourseIdIn;
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasDateBetween;
+import static no.ntnu.learniverseconnect.specifications.FilterSpecification.hasVisibility;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import no.ntnu.learniverseconnect.model.dto.SearchFilterDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.CourseProvider;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.model.repos.OfferableCoursesRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Verifies that compiled search plans select the same offers as the JPA specifications, and
+ * that plans are reused per filter shape.
+ */
+@DataJpaTest
+@Import(SearchPlanCache.class)
+class SearchPlanCacheTest {
+
+  private static final long DAY = 24L * 60 * 60 * 1000;
+  private static final long NOW = 1_750_000_000_000L;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private OfferableCoursesRepo offerableCoursesRepo;
+
+  @Autowired
+  private SearchPlanCache searchPlanCache;
+
+  private final List<Long> courseIds = new ArrayList<>();
+
+  @BeforeEach
+  void createCatalog() {
+    CourseProvider provider = new CourseProvider();
+    provider.setName("Provider");
+    entityManager.persist(provider);
+    for (int i = 0; i < 10; i++) {
+      Course course = new Course();
+      course.setTitle("Course " + i);
+      entityManager.persist(course);
+      courseIds.add(course.getId());
+      for (int j = 0; j < 2; j++) {
+        OfferableCourses offer = new OfferableCourses();
+        offer.setCourse(course);
+        offer.setProvider(provider);
+        offer.setDate(new Date(NOW + ((i * 3 + j * 7) % 20) * DAY));
+        offer.setVisibility((i + j) % 3 != 0);
+        entityManager.persist(offer);
+      }
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  @Test
+  void matchesSpecificationResults() {
+    List<Long> someCourses = courseIds.subList(2, 7);
+    assertSameOffers(null, null, null);
+    assertSameOffers(someCourses, null, null);
+    assertSameOffers(null, NOW + 5 * DAY, NOW + 15 * DAY);
+    assertSameOffers(someCourses, NOW, NOW + 10 * DAY);
+    assertSameOffers(null, NOW, null);
+    assertEquals(Set.of(), offerIds(List.of(), null, null));
+  }
+
+  @Test
+  void reusesPlanPerFilterShape() {
+    offerIds(courseIds.subList(0, 2), null, null);
+    offerIds(courseIds, NOW, NOW + DAY);
+    SearchPlanStats before = searchPlanCache.getStats();
+
+    offerIds(courseIds.subList(3, 9), null, null);
+    offerIds(courseIds.subList(1, 2), NOW + DAY, NOW + 5 * DAY);
+
+    SearchPlanStats after = searchPlanCache.getStats();
+    assertEquals(before.hits() + 2, after.hits());
+    assertEquals(before.misses(), after.misses());
+    assertEquals(before.plans(), after.plans());
+  }
+
+  private void assertSameOffers(List<Long> ids, Long startDate, Long endDate) {
+    Set<Long> expected = new TreeSet<>();
+    for (OfferableCourses offer : offerableCoursesRepo.findAll(
+        hasVisibility(true)
+            .and(hasCourseIdIn(ids))
+            .and(hasDateBetween(startDate != null ? new Date(startDate) : null,
+                endDate != null ? new Date(endDate) : null)))) {
+      expected.add(offer.getId());
+    }
+
+    assertEquals(expected, offerIds(ids, startDate, endDate));
+  }
+
+  private Set<Long> offerIds(List<Long> ids, Long startDate, Long endDate) {
+    SearchFilterDto filter = new SearchFilterDto(null, null, null,
+        new SearchFilterDto.CourseSizeRange(null, null),
+        new SearchFilterDto.RatingRange(null, null),
+        new SearchFilterDto.PriceRange(null, null),
+        new SearchFilterDto.DateRange(startDate != null ? new Date(startDate) : null,
+            endDate != null ? new Date(endDate) : null));
+    Set<Long> offerIds = new TreeSet<>();
+    try (Stream<Object[]> rows =
+             searchPlanCache.streamVisibleOffers(ids, SearchCacheKey.of(filter, false))) {
+      rows.forEach(row -> offerIds.add(((OfferableCourses) row[0]).getId()));
+    }
+    return offerIds;
+  }
+}
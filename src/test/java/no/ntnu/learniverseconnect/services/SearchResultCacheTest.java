@@ -0,0 +1,102 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+import no.ntnu.learniverseconnect.model.dto.CourseSummaryDto;
+import no.ntnu.learniverseconnect.model.dto.CourseWithMinPriceAndRatingDto;
+import no.ntnu.learniverseconnect.model.dto.SearchFilterDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Verifies key normalization, eviction and invalidation of the search result cache.
+ */
+class SearchResultCacheTest {
+
+  @Test
+  void equivalentFiltersShareAKey() {
+    SearchCacheKey first = SearchCacheKey.of(filter(List.of(2, 1), List.of("IT", "Math"),
+        "Java  programming", 0f, 5f), false);
+    SearchCacheKey second = SearchCacheKey.of(filter(List.of(1, 2, 2), List.of("Math", "IT"),
+        "programming java", null, 5f), false);
+    assertEquals(first, second);
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedEntry() {
+    SearchResultCache cache = new SearchResultCache(2, 60);
+    SearchCacheKey a = key("a");
+    SearchCacheKey b = key("b");
+    SearchCacheKey c = key("c");
+    cache.put(a, result(), cache.generation());
+    cache.put(b, result(), cache.generation());
+    cache.get(a);
+    cache.put(c, result(), cache.generation());
+
+    assertNotNull(cache.get(a));
+    assertNull(cache.get(b));
+    assertEquals(1, cache.getStats().evictions());
+    assertEquals(2, cache.getStats().hits());
+    assertEquals(1, cache.getStats().misses());
+  }
+
+  @Test
+  void invalidatesOnlyAffectedEntries() {
+    SearchResultCache cache = new SearchResultCache(10, 60);
+    Course math = course(1, "Math");
+    SearchCacheKey withMath =
+        SearchCacheKey.of(filter(null, List.of("Math"), null, null, null), false);
+    SearchCacheKey withIt =
+        SearchCacheKey.of(filter(null, List.of("IT"), null, null, null), false);
+    cache.put(withMath, result(math), cache.generation());
+    cache.put(withIt, result(), cache.generation());
+
+    cache.courseChanged(course(2, "Math"));
+
+    assertNull(cache.get(withMath));
+    assertNotNull(cache.get(withIt));
+    assertEquals(1, cache.getStats().invalidations());
+  }
+
+  @Test
+  void dropsResultsComputedDuringAWrite() {
+    SearchResultCache cache = new SearchResultCache(10, 60);
+    long generation = cache.generation();
+    cache.keywordsChanged(1);
+    cache.put(key("java"), result(), generation);
+
+    assertNull(cache.get(key("java")));
+  }
+
+  private static SearchCacheKey key(String search) {
+    return SearchCacheKey.of(filter(null, null, search, null, null), false);
+  }
+
+  private static SearchFilterDto filter(List<Integer> diffLevels, List<String> categories,
+                                        String search, Float minCredits, Float maxCredits) {
+    return new SearchFilterDto(diffLevels, categories, search,
+        new SearchFilterDto.CourseSizeRange(minCredits, maxCredits),
+        new SearchFilterDto.RatingRange(null, null),
+        new SearchFilterDto.PriceRange(null, null),
+        new SearchFilterDto.DateRange(null, null));
+  }
+
+  private static Course course(long id, String category) {
+    Course course = new Course();
+    ReflectionTestUtils.setField(course, "id", id);
+    course.setCategory(category);
+    return course;
+  }
+
+  private static SearchResult result(Course... courses) {
+    List<CourseWithMinPriceAndRatingDto> cards = Arrays.stream(courses)
+        .map(course -> new CourseWithMinPriceAndRatingDto(CourseSummaryDto.of(course), 100f, null, 0f, 0))
+        .toList();
+    return new SearchResult(cards, null);
+  }
+}
@@ -0,0 +1,141 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import no.ntnu.learniverseconnect.model.dto.SearchFilterDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.CourseProvider;
+import no.ntnu.learniverseconnect.model.entities.CourseRating;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Verifies that streamed search results reduce each course to its best offer and apply the
+ * same filters as the paged search.
+ */
+@DataJpaTest
+@Import({SearchStreamer.class, SearchPlanCache.class, CourseSearchIndex.class,
+    JacksonAutoConfiguration.class})
+class SearchStreamerTest {
+
+  private static final long NOW = 1_750_000_000_000L;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private SearchStreamer searchStreamer;
+
+  @Autowired
+  private CourseSearchIndex courseSearchIndex;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private final List<Long> courseIds = new ArrayList<>();
+
+  @BeforeEach
+  void createCatalog() {
+    CourseProvider provider = new CourseProvider();
+    provider.setName("Provider");
+    entityManager.persist(provider);
+    String[] titles = {"Java Basics", "Python Basics", "Advanced Java"};
+    for (int i = 0; i < titles.length; i++) {
+      Course course = new Course();
+      course.setTitle(titles[i]);
+      course.setDiffLevel(i + 1);
+      course.setCategory(i == 1 ? "Data" : "Programming");
+      course.setCredits(5 * (i + 1));
+      entityManager.persist(course);
+      courseIds.add(course.getId());
+      for (int j = 0; j < 3; j++) {
+        OfferableCourses offer = new OfferableCourses();
+        offer.setCourse(course);
+        offer.setProvider(provider);
+        offer.setDate(new Date(NOW + j * 1000L));
+        offer.setPrice(100 * (i + 1) + 10 * ((j + 1) % 3));
+        offer.setVisibility(j != 0 || i != 2);
+        entityManager.persist(offer);
+      }
+    }
+    CourseRating rating = new CourseRating(courseIds.get(2));
+    rating.addRating(5);
+    entityManager.persist(rating);
+    entityManager.flush();
+    entityManager.clear();
+    // Index changes wait for a commit, which never comes in this test, so load it directly
+    courseSearchIndex.rebuild();
+  }
+
+  @Test
+  void streamsBestOfferPerCourse() throws IOException {
+    List<JsonNode> cards = stream(filter(null, null), false, null);
+    assertEquals(courseIds, ids(cards));
+    assertEquals(100f, cards.get(0).get("minDiscountedPrice").floatValue());
+    assertEquals(300f, cards.get(2).get("minDiscountedPrice").floatValue());
+    assertEquals(5f, cards.get(2).get("rating").floatValue());
+  }
+
+  @Test
+  void appliesTextRatingAndLimit() throws IOException {
+    assertEquals(List.of(courseIds.get(0), courseIds.get(2)),
+        ids(stream(filter("java", null), false, null)));
+    assertEquals(List.of(courseIds.get(1)), ids(stream(filter("pyhton", null), true, null)));
+    assertEquals(courseIds.subList(0, 2), ids(stream(filter(null, null), false, 2)));
+    assertEquals(List.of(courseIds.get(2)), ids(stream(filter(null, 4.0), false, null)));
+    assertEquals(List.of(), ids(stream(filter("haskell", null), false, null)));
+  }
+
+  @Test
+  void appliesCourseAndPriceFiltersInQuery() throws IOException {
+    List<JsonNode> cards = stream(new SearchFilterDto(null, null, null, null, null,
+        new SearchFilterDto.PriceRange(105f, 215f), null), false, null);
+    assertEquals(courseIds.subList(0, 2), ids(cards));
+    assertEquals(110f, cards.get(0).get("minDiscountedPrice").floatValue());
+    assertEquals(200f, cards.get(1).get("minDiscountedPrice").floatValue());
+
+    assertEquals(List.of(courseIds.get(0), courseIds.get(2)), ids(stream(new SearchFilterDto(
+        null, List.of("Programming"), null, null, null, null, null), false, null)));
+    assertEquals(List.of(courseIds.get(1)), ids(stream(new SearchFilterDto(
+        List.of(2, 4), null, null, null, null, null, null), false, null)));
+    assertEquals(courseIds.subList(1, 3), ids(stream(new SearchFilterDto(
+        null, null, null, new SearchFilterDto.CourseSizeRange(10f, 15f), null, null, null),
+        false, null)));
+  }
+
+  private List<JsonNode> stream(SearchFilterDto filter, boolean fuzzy, Integer limit)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    searchStreamer.stream(filter, fuzzy, limit, out);
+    List<JsonNode> cards = new ArrayList<>();
+    for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+      if (!line.isBlank()) {
+        cards.add(objectMapper.readTree(line));
+      }
+    }
+    return cards;
+  }
+
+  private static List<Long> ids(List<JsonNode> cards) {
+    return cards.stream().map(card -> card.get("course").get("id").asLong()).toList();
+  }
+
+  private static SearchFilterDto filter(String search, Double minRating) {
+    return new SearchFilterDto(null, null, search, null,
+        minRating == null ? null : new SearchFilterDto.RatingRange(minRating, null), null, null);
+  }
+}
@@ -0,0 +1,103 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import no.ntnu.learniverseconnect.model.dto.SuggestionDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.CourseRating;
+import no.ntnu.learniverseconnect.model.repos.CourseRatingRepo;
+import no.ntnu.learniverseconnect.model.repos.CourseRepo;
+import no.ntnu.learniverseconnect.model.repos.KeywordsRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Verifies completion, ranking and incremental updates of the autocomplete index.
+ */
+class SuggestionIndexTest {
+
+  private CourseRatingRepo courseRatingRepo;
+  private SuggestionIndex suggestionIndex;
+
+  @BeforeEach
+  void createIndex() {
+    courseRatingRepo = mock(CourseRatingRepo.class);
+    when(courseRatingRepo.findByCourseId(anyLong())).thenReturn(Optional.empty());
+    suggestionIndex = new SuggestionIndex(mock(CourseRepo.class), mock(KeywordsRepo.class),
+        courseRatingRepo);
+  }
+
+  @Test
+  void completesAnyWordStart() {
+    suggestionIndex.updateCourse(course(1, "Real-Time Programming in Java", "IT"));
+
+    assertEquals(List.of("Real-Time Programming in Java"), texts("prog"));
+    assertEquals(List.of("Real-Time Programming in Java"), texts("REAL time"));
+    assertEquals(List.of("IT", "Real-Time Programming in Java"), texts("i"));
+    assertTrue(texts("rogramming").isEmpty());
+  }
+
+  @Test
+  void ranksByPopularity() {
+    CourseRating popular = new CourseRating(2);
+    popular.addRatings(4, 10);
+    when(courseRatingRepo.findByCourseId(2)).thenReturn(Optional.of(popular));
+    suggestionIndex.updateCourse(course(1, "Java Basics", null));
+    suggestionIndex.updateCourse(course(2, "Java Streams", null));
+    suggestionIndex.updateKeywords(1, List.of("jakarta"));
+
+    assertEquals(List.of("Java Streams", "Java Basics", "jakarta"), texts("ja"));
+    assertEquals(2L, suggestionIndex.suggest("ja", 1).get(0).getCourseId());
+  }
+
+  @Test
+  void reranksOnRatingChange() {
+    suggestionIndex.updateCourse(course(1, "Java Basics", null));
+    suggestionIndex.updateCourse(course(2, "Java Streams", null));
+    suggestionIndex.updateKeywords(2, List.of("java threads"));
+    assertEquals(List.of("Java Basics", "Java Streams", "java threads"), texts("java"));
+
+    CourseRating rating = new CourseRating(2);
+    rating.addRating(4);
+    suggestionIndex.ratingChanged(rating);
+    assertEquals(List.of("Java Streams", "java threads", "Java Basics"), texts("java"));
+
+    rating.removeRating(4);
+    suggestionIndex.ratingChanged(rating);
+    assertEquals(List.of("Java Basics", "Java Streams", "java threads"), texts("java"));
+  }
+
+  @Test
+  void updatesIncrementally() {
+    suggestionIndex.updateCourse(course(1, "Azure Fundamentals", "Cloud"));
+    suggestionIndex.updateCourse(course(1, "Azure Administration", "Cloud"));
+    suggestionIndex.updateKeywords(1, List.of("azure ad"));
+
+    assertEquals(List.of("Azure Administration", "azure ad"), texts("azure a"));
+    assertTrue(texts("fund").isEmpty());
+
+    suggestionIndex.removeCourse(1);
+    assertTrue(texts("a").isEmpty());
+    assertTrue(texts("cloud").isEmpty());
+  }
+
+  private List<String> texts(String prefix) {
+    return suggestionIndex.suggest(prefix, SuggestionIndex.MAX_SUGGESTIONS).stream()
+        .map(SuggestionDto::getText).toList();
+  }
+
+  private static Course course(long id, String title, String category) {
+    Course course = new Course();
+    ReflectionTestUtils.setField(course, "id", id);
+    course.setTitle(title);
+    course.setCategory(category);
+    return course;
+  }
+}
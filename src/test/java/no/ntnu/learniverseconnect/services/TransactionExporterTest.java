@@ -0,0 +1,171 @@
+package no.ntnu.learniverseconnect.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import no.ntnu.learniverseconnect.model.dto.TransactionRowDto;
+import no.ntnu.learniverseconnect.model.entities.Course;
+import no.ntnu.learniverseconnect.model.entities.CourseProvider;
+import no.ntnu.learniverseconnect.model.entities.OfferableCourses;
+import no.ntnu.learniverseconnect.model.entities.Transaction;
+import no.ntnu.learniverseconnect.model.entities.User;
+import no.ntnu.learniverseconnect.services.TransactionExporter.Format;
+import no.ntnu.learniverseconnect.services.TransactionExporter.TransactionPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Verifies that transaction pages follow each other without gaps or repeats, also when several
+ * transactions share a time, and that exports write one flat row per transaction.
+ */
+@DataJpaTest
+@Import({TransactionExporter.class, JacksonAutoConfiguration.class})
+class TransactionExporterTest {
+
+  private static final LocalDateTime TIME = LocalDateTime.of(2025, 3, 10, 12, 0, 0, 123_456_000);
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @Autowired
+  private TransactionExporter transactionExporter;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private final List<Long> expectedIds = new ArrayList<>();
+  private OfferableCourses offer;
+
+  @BeforeEach
+  void createTransactions() {
+    CourseProvider provider = new CourseProvider();
+    provider.setName("Provider, Inc.");
+    entityManager.persist(provider);
+    Course course = new Course();
+    course.setTitle("Java \"Basics\"");
+    entityManager.persist(course);
+    offer = new OfferableCourses();
+    offer.setCourse(course);
+    offer.setProvider(provider);
+    offer.setDate(new Date(System.currentTimeMillis()));
+    entityManager.persist(offer);
+    User user = new User();
+    user.setEmail("buyer@example.com");
+    entityManager.persist(user);
+
+    // Inserted newest first, with three transactions sharing a time, so that neither insertion
+    // order nor time alone gives the expected order
+    int[] minutes = {5, 0, 0, 0, 3};
+    List<Long> ids = new ArrayList<>();
+    for (int i = 0; i < minutes.length; i++) {
+      Transaction transaction = new Transaction();
+      transaction.setOfferableCourses(offer);
+      transaction.setUser(i == 1 ? null : user);
+      transaction.setPricePaid(10 * (i + 1));
+      entityManager.persist(transaction);
+      entityManager.flush();
+      entityManager.getEntityManager()
+          .createQuery("UPDATE Transaction t SET t.timeOfTransaction = :time WHERE t.id = :id")
+          .setParameter("time", Timestamp.valueOf(TIME.plusMinutes(minutes[i])))
+          .setParameter("id", transaction.getId())
+          .executeUpdate();
+      ids.add(transaction.getId());
+    }
+    entityManager.clear();
+    expectedIds.addAll(List.of(ids.get(1), ids.get(2), ids.get(3), ids.get(4), ids.get(0)));
+  }
+
+  @Test
+  void pagesFollowEachOther() {
+    List<Long> ids = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      TransactionPage page = transactionExporter.page(cursor, 2);
+      page.rows().forEach(row -> ids.add(row.getId()));
+      cursor = page.nextCursor();
+      pages++;
+    } while (cursor != null);
+    assertEquals(expectedIds, ids);
+    assertEquals(3, pages);
+
+    TransactionPage all = transactionExporter.page(null, 5);
+    assertNull(all.nextCursor());
+    TransactionRowDto first = all.rows().get(0);
+    assertNull(first.getUserId());
+    assertEquals("Java \"Basics\"", first.getCourseTitle());
+    assertEquals(Timestamp.valueOf(TIME), first.getTimeOfTransaction());
+
+    assertThrows(IllegalArgumentException.class, () -> transactionExporter.page("nope", 2));
+    assertThrows(IllegalArgumentException.class, () -> transactionExporter.page(null, 0));
+  }
+
+  @Test
+  void exportsFlatRows() throws Exception {
+    ByteArrayOutputStream csv = new ByteArrayOutputStream();
+    transactionExporter.export(Format.CSV, csv);
+    String[] lines = csv.toString(StandardCharsets.UTF_8).split("\r\n");
+    assertEquals(6, lines.length);
+    assertEquals("id,time_of_transaction,price_paid,user_id,user_email,offer_id,course_id,"
+        + "course_title,provider_id,provider_name", lines[0]);
+    assertEquals(expectedIds.get(0) + "," + Timestamp.valueOf(TIME).toInstant() + ",20.0,,,"
+        + offer.getId() + "," + offer.getCourse().getId() + ",\"Java \"\"Basics\"\"\","
+        + offer.getProvider().getId() + ",\"Provider, Inc.\"", lines[1]);
+    assertTrue(lines[2].contains(",buyer@example.com,"));
+
+    ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+    transactionExporter.export(Format.NDJSON, ndjson);
+    String[] rows = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(5, rows.length);
+    List<Long> ids = new ArrayList<>();
+    for (String row : rows) {
+      JsonNode json = objectMapper.readTree(row);
+      ids.add(json.get("id").asLong());
+      assertEquals("Provider, Inc.", json.get("providerName").asText());
+    }
+    assertEquals(expectedIds, ids);
+  }
+
+  @Test
+  void keepsTransactionsOnOffersWithoutProvider() throws Exception {
+    OfferableCourses unprovided = new OfferableCourses();
+    unprovided.setCourse(offer.getCourse());
+    unprovided.setDate(new Date(System.currentTimeMillis()));
+    entityManager.persist(unprovided);
+    Transaction transaction = new Transaction();
+    transaction.setOfferableCourses(unprovided);
+    transaction.setPricePaid(5);
+    entityManager.persist(transaction);
+    entityManager.flush();
+    entityManager.clear();
+
+    List<TransactionRowDto> rows = transactionExporter.page(null, 10).rows();
+    assertEquals(6, rows.size());
+    TransactionRowDto last = rows.get(5);
+    assertEquals(transaction.getId(), last.getId());
+    assertNull(last.getProviderId());
+    assertNull(last.getProviderName());
+
+    ByteArrayOutputStream csv = new ByteArrayOutputStream();
+    transactionExporter.export(Format.CSV, csv);
+    String[] lines = csv.toString(StandardCharsets.UTF_8).split("\r\n");
+    assertEquals(7, lines.length);
+    assertTrue(lines[6].endsWith(",\"Java \"\"Basics\"\"\",,"));
+  }
+}